@@ -0,0 +1,1038 @@
+import com.ejemplo.parser.MiParser;
+import com.ejemplo.parser.sym;
+import java_cup.runtime.Scanner;
+import lexer.MappedSourceReader;
+import lexer.ParallelTokenizer;
+import lexer.TableScanner;
+import lexer.TokenBuffer;
+import lexer.TokenBufferScanner;
+import ast.arena.AstArena;
+import ast.arena.AstCursor;
+import ast.arena.AstFileWriter;
+import ast.arena.MappedAst;
+import ast.arena.NodeKind;
+import ast.ASTNode;
+import ast.Type;
+import ast.nodes.expression.BinaryOpNode;
+import ast.nodes.expression.BooleanNode;
+import ast.nodes.expression.ExprNode;
+import ast.nodes.expression.NumberNode;
+import ast.nodes.expression.UnaryOpNode;
+import ast.nodes.expression.VariableNode;
+import ast.nodes.program.FunctionDefNode;
+import ast.nodes.program.ParamNode;
+import ast.nodes.program.ProgramNode;
+import ast.nodes.statement.AssignmentNode;
+import ast.nodes.statement.DeclarationNode;
+import ast.nodes.statement.ExprStmtNode;
+import ast.nodes.statement.IfStmtNode;
+import ast.nodes.statement.ReturnStmtNode;
+import ast.nodes.statement.VarDeclNode;
+import ast.nodes.statement.WhileStmtNode;
+import ast.utils.ExpressionInterner;
+import ast.visitor.ASTVisitor;
+import ast.visitor.ASTVisitors;
+import ast.visitor.IntASTVisitor;
+import ast.visitor.NodeSwitch;
+import codegen.CodeGenerator;
+import parser.DescentParser;
+import parser.IncrementalParser;
+import parser.ScannerCursor;
+import parser.TokenBufferCursor;
+import pipeline.CompilerPipeline;
+import pipeline.PipelinedFrontEnd;
+import semantic.SemanticAnalyzer;
+import semantic.analyzer.ExpressionEvaluator;
+import semantic.errors.ErrorHandler;
+import semantic.symboltable.ConstantValue;
+import semantic.symboltable.FlatSymbolTable;
+import semantic.symboltable.ScopedSymbolTable;
+import semantic.symboltable.SymbolEntry;
+import semantic.symboltable.SymbolTable;
+
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Mediciones de rendimiento del front end del compilador.
+ * Uso: java BenchmarkRunner [archivo] [iteraciones]
+ * Sin archivo se genera un programa sintético grande en un directorio temporal.
+ */
+public class BenchmarkRunner {
+
+    private static final int DEFAULT_ITERATIONS = 5;
+    private static final int WARMUP_ITERATIONS = 10;
+    private static final long DEFAULT_PROGRAM_SIZE = 64L * 1024 * 1024;
+    // El AST completo debe entrar en memoria, así que el corpus del parser es menor
+    private static final long DEFAULT_PARSER_PROGRAM_SIZE = 8L * 1024 * 1024;
+    // Unas 50.000 líneas con el programa sintético
+    private static final long INCREMENTAL_PROGRAM_SIZE = 980L * 1024;
+    private static final int INCREMENTAL_EDITS = 2000;
+    // Profundidades de scopes y búsquedas por medición de la tabla de símbolos
+    private static final int[] SYMBOL_TABLE_DEPTHS = {1, 16, 256, 1024};
+    private static final int SYMBOL_LOOKUPS = 1 << 20;
+    private static final int NESTED_BODY_STATEMENTS = 20_000;
+    // Términos de la expresión aritmética del evaluador (cuatro nodos cada uno)
+    private static final int EVALUATOR_TERMS = 250_000;
+    // Compilaciones por hilo en la medición de compilaciones en paralelo
+    private static final int CONCURRENT_COMPILES = 20_000;
+
+    // Programa chico con advertencias: cada compilación reporta diagnósticos
+    private static final String WARNING_PROGRAM =
+            "int main(int p) {\n"
+                    + "    int x;\n"
+                    + "    int y = x + p * 2;\n"
+                    + "    bool b = y > 10 && p < 3;\n"
+                    + "    while (b) { y = y - 1; b = y > 10; }\n"
+                    + "    return y;\n"
+                    + "}\n";
+
+    private static final String[] DEFAULT_BODY = {
+            "    a = ((a + b) * c) / 7;\n",
+            "    flag = (a > b) && (c < 100) || flag;\n",
+            "    if (a > 10) {\n        b = b + 1;\n    } else {\n        c = c * 2;\n    }\n",
+            "    while (flag && b < c) {\n        c = c - 1;\n        flag = false;\n    }\n"
+    };
+
+    // Sentencias largas con las mismas subexpresiones repetidas dentro de cada una
+    private static final String[] EXPRESSION_BODY = {
+            "    a = ((b * c) / 7 + (b * c) / 7) * ((b * c) / 7 - (c - b) * 3) + ((b * c) / 7 + (b * c) / 7);\n",
+            "    if ((((b * c) / 7 + (b * c) / 7) > a) && (((c - b) * 3) < a)) {\n"
+                    + "        a = ((b * c) / 7 + (b * c) / 7) - (c - b) * 3;\n    }\n"
+    };
+
+    // Las expresiones de test_expresiones_complejas.txt como asignaciones, para repetirlas
+    private static final String[] COMPLEX_EXPRESSION_BODY = {
+            "    a = ((b + c) * a) / (c - b) - a * b + c * (a - b);\n",
+            "    flag = (a > 0) && (b < 20) && (c == 15);\n",
+            "    flag = (a == b) || (b == c) || flag;\n",
+            "    flag = !(a > b) && (c < 100);\n",
+            "    flag = (a < b && b < c) || flag;\n",
+            "    flag = ((a + b) > c) && flag || (b * 2) == (c + a);\n",
+            "    if ((a > 0 && b > 0) && (c < 100 || flag)) {\n        a = a + b + c;\n    }\n"
+    };
+
+    private interface ReaderFactory {
+        Reader open() throws IOException;
+    }
+
+    private interface ScannerFactory {
+        Scanner open() throws IOException;
+    }
+
+    private interface ParserRun {
+        Object parse(TokenBuffer tokens) throws Exception;
+    }
+
+    private interface FrontEndRun {
+        void run() throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        CompilerMain.setTestMode(true);
+
+        Path input = args.length > 0 ? Paths.get(args[0]) : generateProgram(DEFAULT_PROGRAM_SIZE);
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ITERATIONS;
+        long bytes = Files.size(input);
+
+        System.out.println("==========================================");
+        System.out.println("BENCHMARK DEL COMPILADOR");
+        System.out.println("Archivo:     " + input);
+        System.out.println("Tamaño:      " + (bytes / 1024) + " KB");
+        System.out.println("Iteraciones: " + iterations + " (se informa la mejor)");
+        System.out.println("==========================================");
+
+        System.out.println("\n→ Entrada del Lexer");
+        benchLexer("FileReader", () -> new FileReader(input.toFile()), bytes, iterations);
+        benchLexer("MappedSourceReader", () -> new MappedSourceReader(input), bytes, iterations);
+
+        System.out.println("\n→ Scanner (mismo corpus)");
+        benchScanner("Lexer (JFlex)", () -> new Lexer(new MappedSourceReader(input)), bytes, iterations);
+        benchScanner("TableScanner", () -> new TableScanner(TableScanner.map(input)), bytes, iterations);
+
+        System.out.println("\n→ Flujo de tokens empaquetado");
+        benchPacked(input, bytes, iterations);
+
+        System.out.println("\n→ Tokenización en paralelo");
+        benchParallel(input, bytes, iterations);
+
+        Path parserInput = args.length > 0 ? input : generateProgram(DEFAULT_PARSER_PROGRAM_SIZE);
+        TokenBuffer tokens = new TokenBuffer();
+        TableScanner.tokenize(TableScanner.map(parserInput), tokens);
+        long parserBytes = Files.size(parserInput);
+
+        System.out.println("\n→ Parser (tokens ya volcados a un TokenBuffer, " + (parserBytes / 1024) + " KB)");
+        benchParser("MiParser (CUP)", t -> new MiParser(new TokenBufferScanner(t)).parse(),
+                tokens, parserBytes, iterations);
+        benchParser("DescentParser (Symbol)", t -> new DescentParser(new ScannerCursor(new TokenBufferScanner(t))).parse(),
+                tokens, parserBytes, iterations);
+        benchParser("DescentParser (buffer)", t -> new DescentParser(new TokenBufferCursor(t)).parse(),
+                tokens, parserBytes, iterations);
+
+        System.out.println("\n→ Front end completo: secuencial vs pipeline (" + (parserBytes / 1024) + " KB)");
+        benchFrontEnd("secuencial", () -> {
+            ProgramNode ast = new DescentParser(new ScannerCursor(new TableScanner(TableScanner.map(parserInput)))).parse();
+            ast.accept(new SemanticAnalyzer());
+        }, parserBytes, iterations);
+        benchFrontEnd("pipeline (3 hilos)",
+                () -> new PipelinedFrontEnd().run(TableScanner.map(parserInput), new SemanticAnalyzer()),
+                parserBytes, iterations);
+
+        benchArena(tokens, iterations);
+        benchVisitors(tokens, iterations);
+        benchDispatch(tokens, iterations);
+        benchAstFile(parserInput, iterations);
+        benchHashConsing("corpus sintético", tokens, iterations);
+        TokenBuffer expressionTokens = new TokenBuffer();
+        TableScanner.tokenize(TableScanner.map(generateProgram(DEFAULT_PARSER_PROGRAM_SIZE, EXPRESSION_BODY)),
+                expressionTokens);
+        benchHashConsing("expresiones repetidas", expressionTokens, iterations);
+
+        benchIncremental(iterations);
+        benchSymbolTables(iterations);
+        benchEvaluator(iterations);
+        benchExpressionAnalysis(iterations);
+        benchConcurrentCompilation(iterations);
+    }
+
+    /**
+     * Compilaciones por segundo con un CompilerPipeline por hilo, de 1 hilo hasta la
+     * cantidad de núcleos: cada uno reporta a su propio ErrorHandler
+     */
+    private static void benchConcurrentCompilation(int iterations) throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        long sequential = 0;
+
+        System.out.println("\n→ Compilaciones en paralelo (un CompilerPipeline por hilo, con advertencias)");
+        for (int threads = 1; threads <= cores; threads = nextThreadCount(threads, cores)) {
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < iterations; i++) {
+                Thread[] workers = new Thread[threads];
+                Throwable[] failure = new Throwable[1];
+                for (int t = 0; t < threads; t++) {
+                    workers[t] = new Thread(() -> {
+                        try {
+                            CompilerPipeline compiler = new CompilerPipeline();
+                            for (int c = 0; c < CONCURRENT_COMPILES; c++) {
+                                if (compiler.compile(WARNING_PROGRAM) == null
+                                        || compiler.getErrorHandler().getWarningCount() == 0) {
+                                    throw new IllegalStateException("compilación inesperada");
+                                }
+                            }
+                        } catch (Throwable e) {
+                            failure[0] = e;
+                        }
+                    });
+                }
+                long start = System.nanoTime();
+                for (Thread worker : workers) {
+                    worker.start();
+                }
+                for (Thread worker : workers) {
+                    worker.join();
+                }
+                best = Math.min(best, System.nanoTime() - start);
+                if (failure[0] != null) {
+                    throw new IllegalStateException("Falló una compilación en paralelo", failure[0]);
+                }
+            }
+
+            if (threads == 1) {
+                sequential = best;
+            }
+            long compiles = (long) threads * CONCURRENT_COMPILES;
+            System.out.printf("  %-24s %9.1f ms %9.0f compilaciones/s %6.2fx%n",
+                    threads + " hilo(s)", best / 1e6, compiles / (best / 1e9),
+                    (double) compiles / best / ((double) CONCURRENT_COMPILES / sequential));
+        }
+    }
+
+    /**
+     * Análisis semántico de un programa hecho de las expresiones de test_expresiones_complejas.txt:
+     * cada expresión se tipa y se evalúa en un mismo recorrido
+     */
+    private static void benchExpressionAnalysis(int iterations) throws Exception {
+        Path input = generateProgram(DEFAULT_PARSER_PROGRAM_SIZE, COMPLEX_EXPRESSION_BODY);
+        long bytes = Files.size(input);
+        TokenBuffer tokens = new TokenBuffer();
+        TableScanner.tokenize(TableScanner.map(input), tokens);
+        ProgramNode ast = new DescentParser(new TokenBufferCursor(tokens)).parse();
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long[] allocated = new long[1];
+        long best = bestSilent(() -> {
+            SemanticAnalyzer analyzer = new SemanticAnalyzer(new FlatSymbolTable());
+            analyzer.setTrace(false);
+            long before = threads.getThreadAllocatedBytes(thread);
+            ast.accept(analyzer);
+            allocated[0] = threads.getThreadAllocatedBytes(thread) - before;
+            if (analyzer.hasErrors()) {
+                throw new IllegalStateException("el corpus de expresiones tiene errores");
+            }
+        }, WARMUP_ITERATIONS + iterations);
+
+        System.out.println("\n→ Análisis semántico de expresiones complejas (" + (bytes / 1024) + " KB)");
+        System.out.printf("  %-24s %9.1f ms %9.1f MB/s %6.1f MB reservados%n", "tipo + valor",
+                best / 1e6, bytes / (best / 1e9) / (1024 * 1024), allocated[0] / (1024.0 * 1024));
+    }
+
+    /**
+     * Evaluación de una expresión aritmética larga con valores fuera del caché de Integer:
+     * evaluateConstant no reserva memoria por nodo, y evaluate solo boxea el resultado
+     */
+    private static void benchEvaluator(int iterations) throws Exception {
+        StringBuilder source = new StringBuilder("int main() {\n    int y = 1000");
+        for (int i = 0; i < EVALUATOR_TERMS; i++) {
+            source.append(i % 3 == 0 ? " + x * 7" : i % 3 == 1 ? " - 12345 / 3" : " + 500 * 2");
+        }
+        source.append(";\n    return y;\n}\n");
+        TokenBuffer tokens = new TokenBuffer();
+        TableScanner.tokenize(ByteBuffer.wrap(source.toString().getBytes(StandardCharsets.UTF_8)), tokens);
+        ProgramNode ast = new DescentParser(new TokenBufferCursor(tokens)).parse();
+        DeclarationNode declaration = (DeclarationNode) ast.getMainFunction().getStatements().get(0);
+        ExprNode expression = declaration.getVariables().get(0).getInitialValue();
+        int nodes = EVALUATOR_TERMS * 4 + 1;
+
+        SymbolTable table = new FlatSymbolTable();
+        table.declare("x", Type.INT, 1000, 0, 0);
+        ExpressionEvaluator evaluator = new ExpressionEvaluator(table, ErrorHandler.getInstance());
+        int expected = ConstantValue.intValue(evaluator.evaluateConstant(expression));
+
+        System.out.println("\n→ Evaluador de constantes (" + nodes + " nodos)");
+        benchVisitor("evaluateConstant (long)", () -> ConstantValue.intValue(evaluator.evaluateConstant(expression)),
+                expected, nodes, iterations);
+        benchVisitor("evaluate (Object)", () -> (Integer) evaluator.evaluate(expression), expected, nodes, iterations);
+    }
+
+    private interface SymbolTableFactory {
+        SymbolTable create();
+    }
+
+    /**
+     * Compara ScopedSymbolTable con FlatSymbolTable a distintas profundidades de scopes:
+     * lookup de nombres declarados en todos los niveles, entrar, declarar y salir de un
+     * scope, y el análisis semántico de un programa con if anidados
+     */
+    private static void benchSymbolTables(int iterations) throws Exception {
+        System.out.println("\n→ Tabla de símbolos según la profundidad de scopes");
+        System.out.printf("  %-12s %-8s %12s %12s %12s%n", "profundidad", "tabla", "lookup", "scope", "análisis");
+
+        for (int depth : SYMBOL_TABLE_DEPTHS) {
+            String[] names = new String[depth + 1];
+            for (int i = 0; i <= depth; i++) {
+                names[i] = "v" + i;
+            }
+            TokenBuffer tokens = new TokenBuffer();
+            TableScanner.tokenize(ByteBuffer.wrap(nestedProgram(depth).getBytes(StandardCharsets.US_ASCII)), tokens);
+            ProgramNode ast = new DescentParser(new TokenBufferCursor(tokens)).parse();
+
+            benchSymbolTable("scoped", ScopedSymbolTable::new, depth, names, ast, iterations);
+            benchSymbolTable("flat", FlatSymbolTable::new, depth, names, ast, iterations);
+        }
+    }
+
+    private static void benchSymbolTable(String name, SymbolTableFactory factory, int depth, String[] names,
+                                         ProgramNode ast, int iterations) throws Exception {
+        // Un nombre por nivel, del global (0) al más interno; se buscan todos por igual
+        SymbolTable table = factory.create();
+        table.declare(names[0], Type.INT);
+        for (int level = 1; level <= depth; level++) {
+            table.enterScope("bloque");
+            table.declare(names[level], Type.INT, level, 0);
+        }
+        long bestLookup = Long.MAX_VALUE;
+        for (int i = 0; i < WARMUP_ITERATIONS + iterations; i++) {
+            long start = System.nanoTime();
+            for (int j = 0; j < SYMBOL_LOOKUPS; j++) {
+                SymbolEntry entry = table.lookup(names[j % (depth + 1)]);
+                if (entry == null) {
+                    throw new IllegalStateException(name + ": no se encontró " + names[j % (depth + 1)]);
+                }
+            }
+            bestLookup = Math.min(bestLookup, System.nanoTime() - start);
+        }
+
+        // Entrar, declarar y salir de scopes hasta la profundidad indicada
+        int cycles = Math.max(1, SYMBOL_LOOKUPS / depth / 16);
+        long bestScope = Long.MAX_VALUE;
+        for (int i = 0; i < WARMUP_ITERATIONS + iterations; i++) {
+            SymbolTable scopes = factory.create();
+            long start = System.nanoTime();
+            for (int cycle = 0; cycle < cycles; cycle++) {
+                for (int level = 1; level <= depth; level++) {
+                    scopes.enterScope("bloque");
+                    scopes.declare(names[level], Type.INT);
+                }
+                for (int level = 1; level <= depth; level++) {
+                    scopes.exitScope();
+                }
+            }
+            bestScope = Math.min(bestScope, System.nanoTime() - start);
+            if (scopes.getCurrentScopeLevel() != 0) {
+                throw new IllegalStateException(name + ": quedaron scopes abiertos");
+            }
+        }
+
+        long bestAnalysis = bestSilent(() -> {
+            SemanticAnalyzer analyzer = new SemanticAnalyzer(factory.create());
+            analyzer.setTrace(false);
+            ast.accept(analyzer);
+        }, iterations);
+
+        System.out.printf("  %-12d %-8s %9.1f ns %9.1f ns %9.1f ms%n", depth, name,
+                (double) bestLookup / SYMBOL_LOOKUPS, (double) bestScope / ((long) cycles * depth),
+                bestAnalysis / 1e6);
+    }
+
+    /**
+     * main con depth if anidados que declaran una variable cada uno, y en el más interno
+     * sentencias que usan variables de todos los niveles
+     */
+    private static String nestedProgram(int depth) {
+        StringBuilder source = new StringBuilder("int main(int p) {\n    int v0 = p;\n");
+        for (int level = 1; level <= depth; level++) {
+            source.append("if (p > ").append(level).append(") { int v").append(level)
+                    .append(" = v").append(level - 1).append(" + 1;\n");
+        }
+        for (int i = 0; i < NESTED_BODY_STATEMENTS; i++) {
+            int level = i % (depth + 1);
+            source.append("v").append(depth).append(" = v").append(level).append(" + v")
+                    .append(depth - level).append(";\n");
+        }
+        for (int level = 1; level <= depth; level++) {
+            source.append("}\n");
+        }
+        return source.append("    return v0;\n}\n").toString();
+    }
+
+    /**
+     * Mide la latencia de reparsear después de editar una sola sentencia
+     */
+    private static void benchIncremental(int iterations) throws Exception {
+        String source = Files.readString(generateProgram(INCREMENTAL_PROGRAM_SIZE));
+        long lines = source.chars().filter(c -> c == '\n').count();
+        int literal = source.indexOf("/ 7;", source.length() / 2) + 2;
+        int lineEnd = source.indexOf('\n', literal);
+
+        System.out.println("\n→ Reparseo incremental (" + lines + " líneas)");
+
+        IncrementalParser parser = new IncrementalParser();
+        long bestFull = Long.MAX_VALUE;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            parser.parse(source);
+            bestFull = Math.min(bestFull, System.nanoTime() - start);
+        }
+        System.out.printf("  %-24s %9.3f ms%n", "parseo completo", bestFull / 1e6);
+
+        // Cambiar un literal: no cambia la cantidad de líneas
+        ProgramNode ast = parser.parse(source);
+        long start = System.nanoTime();
+        for (int i = 0; i < INCREMENTAL_EDITS; i++) {
+            ast = parser.reparse(ast, literal, 1, i % 2 == 0 ? "8" : "7");
+        }
+        System.out.printf("  %-24s %9.3f ms (incremental: %b)%n", "editar un literal",
+                (System.nanoTime() - start) / 1e6 / INCREMENTAL_EDITS, parser.wasIncremental());
+
+        // Agregar y quitar una línea: las sentencias siguientes se desplazan
+        start = System.nanoTime();
+        for (int i = 0; i < INCREMENTAL_EDITS; i++) {
+            ast = i % 2 == 0
+                    ? parser.reparse(ast, lineEnd, 0, "\n")
+                    : parser.reparse(ast, lineEnd, 1, "");
+        }
+        System.out.printf("  %-24s %9.3f ms (incremental: %b)%n", "agregar/quitar línea",
+                (System.nanoTime() - start) / 1e6 / INCREMENTAL_EDITS, parser.wasIncremental());
+    }
+
+    /**
+     * Mide de punta a punta lexer, parser y análisis semántico, sin la salida del analizador
+     */
+    private static void benchFrontEnd(String name, FrontEndRun run, long bytes, int iterations) throws Exception {
+        long best = bestSilent(run, iterations);
+        System.out.printf("  %-24s %9.1f ms %9.1f MB/s%n", name, best / 1e6, bytes / (best / 1e9) / (1024 * 1024));
+    }
+
+    /**
+     * Mejor tiempo de run, sin la salida por consola del analizador y sin errores acumulados
+     */
+    private static long bestSilent(FrontEndRun run, int iterations) throws Exception {
+        PrintStream out = System.out;
+        long best = Long.MAX_VALUE;
+
+        try {
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            for (int i = 0; i < iterations; i++) {
+                ErrorHandler.getInstance().reset();
+                long start = System.nanoTime();
+                run.run();
+                best = Math.min(best, System.nanoTime() - start);
+            }
+        } finally {
+            System.setOut(out);
+            ErrorHandler.getInstance().reset();
+        }
+        return best;
+    }
+
+    /**
+     * Compara el AST de objetos con la arena: memoria por nodo y velocidad de un
+     * recorrido completo que suma los literales numéricos
+     */
+    private static void benchArena(TokenBuffer tokens, int iterations) throws Exception {
+        long before = usedHeap();
+        ProgramNode ast = new DescentParser(new TokenBufferCursor(tokens)).parse();
+        long treeBytes = usedHeap() - before;
+
+        before = usedHeap();
+        AstArena arena = AstArena.from(ast);
+        long arenaBytes = usedHeap() - before;
+        int nodes = arena.size();
+
+        System.out.println("\n→ AST de objetos vs arena (" + nodes + " nodos)");
+        System.out.printf("  %-24s %9.1f bytes/nodo%n", "objetos", (double) treeBytes / nodes);
+        System.out.printf("  %-24s %9.1f bytes/nodo (arreglos: %.1f)%n", "arena",
+                (double) arenaBytes / nodes, (double) arena.memoryBytes() / nodes);
+
+        long bestTree = Long.MAX_VALUE;
+        long bestArena = Long.MAX_VALUE;
+        long treeSum = 0;
+        long arenaSum = 0;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            treeSum = walkTree(ast);
+            bestTree = Math.min(bestTree, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            arenaSum = walkArena(arena);
+            bestArena = Math.min(bestArena, System.nanoTime() - start);
+        }
+        if (treeSum != arenaSum) {
+            throw new IllegalStateException("Los recorridos no coinciden: " + treeSum + " vs " + arenaSum);
+        }
+        System.out.printf("  %-24s %9.1f ms %9.1f Mnodos/s%n", "recorrido objetos",
+                bestTree / 1e6, nodes / (bestTree / 1e3));
+        System.out.printf("  %-24s %9.1f ms %9.1f Mnodos/s%n", "recorrido arena",
+                bestArena / 1e6, nodes / (bestArena / 1e3));
+    }
+
+    /**
+     * Compara el mismo recorrido con ASTVisitor<Integer> (un Integer por nodo), con
+     * IntASTVisitor y con IntASTVisitor adaptado a la interfaz genérica: tiempo y
+     * bytes asignados por el hilo durante el recorrido
+     */
+    private static void benchVisitors(TokenBuffer tokens, int iterations) throws Exception {
+        ProgramNode ast = new DescentParser(new TokenBufferCursor(tokens)).parse();
+        int nodes = AstArena.from(ast).size();
+
+        System.out.println("\n→ Visitors: resultado boxed vs int (" + nodes + " nodos)");
+        int expected = ast.accept(new BoxedChecksum());
+        benchVisitor("ASTVisitor<Integer>", () -> ast.accept(new BoxedChecksum()), expected, nodes, iterations);
+        benchVisitor("IntASTVisitor", () -> ast.acceptInt(new IntChecksum(false)), expected, nodes, iterations);
+        benchVisitor("adaptador (boxed)", () -> ast.accept(ASTVisitors.boxed(new IntChecksum(false))),
+                expected, nodes, iterations);
+    }
+
+    /**
+     * Compara accept con el switch por etiqueta (NodeSwitch) en un recorrido simple,
+     * en el análisis semántico y en la generación de código
+     */
+    private static void benchDispatch(TokenBuffer tokens, int iterations) throws Exception {
+        ProgramNode ast = new DescentParser(new TokenBufferCursor(tokens)).parse();
+        int nodes = AstArena.from(ast).size();
+
+        System.out.println("\n→ Despacho: accept vs switch por etiqueta (" + nodes + " nodos)");
+        int expected = ast.acceptInt(new IntChecksum(false));
+        benchVisitor("recorrido accept", () -> ast.acceptInt(new IntChecksum(false)), expected, nodes, iterations);
+        benchVisitor("recorrido switch", () -> NodeSwitch.visitInt(ast, new IntChecksum(true)),
+                expected, nodes, iterations);
+
+        for (boolean switchDispatch : new boolean[] {false, true}) {
+            long best = bestSilent(() -> {
+                SemanticAnalyzer analyzer = new SemanticAnalyzer();
+                analyzer.setSwitchDispatch(switchDispatch);
+                ast.accept(analyzer);
+            }, iterations);
+            System.out.printf("  %-24s %9.1f ms%n", "análisis " + (switchDispatch ? "switch" : "accept"), best / 1e6);
+        }
+
+        for (boolean switchDispatch : new boolean[] {false, true}) {
+            long[] best = {Long.MAX_VALUE};
+            bestSilent(() -> {
+                SemanticAnalyzer analyzer = new SemanticAnalyzer();
+                ast.accept(analyzer);
+                CodeGenerator generator = new CodeGenerator(analyzer.getSymbolTable());
+                generator.setSwitchDispatch(switchDispatch);
+                long start = System.nanoTime();
+                generator.generate(ast);
+                best[0] = Math.min(best[0], System.nanoTime() - start);
+            }, iterations);
+            System.out.printf("  %-24s %9.1f ms%n", "generación " + (switchDispatch ? "switch" : "accept"),
+                    best[0] / 1e6);
+        }
+    }
+
+    private interface VisitorRun {
+        int run();
+    }
+
+    private static void benchVisitor(String name, VisitorRun run, int expected, int nodes, int iterations) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long best = Long.MAX_VALUE;
+        long allocated = 0;
+
+        // Calentamiento: que el JIT compile el recorrido antes de medirlo
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            run.run();
+        }
+        for (int i = 0; i < iterations; i++) {
+            long bytesBefore = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            int result = run.run();
+            best = Math.min(best, System.nanoTime() - start);
+            allocated = threads.getThreadAllocatedBytes(thread) - bytesBefore;
+            if (result != expected) {
+                throw new IllegalStateException(name + ": " + result + " en vez de " + expected);
+            }
+        }
+        System.out.printf("  %-24s %9.1f ms %9.1f Mnodos/s %6.1f bytes/nodo%n", name,
+                best / 1e6, nodes / (best / 1e3), (double) allocated / nodes);
+    }
+
+    /**
+     * Suma de control que depende de cada nodo, para que los resultados no entren en el caché de Integer
+     */
+    private static final class BoxedChecksum implements ASTVisitor<Integer> {
+        private int all(List<? extends ASTNode> nodes) {
+            int hash = 1;
+            for (ASTNode node : nodes) {
+                hash = hash * 31 + node.accept(this);
+            }
+            return hash;
+        }
+
+        @Override public Integer visitProgram(ProgramNode node) { return node.getMainFunction().accept(this); }
+        @Override public Integer visitFunctionDef(FunctionDefNode node) {
+            return all(node.getParameters()) * 31 + all(node.getStatements());
+        }
+        @Override public Integer visitParam(ParamNode node) { return node.getLine(); }
+        @Override public Integer visitDeclaration(DeclarationNode node) { return all(node.getVariables()); }
+        @Override public Integer visitVarDecl(VarDeclNode node) {
+            return node.hasInitialValue() ? node.getInitialValue().accept(this) * 17 : node.getLine();
+        }
+        @Override public Integer visitAssignment(AssignmentNode node) { return node.getExpression().accept(this) * 19; }
+        @Override public Integer visitReturnStmt(ReturnStmtNode node) {
+            return node.hasExpression() ? node.getExpression().accept(this) * 23 : 0;
+        }
+        @Override public Integer visitExprStmt(ExprStmtNode node) { return node.getExpression().accept(this) * 29; }
+        @Override public Integer visitBinaryOp(BinaryOpNode node) {
+            return (node.getLeft().accept(this) * 31 + node.getRight().accept(this)) * 37 + node.getOperator().ordinal();
+        }
+        @Override public Integer visitNumber(NumberNode node) { return node.getValue() * 41 + node.getColumn(); }
+        @Override public Integer visitBoolean(BooleanNode node) { return node.getValue() ? 1231 : 1237; }
+        @Override public Integer visitVariable(VariableNode node) { return node.getName().hashCode(); }
+        @Override public Integer visitIfStmt(IfStmtNode node) {
+            int hash = node.getCondition().accept(this) * 31 + all(node.getThenBranch());
+            return node.hasElseBranch() ? hash * 31 + all(node.getElseBranch()) : hash;
+        }
+        @Override public Integer visitWhileStmt(WhileStmtNode node) {
+            return node.getCondition().accept(this) * 31 + all(node.getBody());
+        }
+        @Override public Integer visitUnaryOp(UnaryOpNode node) { return ~node.getOperand().accept(this); }
+    }
+
+    /**
+     * La misma suma de BoxedChecksum con resultados int, despachando los hijos con
+     * acceptInt o con NodeSwitch
+     */
+    private static final class IntChecksum implements IntASTVisitor {
+        private final boolean switchDispatch;
+
+        IntChecksum(boolean switchDispatch) {
+            this.switchDispatch = switchDispatch;
+        }
+
+        private int visit(ASTNode node) {
+            return switchDispatch ? NodeSwitch.visitInt(node, this) : node.acceptInt(this);
+        }
+
+        private int all(List<? extends ASTNode> nodes) {
+            int hash = 1;
+            for (ASTNode node : nodes) {
+                hash = hash * 31 + visit(node);
+            }
+            return hash;
+        }
+
+        @Override public int visitProgram(ProgramNode node) { return visit(node.getMainFunction()); }
+        @Override public int visitFunctionDef(FunctionDefNode node) {
+            return all(node.getParameters()) * 31 + all(node.getStatements());
+        }
+        @Override public int visitParam(ParamNode node) { return node.getLine(); }
+        @Override public int visitDeclaration(DeclarationNode node) { return all(node.getVariables()); }
+        @Override public int visitVarDecl(VarDeclNode node) {
+            return node.hasInitialValue() ? visit(node.getInitialValue()) * 17 : node.getLine();
+        }
+        @Override public int visitAssignment(AssignmentNode node) { return visit(node.getExpression()) * 19; }
+        @Override public int visitReturnStmt(ReturnStmtNode node) {
+            return node.hasExpression() ? visit(node.getExpression()) * 23 : 0;
+        }
+        @Override public int visitExprStmt(ExprStmtNode node) { return visit(node.getExpression()) * 29; }
+        @Override public int visitBinaryOp(BinaryOpNode node) {
+            return (visit(node.getLeft()) * 31 + visit(node.getRight())) * 37 + node.getOperator().ordinal();
+        }
+        @Override public int visitNumber(NumberNode node) { return node.getValue() * 41 + node.getColumn(); }
+        @Override public int visitBoolean(BooleanNode node) { return node.getValue() ? 1231 : 1237; }
+        @Override public int visitVariable(VariableNode node) { return node.getName().hashCode(); }
+        @Override public int visitIfStmt(IfStmtNode node) {
+            int hash = visit(node.getCondition()) * 31 + all(node.getThenBranch());
+            return node.hasElseBranch() ? hash * 31 + all(node.getElseBranch()) : hash;
+        }
+        @Override public int visitWhileStmt(WhileStmtNode node) {
+            return visit(node.getCondition()) * 31 + all(node.getBody());
+        }
+        @Override public int visitUnaryOp(UnaryOpNode node) { return ~visit(node.getOperand()); }
+    }
+
+    /**
+     * Compara cargar un AST guardado con AstFileWriter contra volver a lexear y parsear el fuente
+     */
+    private static void benchAstFile(Path source, int iterations) throws Exception {
+        Path astFile = Files.createTempFile("programa_sintetico", ".ast");
+        astFile.toFile().deleteOnExit();
+        AstFileWriter.write(new DescentParser(new ScannerCursor(new TableScanner(TableScanner.map(source)))).parse(),
+                astFile);
+
+        System.out.println("\n→ AST binario (" + (Files.size(astFile) / 1024) + " KB) vs fuente ("
+                + (Files.size(source) / 1024) + " KB)");
+
+        long bestParse = Long.MAX_VALUE;
+        long bestLoad = Long.MAX_VALUE;
+        long bestWalk = Long.MAX_VALUE;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            new MiParser(new Lexer(new MappedSourceReader(source))).parse();
+            bestParse = Math.min(bestParse, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            MappedAst.open(astFile).toProgram();
+            bestLoad = Math.min(bestLoad, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            walkArena(MappedAst.open(astFile));
+            bestWalk = Math.min(bestWalk, System.nanoTime() - start);
+        }
+        System.out.printf("  %-24s %9.1f ms%n", "Lexer + MiParser", bestParse / 1e6);
+        System.out.printf("  %-24s %9.1f ms%n", "MappedAst a objetos", bestLoad / 1e6);
+        System.out.printf("  %-24s %9.1f ms%n", "MappedAst recorrido", bestWalk / 1e6);
+    }
+
+    /**
+     * Mide cuántos nodos de expresión elimina el hash-consing y el análisis semántico
+     * con y sin memoización sobre las expresiones compartidas
+     */
+    private static void benchHashConsing(String corpus, TokenBuffer tokens, int iterations) throws Exception {
+        ProgramNode tree = new DescentParser(new TokenBufferCursor(tokens)).parse();
+        ProgramNode dag = new DescentParser(new TokenBufferCursor(tokens)).parse();
+
+        ExpressionInterner interner = new ExpressionInterner();
+        long start = System.nanoTime();
+        interner.internProgram(dag);
+        long internNanos = System.nanoTime() - start;
+
+        System.out.println("\n→ Hash-consing de expresiones (" + corpus + ")");
+        System.out.printf("  %-24s %9d -> %d distintos, %.1f ms%n", "nodos de expresión",
+                interner.getVisitedNodes(), interner.getUniqueNodes(), internNanos / 1e6);
+
+        long treeNanos = bestSilent(() -> tree.accept(new SemanticAnalyzer()), iterations);
+        long dagNanos = bestSilent(() -> {
+            SemanticAnalyzer analyzer = new SemanticAnalyzer();
+            analyzer.setMemoization(true);
+            dag.accept(analyzer);
+        }, iterations);
+        System.out.printf("  %-24s %9.1f ms%n", "análisis (árbol)", treeNanos / 1e6);
+        System.out.printf("  %-24s %9.1f ms (%.2fx)%n", "análisis (DAG + memo)", dagNanos / 1e6,
+                (double) treeNanos / dagNanos);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Recorre el AST de objetos con una pila explícita
+     */
+    private static long walkTree(ProgramNode program) {
+        Deque<ASTNode> stack = new ArrayDeque<>();
+        long sum = 0;
+        stack.push(program);
+
+        while (!stack.isEmpty()) {
+            ASTNode node = stack.pop();
+            sum++;
+            if (node instanceof ProgramNode) {
+                stack.push(((ProgramNode) node).getMainFunction());
+            } else if (node instanceof FunctionDefNode) {
+                FunctionDefNode function = (FunctionDefNode) node;
+                function.getParameters().forEach(stack::push);
+                function.getStatements().forEach(stack::push);
+            } else if (node instanceof DeclarationNode) {
+                ((DeclarationNode) node).getVariables().forEach(stack::push);
+            } else if (node instanceof VarDeclNode) {
+                VarDeclNode var = (VarDeclNode) node;
+                if (var.hasInitialValue()) {
+                    stack.push(var.getInitialValue());
+                }
+            } else if (node instanceof AssignmentNode) {
+                stack.push(((AssignmentNode) node).getExpression());
+            } else if (node instanceof ReturnStmtNode) {
+                ReturnStmtNode returnStmt = (ReturnStmtNode) node;
+                if (returnStmt.hasExpression()) {
+                    stack.push(returnStmt.getExpression());
+                }
+            } else if (node instanceof ExprStmtNode) {
+                stack.push(((ExprStmtNode) node).getExpression());
+            } else if (node instanceof IfStmtNode) {
+                IfStmtNode ifStmt = (IfStmtNode) node;
+                stack.push(ifStmt.getCondition());
+                ifStmt.getThenBranch().forEach(stack::push);
+                if (ifStmt.hasElseBranch()) {
+                    ifStmt.getElseBranch().forEach(stack::push);
+                }
+            } else if (node instanceof WhileStmtNode) {
+                WhileStmtNode whileStmt = (WhileStmtNode) node;
+                stack.push(whileStmt.getCondition());
+                whileStmt.getBody().forEach(stack::push);
+            } else if (node instanceof BinaryOpNode) {
+                stack.push(((BinaryOpNode) node).getLeft());
+                stack.push(((BinaryOpNode) node).getRight());
+            } else if (node instanceof UnaryOpNode) {
+                stack.push(((UnaryOpNode) node).getOperand());
+            } else if (node instanceof NumberNode) {
+                sum += ((NumberNode) node).getValue();
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Recorre la arena con una pila de índices, sin crear objetos
+     */
+    private static long walkArena(AstCursor arena) {
+        int[] stack = new int[64];
+        int top = 0;
+        long sum = 0;
+        stack[top++] = arena.root();
+
+        while (top > 0) {
+            int node = stack[--top];
+            sum++;
+            if (top + 4 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            if (arena.next(node) != AstCursor.NONE) {
+                stack[top++] = arena.next(node);
+            }
+            if (arena.first(node) != AstCursor.NONE) {
+                stack[top++] = arena.first(node);
+            }
+            if (arena.second(node) != AstCursor.NONE) {
+                stack[top++] = arena.second(node);
+            }
+
+            NodeKind kind = arena.kind(node);
+            if (kind == NodeKind.NUMBER) {
+                sum += arena.intValue(node);
+            } else if (kind == NodeKind.IF_STMT && arena.elseBranch(node) != AstCursor.NONE) {
+                stack[top++] = arena.elseBranch(node);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Mide el tiempo de construir el AST a partir de un TokenBuffer ya lleno
+     */
+    private static void benchParser(String name, ParserRun run, TokenBuffer tokens, long bytes, int iterations)
+            throws Exception {
+        long best = Long.MAX_VALUE;
+
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            run.parse(tokens);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        report(name, bytes, tokens.size(), best);
+    }
+
+    /**
+     * Mide por separado el volcado a un TokenBuffer reutilizado y el recorrido
+     * del buffer con el adaptador que crea los Symbol para CUP
+     */
+    private static void benchPacked(Path input, long bytes, int iterations) throws IOException {
+        ByteBuffer source = TableScanner.map(input);
+        TokenBuffer tokens = new TokenBuffer();
+        long bestFill = Long.MAX_VALUE;
+        long bestReplay = Long.MAX_VALUE;
+
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            TableScanner.tokenize(source, tokens);
+            long filled = System.nanoTime();
+            countTokens(new TokenBufferScanner(tokens));
+            long replayed = System.nanoTime();
+
+            bestFill = Math.min(bestFill, filled - start);
+            bestReplay = Math.min(bestReplay, replayed - filled);
+        }
+
+        report("tokenize (TokenBuffer)", bytes, tokens.size(), bestFill);
+        report("TokenBufferScanner", bytes, tokens.size(), bestReplay);
+        report("total", bytes, tokens.size(), bestFill + bestReplay);
+    }
+
+    /**
+     * Mide el tiempo de tokenizar el archivo completo con el Lexer de JFlex
+     */
+    private static void benchLexer(String name, ReaderFactory factory, long bytes, int iterations)
+            throws IOException {
+        long best = Long.MAX_VALUE;
+        long tokens = 0;
+
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            try (Reader reader = factory.open()) {
+                tokens = countTokens(new Lexer(reader));
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        report(name, bytes, tokens, best);
+    }
+
+    /**
+     * Mide el tiempo de tokenizar el archivo completo con un scanner dado
+     */
+    private static void benchScanner(String name, ScannerFactory factory, long bytes, int iterations)
+            throws Exception {
+        long best = Long.MAX_VALUE;
+        long tokens = 0;
+
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            tokens = countTokens(factory.open());
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        report(name, bytes, tokens, best);
+    }
+
+    /**
+     * Mide el escalado de ParallelTokenizer de 1 hilo hasta la cantidad de núcleos
+     */
+    private static void benchParallel(Path input, long bytes, int iterations) throws IOException {
+        ByteBuffer source = TableScanner.map(input);
+        TokenBuffer tokens = new TokenBuffer();
+        int cores = Runtime.getRuntime().availableProcessors();
+        long sequential = 0;
+
+        for (int threads = 1; threads <= cores; threads = nextThreadCount(threads, cores)) {
+            ParallelTokenizer tokenizer = new ParallelTokenizer(threads);
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < iterations; i++) {
+                long start = System.nanoTime();
+                tokenizer.tokenize(source, tokens);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            tokenizer.shutdown();
+
+            if (threads == 1) {
+                sequential = best;
+            }
+            String name = String.format("%d hilo(s) %.2fx", threads, (double) sequential / best);
+            report(name, bytes, tokens.size(), best);
+        }
+    }
+
+    /**
+     * Duplica la cantidad de hilos sin saltear la cantidad de núcleos
+     */
+    private static int nextThreadCount(int threads, int cores) {
+        if (threads == cores) {
+            return cores + 1;
+        }
+        return Math.min(threads * 2, cores);
+    }
+
+    private static long countTokens(Scanner scanner) throws IOException {
+        long tokens = 0;
+        try {
+            while (scanner.next_token().sym != sym.EOF) {
+                tokens++;
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+        return tokens;
+    }
+
+    private static void report(String name, long bytes, long tokens, long nanos) {
+        double seconds = nanos / 1e9;
+        System.out.printf("  %-24s %9.1f ms %9.1f MB/s %12.0f tokens/s%n",
+                name, nanos / 1e6, bytes / seconds / (1024 * 1024), tokens / seconds);
+    }
+
+    /**
+     * Genera un programa válido de aproximadamente el tamaño pedido
+     */
+    static Path generateProgram(long targetBytes) throws IOException {
+        return generateProgram(targetBytes, DEFAULT_BODY);
+    }
+
+    /**
+     * Genera un programa válido repitiendo las sentencias de body
+     */
+    static Path generateProgram(long targetBytes, String[] body) throws IOException {
+        Path file = Files.createTempFile("programa_sintetico", ".txt");
+        file.toFile().deleteOnExit();
+
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            out.write("int main() {\n");
+            out.write("    int a = 5;\n    int b = 10;\n    int c = 15;\n    bool flag = true;\n");
+
+            long written = 0;
+            for (int i = 0; written < targetBytes; i++) {
+                String line = body[i % body.length];
+                out.write(line);
+                written += line.length();
+            }
+
+            out.write("    return a;\n}\n");
+        }
+
+        return file;
+    }
+}
@@ -1,10 +1,33 @@
+import ast.arena.AstFileWriter;
+import ast.arena.MappedAst;
+import ast.utils.ExpressionInterner;
 import codegen.CodeGenerator;
 import com.ejemplo.parser.MiParser;
 import ast.nodes.program.ProgramNode;
+import lexer.LineMap;
+import lexer.MappedSourceReader;
+import lexer.NameTable;
+import lexer.ParallelTokenizer;
+import lexer.TableScanner;
+import lexer.TokenBuffer;
+import lexer.TokenBufferScanner;
+import parser.DescentParser;
+import parser.ScannerCursor;
+import parser.TokenBufferCursor;
+import pipeline.PipelinedFrontEnd;
+import pipeline.StreamingCompiler;
 import semantic.SemanticAnalyzer;
+import semantic.analyzer.ConstantFolder;
+import semantic.errors.CompilationAbortedException;
 import semantic.errors.ErrorHandler;
+import semantic.symboltable.FlatSymbolTable;
+import semantic.symboltable.ScopedSymbolTable;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java_cup.runtime.Scanner;
 import java_cup.runtime.Symbol;
 
 /**
@@ -13,23 +36,152 @@ import java_cup.runtime.Symbol;
  */
 public class CompilerMain {
 
+    /**
+     * Implementación del análisis léxico a utilizar
+     */
+    public enum ScannerMode {
+        JFLEX,  // Lexer generado por JFlex
+        TABLE,  // TableScanner escrito a mano
+        PACKED  // TableScanner volcado a un TokenBuffer antes de parsear
+    }
+
+    /**
+     * Implementación del análisis sintáctico a utilizar
+     */
+    public enum ParserMode {
+        CUP,    // MiParser generado por CUP
+        DESCENT // DescentParser escrito a mano
+    }
+
+    /**
+     * Implementación de la tabla de símbolos del análisis semántico
+     */
+    public enum SymbolTableMode {
+        SCOPED, // ScopedSymbolTable: un Scope por nivel
+        FLAT    // FlatSymbolTable: una tabla de nombres con registro de deshacer
+    }
+
+    private static final String USAGE =
+            "Usage: java CompilerMain [--mmap] [--scanner=jflex|table|packed] [--parallel[=N]] [--parser=cup|descent] [--symbols=scoped|flat] [--pipeline] [--stream] [--emit-ast] [--hash-cons] [--no-fold] [--max-errors=N] <input_file>";
+
     // Flag para indicar si estamos en modo test
     private static boolean testMode = false;
 
-    public static void main(String[] args) {
+    // Flag para leer el archivo fuente mapeado en memoria (--mmap)
+    private static boolean mappedInput = false;
 
-        //Ejecucion hardcodeada
-        if (args.length == 0) {
-            args = new String[]{"src/main/resources/test_bueno.txt"};
-        }
+    // Scanner utilizado para tokenizar (--scanner=jflex|table|packed)
+    private static ScannerMode scannerMode = ScannerMode.JFLEX;
 
-        if (args.length < 1) {
-            System.err.println("Usage: java CompilerMain <input_file>");
-            exitWithCode(1);
-            return;
+    // Parser utilizado (--parser=cup|descent)
+    private static ParserMode parserMode = ParserMode.CUP;
+
+    // Tabla de símbolos utilizada (--symbols=scoped|flat)
+    private static SymbolTableMode symbolTableMode = SymbolTableMode.SCOPED;
+
+    // Buffer de tokens reutilizado entre compilaciones en modo PACKED
+    private static final TokenBuffer tokenBuffer = new TokenBuffer();
+
+    // Tokenizador en paralelo (--parallel[=N]); null = secuencial
+    private static ParallelTokenizer parallelTokenizer = null;
+
+    // Lexer, parser y análisis semántico en hilos separados (--pipeline)
+    private static boolean pipelined = false;
+
+    // Compilación de a una sentencia con memoria acotada (--stream)
+    private static boolean streaming = false;
+
+    // Guardar el AST en binario junto al fuente (--emit-ast)
+    private static boolean emitAst = false;
+
+    // Compartir expresiones iguales y memoizar su análisis (--hash-cons)
+    private static boolean hashConsing = false;
+
+    // Plegar las expresiones constantes antes de generar código (se desactiva con --no-fold)
+    private static boolean constantFolding = true;
+
+    // Errores con los que se aborta cada compilación (--max-errors=N); 0 = sin límite
+    private static int errorLimit = 0;
+
+    // Diagnósticos de la última compilación (ver getErrorHandler)
+    private static ErrorHandler lastErrorHandler = null;
+
+    public static void main(String[] args) {
+        String inputFile = null;
+        for (String arg : args) {
+            if (arg.equals("--mmap")) {
+                setMappedInput(true);
+            } else if (arg.startsWith("--scanner=")) {
+                try {
+                    setScannerMode(ScannerMode.valueOf(arg.substring("--scanner=".length()).toUpperCase()));
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Scanner desconocido: " + arg);
+                    System.err.println(USAGE);
+                    exitWithCode(1);
+                    return;
+                }
+            } else if (arg.startsWith("--parser=")) {
+                try {
+                    setParserMode(ParserMode.valueOf(arg.substring("--parser=".length()).toUpperCase()));
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Parser desconocido: " + arg);
+                    System.err.println(USAGE);
+                    exitWithCode(1);
+                    return;
+                }
+            } else if (arg.startsWith("--symbols=")) {
+                try {
+                    setSymbolTableMode(SymbolTableMode.valueOf(arg.substring("--symbols=".length()).toUpperCase()));
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Tabla de símbolos desconocida: " + arg);
+                    System.err.println(USAGE);
+                    exitWithCode(1);
+                    return;
+                }
+            } else if (arg.equals("--parallel") || arg.startsWith("--parallel=")) {
+                try {
+                    setParallelism(arg.equals("--parallel")
+                            ? Runtime.getRuntime().availableProcessors()
+                            : Integer.parseInt(arg.substring("--parallel=".length())));
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Paralelismo invalido: " + arg);
+                    System.err.println(USAGE);
+                    exitWithCode(1);
+                    return;
+                }
+            } else if (arg.equals("--pipeline")) {
+                setPipelined(true);
+            } else if (arg.equals("--stream")) {
+                setStreaming(true);
+            } else if (arg.equals("--emit-ast")) {
+                setEmitAst(true);
+            } else if (arg.equals("--hash-cons")) {
+                setHashConsing(true);
+            } else if (arg.equals("--no-fold")) {
+                setConstantFolding(false);
+            } else if (arg.startsWith("--max-errors=")) {
+                try {
+                    setErrorLimit(Integer.parseInt(arg.substring("--max-errors=".length())));
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Limite de errores invalido: " + arg);
+                    System.err.println(USAGE);
+                    exitWithCode(1);
+                    return;
+                }
+            } else if (arg.startsWith("--")) {
+                System.err.println("Opcion desconocida: " + arg);
+                System.err.println(USAGE);
+                exitWithCode(1);
+                return;
+            } else {
+                inputFile = arg;
+            }
         }
 
-        String inputFile = args[0];
+        //Ejecucion hardcodeada
+        if (inputFile == null) {
+            inputFile = "src/main/resources/test_bueno.txt";
+        }
 
         try {
             compileFile(inputFile);
@@ -47,6 +199,115 @@ public class CompilerMain {
         testMode = mode;
     }
 
+    /**
+     * Activa la lectura del fuente mediante un archivo mapeado en memoria
+     */
+    public static void setMappedInput(boolean mode) {
+        mappedInput = mode;
+    }
+
+    /**
+     * Selecciona la implementación del análisis léxico
+     */
+    public static void setScannerMode(ScannerMode mode) {
+        scannerMode = mode;
+    }
+
+    /**
+     * Selecciona la implementación del análisis sintáctico
+     */
+    public static void setParserMode(ParserMode mode) {
+        parserMode = mode;
+    }
+
+    /**
+     * Selecciona la implementación de la tabla de símbolos
+     */
+    public static void setSymbolTableMode(SymbolTableMode mode) {
+        symbolTableMode = mode;
+    }
+
+    /**
+     * Tokeniza en paralelo con la cantidad de hilos indicada (implica el modo PACKED)
+     */
+    public static void setParallelism(int threads) {
+        ParallelTokenizer tokenizer = new ParallelTokenizer(threads);
+        if (parallelTokenizer != null) {
+            parallelTokenizer.shutdown();
+        }
+        parallelTokenizer = tokenizer;
+        scannerMode = ScannerMode.PACKED;
+    }
+
+    /**
+     * Ejecuta el front end en pipeline (TableScanner y DescentParser en hilos propios)
+     */
+    public static void setPipelined(boolean mode) {
+        pipelined = mode;
+    }
+
+    /**
+     * Compila de a una sentencia sin conservar el AST ni el código generado
+     * (Lexer de JFlex y DescentParser)
+     */
+    public static void setStreaming(boolean mode) {
+        streaming = mode;
+    }
+
+    /**
+     * Guarda el AST parseado en {archivo}.ast; un archivo .ast se compila sin volver a parsear
+     */
+    public static void setEmitAst(boolean mode) {
+        emitAst = mode;
+    }
+
+    /**
+     * Convierte las expresiones iguales en nodos compartidos antes del análisis semántico,
+     * que memoiza el tipo y el valor de cada una
+     */
+    public static void setHashConsing(boolean mode) {
+        hashConsing = mode;
+    }
+
+    /**
+     * Reemplaza cada operación entre literales por su valor antes de generar código
+     */
+    public static void setConstantFolding(boolean mode) {
+        constantFolding = mode;
+    }
+
+    /**
+     * Aborta la compilación al llegar a esa cantidad de errores; 0 = sin límite
+     */
+    public static void setErrorLimit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Límite de errores inválido: " + limit);
+        }
+        errorLimit = limit;
+    }
+
+    /**
+     * Los diagnósticos de la última compilación, o null si todavía no hubo ninguna
+     */
+    public static ErrorHandler getErrorHandler() {
+        return lastErrorHandler;
+    }
+
+    /**
+     * Diagnósticos propios de una compilación: no imprimen nada hasta printDiagnostics()
+     */
+    private static ErrorHandler newErrorHandler() {
+        ErrorHandler errorHandler = new ErrorHandler();
+        errorHandler.setErrorLimit(errorLimit);
+        lastErrorHandler = errorHandler;
+        return errorHandler;
+    }
+
+    private static SemanticAnalyzer newSemanticAnalyzer(ErrorHandler errorHandler) {
+        return new SemanticAnalyzer(symbolTableMode == SymbolTableMode.FLAT
+                ? new FlatSymbolTable() : new ScopedSymbolTable(), errorHandler);
+    }
+
     /**
      * Sale del programa solo si no estamos en modo test
      */
@@ -64,33 +325,73 @@ public class CompilerMain {
         System.out.println("COMPILANDO ARCHIVO: " + filename);
         System.out.println("=".repeat(60));
 
-        // Fase 1: Análisis Léxico y Sintáctico
-        ProgramNode ast = parseFile(filename);
+        ErrorHandler errorHandler = newErrorHandler();
+        SemanticAnalyzer semanticAnalyzer = newSemanticAnalyzer(errorHandler);
+        ProgramNode ast = null;
 
-        if (ast == null) {
-            System.err.println("Parseo fallido. Compilacion abortada.");
-            return;
-        }
-
-        // Fase 2: Análisis Semántico
-        ErrorHandler errorHandler = ErrorHandler.getInstance();
-        SemanticAnalyzer semanticAnalyzer = new SemanticAnalyzer();
-
-        ast.accept(semanticAnalyzer);
-
-        // En compileFile(), después del análisis semántico exitoso:
-        if (!errorHandler.hasErrors()) {
-            // Fase 3: Generación de código
-            CodeGenerator codeGenerator = new CodeGenerator(semanticAnalyzer.getSymbolTable());
-            String assemblyCode = (String) ast.accept(codeGenerator);
-
-            // Guardar el código assembler
-            String asmFilename = filename.replace(".txt", ".asm");
-            try (PrintWriter out = new PrintWriter(asmFilename)) {
-                out.println(assemblyCode);
+        try {
+            if (streaming) {
+                // Fases 1 a 3 de a una sentencia; el assembler se escribe a medida que se genera
+                compileStreaming(filename, semanticAnalyzer);
+            } else if (pipelined) {
+                // Fases 1 y 2 superpuestas: el análisis semántico avanza junto con el parseo
+                PipelinedFrontEnd frontEnd = new PipelinedFrontEnd();
+                ast = frontEnd.run(TableScanner.map(Paths.get(filename)), semanticAnalyzer);
+                frontEnd.printStatistics();
+            } else {
+                // Fase 1: Análisis Léxico y Sintáctico
+                ast = parseFile(filename, errorHandler);
+
+                if (ast == null) {
+                    System.err.println("Parseo fallido. Compilacion abortada.");
+                    return;
+                }
+
+                if (emitAst && !filename.endsWith(".ast")) {
+                    String astFilename = outputFilename(filename, ".ast");
+                    AstFileWriter.write(ast, Paths.get(astFilename));
+                    System.out.println("✓ AST guardado en: " + astFilename);
+                }
+
+                if (hashConsing) {
+                    ExpressionInterner interner = new ExpressionInterner();
+                    interner.internProgram(ast);
+                    System.out.println("✓ Hash-consing: " + interner.getVisitedNodes() + " nodos de expresión, "
+                            + interner.getUniqueNodes() + " distintos");
+                    semanticAnalyzer.setMemoization(true);
+                }
+
+                // Fase 2: Análisis Semántico
+                ast.accept(semanticAnalyzer);
             }
 
-            System.out.println("✓ Código assembler generado en: " + asmFilename);
+            // En compileFile(), después del análisis semántico exitoso:
+            if (ast != null && !errorHandler.hasErrors()) {
+                if (constantFolding) {
+                    int folded = new ConstantFolder(errorHandler).transform(ast);
+                    if (folded > 0) {
+                        System.out.println("✓ Constant folding: " + folded + " expresiones plegadas");
+                    }
+                }
+
+                // Fase 3: Generación de código
+                CodeGenerator codeGenerator = new CodeGenerator(semanticAnalyzer.getSymbolTable());
+                String assemblyCode = codeGenerator.generate(ast);
+
+                // Guardar el código assembler
+                String asmFilename = outputFilename(filename, ".asm");
+                try (PrintWriter out = new PrintWriter(asmFilename)) {
+                    out.println(assemblyCode);
+                }
+
+                System.out.println("✓ Código assembler generado en: " + asmFilename);
+            }
+        } catch (CompilationAbortedException e) {
+            // Llegó al límite de errores: las fases restantes no se ejecutan
+            System.err.println(e.getMessage());
+        } finally {
+            // Todos los diagnósticos juntos, también si una fase terminó con una excepción
+            errorHandler.printDiagnostics();
         }
 
         // Imprimir resumen
@@ -108,13 +409,81 @@ public class CompilerMain {
         }
     }
 
+    /**
+     * Compila un archivo en modo streaming, sin límite de tamaño del fuente
+     */
+    private static void compileStreaming(String filename, SemanticAnalyzer semanticAnalyzer) throws Exception {
+        String asmFilename = outputFilename(filename, ".asm");
+        boolean generated;
+
+        try (Reader reader = openSource(filename)) {
+            Lexer lexer = new Lexer(reader);
+            lexer.setErrorHandler(semanticAnalyzer.getErrorHandler());
+            // Las líneas solo se cuentan: el LineMap crecería con el largo del archivo
+            lexer.setRecordLines(false);
+            StreamingCompiler compiler = new StreamingCompiler(semanticAnalyzer);
+            compiler.setConstantFolding(constantFolding);
+            generated = compiler.compile(new ScannerCursor(lexer), Paths.get(asmFilename));
+        }
+
+        if (generated) {
+            System.out.println("✓ Código assembler generado en: " + asmFilename);
+        }
+    }
+
     /**
      * Realiza el parsing de un archivo
      */
-    private static ProgramNode parseFile(String filename) throws Exception {
-        FileReader fileReader = new FileReader(filename);
-        Lexer lexer = new Lexer(fileReader);
-        MiParser parser = new MiParser(lexer);
+    private static ProgramNode parseFile(String filename, ErrorHandler errorHandler) throws Exception {
+        if (filename.endsWith(".ast")) {
+            // AST ya parseado: se reconstruye desde el archivo mapeado
+            return MappedAst.open(Paths.get(filename)).toProgram();
+        }
+        if (scannerMode == ScannerMode.TABLE) {
+            ByteBuffer source = TableScanner.map(Paths.get(filename));
+            return parse(new TableScanner(source, new NameTable(), new LineMap(), errorHandler), errorHandler);
+        }
+        if (scannerMode == ScannerMode.PACKED) {
+            ByteBuffer source = TableScanner.map(Paths.get(filename));
+            if (parallelTokenizer != null) {
+                parallelTokenizer.tokenize(source, tokenBuffer, errorHandler);
+            } else {
+                TableScanner.tokenize(source, tokenBuffer, false, errorHandler);
+            }
+            return parseTokenBuffer(errorHandler);
+        }
+
+        try (Reader reader = openSource(filename)) {
+            return parse(newLexer(reader, errorHandler), errorHandler);
+        }
+    }
+
+    private static Lexer newLexer(Reader reader, ErrorHandler errorHandler) {
+        Lexer lexer = new Lexer(reader);
+        lexer.setErrorHandler(errorHandler);
+        return lexer;
+    }
+
+    /**
+     * Nombre de un archivo de salida junto al fuente (.txt o .ast)
+     */
+    private static String outputFilename(String filename, String extension) {
+        if (filename.endsWith(".ast")) {
+            return filename.substring(0, filename.length() - ".ast".length()) + extension;
+        }
+        return filename.replace(".txt", extension);
+    }
+
+    /**
+     * Realiza el parsing de los tokens producidos por un scanner
+     */
+    private static ProgramNode parse(Scanner scanner, ErrorHandler errorHandler) throws Exception {
+        if (parserMode == ParserMode.DESCENT) {
+            return new DescentParser(new ScannerCursor(scanner), errorHandler).parse();
+        }
+
+        MiParser parser = new MiParser(scanner);
+        parser.setErrorHandler(errorHandler);
 
         Symbol result = parser.parse();
 
@@ -125,6 +494,26 @@ public class CompilerMain {
         return null;
     }
 
+    /**
+     * Realiza el parsing de los tokens ya volcados en tokenBuffer
+     */
+    private static ProgramNode parseTokenBuffer(ErrorHandler errorHandler) throws Exception {
+        if (parserMode == ParserMode.DESCENT) {
+            return new DescentParser(new TokenBufferCursor(tokenBuffer), errorHandler).parse();
+        }
+        return parse(new TokenBufferScanner(tokenBuffer), errorHandler);
+    }
+
+    /**
+     * Abre el archivo fuente según el modo de entrada configurado
+     */
+    static Reader openSource(String filename) throws IOException {
+        if (mappedInput) {
+            return MappedSourceReader.open(filename);
+        }
+        return new FileReader(filename);
+    }
+
     /**
      * Compila desde una cadena (útil para testing)
      */
@@ -133,23 +522,33 @@ public class CompilerMain {
         System.out.println("COMPILANDO CODIGO FUENTE");
         System.out.println("=".repeat(60));
 
-        StringReader stringReader = new StringReader(source);
-        Lexer lexer = new Lexer(stringReader);
-        MiParser parser = new MiParser(lexer);
+        ErrorHandler errorHandler = newErrorHandler();
+        SemanticAnalyzer semanticAnalyzer = newSemanticAnalyzer(errorHandler);
 
-        Symbol result = parser.parse();
-
-        if (result == null || !(result.value instanceof ProgramNode)) {
-            System.err.println("Parseo fallido. Compilacion abortada.");
-            return;
-        }
-
-        ProgramNode ast = (ProgramNode) result.value;
+        try {
+            ProgramNode ast;
+            if (scannerMode == ScannerMode.TABLE) {
+                ByteBuffer buffer = ByteBuffer.wrap(source.getBytes(StandardCharsets.UTF_8));
+                ast = parse(new TableScanner(buffer, new NameTable(), new LineMap(), errorHandler), errorHandler);
+            } else if (scannerMode == ScannerMode.PACKED) {
+                TableScanner.tokenize(ByteBuffer.wrap(source.getBytes(StandardCharsets.UTF_8)), tokenBuffer,
+                        false, errorHandler);
+                ast = parseTokenBuffer(errorHandler);
+            } else {
+                ast = parse(newLexer(new StringReader(source), errorHandler), errorHandler);
+            }
 
-        ErrorHandler errorHandler = ErrorHandler.getInstance();
-        SemanticAnalyzer semanticAnalyzer = new SemanticAnalyzer();
+            if (ast == null) {
+                System.err.println("Parseo fallido. Compilacion abortada.");
+                return;
+            }
 
-        ast.accept(semanticAnalyzer);
+            ast.accept(semanticAnalyzer);
+        } catch (CompilationAbortedException e) {
+            System.err.println(e.getMessage());
+        } finally {
+            errorHandler.printDiagnostics();
+        }
         semanticAnalyzer.printSummary();
 
         System.out.println("\n" + "=".repeat(60));
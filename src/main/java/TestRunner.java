@@ -1,18 +1,53 @@
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public class TestRunner {
 
+    // Operadores de las expresiones generadas: deben procesarse sin agotar la pila de Java
+    private static final int DEEP_EXPRESSION_TERMS = 1_000_000;
+    // Bloques if/while anidados, lo mismo para cada modo del compilador
+    private static final int DEEP_NESTING_LEVELS = 10_000;
+
+    // --stream debe compilar en un proceso hijo con un heap tres veces menor que el fuente
+    private static final long STREAMING_SOURCE_BYTES = 24L << 20;
+    private static final String STREAMING_MAX_HEAP = "-Xmx8m";
+    private static final long STREAMING_TIMEOUT_SECONDS = 300;
+
+    // Bytes que puede reservar CompilerPipeline al recompilar PIPELINE_PROGRAM (AST y assembler incluidos)
+    private static final long PIPELINE_ALLOCATION_BUDGET = 16 * 1024;
+    private static final int PIPELINE_WARMUP = 5000;
+    private static final int PIPELINE_COMPILES = 1000;
+    private static final String PIPELINE_PROGRAM =
+            "int main(int p, bool q) {\n"
+            + "    int x = 1 + 2 * p;\n"
+            + "    bool b = q && x < 10;\n"
+            + "    if (b) { x = x + 1; } else { x = 0; }\n"
+            + "    while (x > 0) { x = x - 1; }\n"
+            + "    return x;\n"
+            + "}\n";
+
     private static class TestCase {
         String file;
         String expected;
+        String path;    // Ruta completa de los casos generados; null = en resources
 
         TestCase(String file, String expected) {
             this.file = file;
             this.expected = expected;
         }
+
+        TestCase(String file, String expected, String path) {
+            this(file, expected);
+            this.path = path;
+        }
     }
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         // IMPORTANTE: Activar modo test para evitar System.exit
         CompilerMain.setTestMode(true);
 
@@ -31,6 +66,9 @@ public class TestRunner {
                 new TestCase("test_integral.txt", "EXITOSO")
         };
 
+        List<TestCase> allTests = new ArrayList<>(Arrays.asList(tests));
+        allTests.addAll(generatedTests());
+
         int passed = 0;
         int failed = 0;
 
@@ -41,14 +79,14 @@ public class TestRunner {
         // Buscar archivos en resources
         String resourcesPath = "src" + File.separator + "main" + File.separator + "resources" + File.separator;
 
-        for (TestCase test : tests) {
+        for (TestCase test : allTests) {
             System.out.println();
             System.out.println("==========================================");
             System.out.println("Test: " + test.file);
             System.out.println("Esperado: " + test.expected);
             System.out.println("==========================================");
 
-            String testFilePath = resourcesPath + test.file;
+            String testFilePath = test.path != null ? test.path : resourcesPath + test.file;
             File testFile = new File(testFilePath);
 
             if (!testFile.exists()) {
@@ -58,14 +96,15 @@ public class TestRunner {
             }
 
             try {
-                // IMPORTANTE: Resetear el ErrorHandler antes de cada test
-                semantic.errors.ErrorHandler.getInstance().reset();
-
-                String[] compilerArgs = {testFilePath};
+                // Las opciones recibidas (ej: --scanner=table) se pasan al compilador
+                String[] compilerArgs = java.util.Arrays.copyOf(args, args.length + 1);
+                compilerArgs[args.length] = testFilePath;
                 CompilerMain.main(compilerArgs);
 
                 // Verificar si hubo errores después de la compilación
-                boolean hasErrors = semantic.errors.ErrorHandler.getInstance().hasErrors();
+                // Cada compilación tiene sus propios diagnósticos
+                semantic.errors.ErrorHandler diagnostics = CompilerMain.getErrorHandler();
+                boolean hasErrors = diagnostics.hasErrors();
 
                 if (test.expected.equals("EXITOSO")) {
                     if (!hasErrors) {
@@ -84,7 +123,7 @@ public class TestRunner {
                         failed++;
                     }
                 } else if (test.expected.equals("WARNING")) {
-                    int warningCount = semantic.errors.ErrorHandler.getInstance().getWarnings().size();
+                    int warningCount = diagnostics.getWarnings().size();
                     if (warningCount > 0) {
                         System.out.println("\n✓ TEST PASSED - Advertencias generadas (" + warningCount + ")");
                         passed++;
@@ -108,6 +147,102 @@ public class TestRunner {
             System.out.println("------------------------------------------");
         }
 
+        if (checkPipelineAllocation()) {
+            passed++;
+        } else {
+            failed++;
+        }
+
+        if (checkProgramBuilder()) {
+            passed++;
+        } else {
+            failed++;
+        }
+
+        if (checkSpanIndex()) {
+            passed++;
+        } else {
+            failed++;
+        }
+
+        if (checkSymbolTables()) {
+            passed++;
+        } else {
+            failed++;
+        }
+
+        if (checkResolvedBindings()) {
+            passed++;
+        } else {
+            failed++;
+        }
+
+        if (checkEvaluatorAllocation()) {
+            passed++;
+        } else {
+            failed++;
+        }
+
+        if (checkFusedAnalysis()) {
+            passed++;
+        } else {
+            failed++;
+        }
+
+        if (checkDiagnosticContext()) {
+            passed++;
+        } else {
+            failed++;
+        }
+
+        if (checkParallelTokenizer()) {
+            passed++;
+        } else {
+            failed++;
+        }
+
+        if (checkParserEquivalence()) {
+            passed++;
+        } else {
+            failed++;
+        }
+
+        if (checkIncrementalParser()) {
+            passed++;
+        } else {
+            failed++;
+        }
+
+        if (checkPipelineLexerFailure()) {
+            passed++;
+        } else {
+            failed++;
+        }
+
+        if (checkDeepNesting()) {
+            passed++;
+        } else {
+            failed++;
+        }
+
+        if (checkBoundedStreaming()) {
+            passed++;
+        } else {
+            failed++;
+        }
+
+        if (checkConstantFolding()) {
+            passed++;
+        } else {
+            failed++;
+        }
+
+        if (checkAstFile()) {
+            passed++;
+        } else {
+            failed++;
+        }
+
         System.out.println();
         System.out.println("==========================================");
         System.out.println("RESUMEN DE TESTS");
@@ -125,4 +260,1335 @@ public class TestRunner {
             System.out.println("⚠ HAY TESTS FALLIDOS");
         }
     }
+
+    /**
+     * Recompila un programa chico con el mismo CompilerPipeline: el assembler no debe
+     * cambiar entre compilaciones y cada una debe reservar menos que el presupuesto
+     */
+    private static boolean checkPipelineAllocation() {
+        System.out.println();
+        System.out.println("==========================================");
+        System.out.println("Test: presupuesto de memoria de CompilerPipeline");
+        System.out.println("Esperado: <= " + PIPELINE_ALLOCATION_BUDGET + " bytes por compilación");
+        System.out.println("==========================================");
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        try {
+            pipeline.CompilerPipeline compiler = new pipeline.CompilerPipeline();
+            String expected = compiler.compile(PIPELINE_PROGRAM);
+            if (expected == null) {
+                System.out.println("\n✗ TEST FAILED - El programa no compiló");
+                return false;
+            }
+
+            for (int i = 0; i < PIPELINE_WARMUP; i++) {
+                compiler.compile(PIPELINE_PROGRAM);
+            }
+
+            String last = null;
+            long before = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < PIPELINE_COMPILES; i++) {
+                last = compiler.compile(PIPELINE_PROGRAM);
+            }
+            long perCompile = (threads.getThreadAllocatedBytes(thread) - before) / PIPELINE_COMPILES;
+            System.out.println("Reservado por compilación: " + perCompile + " bytes");
+
+            if (!expected.equals(last)) {
+                System.out.println("\n✗ TEST FAILED - El assembler cambió al reutilizar el pipeline");
+                return false;
+            }
+            if (perCompile > PIPELINE_ALLOCATION_BUDGET) {
+                System.out.println("\n✗ TEST FAILED - Se superó el presupuesto de memoria");
+                return false;
+            }
+            System.out.println("\n✓ TEST PASSED");
+            return true;
+        } catch (Exception e) {
+            System.out.println("\n✗ TEST FAILED - Error inesperado: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        } finally {
+            semantic.errors.ErrorHandler.getInstance().reset();
+            System.out.println("------------------------------------------");
+        }
+    }
+
+    /**
+     * Arma con ProgramBuilder el equivalente de PIPELINE_PROGRAM (más un NOT y paréntesis):
+     * el árbol debe ser el mismo que el del parser sobre source(), posiciones incluidas,
+     * y compilarlo directamente debe dar el mismo assembler
+     */
+    private static boolean checkProgramBuilder() {
+        System.out.println();
+        System.out.println("==========================================");
+        System.out.println("Test: ProgramBuilder");
+        System.out.println("Esperado: mismo AST y assembler que al parsear el fuente equivalente");
+        System.out.println("==========================================");
+
+        try {
+            ast.utils.ProgramBuilder b = new ast.utils.ProgramBuilder(new lexer.NameTable(), true);
+            ast.nodes.program.ProgramNode built = b.function("int").param("int", "p").param("bool", "q")
+                    .declare("int", "x", b.add(b.num(1), b.mul(b.num(2), b.var("p"))))
+                    .declare("bool", "b", b.and(b.var("q"), b.not(b.lt(b.var("x"), b.num(10)))))
+                    .ifThen(b.var("b"))
+                        .assign("x", b.sub(b.var("x"), b.sub(b.num(3), b.num(1))))
+                    .orElse()
+                        .assign("x", b.num(0))
+                    .end()
+                    .whileLoop(b.gt(b.var("x"), b.num(0)))
+                        .assign("x", b.sub(b.var("x"), b.num(1)))
+                    .end()
+                    .returns(b.var("x"))
+                    .build();
+            String source = b.source();
+
+            lexer.TokenBuffer tokens = new lexer.TokenBuffer();
+            lexer.TableScanner.tokenize(java.nio.ByteBuffer.wrap(source.getBytes(java.nio.charset.StandardCharsets.UTF_8)), tokens);
+            ast.nodes.program.ProgramNode parsed =
+                    new parser.DescentParser(new parser.TokenBufferCursor(tokens)).parse();
+
+            ast.arena.AstArena fromBuilder = ast.arena.AstArena.from(built);
+            ast.arena.AstArena fromParser = ast.arena.AstArena.from(parsed);
+            int mismatch = arenaMismatch(fromBuilder, fromParser);
+            System.out.println("Nodos: " + fromBuilder.size() + " (builder), " + fromParser.size() + " (parser)");
+            if (mismatch >= 0) {
+                System.out.println("\n✗ TEST FAILED - El AST difiere en el nodo " + mismatch);
+                return false;
+            }
+
+            pipeline.CompilerPipeline compiler = new pipeline.CompilerPipeline();
+            String expected = compiler.compile(source);
+            String actual = compiler.compile(built);
+            if (expected == null || !expected.equals(actual)) {
+                System.out.println("\n✗ TEST FAILED - El assembler difiere del del fuente equivalente");
+                return false;
+            }
+            System.out.println("\n✓ TEST PASSED");
+            return true;
+        } catch (Exception e) {
+            System.out.println("\n✗ TEST FAILED - Error inesperado: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        } finally {
+            semantic.errors.ErrorHandler.getInstance().reset();
+            System.out.println("------------------------------------------");
+        }
+    }
+
+    /**
+     * Los dos parsers deben registrar los mismos spans, y el SpanIndex debe ubicar
+     * el nodo más profundo en una posición y los nodos dentro de una selección
+     */
+    private static boolean checkSpanIndex() {
+        System.out.println();
+        System.out.println("==========================================");
+        System.out.println("Test: spans y SpanIndex");
+        System.out.println("Esperado: mismos spans con MiParser y DescentParser, consultas por posición correctas");
+        System.out.println("==========================================");
+
+        String source = "int main(int p) {\n"
+                + "    int x = (p + 1) * 2;\n"
+                + "    if (x > 3) {\n"
+                + "        x = !true == false;\n"
+                + "    }\n"
+                + "    return x;\n"
+                + "}\n";
+        try {
+            lexer.TokenBuffer tokens = new lexer.TokenBuffer();
+            lexer.TableScanner.tokenize(java.nio.ByteBuffer.wrap(source.getBytes(java.nio.charset.StandardCharsets.UTF_8)), tokens);
+            ast.nodes.program.ProgramNode descent =
+                    new parser.DescentParser(new parser.TokenBufferCursor(tokens)).parse();
+            ast.nodes.program.ProgramNode cup = (ast.nodes.program.ProgramNode)
+                    new com.ejemplo.parser.MiParser(new Lexer(new java.io.StringReader(source))).parse().value;
+
+            ast.utils.SpanIndex index = ast.utils.SpanIndex.build(descent);
+            List<ast.ASTNode> all = index.nodesIn(0, 0, 7, 0);
+            List<ast.ASTNode> allCup = ast.utils.SpanIndex.build(cup).nodesIn(0, 0, 7, 0);
+            System.out.println("Nodos indexados: " + index.size());
+            boolean sameSpans = all.size() == allCup.size() && all.size() == index.size();
+            for (int i = 0; sameSpans && i < all.size(); i++) {
+                sameSpans = all.get(i).getSpanStart() == allCup.get(i).getSpanStart()
+                        && all.get(i).getSpanEnd() == allCup.get(i).getSpanEnd();
+            }
+            if (!sameSpans) {
+                System.out.println("\n✗ TEST FAILED - Los parsers registraron spans distintos");
+                return false;
+            }
+
+            // "    int x = (p + 1) * 2;": ( en la columna 12, p en la 13, + en la 15, ; en la 23
+            boolean found = index.nodeAt(1, 13) instanceof ast.nodes.expression.VariableNode
+                    && index.nodeAt(1, 15) instanceof ast.nodes.expression.BinaryOpNode
+                    && index.nodeAt(1, 12) instanceof ast.nodes.statement.VarDeclNode
+                    && index.nodeAt(1, 23) instanceof ast.nodes.statement.DeclarationNode
+                    && index.nodeAt(3, 12) instanceof ast.nodes.expression.UnaryOpNode
+                    && index.nodeAt(4, 4) instanceof ast.nodes.statement.IfStmtNode
+                    && index.nodeAt(1, 0) instanceof ast.nodes.program.FunctionDefNode
+                    && index.nodeAt(7, 0) == null
+                    && index.nodesIn(1, 12, 1, 19).size() == 3;
+            if (!found) {
+                System.out.println("\n✗ TEST FAILED - Una consulta por posición devolvió otro nodo");
+                return false;
+            }
+
+            // Con hash-consing las sentencias se indexan igual; dentro de la segunda aparición
+            // de x + 2, compartida con la primera, se ubica la asignación que la contiene
+            String repeated = "int main() {\n    int x = 1;\n    x = x + 2;\n    x = x + 2;\n    return x;\n}\n";
+            ast.utils.SpanIndex[] indexes = new ast.utils.SpanIndex[2];
+            for (int i = 0; i < indexes.length; i++) {
+                lexer.TokenBuffer repeatedTokens = new lexer.TokenBuffer();
+                lexer.TableScanner.tokenize(java.nio.ByteBuffer.wrap(repeated.getBytes(java.nio.charset.StandardCharsets.UTF_8)), repeatedTokens);
+                ast.nodes.program.ProgramNode program =
+                        new parser.DescentParser(new parser.TokenBufferCursor(repeatedTokens)).parse();
+                if (i == 1) {
+                    new ast.utils.ExpressionInterner().internProgram(program);
+                }
+                indexes[i] = ast.utils.SpanIndex.build(program);
+            }
+            List<ast.ASTNode> plainStatements = new ArrayList<>();
+            List<ast.ASTNode> sharedStatements = new ArrayList<>();
+            for (ast.ASTNode node : indexes[0].nodesIn(0, 0, 6, 0)) {
+                if (!(node instanceof ast.nodes.expression.ExprNode)) {
+                    plainStatements.add(node);
+                }
+            }
+            for (ast.ASTNode node : indexes[1].nodesIn(0, 0, 6, 0)) {
+                if (!(node instanceof ast.nodes.expression.ExprNode)) {
+                    sharedStatements.add(node);
+                }
+            }
+            System.out.println("Con hash-consing: " + indexes[1].size() + " de " + indexes[0].size()
+                    + " nodos, " + sharedStatements.size() + " de " + plainStatements.size() + " sentencias");
+            boolean sameStatements = plainStatements.size() == sharedStatements.size()
+                    && indexes[1].size() < indexes[0].size()
+                    && indexes[1].nodeAt(3, 8) instanceof ast.nodes.statement.AssignmentNode
+                    && indexes[1].nodeAt(2, 8) instanceof ast.nodes.expression.VariableNode;
+            for (int i = 0; sameStatements && i < plainStatements.size(); i++) {
+                ast.ASTNode plain = plainStatements.get(i);
+                ast.ASTNode shared = sharedStatements.get(i);
+                int line = ast.ASTNode.lineOf(plain.getSpanStart());
+                int column = ast.ASTNode.columnOf(plain.getSpanStart());
+                ast.ASTNode plainAt = indexes[0].nodeAt(line, column);
+                ast.ASTNode sharedAt = indexes[1].nodeAt(line, column);
+                sameStatements = plain.getClass() == shared.getClass()
+                        && plain.getSpanStart() == shared.getSpanStart() && plain.getSpanEnd() == shared.getSpanEnd()
+                        && (plainAt instanceof ast.nodes.expression.ExprNode
+                            || (sharedAt != null && plainAt.getClass() == sharedAt.getClass()
+                                && plainAt.getSpanStart() == sharedAt.getSpanStart()
+                                && plainAt.getSpanEnd() == sharedAt.getSpanEnd()));
+            }
+            if (!sameStatements) {
+                System.out.println("\n✗ TEST FAILED - El hash-consing cambió los spans de las sentencias");
+                return false;
+            }
+            System.out.println("\n✓ TEST PASSED");
+            return true;
+        } catch (Exception e) {
+            System.out.println("\n✗ TEST FAILED - Error inesperado: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        } finally {
+            semantic.errors.ErrorHandler.getInstance().reset();
+            System.out.println("------------------------------------------");
+        }
+    }
+
+    /**
+     * Hace la misma secuencia de scopes con ScopedSymbolTable y FlatSymbolTable:
+     * sombreado, búsqueda local, duplicados y restauración al salir deben coincidir
+     */
+    private static boolean checkSymbolTables() {
+        System.out.println();
+        System.out.println("==========================================");
+        System.out.println("Test: FlatSymbolTable contra ScopedSymbolTable");
+        System.out.println("Esperado: mismas respuestas en cada paso");
+        System.out.println("==========================================");
+
+        try {
+            String scoped = symbolTableTrace(new semantic.symboltable.ScopedSymbolTable());
+            String flat = symbolTableTrace(new semantic.symboltable.FlatSymbolTable());
+            System.out.println("Respuestas: " + flat);
+            if (!scoped.equals(flat)) {
+                System.out.println("Scoped:     " + scoped);
+                System.out.println("\n✗ TEST FAILED - Las tablas respondieron distinto");
+                return false;
+            }
+            System.out.println("\n✓ TEST PASSED");
+            return true;
+        } catch (Exception e) {
+            System.out.println("\n✗ TEST FAILED - Error inesperado: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        } finally {
+            System.out.println("------------------------------------------");
+        }
+    }
+
+    private static String symbolTableTrace(semantic.symboltable.SymbolTable table) {
+        StringBuilder trace = new StringBuilder();
+        ast.Type intType = ast.Type.INT;
+        ast.Type boolType = ast.Type.BOOL;
+
+        trace.append(table.declare("x", intType)).append(table.declare("x", boolType)).append(' ');
+        table.declare("y", intType);
+        table.enterScope("bloque");
+        trace.append(table.declare("x", boolType)).append(table.getType("x"))
+                .append(table.existsLocal("y")).append(table.exists("y")).append(' ');
+        table.enterScope("bloque");
+        trace.append(table.assign("y", 7)).append(table.getValue("y"))
+                .append(table.lookup("z") == null).append(table.getCurrentScopeLevel()).append(' ');
+        table.declare("z", intType);
+        table.exitScope();
+        trace.append(table.exists("z")).append(table.getType("x")).append(' ');
+        table.exitScope();
+        trace.append(table.getType("x")).append(table.getValue("y"))
+                .append(table.exitScope()).append(table.getCurrentScopeLevel()).append(' ');
+
+        table.clear();
+        trace.append(table.exists("x")).append(table.declare("x", boolType)).append(table.getType("x"));
+        return trace.toString();
+    }
+
+    /**
+     * Un bloque que tapa a x y un parámetro usado después del análisis: el generador debe
+     * usar el slot de la declaración que ve cada uso, también con hash-consing
+     */
+    private static boolean checkResolvedBindings() {
+        System.out.println();
+        System.out.println("==========================================");
+        System.out.println("Test: bindings resueltos en el análisis");
+        System.out.println("Esperado: cada uso lee y escribe el slot de su declaración");
+        System.out.println("==========================================");
+
+        String source = "int main(int p) {\n"
+                + "    int x = p + 1;\n"
+                + "    if (x > 2) {\n"
+                + "        int x = 5;\n"
+                + "        x = x + p;\n"
+                + "    }\n"
+                + "    return x;\n"
+                + "}\n";
+        try {
+            String asm = new pipeline.CompilerPipeline().compile(source);
+            if (asm == null) {
+                System.out.println("\n✗ TEST FAILED - El programa no compiló");
+                return false;
+            }
+            // p en [rbp-4], x en [rbp-8] y la x del bloque en [rbp-12]
+            boolean slots = countLines(asm, "    mov eax, [rbp-4]") == 2
+                    && countLines(asm, "    mov [rbp-8], eax") == 1
+                    && countLines(asm, "    mov eax, [rbp-8]") == 2
+                    && countLines(asm, "    mov [rbp-12], eax") == 2
+                    && countLines(asm, "    mov eax, [rbp-12]") == 1
+                    && countLines(asm, "    sub rsp, 16") == 1;
+            if (!slots) {
+                System.out.println(asm);
+                System.out.println("\n✗ TEST FAILED - Un uso no fue al slot de su declaración");
+                return false;
+            }
+
+            // Con hash-consing las dos x no comparten nodo: el assembler es el mismo
+            ast.nodes.program.ProgramNode program = (ast.nodes.program.ProgramNode)
+                    new com.ejemplo.parser.MiParser(new Lexer(new java.io.StringReader(source))).parse().value;
+            new ast.utils.ExpressionInterner().internProgram(program);
+            semantic.SemanticAnalyzer analyzer = new semantic.SemanticAnalyzer();
+            analyzer.setTrace(false);
+            analyzer.setMemoization(true);
+            program.accept(analyzer);
+            new semantic.analyzer.ConstantFolder().transform(program);
+            String shared = new codegen.CodeGenerator(analyzer.getSymbolTable()).generate(program);
+            if (!asm.equals(shared)) {
+                System.out.println("\n✗ TEST FAILED - Con hash-consing el assembler es otro");
+                return false;
+            }
+            System.out.println("\n✓ TEST PASSED");
+            return true;
+        } catch (Exception e) {
+            System.out.println("\n✗ TEST FAILED - Error inesperado: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        } finally {
+            semantic.errors.ErrorHandler.getInstance().reset();
+            System.out.println("------------------------------------------");
+        }
+    }
+
+    /**
+     * Evalúa una expresión aritmética larga, con valores fuera del caché de Integer:
+     * después del calentamiento, evaluar no debe reservar memoria por nodo
+     */
+    private static boolean checkEvaluatorAllocation() {
+        System.out.println();
+        System.out.println("==========================================");
+        System.out.println("Test: evaluador de constantes sin boxing");
+        System.out.println("Esperado: 0 bytes reservados por nodo evaluado");
+        System.out.println("==========================================");
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        int terms = DEEP_EXPRESSION_TERMS / 10;
+        StringBuilder source = new StringBuilder("int main() {\n    int y = 1000");
+        for (int i = 0; i < terms; i++) {
+            source.append(i % 2 == 0 ? " + x * 7" : " - 12345 / 3");
+        }
+        source.append(";\n    return y;\n}\n");
+        try {
+            lexer.TokenBuffer tokens = new lexer.TokenBuffer();
+            lexer.TableScanner.tokenize(java.nio.ByteBuffer.wrap(source.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8)), tokens);
+            ast.nodes.program.ProgramNode program =
+                    new parser.DescentParser(new parser.TokenBufferCursor(tokens)).parse();
+            ast.nodes.statement.DeclarationNode declaration =
+                    (ast.nodes.statement.DeclarationNode) program.getMainFunction().getStatements().get(0);
+            ast.nodes.expression.ExprNode expression = declaration.getVariables().get(0).getInitialValue();
+
+            semantic.symboltable.SymbolTable table = new semantic.symboltable.FlatSymbolTable();
+            table.declare("x", ast.Type.INT, 1000, 0, 0);
+            semantic.analyzer.ExpressionEvaluator evaluator =
+                    new semantic.analyzer.ExpressionEvaluator(table, semantic.errors.ErrorHandler.getInstance());
+
+            // 1000 + (7000 - 4115) * terms / 2
+            int expected = 1000 + (7000 - 4115) * (terms / 2);
+            long value = 0;
+            for (int i = 0; i < 20; i++) {
+                value = evaluator.evaluateConstant(expression);
+            }
+            long before = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < 10; i++) {
+                value = evaluator.evaluateConstant(expression);
+            }
+            long allocated = threads.getThreadAllocatedBytes(thread) - before;
+            System.out.println("Nodos: " + (terms * 4 + 1) + ", reservado en 10 evaluaciones: " + allocated + " bytes");
+
+            if (!semantic.symboltable.ConstantValue.isInt(value)
+                    || semantic.symboltable.ConstantValue.intValue(value) != expected) {
+                System.out.println("\n✗ TEST FAILED - Valor " + semantic.symboltable.ConstantValue.toString(value)
+                        + " en vez de " + expected);
+                return false;
+            }
+            if (allocated >= terms) {
+                System.out.println("\n✗ TEST FAILED - La evaluación reserva memoria por nodo");
+                return false;
+            }
+            System.out.println("\n✓ TEST PASSED");
+            return true;
+        } catch (Exception e) {
+            System.out.println("\n✗ TEST FAILED - Error inesperado: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        } finally {
+            semantic.errors.ErrorHandler.getInstance().reset();
+            System.out.println("------------------------------------------");
+        }
+    }
+
+    /**
+     * Tipo, valor y diagnósticos salen del mismo recorrido: el valor de k llega a la
+     * división por cero, y cada problema se reporta una sola vez (el evaluador no
+     * repite el error de tipo, ni advierte sobre la variable no declarada o sin inicializar)
+     */
+    private static boolean checkFusedAnalysis() {
+        System.out.println();
+        System.out.println("==========================================");
+        System.out.println("Test: tipo y valor en un solo recorrido");
+        System.out.println("Esperado: 3 errores y 2 advertencias, sin repetidos");
+        System.out.println("==========================================");
+
+        String source = "int main() {\n"
+                + "    int w;\n"
+                + "    int x = true + 1;\n"
+                + "    bool b = y;\n"
+                + "    int v = w + 1;\n"
+                + "    int k = 6 * 7;\n"
+                + "    int d = k / (k - 42);\n"
+                + "    return d;\n"
+                + "}\n";
+        semantic.errors.ErrorHandler errors = semantic.errors.ErrorHandler.getInstance();
+        try {
+            errors.reset();
+            lexer.TokenBuffer tokens = new lexer.TokenBuffer();
+            lexer.TableScanner.tokenize(java.nio.ByteBuffer.wrap(source.getBytes(java.nio.charset.StandardCharsets.UTF_8)), tokens);
+            ast.nodes.program.ProgramNode program =
+                    new parser.DescentParser(new parser.TokenBufferCursor(tokens)).parse();
+            semantic.SemanticAnalyzer analyzer =
+                    new semantic.SemanticAnalyzer(new semantic.symboltable.FlatSymbolTable());
+            analyzer.setTrace(false);
+            program.accept(analyzer);
+
+            List<String> messages = new ArrayList<>();
+            for (semantic.errors.CompilerError error : errors.getErrors()) {
+                messages.add(error.getLine() + ": " + error.getMessage());
+            }
+            for (semantic.errors.CompilerError warning : errors.getWarnings()) {
+                messages.add(warning.getLine() + ": " + warning.getMessage());
+            }
+            List<String> expected = List.of(
+                    "2: Las operaciones aritméticas requieren tipos numéricos, pero se obtuvo: bool",
+                    "3: La variable 'y' no fue declarada",
+                    "6: División por cero en expresión constante",
+                    "1: Variable 'w' declarada pero no inicializada",
+                    "4: La variable 'w' se utiliza antes de ser inicializada");
+            if (!messages.equals(expected)) {
+                messages.forEach(System.out::println);
+                System.out.println("\n✗ TEST FAILED - Diagnósticos distintos de los esperados");
+                return false;
+            }
+            System.out.println("\n✓ TEST PASSED");
+            return true;
+        } catch (Exception e) {
+            System.out.println("\n✗ TEST FAILED - Error inesperado: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        } finally {
+            errors.reset();
+            System.out.println("------------------------------------------");
+        }
+    }
+
+    /**
+     * Diagnósticos por compilación: varios hilos reportan al mismo ErrorHandler sin
+     * perder ninguno, los mensajes no se formatean hasta leerlos, el límite de errores
+     * aborta la compilación, y dos CompilerPipeline en paralelo no se mezclan sus
+     * diagnósticos ni tocan los del ErrorHandler compartido
+     */
+    private static boolean checkDiagnosticContext() {
+        System.out.println();
+        System.out.println("==========================================");
+        System.out.println("Test: diagnósticos por compilación");
+        System.out.println("Esperado: conteos exactos con 4 hilos, formateo perezoso y límite de errores");
+        System.out.println("==========================================");
+
+        semantic.errors.ErrorHandler shared = semantic.errors.ErrorHandler.getInstance();
+        try {
+            shared.reset();
+
+            // Cuatro productores, con lugar para solo 1000 errores y 1000 advertencias
+            semantic.errors.ErrorHandler handler = new semantic.errors.ErrorHandler();
+            handler.setLimits(1000, 1000);
+            int[] formatted = new int[1];
+            Object name = new Object() {
+                @Override
+                public String toString() {
+                    formatted[0]++;
+                    return "x";
+                }
+            };
+            Thread[] producers = new Thread[4];
+            for (int t = 0; t < producers.length; t++) {
+                producers[t] = new Thread(() -> {
+                    for (int i = 0; i < 5000; i++) {
+                        handler.addTypeError(i, 0, "Variable '%s' de prueba", name);
+                        handler.addWarning(i, 0, "Variable '%s' de prueba", name);
+                    }
+                });
+                producers[t].start();
+            }
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            System.out.println("Errores: " + handler.getErrorCount() + ", advertencias: " + handler.getWarningCount()
+                    + ", guardados: " + handler.getErrors().size() + " + " + handler.getWarnings().size()
+                    + ", sin guardar: " + handler.getDroppedCount());
+            if (handler.getErrorCount() != 20000 || handler.getWarningCount() != 20000
+                    || handler.getErrors().size() != 1000 || handler.getWarnings().size() != 1000
+                    || handler.getDroppedCount() != 38000) {
+                System.out.println("\n✗ TEST FAILED - Se perdieron diagnósticos");
+                return false;
+            }
+            if (formatted[0] != 0 || !handler.getErrors().get(0).getMessage().equals("Variable 'x' de prueba")
+                    || formatted[0] != 1) {
+                System.out.println("\n✗ TEST FAILED - Los mensajes no se formatearon al leerlos");
+                return false;
+            }
+
+            // Con límite de 2 errores la compilación se aborta antes de generar código
+            String failing = "int main() {\n    a = 1;\n    b = 2;\n    c = 3;\n    return 0;\n}\n";
+            pipeline.CompilerPipeline limited = new pipeline.CompilerPipeline();
+            limited.getErrorHandler().setErrorLimit(2);
+            if (limited.compile(failing) != null || limited.getErrorHandler().getErrorCount() != 2
+                    || !limited.getErrorHandler().isAborted()) {
+                System.out.println("\n✗ TEST FAILED - El límite de errores no abortó la compilación");
+                return false;
+            }
+
+            // Dos compilaciones en paralelo, cada una con sus diagnósticos
+            boolean[] ok = {true, true};
+            Thread good = new Thread(() -> {
+                try {
+                    pipeline.CompilerPipeline compiler = new pipeline.CompilerPipeline();
+                    for (int i = 0; i < 500; i++) {
+                        ok[0] &= compiler.compile(PIPELINE_PROGRAM) != null && !compiler.getErrorHandler().hasErrors();
+                    }
+                } catch (Exception e) {
+                    ok[0] = false;
+                }
+            });
+            Thread bad = new Thread(() -> {
+                try {
+                    pipeline.CompilerPipeline compiler = new pipeline.CompilerPipeline();
+                    for (int i = 0; i < 500; i++) {
+                        ok[1] &= compiler.compile(failing) == null && compiler.getErrorHandler().getErrorCount() == 3;
+                    }
+                } catch (Exception e) {
+                    ok[1] = false;
+                }
+            });
+            good.start();
+            bad.start();
+            good.join();
+            bad.join();
+            if (!ok[0] || !ok[1] || shared.getDiagnosticCount() != 0) {
+                System.out.println("\n✗ TEST FAILED - Las compilaciones en paralelo mezclaron sus diagnósticos");
+                return false;
+            }
+
+            // En la línea de comandos cada compilación tiene su ErrorHandler con el límite de --max-errors
+            TestCase limitedFile = generatedTest("limite_errores", "ERROR", failing);
+            semantic.errors.ErrorHandler[] cli = new semantic.errors.ErrorHandler[2];
+            java.io.PrintStream out = System.out;
+            java.io.PrintStream err = System.err;
+            try {
+                System.setOut(new java.io.PrintStream(java.io.OutputStream.nullOutputStream()));
+                System.setErr(new java.io.PrintStream(java.io.OutputStream.nullOutputStream()));
+                for (int i = 0; i < cli.length; i++) {
+                    CompilerMain.main(new String[]{"--max-errors=2", limitedFile.path});
+                    cli[i] = CompilerMain.getErrorHandler();
+                }
+            } finally {
+                System.setOut(out);
+                System.setErr(err);
+                CompilerMain.setErrorLimit(0);
+            }
+            if (cli[0] == cli[1] || !cli[0].isAborted() || !cli[1].isAborted() || cli[1].getErrorCount() != 2
+                    || shared.getDiagnosticCount() != 0 || shared.getErrorLimit() != 0) {
+                System.out.println("\n✗ TEST FAILED - La línea de comandos compartió sus diagnósticos o su límite");
+                return false;
+            }
+            System.out.println("\n✓ TEST PASSED");
+            return true;
+        } catch (Exception e) {
+            System.out.println("\n✗ TEST FAILED - Error inesperado: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        } finally {
+            shared.reset();
+            System.out.println("------------------------------------------");
+        }
+    }
+
+    /**
+     * ParallelTokenizer contra TableScanner sobre el mismo fuente, con fragmentos chicos
+     * para que los cortes caigan dentro de identificadores largos y de líneas con errores
+     * léxicos: mismos tokens, posiciones y diagnósticos en el mismo orden
+     */
+    private static boolean checkParallelTokenizer() {
+        System.out.println();
+        System.out.println("==========================================");
+        System.out.println("Test: ParallelTokenizer contra TableScanner");
+        System.out.println("Esperado: mismos tokens, posiciones y errores léxicos con cualquier tamaño de fragmento");
+        System.out.println("==========================================");
+
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            text.append("int ").append("identificador_largo_".repeat(1 + i % 7)).append(i).append(" = ").append(i * 37).append(";\n");
+            if (i % 3 == 0) {
+                text.append("    x @ y # é ").append("z".repeat(50 + i)).append(" & w;\r\n");
+            }
+            if (i % 5 == 0) {
+                text.append("\tbool b").append(i).append(" = x == y && !z || ñandú\u2028q;\n");
+            }
+        }
+        java.nio.ByteBuffer source = java.nio.ByteBuffer.wrap(text.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8));
+
+        try {
+            semantic.errors.ErrorHandler expectedErrors = new semantic.errors.ErrorHandler();
+            lexer.TokenBuffer expected = new lexer.TokenBuffer();
+            lexer.TableScanner.tokenize(source.duplicate(), expected, false, expectedErrors);
+            String expectedTrace = tokenTrace(expected, expectedErrors);
+            System.out.println("Tokens: " + expected.size() + ", errores léxicos: " + expectedErrors.getErrorCount());
+
+            for (int minChunkSize : new int[] {1, 7, 33, 100}) {
+                lexer.ParallelTokenizer tokenizer = new lexer.ParallelTokenizer(4, minChunkSize);
+                try {
+                    semantic.errors.ErrorHandler errors = new semantic.errors.ErrorHandler();
+                    lexer.TokenBuffer tokens = new lexer.TokenBuffer();
+                    tokenizer.tokenize(source.duplicate(), tokens, errors);
+                    if (!tokenTrace(tokens, errors).equals(expectedTrace)) {
+                        System.out.println("\n✗ TEST FAILED - Resultado distinto con fragmentos de " + minChunkSize + " bytes");
+                        return false;
+                    }
+                } finally {
+                    tokenizer.shutdown();
+                }
+            }
+            System.out.println("\n✓ TEST PASSED");
+            return true;
+        } catch (Exception e) {
+            System.out.println("\n✗ TEST FAILED - Error inesperado: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        } finally {
+            System.out.println("------------------------------------------");
+        }
+    }
+
+    // Tipo, valor, offset, línea y columna de cada token, seguidos de los errores léxicos
+    private static String tokenTrace(lexer.TokenBuffer tokens, semantic.errors.ErrorHandler errors) {
+        StringBuilder trace = new StringBuilder();
+        lexer.LineMap lineMap = tokens.getLineMap();
+        for (int i = 0; i < tokens.size(); i++) {
+            int kind = tokens.kind(i);
+            Object value = kind == com.ejemplo.parser.sym.ID
+                    ? tokens.getNameTable().name(tokens.value(i)) : tokens.value(i);
+            int offset = tokens.offset(i);
+            trace.append(kind).append(' ').append(value).append(' ').append(offset).append(' ')
+                    .append(lineMap.lineOf(offset)).append(':').append(lineMap.columnOf(offset)).append('\n');
+        }
+        for (semantic.errors.CompilerError error : errors.getErrors()) {
+            trace.append(error).append('\n');
+        }
+        return trace.toString();
+    }
+
+    /**
+     * MiParser y DescentParser sobre los programas de resources, sobre casos de precedencia
+     * que recorren todos los niveles de BindingPower y sobre errores sintácticos:
+     * mismo AST, posiciones incluidas, y mismos diagnósticos
+     */
+    private static boolean checkParserEquivalence() {
+        System.out.println();
+        System.out.println("==========================================");
+        System.out.println("Test: DescentParser contra MiParser");
+        System.out.println("Esperado: mismo AST y mismos diagnósticos en cada programa");
+        System.out.println("==========================================");
+
+        List<String> sources = new ArrayList<>();
+        try {
+            File[] resources = new File("src" + File.separator + "main" + File.separator + "resources")
+                    .listFiles((dir, name) -> name.endsWith(".txt"));
+            Arrays.sort(resources);
+            for (File resource : resources) {
+                sources.add(Files.readString(resource.toPath()));
+            }
+
+            String[] expressions = {
+                    "a + b * c - a / b",
+                    "a - b - c + a",
+                    "a / b * c / a",
+                    "(a + b) * (c - a)",
+                    "p || q && p == q",
+                    "a < b == p || !q && a > c",
+                    "!p == q",
+                    "!!p && !(a < b)",
+                    "a * b < c + a == p",
+                    "a + b || c * a && b < c"
+            };
+            for (String expression : expressions) {
+                sources.add("int main(int a, int b, int c, bool p, bool q) {\n    int x = " + expression + ";\n    return 0;\n}\n");
+            }
+            sources.add("int main() {\n    int x = 1 +;\n    return 0;\n}\n");
+            sources.add("int main() {\n    int x = 1\n    x = 2;\n    return x;\n}\n");
+            sources.add("int main() {\n    while (x) { x = (1 + 2;\n}\n");
+
+            for (int i = 0; i < sources.size(); i++) {
+                String source = sources.get(i);
+
+                semantic.errors.ErrorHandler cupHandler = new semantic.errors.ErrorHandler();
+                ast.nodes.program.ProgramNode cup = null;
+                try {
+                    Lexer lexer = new Lexer(new java.io.StringReader(source));
+                    lexer.setErrorHandler(cupHandler);
+                    com.ejemplo.parser.MiParser parser = new com.ejemplo.parser.MiParser(lexer);
+                    parser.setErrorHandler(cupHandler);
+                    cup = (ast.nodes.program.ProgramNode) parser.parse().value;
+                } catch (Exception e) {
+                    // El error ya quedó en los diagnósticos
+                }
+                String cupErrors = cupHandler.getErrors().toString();
+
+                semantic.errors.ErrorHandler descentHandler = new semantic.errors.ErrorHandler();
+                ast.nodes.program.ProgramNode descent = null;
+                lexer.TokenBuffer tokens = new lexer.TokenBuffer();
+                lexer.TableScanner.tokenize(java.nio.ByteBuffer.wrap(source.getBytes(java.nio.charset.StandardCharsets.UTF_8)),
+                        tokens, false, descentHandler);
+                try {
+                    descent = new parser.DescentParser(new parser.TokenBufferCursor(tokens), descentHandler).parse();
+                } catch (Exception e) {
+                    // El error ya quedó en los diagnósticos
+                }
+                String descentErrors = descentHandler.getErrors().toString();
+
+                boolean sameTree = cup == null
+                        ? descent == null
+                        : descent != null && arenaMismatch(ast.arena.AstArena.from(cup), ast.arena.AstArena.from(descent)) < 0;
+                if (!sameTree || !cupErrors.equals(descentErrors)) {
+                    System.out.println("MiParser:      " + cupErrors);
+                    System.out.println("DescentParser: " + descentErrors);
+                    System.out.println("\n✗ TEST FAILED - Los parsers difieren en el programa " + i);
+                    return false;
+                }
+            }
+            System.out.println("Programas comparados: " + sources.size());
+            System.out.println("\n✓ TEST PASSED");
+            return true;
+        } catch (Exception e) {
+            System.out.println("\n✗ TEST FAILED - Error inesperado: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        } finally {
+            System.out.println("------------------------------------------");
+        }
+    }
+
+    /**
+     * Ediciones con IncrementalParser: después de cada una el AST debe ser igual al de
+     * parsear el texto completo, spans incluidos, y el AST anterior no debe cambiar
+     */
+    private static boolean checkIncrementalParser() {
+        System.out.println();
+        System.out.println("==========================================");
+        System.out.println("Test: reparseo incremental");
+        System.out.println("Esperado: mismo AST que un parseo completo, sin modificar el anterior");
+        System.out.println("==========================================");
+
+        String source = "int main(int p) {\n"
+                + "    int x = p + 1, y;\n"
+                + "    y = x * 2;\n"
+                + "    if (x > 3) {\n"
+                + "        while (y < 10) {\n"
+                + "            y = y + !false == true;\n"
+                + "        }\n"
+                + "    } else {\n"
+                + "        x = 0;\n"
+                + "    }\n"
+                + "    bool b = x < y;\n"
+                + "    return x;\n"
+                + "}\n";
+        // Texto donde empieza cada edición, si se borra ese texto, y lo que se inserta
+        Object[][] edits = {
+                {"y = x * 2", true, "y = x * 3"},                            // Misma cantidad de líneas
+                {"    y = x * 3;\n", true, "    y = 1;\n    y = y + 2;\n"},   // Agrega una línea
+                {"        x = 0;\n", false, "        x = 1;\n"},              // Agrega una línea en un bloque
+                {"        x = 1;\n", true, ""},                              // Y la quita
+                {"    int x", false, "    int z = 4;\n\n"},                  // Agrega dos líneas al principio
+                {"    bool b = x < y;\n", true, ""}                          // Quita una sentencia al final
+        };
+
+        semantic.errors.ErrorHandler errors = new semantic.errors.ErrorHandler();
+        try {
+            parser.IncrementalParser incremental = new parser.IncrementalParser(errors);
+            ast.nodes.program.ProgramNode current = incremental.parse(source);
+            int reused = 0;
+            for (Object[] edit : edits) {
+                String anchor = (String) edit[0];
+                String text = incremental.getText();
+                int offset = text.indexOf(anchor);
+                int removed = (Boolean) edit[1] ? anchor.length() : 0;
+                if (offset < 0) {
+                    System.out.println("\n✗ TEST FAILED - No se encontró el texto a editar: " + anchor);
+                    return false;
+                }
+
+                ast.arena.AstArena before = ast.arena.AstArena.from(current);
+                String spansBefore = spanTrace(current);
+                ast.nodes.program.ProgramNode previous = current;
+                current = incremental.reparse(previous, offset, removed, (String) edit[2]);
+                if (incremental.wasIncremental()) {
+                    reused++;
+                }
+
+                if (arenaMismatch(before, ast.arena.AstArena.from(previous)) >= 0 || !spansBefore.equals(spanTrace(previous))) {
+                    System.out.println("\n✗ TEST FAILED - La edición modificó el AST anterior: " + anchor);
+                    return false;
+                }
+
+                lexer.TokenBuffer tokens = new lexer.TokenBuffer();
+                lexer.TableScanner.tokenize(java.nio.ByteBuffer.wrap(incremental.getText().getBytes(java.nio.charset.StandardCharsets.UTF_8)), tokens);
+                ast.nodes.program.ProgramNode full = new parser.DescentParser(new parser.TokenBufferCursor(tokens), errors).parse();
+                if (arenaMismatch(ast.arena.AstArena.from(full), ast.arena.AstArena.from(current)) >= 0
+                        || !spanTrace(full).equals(spanTrace(current))) {
+                    System.out.println("\n✗ TEST FAILED - El reparseo difiere del parseo completo: " + anchor);
+                    return false;
+                }
+            }
+            System.out.println("Ediciones: " + edits.length + ", incrementales: " + reused);
+            if (reused != edits.length || errors.hasErrors()) {
+                System.out.println("\n✗ TEST FAILED - Se esperaba reutilizar sentencias en todas las ediciones");
+                return false;
+            }
+            System.out.println("\n✓ TEST PASSED");
+            return true;
+        } catch (Exception e) {
+            System.out.println("\n✗ TEST FAILED - Error inesperado: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        } finally {
+            System.out.println("------------------------------------------");
+        }
+    }
+
+    // Spans de todos los nodos del programa, en el orden del SpanIndex
+    private static String spanTrace(ast.nodes.program.ProgramNode program) {
+        StringBuilder trace = new StringBuilder();
+        for (ast.ASTNode node : ast.utils.SpanIndex.build(program).nodesIn(0, 0, Integer.MAX_VALUE, 0)) {
+            trace.append(node.kind()).append(' ').append(node.getSpanStart()).append(' ').append(node.getSpanEnd()).append('\n');
+        }
+        return trace.toString();
+    }
+
+    /**
+     * Un literal fuera de rango hace fallar al lexer del pipeline: run debe relanzar su
+     * excepción en lugar de dejar al parser esperando tokens para siempre
+     */
+    private static boolean checkPipelineLexerFailure() {
+        System.out.println();
+        System.out.println("==========================================");
+        System.out.println("Test: falla del lexer en el pipeline");
+        System.out.println("Esperado: NumberFormatException en menos de 10 segundos, sin colgarse");
+        System.out.println("==========================================");
+
+        String source = "int main() {\n    int y = 1;\n    int x = 99999999999;\n    return x;\n}\n";
+        Throwable[] thrown = new Throwable[1];
+        Thread compiler = new Thread(() -> {
+            try {
+                semantic.SemanticAnalyzer analyzer = new semantic.SemanticAnalyzer(
+                        new semantic.symboltable.ScopedSymbolTable(), new semantic.errors.ErrorHandler());
+                new pipeline.PipelinedFrontEnd().run(
+                        java.nio.ByteBuffer.wrap(source.getBytes(java.nio.charset.StandardCharsets.UTF_8)), analyzer);
+            } catch (Throwable e) {
+                thrown[0] = e;
+            }
+        }, "check-pipeline");
+        compiler.setDaemon(true);
+        try {
+            compiler.start();
+            compiler.join(10_000);
+            if (compiler.isAlive()) {
+                System.out.println("\n✗ TEST FAILED - El pipeline no terminó");
+                return false;
+            }
+            System.out.println("Excepción: " + thrown[0]);
+            if (!(thrown[0] instanceof NumberFormatException)) {
+                System.out.println("\n✗ TEST FAILED - Se esperaba la excepción del lexer");
+                return false;
+            }
+            System.out.println("\n✓ TEST PASSED");
+            return true;
+        } catch (Exception e) {
+            System.out.println("\n✗ TEST FAILED - Error inesperado: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        } finally {
+            System.out.println("------------------------------------------");
+        }
+    }
+
+    /**
+     * Bloques if y while anidados DEEP_NESTING_LEVELS niveles, compilados con el parser
+     * por defecto, con DescentParser y en streaming: ninguno debe agotar la pila de Java
+     */
+    private static boolean checkDeepNesting() {
+        System.out.println();
+        System.out.println("==========================================");
+        System.out.println("Test: anidamiento profundo de bloques");
+        System.out.println("Esperado: " + DEEP_NESTING_LEVELS + " niveles compilan sin errores en cada modo");
+        System.out.println("==========================================");
+
+        StringBuilder source = new StringBuilder("int main() {\n    int x = 0;\n");
+        for (int i = 0; i < DEEP_NESTING_LEVELS; i++) {
+            source.append(i % 2 == 0 ? "if (x < 5) {\n" : "while (x > 9) {\n");
+        }
+        source.append("x = x + 1;\n");
+        for (int i = DEEP_NESTING_LEVELS - 1; i >= 0; i--) {
+            source.append(i % 2 == 0 ? "} else { x = 2; }\n" : "}\n");
+        }
+        source.append("    return x;\n}\n");
+
+        java.io.PrintStream out = System.out;
+        try {
+            TestCase nested = generatedTest("anidamiento_profundo", "EXITOSO", source);
+            String[][] modes = {{}, {"--parser=descent"}, {"--stream"}};
+            for (String[] mode : modes) {
+                String[] compilerArgs = Arrays.copyOf(mode, mode.length + 1);
+                compilerArgs[mode.length] = nested.path;
+                // La salida del analizador tiene una línea por sentencia
+                System.setOut(new java.io.PrintStream(java.io.OutputStream.nullOutputStream()));
+                try {
+                    CompilerMain.main(compilerArgs);
+                } finally {
+                    System.setOut(out);
+                }
+                String name = mode.length == 0 ? "por defecto" : mode[0];
+                semantic.errors.ErrorHandler diagnostics = CompilerMain.getErrorHandler();
+                System.out.println("Modo " + name + ": " + diagnostics.getErrorCount() + " errores");
+                if (diagnostics.hasErrors()) {
+                    System.out.println("\n✗ TEST FAILED - El modo " + name + " reportó errores");
+                    return false;
+                }
+            }
+            System.out.println("\n✓ TEST PASSED");
+            return true;
+        } catch (Exception | StackOverflowError e) {
+            System.out.println("\n✗ TEST FAILED - Error inesperado: " + e);
+            return false;
+        } finally {
+            System.out.println("------------------------------------------");
+        }
+    }
+
+    /**
+     * Compila con --stream, en una JVM hija con STREAMING_MAX_HEAP, un fuente generado de
+     * STREAMING_SOURCE_BYTES: sentencias, bloques y declaraciones en bloques que se repiten
+     * con los mismos nombres, porque la NameTable sí crece con cada identificador distinto
+     */
+    private static boolean checkBoundedStreaming() {
+        System.out.println();
+        System.out.println("==========================================");
+        System.out.println("Test: memoria acotada con --stream");
+        System.out.println("Esperado: un fuente de " + (STREAMING_SOURCE_BYTES >> 20) + " MB compila con " + STREAMING_MAX_HEAP);
+        System.out.println("==========================================");
+
+        String body = "    a = a + b * 2;\n"
+                + "    if (a > c) {\n"
+                + "        int t = a - c;\n"
+                + "        a = t / 2;\n"
+                + "    } else {\n"
+                + "        while (b < c) {\n"
+                + "            b = b + 1;\n"
+                + "        }\n"
+                + "    }\n"
+                + "    flag = a < b && flag;\n";
+        Path source = null;
+        Path errors = null;
+        try {
+            source = Files.createTempFile("streaming_grande", ".txt");
+            errors = Files.createTempFile("streaming_grande", ".err");
+            try (java.io.Writer out = Files.newBufferedWriter(source)) {
+                out.write("int main() {\n    int a = 5;\n    int b = 10;\n    int c = 15;\n    bool flag = true;\n");
+                for (long written = 0; written < STREAMING_SOURCE_BYTES; written += body.length()) {
+                    out.write(body);
+                }
+                out.write("    return a;\n}\n");
+            }
+
+            // Las clases del compilador y el runtime de CUP, estén o no en java.class.path
+            String classPath = Path.of(CompilerMain.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                    + File.pathSeparator
+                    + Path.of(java_cup.runtime.Symbol.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            String javaBinary = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+            Process child = new ProcessBuilder(javaBinary, STREAMING_MAX_HEAP, "-cp", classPath,
+                    "CompilerMain", "--stream", source.toString())
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectError(errors.toFile())
+                    .start();
+            if (!child.waitFor(STREAMING_TIMEOUT_SECONDS, java.util.concurrent.TimeUnit.SECONDS)) {
+                child.destroyForcibly();
+                System.out.println("\n✗ TEST FAILED - La compilación no terminó");
+                return false;
+            }
+
+            Path assembler = Path.of(source.toString().replace(".txt", ".asm"));
+            System.out.println("Fuente: " + (Files.size(source) >> 20) + " MB, código de salida: " + child.exitValue());
+            if (child.exitValue() != 0 || !Files.exists(assembler)) {
+                List<String> stderr = Files.readAllLines(errors);
+                System.out.println(stderr.isEmpty() ? "(sin salida de error)" : stderr.get(0));
+                System.out.println("\n✗ TEST FAILED - La compilación en streaming falló");
+                return false;
+            }
+            System.out.println("\n✓ TEST PASSED");
+            return true;
+        } catch (Exception e) {
+            System.out.println("\n✗ TEST FAILED - Error inesperado: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        } finally {
+            try {
+                if (source != null) {
+                    Files.deleteIfExists(source);
+                    Files.deleteIfExists(Path.of(source.toString().replace(".txt", ".asm")));
+                }
+                if (errors != null) {
+                    Files.deleteIfExists(errors);
+                }
+            } catch (IOException e) {
+                System.out.println("No se pudieron borrar los archivos temporales: " + e.getMessage());
+            }
+            System.out.println("------------------------------------------");
+        }
+    }
+
+    /**
+     * Constant folding: una expresión constante queda en un único mov, la segunda pasada
+     * ya no pliega nada, una división por un cero literal no se pliega, y con --no-fold
+     * el assembler es byte a byte el del generador sobre el AST sin plegar
+     */
+    private static boolean checkConstantFolding() {
+        System.out.println();
+        System.out.println("==========================================");
+        System.out.println("Test: constant folding");
+        System.out.println("Esperado: mov eax, 15 sin operaciones, 1 pasada al punto fijo y --no-fold sin cambios");
+        System.out.println("==========================================");
+
+        String constant = "int main() {\n    int x = (2 + 3) * 4 - 10 / 2;\n    return x;\n}\n";
+        String divisionByZero = "int main() {\n    int x = 10 / (2 - 2);\n    return x;\n}\n";
+        java.io.PrintStream out = System.out;
+        Path directory = null;
+        try {
+            semantic.errors.ErrorHandler errors = new semantic.errors.ErrorHandler();
+            semantic.SemanticAnalyzer analyzer = analyzer(errors);
+            ast.nodes.program.ProgramNode program = analyzed(constant, analyzer, errors);
+            int folded = new semantic.analyzer.ConstantFolder(errors).transform(program);
+            String assembler = new codegen.CodeGenerator(analyzer.getSymbolTable()).generate(program);
+            System.out.println("Plegadas: " + folded);
+            if (!assembler.contains("\n    mov eax, 15\n    mov [rbp-4], eax\n")
+                    || countLines(assembler, "    pop rbx") != 0) {
+                System.out.println(assembler);
+                System.out.println("\n✗ TEST FAILED - La expresión constante no quedó en un único mov");
+                return false;
+            }
+
+            // Sobre el árbol ya plegado, la primera pasada no cambia nada y es la última
+            int passes = new semantic.analyzer.ConstantFolder(errors).transformToFixedPoint(program, 10);
+            ast.nodes.program.ProgramNode fresh = analyzed(constant, analyzer(errors), errors);
+            int freshPasses = new semantic.analyzer.ConstantFolder(errors).transformToFixedPoint(fresh, 10);
+            System.out.println("Pasadas: " + passes + " sobre el árbol plegado, " + freshPasses + " sobre uno nuevo");
+            if (passes != 1 || freshPasses != 2) {
+                System.out.println("\n✗ TEST FAILED - Una sola pasada no llegó al punto fijo");
+                return false;
+            }
+
+            // El análisis reporta la división por cero; el folder pliega 2 - 2 pero no la división
+            semantic.errors.ErrorHandler zeroErrors = new semantic.errors.ErrorHandler();
+            ast.nodes.program.ProgramNode zero = analyzed(divisionByZero, analyzer(zeroErrors), zeroErrors);
+            int reported = zeroErrors.getErrorCount();
+            int zeroFolded = new semantic.analyzer.ConstantFolder(zeroErrors).transform(zero);
+            ast.nodes.statement.DeclarationNode declaration =
+                    (ast.nodes.statement.DeclarationNode) zero.getMainFunction().getStatements().get(0);
+            ast.nodes.expression.ExprNode division = declaration.getVariables().get(0).getInitialValue();
+            System.out.println("División por cero: " + reported + " error, " + zeroFolded + " plegada, queda " + division);
+            if (reported != 1 || zeroFolded != 1 || zeroErrors.getErrorCount() != reported
+                    || !(division instanceof ast.nodes.expression.BinaryOpNode)
+                    || !(((ast.nodes.expression.BinaryOpNode) division).getRight() instanceof ast.nodes.expression.NumberNode)) {
+                System.out.println("\n✗ TEST FAILED - La división por un cero literal se plegó");
+                return false;
+            }
+
+            // --no-fold, con y sin --stream, contra el generador sobre el AST sin plegar
+            directory = Files.createTempDirectory("constant_folding");
+            String resources = "src" + File.separator + "main" + File.separator + "resources" + File.separator;
+            List<String> sources = new ArrayList<>();
+            for (String name : new String[]{"test_bueno", "test_completo_exitoso", "test_expresiones_complejas",
+                    "test_integral", "test_warning_no_inicializada"}) {
+                sources.add(Files.readString(Path.of(resources + name + ".txt")));
+            }
+            sources.add(constant);
+
+            CompilerMain.setParserMode(CompilerMain.ParserMode.CUP);
+            CompilerMain.setConstantFolding(false);
+            for (int i = 0; i < sources.size(); i++) {
+                semantic.errors.ErrorHandler expectedErrors = new semantic.errors.ErrorHandler();
+                semantic.SemanticAnalyzer expectedAnalyzer = analyzer(expectedErrors);
+                ast.nodes.program.ProgramNode unfolded = analyzed(sources.get(i), expectedAnalyzer, expectedErrors);
+                String expected = new codegen.CodeGenerator(expectedAnalyzer.getSymbolTable()).generate(unfolded)
+                        + System.lineSeparator();
+
+                Path source = directory.resolve("programa_" + i + ".txt");
+                Files.writeString(source, sources.get(i));
+                for (boolean streaming : new boolean[]{false, true}) {
+                    CompilerMain.setStreaming(streaming);
+                    System.setOut(new java.io.PrintStream(java.io.OutputStream.nullOutputStream()));
+                    try {
+                        CompilerMain.main(new String[]{"--no-fold", source.toString()});
+                    } finally {
+                        System.setOut(out);
+                    }
+                    String actual = Files.readString(directory.resolve("programa_" + i + ".asm"));
+                    if (!actual.equals(expected)) {
+                        System.out.println("\n✗ TEST FAILED - Con --no-fold" + (streaming ? " --stream" : "")
+                                + " cambió el assembler de " + (i < sources.size() - 1 ? "un programa de resources" : "la expresión constante"));
+                        return false;
+                    }
+                }
+            }
+            System.out.println("--no-fold: " + sources.size() + " programas idénticos, con y sin --stream");
+            System.out.println("\n✓ TEST PASSED");
+            return true;
+        } catch (Exception e) {
+            System.out.println("\n✗ TEST FAILED - Error inesperado: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        } finally {
+            CompilerMain.setConstantFolding(true);
+            CompilerMain.setStreaming(false);
+            if (directory != null) {
+                try (java.util.stream.Stream<Path> files = Files.list(directory)) {
+                    for (Path file : (Iterable<Path>) files::iterator) {
+                        Files.delete(file);
+                    }
+                    Files.delete(directory);
+                } catch (IOException e) {
+                    System.out.println("No se pudieron borrar los archivos temporales: " + e.getMessage());
+                }
+            }
+            System.out.println("------------------------------------------");
+        }
+    }
+
+    /**
+     * AstFileWriter y MappedAst: el archivo conserva el árbol nodo a nodo, posiciones
+     * incluidas, y compila igual que el fuente; los spans no se guardan, así que el
+     * árbol reconstruido no tiene ninguno
+     */
+    private static boolean checkAstFile() {
+        System.out.println();
+        System.out.println("==========================================");
+        System.out.println("Test: AST en archivo");
+        System.out.println("Esperado: mismo AST y assembler que el fuente, sin spans al reconstruirlo");
+        System.out.println("==========================================");
+
+        Path file = null;
+        try {
+            semantic.errors.ErrorHandler errors = new semantic.errors.ErrorHandler();
+            ast.nodes.program.ProgramNode parsed = analyzed(PIPELINE_PROGRAM, analyzer(errors), errors);
+            file = Files.createTempFile("arbol", ".ast");
+            ast.arena.AstFileWriter.write(parsed, file);
+            ast.arena.MappedAst mapped = ast.arena.MappedAst.open(file);
+
+            int mismatch = arenaMismatch(ast.arena.AstArena.from(parsed), mapped);
+            System.out.println("Nodos: " + mapped.size() + ", archivo: " + Files.size(file) + " bytes");
+            if (mismatch >= 0) {
+                System.out.println("\n✗ TEST FAILED - El AST del archivo difiere en el nodo " + mismatch);
+                return false;
+            }
+
+            ast.nodes.program.ProgramNode rebuilt = mapped.toProgram();
+            int parsedSpans = ast.utils.SpanIndex.build(parsed).size();
+            int rebuiltSpans = ast.utils.SpanIndex.build(rebuilt).size();
+            System.out.println("Spans: " + parsedSpans + " al parsear, " + rebuiltSpans + " al reconstruir");
+            if (parsedSpans == 0 || rebuiltSpans != 0) {
+                System.out.println("\n✗ TEST FAILED - Los spans no son los documentados en AstFileWriter");
+                return false;
+            }
+
+            pipeline.CompilerPipeline compiler = new pipeline.CompilerPipeline();
+            String expected = compiler.compile(PIPELINE_PROGRAM);
+            String actual = compiler.compile(rebuilt);
+            if (expected == null || !expected.equals(actual)) {
+                System.out.println("\n✗ TEST FAILED - El assembler difiere del del fuente");
+                return false;
+            }
+            System.out.println("\n✓ TEST PASSED");
+            return true;
+        } catch (Exception e) {
+            System.out.println("\n✗ TEST FAILED - Error inesperado: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        } finally {
+            try {
+                if (file != null) {
+                    Files.deleteIfExists(file);
+                }
+            } catch (IOException e) {
+                System.out.println("No se pudo borrar el archivo temporal: " + e.getMessage());
+            }
+            System.out.println("------------------------------------------");
+        }
+    }
+
+    private static semantic.SemanticAnalyzer analyzer(semantic.errors.ErrorHandler errors) {
+        semantic.SemanticAnalyzer analyzer =
+                new semantic.SemanticAnalyzer(new semantic.symboltable.FlatSymbolTable(), errors);
+        analyzer.setTrace(false);
+        return analyzer;
+    }
+
+    /**
+     * Parsea con DescentParser y analiza con analyzer, sin plegar constantes
+     */
+    private static ast.nodes.program.ProgramNode analyzed(String source, semantic.SemanticAnalyzer analyzer,
+                                                          semantic.errors.ErrorHandler errors) throws Exception {
+        lexer.TokenBuffer tokens = new lexer.TokenBuffer();
+        lexer.TableScanner.tokenize(java.nio.ByteBuffer.wrap(source.getBytes(java.nio.charset.StandardCharsets.UTF_8)),
+                tokens, false, errors);
+        ast.nodes.program.ProgramNode program =
+                new parser.DescentParser(new parser.TokenBufferCursor(tokens), errors).parse();
+        program.accept(analyzer);
+        return program;
+    }
+
+    /**
+     * Primer nodo en que difieren dos arenas (tipo, código, valor, posición y enlaces), o -1
+     */
+    private static int arenaMismatch(ast.arena.AstCursor expected, ast.arena.AstCursor actual) {
+        int size = Math.min(expected.size(), actual.size());
+        for (int i = 0; i < size; i++) {
+            if (expected.kind(i) != actual.kind(i) || expected.code(i) != actual.code(i)
+                    || expected.value(i) != actual.value(i)
+                    || expected.line(i) != actual.line(i) || expected.column(i) != actual.column(i)
+                    || expected.first(i) != actual.first(i) || expected.second(i) != actual.second(i)
+                    || expected.next(i) != actual.next(i)) {
+                return i;
+            }
+        }
+        return expected.size() == actual.size() ? -1 : size;
+    }
+
+    private static int countLines(String text, String line) {
+        int count = 0;
+        for (String candidate : text.split("\n")) {
+            if (candidate.equals(line)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Programas con expresiones de un millón de operadores, generados en un directorio temporal
+     */
+    private static List<TestCase> generatedTests() throws IOException {
+        List<TestCase> generated = new ArrayList<>();
+
+        // Cadena de sumas: el AST tiene un millón de niveles por la izquierda
+        StringBuilder sum = new StringBuilder("int main() {\n    int x = 1");
+        for (int i = 0; i < DEEP_EXPRESSION_TERMS; i++) {
+            sum.append(" + 1");
+        }
+        sum.append(";\n    return x;\n}\n");
+        generated.add(generatedTest("expresion_profunda_suma", "EXITOSO", sum));
+
+        // Operadores de todas las precedencias, aritméticos y lógicos
+        StringBuilder mixed = new StringBuilder("int main() {\n    int x = 1");
+        for (int i = 0; i < DEEP_EXPRESSION_TERMS / 4; i++) {
+            mixed.append(" + 2 * 3 - 12 / 2");
+        }
+        mixed.append(";\n    bool b = true");
+        for (int i = 0; i < DEEP_EXPRESSION_TERMS / 4; i++) {
+            mixed.append(i % 2 == 0 ? " && !false" : " || 1 < 2 == true");
+        }
+        mixed.append(";\n    return x;\n}\n");
+        generated.add(generatedTest("expresion_profunda_mixta", "EXITOSO", mixed));
+
+        // El error de tipos está en el último operando
+        StringBuilder error = new StringBuilder("int main() {\n    int x = 1");
+        for (int i = 0; i < DEEP_EXPRESSION_TERMS; i++) {
+            error.append(" + 1");
+        }
+        error.append(" + true;\n    return x;\n}\n");
+        generated.add(generatedTest("expresion_profunda_error", "ERROR", error));
+
+        return generated;
+    }
+
+    private static TestCase generatedTest(String name, String expected, CharSequence source) throws IOException {
+        Path file = Files.createTempFile(name, ".txt");
+        Files.writeString(file, source);
+        file.toFile().deleteOnExit();
+        // El assembler se genera junto al fuente
+        new File(file.toString().replace(".txt", ".asm")).deleteOnExit();
+        return new TestCase(name + ".txt", expected, file.toString());
+    }
 }
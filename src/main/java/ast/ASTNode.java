@@ -1,24 +1,106 @@
 package ast;
 
 import ast.visitor.ASTVisitor;
+import ast.visitor.IntASTVisitor;
+import ast.visitor.VoidASTVisitor;
 
 /**
  * Clase base abstracta para todos los nodos del Árbol Sintáctico Abstracto (AST).
  * Implementa el patrón Visitor para facilitar el recorrido y procesamiento del árbol.
+ * Cada nodo lleva además una etiqueta fija con su clase (kind), para recorrerlo con
+ * un switch en lugar de accept (ver ast.visitor.NodeSwitch). Las etiquetas siguen el
+ * orden de ast.arena.NodeKind.
+ *
+ * Los parsers registran también el rango de texto del nodo (span): desde el inicio de
+ * su primer token hasta el final del último, incluidos los de sus hijos. Los paréntesis
+ * de agrupación no pertenecen a ningún nodo. Los extremos son posiciones empaquetadas
+ * (ver position) y el final es exclusivo. Ver ast.utils.SpanIndex.
  */
 public abstract class ASTNode {
+    public static final int PROGRAM = 0;
+    public static final int FUNCTION_DEF = 1;
+    public static final int PARAM = 2;
+    public static final int DECLARATION = 3;
+    public static final int VAR_DECL = 4;
+    public static final int ASSIGNMENT = 5;
+    public static final int RETURN_STMT = 6;
+    public static final int EXPR_STMT = 7;
+    public static final int IF_STMT = 8;
+    public static final int WHILE_STMT = 9;
+    public static final int BINARY_OP = 10;
+    public static final int UNARY_OP = 11;
+    public static final int NUMBER = 12;
+    public static final int BOOLEAN = 13;
+    public static final int VARIABLE = 14;
+
+    // Nodo sin span (construido sin fuente)
+    public static final long NO_POSITION = -1;
+
+    // Slot de una variable que el análisis no resolvió (ver VariableNode.getSlot)
+    public static final int UNRESOLVED = -1;
+
+    private final int kind;
     protected int line;
     protected int column;
+    private long spanStart = NO_POSITION;
+    private long spanEnd = NO_POSITION;
 
-    public ASTNode(int line, int column) {
+    protected ASTNode(int kind, int line, int column) {
+        this.kind = kind;
         this.line = line;
         this.column = column;
     }
 
+    /**
+     * Empaqueta una posición (base 0) en un long; las posiciones empaquetadas se
+     * comparan en el orden del texto
+     */
+    public static long position(int line, int column) {
+        return ((long) line << 32) | (column & 0xFFFFFFFFL);
+    }
+
+    public static int lineOf(long position) {
+        return (int) (position >>> 32);
+    }
+
+    public static int columnOf(long position) {
+        return (int) position;
+    }
+
+    /**
+     * Etiqueta de la clase del nodo (PROGRAM, IF_STMT, NUMBER, ...)
+     */
+    public final int kind() { return kind; }
+
     public int getLine() { return line; }
 
     public int getColumn() { return column; }
 
+    public boolean hasSpan() { return spanEnd != NO_POSITION; }
+
+    /**
+     * Inicio del span (posición empaquetada), o NO_POSITION
+     */
+    public long getSpanStart() { return spanStart; }
+
+    /**
+     * Final exclusivo del span (posición empaquetada), o NO_POSITION
+     */
+    public long getSpanEnd() { return spanEnd; }
+
+    public void setSpan(long start, long end) {
+        this.spanStart = start;
+        this.spanEnd = end;
+    }
+
+    /**
+     * Fija la posición del nodo, para árboles construidos sin fuente (ver ast.utils.ProgramBuilder)
+     */
+    public void setPosition(int line, int column) {
+        this.line = line;
+        this.column = column;
+    }
+
     /**
      * Representación en cadena del nodo.
      * @return String que representa el nodo
@@ -30,5 +112,15 @@ public abstract class ASTNode {
      * @param visitor El visitante que procesará este nodo
      * @return El resultado del procesamiento del visitante
      */
-    public abstract Object accept(ASTVisitor visitor);
+    public abstract <R> R accept(ASTVisitor<R> visitor);
+
+    /**
+     * Variante de accept para visitantes que devuelven int, sin boxing.
+     */
+    public abstract int acceptInt(IntASTVisitor visitor);
+
+    /**
+     * Variante de accept para visitantes sin resultado.
+     */
+    public abstract void acceptVoid(VoidASTVisitor visitor);
 }
@@ -0,0 +1,74 @@
+package ast;
+
+/**
+ * Tipo del lenguaje. Hay una única instancia por tipo, así que se comparan con ==,
+ * y cada una trae calculados su tamaño y la directiva de assembler de sus datos.
+ * El id es un entero chico y estable (el AST binario guarda los tipos por id).
+ */
+public final class Type {
+    public static final Type INT = new Type(0, "int", 4, "dd", "integer");
+    public static final Type BOOL = new Type(1, "bool", 1, "db", "boolean");
+    public static final Type VOID = new Type(2, "void", 0, "dd", "void");
+    // Resultado de una expresión mal tipada; no se reporta otra vez donde se use
+    public static final Type ERROR = new Type(3, "error", 4, "dd", "error type");
+
+    private static final Type[] BY_ID = {INT, BOOL, VOID, ERROR};
+
+    private final int id;
+    private final String name;
+    private final int size;
+    private final String assemblyType;
+    private final String description;
+
+    private Type(int id, String name, int size, String assemblyType, String description) {
+        this.id = id;
+        this.name = name;
+        this.size = size;
+        this.assemblyType = assemblyType;
+        this.description = description;
+    }
+
+    /**
+     * Tipo con ese nombre en el fuente; cualquier otro nombre es ERROR
+     */
+    public static Type of(String name) {
+        if (name == null) {
+            return null;
+        }
+        switch (name) {
+            case "int": return INT;
+            case "bool": return BOOL;
+            case "void": return VOID;
+            default: return ERROR;
+        }
+    }
+
+    public static Type byId(int id) {
+        return BY_ID[id];
+    }
+
+    public int id() { return id; }
+
+    public String name() { return name; }
+
+    /**
+     * Tamaño en bytes en el stack frame o la sección de datos
+     */
+    public int size() { return size; }
+
+    /**
+     * Directiva de datos de nasm (dd, db)
+     */
+    public String assemblyType() { return assemblyType; }
+
+    public String description() { return description; }
+
+    public boolean isArithmetic() { return this == INT; }
+
+    public boolean isBoolean() { return this == BOOL; }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
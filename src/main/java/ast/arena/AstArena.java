@@ -0,0 +1,400 @@
+package ast.arena;
+
+import ast.nodes.expression.BinaryOpNode;
+import ast.nodes.expression.BooleanNode;
+import ast.nodes.expression.ExprNode;
+import ast.nodes.expression.NumberNode;
+import ast.nodes.expression.UnaryOpNode;
+import ast.nodes.expression.VariableNode;
+import ast.nodes.program.FunctionDefNode;
+import ast.nodes.program.ParamNode;
+import ast.nodes.program.ProgramNode;
+import ast.nodes.statement.AssignmentNode;
+import ast.nodes.statement.DeclarationNode;
+import ast.nodes.statement.ExprStmtNode;
+import ast.nodes.statement.IfStmtNode;
+import ast.nodes.statement.ReturnStmtNode;
+import ast.nodes.statement.StmtNode;
+import ast.nodes.statement.VarDeclNode;
+import ast.nodes.statement.WhileStmtNode;
+import ast.visitor.ExpressionWalker;
+import lexer.NameTable;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * AST en arena: los nodos son índices enteros y sus campos viven en arreglos
+ * paralelos de primitivos, en lugar de un objeto por nodo.
+ * Las listas (parámetros, sentencias, variables) se encadenan con next.
+ *
+ * Uso de los campos según el tipo de nodo:
+ *   PROGRAM       first = función
+ *   FUNCTION_DEF  first = primer parámetro, second = primera sentencia, code = Type.id() del retorno, value = nombre
+ *   PARAM         code = Type.id(), value = nombre
+ *   DECLARATION   first = primera variable, code = Type.id()
+ *   VAR_DECL      first = valor inicial (o NONE), value = nombre
+ *   ASSIGNMENT    first = expresión, value = nombre
+ *   RETURN_STMT   first = expresión (o NONE)
+ *   EXPR_STMT     first = expresión
+ *   IF_STMT       first = condición, second = rama then, value = rama else (o NONE)
+ *   WHILE_STMT    first = condición, second = cuerpo
+ *   BINARY_OP     first = izquierdo, second = derecho, code = operador
+ *   UNARY_OP      first = operando, code = operador
+ *   NUMBER        value = valor
+ *   BOOLEAN       value = 1 o 0
+ *   VARIABLE      value = nombre
+ * Los nombres son ids de la NameTable de la arena; la posición se guarda empaquetada en un long.
+ * Los spans de los nodos no se copian (ver AstFileWriter).
+ * Recorrerla no crea objetos: todos los accesos reciben y devuelven índices o primitivos.
+ * AstFileWriter la guarda en disco y MappedAst la lee desde ahí sin copiarla.
+ */
+public class AstArena implements AstCursor {
+    static final NodeKind[] KINDS = NodeKind.values();
+    static final BinaryOpNode.Operator[] BINARY_OPERATORS = BinaryOpNode.Operator.values();
+    static final UnaryOpNode.Operator[] UNARY_OPERATORS = UnaryOpNode.Operator.values();
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private byte[] kinds;
+    private byte[] codes;
+    private int[] firsts;
+    private int[] seconds;
+    private int[] nexts;
+    private int[] values;
+    private long[] positions;
+    private int size;
+    private final NameTable names;
+
+    public AstArena() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public AstArena(int capacity) {
+        int initial = Math.max(16, capacity);
+        this.kinds = new byte[initial];
+        this.codes = new byte[initial];
+        this.firsts = new int[initial];
+        this.seconds = new int[initial];
+        this.nexts = new int[initial];
+        this.values = new int[initial];
+        this.positions = new long[initial];
+        this.names = new NameTable();
+    }
+
+    // ========== CONSTRUCCIÓN ==========
+
+    /**
+     * Agrega un nodo sin hijos ni hermanos
+     * @return el índice del nodo
+     */
+    public int add(NodeKind kind, int code, int value, int line, int column) {
+        if (size == kinds.length) {
+            grow();
+        }
+        int node = size++;
+        kinds[node] = (byte) kind.ordinal();
+        codes[node] = (byte) code;
+        firsts[node] = NONE;
+        seconds[node] = NONE;
+        nexts[node] = NONE;
+        values[node] = value;
+        positions[node] = ((long) line << 32) | (column & 0xFFFFFFFFL);
+        return node;
+    }
+
+    public void setFirst(int node, int child) {
+        firsts[node] = child;
+    }
+
+    public void setSecond(int node, int child) {
+        seconds[node] = child;
+    }
+
+    public void setValue(int node, int value) {
+        values[node] = value;
+    }
+
+    public void setNext(int node, int sibling) {
+        nexts[node] = sibling;
+    }
+
+    /**
+     * Id del nombre en la tabla de la arena
+     */
+    public int internName(String name) {
+        return names.internId(name);
+    }
+
+    private void grow() {
+        resize(kinds.length * 2);
+    }
+
+    /**
+     * Libera la capacidad reservada que no se usa
+     */
+    public void trimToSize() {
+        if (size < kinds.length) {
+            resize(Math.max(size, 1));
+        }
+    }
+
+    private void resize(int capacity) {
+        kinds = Arrays.copyOf(kinds, capacity);
+        codes = Arrays.copyOf(codes, capacity);
+        firsts = Arrays.copyOf(firsts, capacity);
+        seconds = Arrays.copyOf(seconds, capacity);
+        nexts = Arrays.copyOf(nexts, capacity);
+        values = Arrays.copyOf(values, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+    }
+
+    // ========== CURSOR ==========
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public NodeKind kind(int node) {
+        return KINDS[kinds[node]];
+    }
+
+    @Override
+    public int code(int node) {
+        return codes[node];
+    }
+
+    @Override
+    public int first(int node) {
+        return firsts[node];
+    }
+
+    @Override
+    public int second(int node) {
+        return seconds[node];
+    }
+
+    @Override
+    public int next(int node) {
+        return nexts[node];
+    }
+
+    @Override
+    public int value(int node) {
+        return values[node];
+    }
+
+    @Override
+    public int line(int node) {
+        return (int) (positions[node] >> 32);
+    }
+
+    @Override
+    public int column(int node) {
+        return (int) positions[node];
+    }
+
+    @Override
+    public String nameById(int id) {
+        return names.name(id);
+    }
+
+    @Override
+    public int nameCount() {
+        return names.size();
+    }
+
+    public NameTable getNameTable() {
+        return names;
+    }
+
+    /**
+     * Bytes ocupados por los arreglos de la arena (capacidad reservada, sin la tabla de nombres)
+     */
+    public long memoryBytes() {
+        return (long) kinds.length * (1 + 1 + 4 + 4 + 4 + 4 + 8);
+    }
+
+    // ========== CONVERSIÓN DESDE EL ÁRBOL DE OBJETOS ==========
+
+    /**
+     * Copia un AST de objetos a una arena nueva. Las expresiones y los bloques
+     * se recorren con pilas explícitas, así que la profundidad no está limitada.
+     */
+    public static AstArena from(ProgramNode program) {
+        AstArena arena = new AstArena();
+        new Converter(arena).convert(program);
+        arena.trimToSize();
+        return arena;
+    }
+
+    /**
+     * Lista de sentencias pendiente de convertir y el lugar donde se engancha su primer elemento
+     */
+    private static final class PendingBlock {
+        final List<StmtNode> statements;
+        final int owner;
+        final boolean elseSlot;     // true: rama else (value); false: second
+
+        PendingBlock(List<StmtNode> statements, int owner, boolean elseSlot) {
+            this.statements = statements;
+            this.owner = owner;
+            this.elseSlot = elseSlot;
+        }
+    }
+
+    private static final class Converter extends ExpressionWalker<Integer> {
+        private final AstArena arena;
+        private final Deque<PendingBlock> pending = new ArrayDeque<>();
+
+        Converter(AstArena arena) {
+            this.arena = arena;
+        }
+
+        void convert(ProgramNode program) {
+            int root = arena.add(NodeKind.PROGRAM, 0, 0, program.getLine(), program.getColumn());
+
+            FunctionDefNode function = program.getMainFunction();
+            int functionNode = arena.add(NodeKind.FUNCTION_DEF, function.getDeclaredReturnType().id(),
+                    arena.internName(function.getFunctionName()), function.getLine(), function.getColumn());
+            arena.setFirst(root, functionNode);
+
+            int previous = NONE;
+            for (ParamNode param : function.getParameters()) {
+                int paramNode = arena.add(NodeKind.PARAM, param.getDeclaredType().id(),
+                        arena.internName(param.getName()), param.getLine(), param.getColumn());
+                previous = link(functionNode, previous, paramNode);
+            }
+
+            pending.push(new PendingBlock(function.getStatements(), functionNode, false));
+            while (!pending.isEmpty()) {
+                PendingBlock block = pending.pop();
+                int first = NONE;
+                int last = NONE;
+                for (StmtNode stmt : block.statements) {
+                    int node = statement(stmt);
+                    if (last == NONE) {
+                        first = node;
+                    } else {
+                        arena.setNext(last, node);
+                    }
+                    last = node;
+                }
+                if (block.elseSlot) {
+                    arena.setValue(block.owner, first);
+                } else {
+                    arena.setSecond(block.owner, first);
+                }
+            }
+        }
+
+        /**
+         * Engancha child como siguiente de previous, o como primer hijo de owner
+         */
+        private int link(int owner, int previous, int child) {
+            if (previous == NONE) {
+                arena.setFirst(owner, child);
+            } else {
+                arena.setNext(previous, child);
+            }
+            return child;
+        }
+
+        /**
+         * Convierte una sentencia; los bloques de if y while quedan pendientes
+         */
+        private int statement(StmtNode stmt) {
+            int line = stmt.getLine();
+            int column = stmt.getColumn();
+
+            if (stmt instanceof DeclarationNode) {
+                DeclarationNode decl = (DeclarationNode) stmt;
+                int node = arena.add(NodeKind.DECLARATION, decl.getDeclaredType().id(), 0, line, column);
+                int previous = NONE;
+                for (VarDeclNode var : decl.getVariables()) {
+                    int varNode = arena.add(NodeKind.VAR_DECL, 0, arena.internName(var.getName()),
+                            var.getLine(), var.getColumn());
+                    if (var.hasInitialValue()) {
+                        arena.setFirst(varNode, walk(var.getInitialValue()));
+                    }
+                    previous = link(node, previous, varNode);
+                }
+                return node;
+            }
+            if (stmt instanceof AssignmentNode) {
+                AssignmentNode assignment = (AssignmentNode) stmt;
+                int node = arena.add(NodeKind.ASSIGNMENT, 0, arena.internName(assignment.getVariableName()),
+                        line, column);
+                arena.setFirst(node, walk(assignment.getExpression()));
+                return node;
+            }
+            if (stmt instanceof ReturnStmtNode) {
+                ReturnStmtNode returnStmt = (ReturnStmtNode) stmt;
+                int node = arena.add(NodeKind.RETURN_STMT, 0, 0, line, column);
+                if (returnStmt.hasExpression()) {
+                    arena.setFirst(node, walk(returnStmt.getExpression()));
+                }
+                return node;
+            }
+            if (stmt instanceof ExprStmtNode) {
+                int node = arena.add(NodeKind.EXPR_STMT, 0, 0, line, column);
+                arena.setFirst(node, walk(((ExprStmtNode) stmt).getExpression()));
+                return node;
+            }
+            if (stmt instanceof IfStmtNode) {
+                IfStmtNode ifStmt = (IfStmtNode) stmt;
+                int node = arena.add(NodeKind.IF_STMT, 0, NONE, line, column);
+                arena.setFirst(node, walk(ifStmt.getCondition()));
+                pending.push(new PendingBlock(ifStmt.getThenBranch(), node, false));
+                if (ifStmt.hasElseBranch()) {
+                    pending.push(new PendingBlock(ifStmt.getElseBranch(), node, true));
+                }
+                return node;
+            }
+            if (stmt instanceof WhileStmtNode) {
+                WhileStmtNode whileStmt = (WhileStmtNode) stmt;
+                int node = arena.add(NodeKind.WHILE_STMT, 0, 0, line, column);
+                arena.setFirst(node, walk(whileStmt.getCondition()));
+                pending.push(new PendingBlock(whileStmt.getBody(), node, false));
+                return node;
+            }
+            throw new IllegalArgumentException("Sentencia desconocida: " + stmt.getClass().getSimpleName());
+        }
+
+        @Override
+        protected Integer leaf(ExprNode expr) {
+            int line = expr.getLine();
+            int column = expr.getColumn();
+            if (expr instanceof NumberNode) {
+                return arena.add(NodeKind.NUMBER, 0, ((NumberNode) expr).getValue(), line, column);
+            }
+            if (expr instanceof BooleanNode) {
+                return arena.add(NodeKind.BOOLEAN, 0, ((BooleanNode) expr).getValue() ? 1 : 0, line, column);
+            }
+            if (expr instanceof VariableNode) {
+                return arena.add(NodeKind.VARIABLE, 0, arena.internName(((VariableNode) expr).getName()),
+                        line, column);
+            }
+            throw new IllegalArgumentException("Expresión desconocida: " + expr.getClass().getSimpleName());
+        }
+
+        @Override
+        protected Integer unary(UnaryOpNode expr, Integer operand) {
+            int node = arena.add(NodeKind.UNARY_OP, expr.getOperator().ordinal(), 0, expr.getLine(), expr.getColumn());
+            arena.setFirst(node, operand);
+            return node;
+        }
+
+        @Override
+        protected Integer binary(BinaryOpNode expr, Integer left, Integer right) {
+            int node = arena.add(NodeKind.BINARY_OP, expr.getOperator().ordinal(), 0, expr.getLine(), expr.getColumn());
+            arena.setFirst(node, left);
+            arena.setSecond(node, right);
+            return node;
+        }
+    }
+}
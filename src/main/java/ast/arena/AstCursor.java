@@ -0,0 +1,129 @@
+package ast.arena;
+
+import ast.Type;
+import ast.nodes.expression.BinaryOpNode;
+import ast.nodes.expression.UnaryOpNode;
+import ast.nodes.program.ProgramNode;
+
+/**
+ * Acceso por índice a un AST en forma de arena, esté en memoria (AstArena)
+ * o en un archivo mapeado (MappedAst). Los nodos son enteros; ningún método
+ * crea objetos, salvo name() la primera vez que se decodifica un nombre.
+ * El uso de first, second y value según el tipo de nodo está documentado en AstArena.
+ */
+public interface AstCursor {
+    int NONE = -1;
+
+    int size();
+
+    NodeKind kind(int node);
+
+    /**
+     * Operador o tipo declarado, según el tipo de nodo
+     */
+    int code(int node);
+
+    int first(int node);
+
+    int second(int node);
+
+    /**
+     * Siguiente elemento de la lista a la que pertenece el nodo, o NONE
+     */
+    int next(int node);
+
+    /**
+     * Literal, id de nombre o rama else, según el tipo de nodo
+     */
+    int value(int node);
+
+    int line(int node);
+
+    int column(int node);
+
+    /**
+     * Nombre con el id dado
+     */
+    String nameById(int id);
+
+    int nameCount();
+
+    // ========== ACCESOS CON NOMBRE ==========
+
+    /**
+     * Raíz del árbol (el PROGRAM); es siempre el primer nodo
+     */
+    default int root() {
+        return size() > 0 ? 0 : NONE;
+    }
+
+    default int left(int node) {
+        return first(node);
+    }
+
+    default int right(int node) {
+        return second(node);
+    }
+
+    default int operand(int node) {
+        return first(node);
+    }
+
+    default int condition(int node) {
+        return first(node);
+    }
+
+    default int thenBranch(int node) {
+        return second(node);
+    }
+
+    default int elseBranch(int node) {
+        return value(node);
+    }
+
+    default int body(int node) {
+        return second(node);
+    }
+
+    default BinaryOpNode.Operator binaryOperator(int node) {
+        return AstArena.BINARY_OPERATORS[code(node)];
+    }
+
+    default UnaryOpNode.Operator unaryOperator(int node) {
+        return AstArena.UNARY_OPERATORS[code(node)];
+    }
+
+    /**
+     * Tipo declarado de una función, parámetro o declaración
+     */
+    default String type(int node) {
+        return Type.byId(code(node)).name();
+    }
+
+    default int intValue(int node) {
+        return value(node);
+    }
+
+    default boolean booleanValue(int node) {
+        return value(node) != 0;
+    }
+
+    /**
+     * Id del nombre de una función, parámetro, variable declarada, asignada o leída
+     */
+    default int nameId(int node) {
+        return value(node);
+    }
+
+    default String name(int node) {
+        return nameById(value(node));
+    }
+
+    /**
+     * Construye el AST de objetos equivalente, para las fases que todavía lo necesitan.
+     * Sus nodos tienen línea y columna pero no span.
+     */
+    default ProgramNode toProgram() {
+        return new TreeBuilder(this).build();
+    }
+}
@@ -0,0 +1,118 @@
+package ast.arena;
+
+import ast.nodes.program.ProgramNode;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Guarda un AST en el formato binario que lee MappedAst.
+ *
+ * Formato (versión 1, little-endian):
+ *   encabezado   magic "ASTB", versión (short), reservado (short), cantidad de nodos (int),
+ *                cantidad de nombres (int), reservado (int), posición de los nombres (long)
+ *   nodos        un registro de RECORD_SIZE bytes por nodo, en el orden de la arena:
+ *                tipo (byte), código (byte), reservado (short), first, second, next,
+ *                value, línea y columna (int)
+ *   nombres      posición de cada nombre relativa al inicio de los bytes (int, uno más
+ *                que la cantidad de nombres) y los nombres en UTF-8
+ * Los registros son de tamaño fijo para que el lector acceda a cualquier nodo sin leer los anteriores.
+ * Como la arena, el formato guarda solo la línea y la columna de cada nodo, no su span:
+ * alcanzan para compilar y para los diagnósticos. El AST que reconstruye MappedAst no
+ * tiene spans (hasSpan() es false), así que SpanIndex no indexa ninguno de sus nodos;
+ * el reparseo incremental y las consultas por posición trabajan sobre el fuente.
+ */
+public class AstFileWriter {
+    static final int MAGIC = 0x42545341;       // "ASTB" en little-endian
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 28;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private AstFileWriter() {
+    }
+
+    public static void write(ProgramNode program, Path file) throws IOException {
+        write(AstArena.from(program), file);
+    }
+
+    public static void write(AstCursor ast, Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        int nodes = ast.size();
+        int names = ast.nameCount();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer.putInt(MAGIC);
+            buffer.putShort(VERSION);
+            buffer.putShort((short) 0);
+            buffer.putInt(nodes);
+            buffer.putInt(names);
+            buffer.putInt(0);
+            buffer.putLong(0);      // se completa al final
+            buffer.putInt(0);
+
+            for (int node = 0; node < nodes; node++) {
+                if (buffer.remaining() < RECORD_SIZE) {
+                    drain(buffer, channel);
+                }
+                buffer.put((byte) ast.kind(node).ordinal());
+                buffer.put((byte) ast.code(node));
+                buffer.putShort((short) 0);
+                buffer.putInt(ast.first(node));
+                buffer.putInt(ast.second(node));
+                buffer.putInt(ast.next(node));
+                buffer.putInt(ast.value(node));
+                buffer.putInt(ast.line(node));
+                buffer.putInt(ast.column(node));
+            }
+
+            long namesPosition = HEADER_SIZE + (long) nodes * RECORD_SIZE;
+            byte[][] encoded = new byte[names][];
+            int offset = 0;
+            for (int id = 0; id < names; id++) {
+                encoded[id] = ast.nameById(id).getBytes(StandardCharsets.UTF_8);
+                if (buffer.remaining() < Integer.BYTES) {
+                    drain(buffer, channel);
+                }
+                buffer.putInt(offset);
+                offset += encoded[id].length;
+            }
+            if (buffer.remaining() < Integer.BYTES) {
+                drain(buffer, channel);
+            }
+            buffer.putInt(offset);
+
+            for (byte[] name : encoded) {
+                int written = 0;
+                while (written < name.length) {
+                    if (!buffer.hasRemaining()) {
+                        drain(buffer, channel);
+                    }
+                    int chunk = Math.min(buffer.remaining(), name.length - written);
+                    buffer.put(name, written, chunk);
+                    written += chunk;
+                }
+            }
+            drain(buffer, channel);
+
+            ByteBuffer position = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            position.putLong(namesPosition).flip();
+            channel.write(position, 20);
+        }
+    }
+
+    private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
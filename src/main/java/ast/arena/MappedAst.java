@@ -0,0 +1,169 @@
+package ast.arena;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * AST guardado por AstFileWriter, leído a través del archivo mapeado en memoria.
+ * Abrirlo solo valida el encabezado: cada acceso lee el campo del registro del nodo
+ * directamente del mapeo, así que el sistema operativo trae del disco solo las páginas
+ * que se recorren. Los nombres se decodifican la primera vez que se piden.
+ * Los registros se mapean en segmentos para superar el límite de 2 GB de un buffer.
+ */
+public class MappedAst implements AstCursor {
+    // Nodos por segmento: 2^26 registros de 28 bytes, menos de 2 GB
+    private static final int SEGMENT_SHIFT = 26;
+    private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+    private static final int KIND = 0;
+    private static final int CODE = 1;
+    private static final int FIRST = 4;
+    private static final int SECOND = 8;
+    private static final int NEXT = 12;
+    private static final int VALUE = 16;
+    private static final int LINE = 20;
+    private static final int COLUMN = 24;
+
+    private final MappedByteBuffer[] segments;
+    private final MappedByteBuffer nameOffsets;
+    private final MappedByteBuffer nameBytes;
+    private final String[] names;
+    private final int size;
+
+    private MappedAst(MappedByteBuffer[] segments, MappedByteBuffer nameOffsets, MappedByteBuffer nameBytes,
+                      int size, int nameCount) {
+        this.segments = segments;
+        this.nameOffsets = nameOffsets;
+        this.nameBytes = nameBytes;
+        this.size = size;
+        this.names = new String[nameCount];
+    }
+
+    /**
+     * Mapea un archivo escrito por AstFileWriter
+     * @throws IOException si el archivo no es un AST o es de otra versión del formato
+     */
+    public static MappedAst open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < AstFileWriter.HEADER_SIZE) {
+                throw new IOException("No es un archivo AST: " + file);
+            }
+
+            MappedByteBuffer header = map(channel, 0, AstFileWriter.HEADER_SIZE);
+            if (header.getInt(0) != AstFileWriter.MAGIC) {
+                throw new IOException("No es un archivo AST: " + file);
+            }
+            short version = header.getShort(4);
+            if (version != AstFileWriter.VERSION) {
+                throw new IOException("Versión de AST no soportada: " + version
+                        + " (se esperaba " + AstFileWriter.VERSION + ")");
+            }
+            int size = header.getInt(8);
+            int nameCount = header.getInt(12);
+            long namesPosition = header.getLong(20);
+            long offsetsLength = (nameCount + 1L) * Integer.BYTES;
+            if (namesPosition != AstFileWriter.HEADER_SIZE + (long) size * AstFileWriter.RECORD_SIZE
+                    || namesPosition + offsetsLength > length) {
+                throw new IOException("Archivo AST truncado o dañado: " + file);
+            }
+
+            int segmentCount = (int) (((long) size + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+            MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long first = (long) i << SEGMENT_SHIFT;
+                long nodes = Math.min(size - first, 1L << SEGMENT_SHIFT);
+                segments[i] = map(channel, AstFileWriter.HEADER_SIZE + first * AstFileWriter.RECORD_SIZE,
+                        nodes * AstFileWriter.RECORD_SIZE);
+            }
+
+            MappedByteBuffer nameOffsets = map(channel, namesPosition, offsetsLength);
+            long bytesPosition = namesPosition + offsetsLength;
+            MappedByteBuffer nameBytes = map(channel, bytesPosition, length - bytesPosition);
+            return new MappedAst(segments, nameOffsets, nameBytes, size, nameCount);
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, long length) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    private MappedByteBuffer segment(int node) {
+        return segments[node >>> SEGMENT_SHIFT];
+    }
+
+    private int offset(int node, int field) {
+        return (node & SEGMENT_MASK) * AstFileWriter.RECORD_SIZE + field;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public NodeKind kind(int node) {
+        return AstArena.KINDS[segment(node).get(offset(node, KIND))];
+    }
+
+    @Override
+    public int code(int node) {
+        return segment(node).get(offset(node, CODE));
+    }
+
+    @Override
+    public int first(int node) {
+        return segment(node).getInt(offset(node, FIRST));
+    }
+
+    @Override
+    public int second(int node) {
+        return segment(node).getInt(offset(node, SECOND));
+    }
+
+    @Override
+    public int next(int node) {
+        return segment(node).getInt(offset(node, NEXT));
+    }
+
+    @Override
+    public int value(int node) {
+        return segment(node).getInt(offset(node, VALUE));
+    }
+
+    @Override
+    public int line(int node) {
+        return segment(node).getInt(offset(node, LINE));
+    }
+
+    @Override
+    public int column(int node) {
+        return segment(node).getInt(offset(node, COLUMN));
+    }
+
+    @Override
+    public String nameById(int id) {
+        String name = names[id];
+        if (name == null) {
+            int start = nameOffsets.getInt(id * Integer.BYTES);
+            int end = nameOffsets.getInt((id + 1) * Integer.BYTES);
+            byte[] bytes = new byte[end - start];
+            nameBytes.get(start, bytes);
+            name = new String(bytes, StandardCharsets.UTF_8);
+            names[id] = name;
+        }
+        return name;
+    }
+
+    @Override
+    public int nameCount() {
+        return names.length;
+    }
+}
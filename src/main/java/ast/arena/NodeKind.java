@@ -0,0 +1,23 @@
+package ast.arena;
+
+/**
+ * Tipos de nodo de la representación en arena (uno por clase de ast.nodes).
+ * El ordinal de cada uno coincide con la etiqueta ASTNode.kind() de su clase.
+ */
+public enum NodeKind {
+    PROGRAM,
+    FUNCTION_DEF,
+    PARAM,
+    DECLARATION,
+    VAR_DECL,
+    ASSIGNMENT,
+    RETURN_STMT,
+    EXPR_STMT,
+    IF_STMT,
+    WHILE_STMT,
+    BINARY_OP,
+    UNARY_OP,
+    NUMBER,
+    BOOLEAN,
+    VARIABLE
+}
@@ -0,0 +1,193 @@
+package ast.arena;
+
+import ast.nodes.expression.BinaryOpNode;
+import ast.nodes.expression.BooleanNode;
+import ast.nodes.expression.ExprNode;
+import ast.nodes.expression.NumberNode;
+import ast.nodes.expression.UnaryOpNode;
+import ast.nodes.expression.VariableNode;
+import ast.nodes.program.FunctionDefNode;
+import ast.nodes.program.ParamNode;
+import ast.nodes.program.ProgramNode;
+import ast.nodes.statement.AssignmentNode;
+import ast.nodes.statement.DeclarationNode;
+import ast.nodes.statement.ExprStmtNode;
+import ast.nodes.statement.IfStmtNode;
+import ast.nodes.statement.ReturnStmtNode;
+import ast.nodes.statement.StmtNode;
+import ast.nodes.statement.VarDeclNode;
+import ast.nodes.statement.WhileStmtNode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Reconstruye el AST de objetos a partir de una arena, sin recursión.
+ * Las listas de los if y while se crean vacías y se llenan al sacar su bloque
+ * de la pila de trabajo; las expresiones se arman en post-orden.
+ */
+class TreeBuilder {
+    private static final int NONE = AstCursor.NONE;
+
+    private final AstCursor arena;
+
+    // Bloques pendientes: primera sentencia y lista donde van
+    private final Deque<List<StmtNode>> pendingLists = new ArrayDeque<>();
+    private int[] pendingFirst = new int[16];
+
+    // Post-orden de expresiones
+    private int[] exprStack = new int[32];
+    private boolean[] expanded = new boolean[32];
+    private ExprNode[] values = new ExprNode[32];
+
+    TreeBuilder(AstCursor arena) {
+        this.arena = arena;
+    }
+
+    ProgramNode build() {
+        int root = arena.root();
+        int function = arena.first(root);
+
+        List<ParamNode> parameters = new ArrayList<>();
+        for (int param = arena.first(function); param != NONE; param = arena.next(param)) {
+            parameters.add(new ParamNode(arena.line(param), arena.column(param),
+                    arena.type(param), arena.name(param)));
+        }
+
+        List<StmtNode> statements = new ArrayList<>();
+        FunctionDefNode functionNode = new FunctionDefNode(arena.line(function), arena.column(function),
+                arena.type(function), arena.name(function), parameters, statements);
+
+        push(arena.second(function), statements);
+        while (!pendingLists.isEmpty()) {
+            List<StmtNode> target = pendingLists.pop();
+            for (int stmt = pendingFirst[pendingLists.size()]; stmt != NONE; stmt = arena.next(stmt)) {
+                target.add(statement(stmt));
+            }
+        }
+
+        return new ProgramNode(arena.line(root), arena.column(root), functionNode);
+    }
+
+    private void push(int firstStatement, List<StmtNode> target) {
+        int depth = pendingLists.size();
+        if (depth == pendingFirst.length) {
+            pendingFirst = Arrays.copyOf(pendingFirst, depth * 2);
+        }
+        pendingFirst[depth] = firstStatement;
+        pendingLists.push(target);
+    }
+
+    private StmtNode statement(int node) {
+        int line = arena.line(node);
+        int column = arena.column(node);
+
+        switch (arena.kind(node)) {
+            case DECLARATION: {
+                List<VarDeclNode> variables = new ArrayList<>();
+                for (int var = arena.first(node); var != NONE; var = arena.next(var)) {
+                    variables.add(new VarDeclNode(arena.line(var), arena.column(var), arena.name(var),
+                            expression(arena.first(var))));
+                }
+                return new DeclarationNode(line, column, arena.type(node), variables);
+            }
+            case ASSIGNMENT:
+                return new AssignmentNode(line, column, arena.name(node), expression(arena.first(node)));
+            case RETURN_STMT:
+                return new ReturnStmtNode(line, column, expression(arena.first(node)));
+            case EXPR_STMT:
+                return new ExprStmtNode(line, column, expression(arena.first(node)));
+            case IF_STMT: {
+                List<StmtNode> thenBranch = new ArrayList<>();
+                List<StmtNode> elseBranch = null;
+                push(arena.thenBranch(node), thenBranch);
+                if (arena.elseBranch(node) != NONE) {
+                    elseBranch = new ArrayList<>();
+                    push(arena.elseBranch(node), elseBranch);
+                }
+                return new IfStmtNode(line, column, expression(arena.condition(node)), thenBranch, elseBranch);
+            }
+            case WHILE_STMT: {
+                List<StmtNode> body = new ArrayList<>();
+                push(arena.body(node), body);
+                return new WhileStmtNode(line, column, expression(arena.condition(node)), body);
+            }
+            default:
+                throw new IllegalStateException("Nodo " + node + " no es una sentencia: " + arena.kind(node));
+        }
+    }
+
+    /**
+     * Arma la expresión con raíz en node; NONE devuelve null
+     */
+    private ExprNode expression(int node) {
+        if (node == NONE) {
+            return null;
+        }
+
+        int top = 0;
+        int valueTop = 0;
+        exprStack[top] = node;
+        expanded[top++] = false;
+
+        while (top > 0) {
+            int current = exprStack[top - 1];
+            NodeKind kind = arena.kind(current);
+
+            if (!expanded[top - 1] && (kind == NodeKind.BINARY_OP || kind == NodeKind.UNARY_OP)) {
+                expanded[top - 1] = true;
+                if (top + 2 > exprStack.length) {
+                    exprStack = Arrays.copyOf(exprStack, exprStack.length * 2);
+                    expanded = Arrays.copyOf(expanded, expanded.length * 2);
+                }
+                // El derecho queda abajo: el izquierdo se arma primero
+                if (kind == NodeKind.BINARY_OP) {
+                    exprStack[top] = arena.right(current);
+                    expanded[top++] = false;
+                }
+                exprStack[top] = arena.first(current);
+                expanded[top++] = false;
+                continue;
+            }
+
+            top--;
+            int line = arena.line(current);
+            int column = arena.column(current);
+            ExprNode result;
+            switch (kind) {
+                case BINARY_OP: {
+                    ExprNode right = values[--valueTop];
+                    ExprNode left = values[--valueTop];
+                    result = new BinaryOpNode(line, column, left, arena.binaryOperator(current), right);
+                    break;
+                }
+                case UNARY_OP:
+                    result = new UnaryOpNode(line, column, arena.unaryOperator(current), values[--valueTop]);
+                    break;
+                case NUMBER:
+                    result = new NumberNode(line, column, arena.intValue(current));
+                    break;
+                case BOOLEAN:
+                    result = new BooleanNode(line, column, arena.booleanValue(current));
+                    break;
+                case VARIABLE:
+                    result = new VariableNode(line, column, arena.name(current));
+                    break;
+                default:
+                    throw new IllegalStateException("Nodo " + current + " no es una expresión: " + kind);
+            }
+
+            if (valueTop == values.length) {
+                values = Arrays.copyOf(values, valueTop * 2);
+            }
+            values[valueTop++] = result;
+        }
+
+        ExprNode result = values[0];
+        values[0] = null;
+        return result;
+    }
+}
@@ -1,11 +1,13 @@
 package ast.nodes.expression;
 
 import ast.visitor.ASTVisitor;
+import ast.visitor.IntASTVisitor;
+import ast.visitor.VoidASTVisitor;
 
 /**
  * Nodo que representa una operación binaria.
  */
-public class BinaryOpNode extends ExprNode {
+public final class BinaryOpNode extends ExprNode {
     public enum Operator {
         PLUS, MINUS, TIMES, DIVIDE, AND, OR, EQ, LT, GT
     }
@@ -15,16 +17,32 @@ public class BinaryOpNode extends ExprNode {
     private ExprNode right;
 
     public BinaryOpNode(int line, int column, ExprNode left, Operator operator, ExprNode right) {
-        super(line, column);
+        super(BINARY_OP, line, column);
         this.left = left;
         this.operator = operator;
         this.right = right;
+        updateHash();
     }
 
     public ExprNode getLeft() { return left; }
     public Operator getOperator() { return operator; }
     public ExprNode getRight() { return right; }
 
+    // Setters para las pasadas que reescriben el árbol (ver ASTTransformer); recalculan el hash estructural
+    public void setLeft(ExprNode left) {
+        this.left = left;
+        updateHash();
+    }
+
+    public void setRight(ExprNode right) {
+        this.right = right;
+        updateHash();
+    }
+
+    private void updateHash() {
+        this.structuralHash = ((0x42494E * 31 + operator.ordinal()) * 31 + hashOf(left)) * 31 + hashOf(right);
+    }
+
     @Override
     public String toString() {
         String op = "";
@@ -43,7 +61,17 @@ public class BinaryOpNode extends ExprNode {
     }
 
     @Override
-    public Object accept(ASTVisitor visitor) {
+    public <R> R accept(ASTVisitor<R> visitor) {
         return visitor.visitBinaryOp(this);
     }
+
+    @Override
+    public int acceptInt(IntASTVisitor visitor) {
+        return visitor.visitBinaryOp(this);
+    }
+
+    @Override
+    public void acceptVoid(VoidASTVisitor visitor) {
+        visitor.visitBinaryOp(this);
+    }
 }
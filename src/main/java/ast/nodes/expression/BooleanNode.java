@@ -1,16 +1,19 @@
 package ast.nodes.expression;
 
 import ast.visitor.ASTVisitor;
+import ast.visitor.IntASTVisitor;
+import ast.visitor.VoidASTVisitor;
 
 /**
  * Nodo que representa un literal booleano.
  */
-public class BooleanNode extends ExprNode {
+public final class BooleanNode extends ExprNode {
     private boolean value;
 
     public BooleanNode(int line, int column, boolean value) {
-        super(line, column);
+        super(BOOLEAN, line, column);
         this.value = value;
+        this.structuralHash = value ? 0x424F4F4C : 0x424F4F4C + 1;
     }
 
     public boolean getValue() { return value; }
@@ -21,7 +24,17 @@ public class BooleanNode extends ExprNode {
     }
 
     @Override
-    public Object accept(ASTVisitor visitor) {
+    public <R> R accept(ASTVisitor<R> visitor) {
         return visitor.visitBoolean(this);
     }
+
+    @Override
+    public int acceptInt(IntASTVisitor visitor) {
+        return visitor.visitBoolean(this);
+    }
+
+    @Override
+    public void acceptVoid(VoidASTVisitor visitor) {
+        visitor.visitBoolean(this);
+    }
 }
@@ -1,12 +1,38 @@
 package ast.nodes.expression;
 
 import ast.ASTNode;
+import ast.Type;
 
 /**
  * Clase base abstracta para todos los nodos de expresiones.
  */
-public abstract class ExprNode extends ASTNode {
-    public ExprNode(int line, int column) {
-        super(line, column);
+public abstract sealed class ExprNode extends ASTNode
+        permits BinaryOpNode, UnaryOpNode, NumberNode, BooleanNode, VariableNode {
+    // Hash de la estructura del subárbol (sin posiciones), calculado al construir el nodo
+    protected int structuralHash;
+    // Tipo verificado por el análisis semántico; null si todavía no se analizó
+    private Type type;
+
+    protected ExprNode(int kind, int line, int column) {
+        super(kind, line, column);
+    }
+
+    /**
+     * Hash estructural: igual para subárboles con la misma forma, operadores y hojas.
+     * Se calcula en O(1) a partir del de los hijos, que ya existen al crear el padre.
+     */
+    public int structuralHash() { return structuralHash; }
+
+    /**
+     * Tipo que le asignó el análisis semántico, para que las fases siguientes no
+     * lo vuelvan a calcular. En una expresión compartida por hash-consing es el
+     * de su último análisis.
+     */
+    public Type getType() { return type; }
+
+    public void setType(Type type) { this.type = type; }
+
+    protected static int hashOf(ExprNode node) {
+        return node != null ? node.structuralHash : 0;
     }
 }
@@ -1,16 +1,19 @@
 package ast.nodes.expression;
 
 import ast.visitor.ASTVisitor;
+import ast.visitor.IntASTVisitor;
+import ast.visitor.VoidASTVisitor;
 
 /**
  * Nodo que representa un literal numérico.
  */
-public class NumberNode extends ExprNode {
+public final class NumberNode extends ExprNode {
     private int value;
 
     public NumberNode(int line, int column, int value) {
-        super(line, column);
+        super(NUMBER, line, column);
         this.value = value;
+        this.structuralHash = 0x4E554D * 31 + value;
     }
 
     public int getValue() { return value; }
@@ -21,7 +24,17 @@ public class NumberNode extends ExprNode {
     }
 
     @Override
-    public Object accept(ASTVisitor visitor) {
+    public <R> R accept(ASTVisitor<R> visitor) {
         return visitor.visitNumber(this);
     }
+
+    @Override
+    public int acceptInt(IntASTVisitor visitor) {
+        return visitor.visitNumber(this);
+    }
+
+    @Override
+    public void acceptVoid(VoidASTVisitor visitor) {
+        visitor.visitNumber(this);
+    }
 }
@@ -1,6 +1,6 @@
 package ast.nodes.expression;
 
-public class UnaryOpNode extends ExprNode {
+public final class UnaryOpNode extends ExprNode {
     public enum Operator {
         NOT
     }
@@ -9,22 +9,43 @@ public class UnaryOpNode extends ExprNode {
     private ExprNode operand;
 
     public UnaryOpNode(int line, int column, Operator operator, ExprNode operand) {
-        super(line, column);
+        super(UNARY_OP, line, column);
         this.operator = operator;
         this.operand = operand;
+        updateHash();
     }
 
     // Getters
     public Operator getOperator() { return operator; }
     public ExprNode getOperand() { return operand; }
 
+    // Setter para las pasadas que reescriben el árbol (ver ASTTransformer); recalcula el hash estructural
+    public void setOperand(ExprNode operand) {
+        this.operand = operand;
+        updateHash();
+    }
+
+    private void updateHash() {
+        this.structuralHash = (0x554E * 31 + operator.ordinal()) * 31 + hashOf(operand);
+    }
+
     @Override
     public String toString() {
         return "UnaryOp{" + operator + " " + operand + "}";
     }
 
     @Override
-    public Object accept(ast.visitor.ASTVisitor visitor) {
+    public <R> R accept(ast.visitor.ASTVisitor<R> visitor) {
+        return visitor.visitUnaryOp(this);
+    }
+
+    @Override
+    public int acceptInt(ast.visitor.IntASTVisitor visitor) {
         return visitor.visitUnaryOp(this);
     }
+
+    @Override
+    public void acceptVoid(ast.visitor.VoidASTVisitor visitor) {
+        visitor.visitUnaryOp(this);
+    }
 }
@@ -1,27 +1,61 @@
 package ast.nodes.expression;
 
 import ast.visitor.ASTVisitor;
+import ast.visitor.IntASTVisitor;
+import ast.visitor.VoidASTVisitor;
 
 /**
  * Nodo que representa una referencia a una variable.
  */
-public class VariableNode extends ExprNode {
+public final class VariableNode extends ExprNode {
     private String name;
 
+    // Binding resuelto por el análisis semántico: slot de la declaración que ve en la función y offset en el frame
+    private int slot = UNRESOLVED;
+    private int frameOffset;
+
     public VariableNode(int line, int column, String name) {
-        super(line, column);
+        super(VARIABLE, line, column);
         this.name = name;
+        this.structuralHash = 0x564152 * 31 + name.hashCode();
     }
 
     public String getName() { return name; }
 
+    /**
+     * Slot de la declaración a la que se refiere dentro de su función (0, 1, ... en orden de declaración), o UNRESOLVED
+     */
+    public int getSlot() { return slot; }
+
+    /**
+     * Offset en el frame: la variable está en [rbp - offset]
+     */
+    public int getFrameOffset() { return frameOffset; }
+
+    public boolean isResolved() { return slot != UNRESOLVED; }
+
+    public void setBinding(int slot, int frameOffset) {
+        this.slot = slot;
+        this.frameOffset = frameOffset;
+    }
+
     @Override
     public String toString() {
         return name;
     }
 
     @Override
-    public Object accept(ASTVisitor visitor) {
+    public <R> R accept(ASTVisitor<R> visitor) {
         return visitor.visitVariable(this);
     }
+
+    @Override
+    public int acceptInt(IntASTVisitor visitor) {
+        return visitor.visitVariable(this);
+    }
+
+    @Override
+    public void acceptVoid(VoidASTVisitor visitor) {
+        visitor.visitVariable(this);
+    }
 }
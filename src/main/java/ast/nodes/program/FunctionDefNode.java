@@ -1,30 +1,36 @@
 package ast.nodes.program;
 
 import ast.ASTNode;
+import ast.Type;
 import ast.nodes.statement.StmtNode;
 import ast.visitor.ASTVisitor;
+import ast.visitor.IntASTVisitor;
+import ast.visitor.VoidASTVisitor;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Nodo que representa la definición de una función.
  */
-public class FunctionDefNode extends ASTNode {
+public final class FunctionDefNode extends ASTNode {
     private String returnType;
+    private Type declaredReturnType;
     private String functionName;
     private List<ParamNode> parameters;
     private List<StmtNode> statements;
     //Agregar cuanta memoria ocupa.
     public FunctionDefNode(int line, int column, String returnType, String functionName,
                            List<ParamNode> parameters, List<StmtNode> statements) {
-        super(line, column);
+        super(FUNCTION_DEF, line, column);
         this.returnType = returnType;
+        this.declaredReturnType = Type.of(returnType);
         this.functionName = functionName;
         this.parameters = parameters != null ? parameters : new ArrayList<>();
         this.statements = statements;
     }
 
     public String getReturnType() { return returnType; }
+    public Type getDeclaredReturnType() { return declaredReturnType; }
     public String getFunctionName() { return functionName; }
     public List<ParamNode> getParameters() { return parameters; }
     public List<StmtNode> getStatements() { return statements; }
@@ -36,7 +42,17 @@ public class FunctionDefNode extends ASTNode {
     }
 
     @Override
-    public Object accept(ASTVisitor visitor) {
+    public <R> R accept(ASTVisitor<R> visitor) {
         return visitor.visitFunctionDef(this);
     }
+
+    @Override
+    public int acceptInt(IntASTVisitor visitor) {
+        return visitor.visitFunctionDef(this);
+    }
+
+    @Override
+    public void acceptVoid(VoidASTVisitor visitor) {
+        visitor.visitFunctionDef(this);
+    }
 }
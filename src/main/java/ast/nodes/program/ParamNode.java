@@ -1,31 +1,68 @@
 package ast.nodes.program;
 
 import ast.ASTNode;
+import ast.Type;
 import ast.visitor.ASTVisitor;
+import ast.visitor.IntASTVisitor;
+import ast.visitor.VoidASTVisitor;
 
 /**
  * Nodo que representa un parámetro de función.
  */
-public class ParamNode extends ASTNode {
+public final class ParamNode extends ASTNode {
     private String type;
+    private Type declaredType;
     private String name;
 
+    // Binding resuelto por el análisis semántico: slot del parámetro en la función y offset en el frame
+    private int slot = UNRESOLVED;
+    private int frameOffset;
+
     public ParamNode(int line, int column, String type, String name) {
-        super(line, column);
+        super(PARAM, line, column);
         this.type = type;
+        this.declaredType = Type.of(type);
         this.name = name;
     }
 
     public String getType() { return type; }
+    public Type getDeclaredType() { return declaredType; }
     public String getName() { return name; }
 
+    /**
+     * Slot de el parámetro dentro de su función (0, 1, ... en orden de declaración), o UNRESOLVED
+     */
+    public int getSlot() { return slot; }
+
+    /**
+     * Offset en el frame: la variable está en [rbp - offset]
+     */
+    public int getFrameOffset() { return frameOffset; }
+
+    public boolean isResolved() { return slot != UNRESOLVED; }
+
+    public void setBinding(int slot, int frameOffset) {
+        this.slot = slot;
+        this.frameOffset = frameOffset;
+    }
+
     @Override
     public String toString() {
         return type + " " + name;
     }
 
     @Override
-    public Object accept(ASTVisitor visitor) {
+    public <R> R accept(ASTVisitor<R> visitor) {
         return visitor.visitParam(this);
     }
+
+    @Override
+    public int acceptInt(IntASTVisitor visitor) {
+        return visitor.visitParam(this);
+    }
+
+    @Override
+    public void acceptVoid(VoidASTVisitor visitor) {
+        visitor.visitParam(this);
+    }
 }
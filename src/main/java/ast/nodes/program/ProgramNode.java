@@ -2,15 +2,17 @@ package ast.nodes.program;
 
 import ast.ASTNode;
 import ast.visitor.ASTVisitor;
+import ast.visitor.IntASTVisitor;
+import ast.visitor.VoidASTVisitor;
 
 /**
  * Nodo raíz que representa un programa completo.
  */
-public class ProgramNode extends ASTNode {
+public final class ProgramNode extends ASTNode {
     private FunctionDefNode mainFunction;
 
     public ProgramNode(int line, int column, FunctionDefNode mainFunction) {
-        super(line, column);
+        super(PROGRAM, line, column);
         this.mainFunction = mainFunction;
     }
 
@@ -24,7 +26,17 @@ public class ProgramNode extends ASTNode {
     }
 
     @Override
-    public Object accept(ASTVisitor visitor) {
+    public <R> R accept(ASTVisitor<R> visitor) {
         return visitor.visitProgram(this);
     }
+
+    @Override
+    public int acceptInt(IntASTVisitor visitor) {
+        return visitor.visitProgram(this);
+    }
+
+    @Override
+    public void acceptVoid(VoidASTVisitor visitor) {
+        visitor.visitProgram(this);
+    }
 }
@@ -2,16 +2,22 @@ package ast.nodes.statement;
 
 import ast.nodes.expression.ExprNode;
 import ast.visitor.ASTVisitor;
+import ast.visitor.IntASTVisitor;
+import ast.visitor.VoidASTVisitor;
 
 /**
  * Nodo que representa una asignación de valor a una variable.
  */
-public class AssignmentNode extends StmtNode {
+public final class AssignmentNode extends StmtNode {
     private String variableName;
     private ExprNode expression;
 
+    // Binding resuelto por el análisis semántico: slot de la declaración que ve en la función y offset en el frame
+    private int slot = UNRESOLVED;
+    private int frameOffset;
+
     public AssignmentNode(int line, int column, String variableName, ExprNode expression) {
-        super(line, column);
+        super(ASSIGNMENT, line, column);
         this.variableName = variableName;
         this.expression = expression;
     }
@@ -19,13 +25,42 @@ public class AssignmentNode extends StmtNode {
     public String getVariableName() { return variableName; }
     public ExprNode getExpression() { return expression; }
 
+    public void setExpression(ExprNode expression) { this.expression = expression; }
+
+    /**
+     * Slot de la variable asignada dentro de su función (0, 1, ... en orden de declaración), o UNRESOLVED
+     */
+    public int getSlot() { return slot; }
+
+    /**
+     * Offset en el frame: la variable está en [rbp - offset]
+     */
+    public int getFrameOffset() { return frameOffset; }
+
+    public boolean isResolved() { return slot != UNRESOLVED; }
+
+    public void setBinding(int slot, int frameOffset) {
+        this.slot = slot;
+        this.frameOffset = frameOffset;
+    }
+
     @Override
     public String toString() {
         return "Asignación(" + variableName + " = " + expression + ")";
     }
 
     @Override
-    public Object accept(ASTVisitor visitor) {
+    public <R> R accept(ASTVisitor<R> visitor) {
         return visitor.visitAssignment(this);
     }
+
+    @Override
+    public int acceptInt(IntASTVisitor visitor) {
+        return visitor.visitAssignment(this);
+    }
+
+    @Override
+    public void acceptVoid(VoidASTVisitor visitor) {
+        visitor.visitAssignment(this);
+    }
 }
@@ -1,22 +1,28 @@
 package ast.nodes.statement;
 
+import ast.Type;
 import ast.visitor.ASTVisitor;
+import ast.visitor.IntASTVisitor;
+import ast.visitor.VoidASTVisitor;
 import java.util.List;
 
 /**
  * Nodo que representa una declaración de variable(s).
  */
-public class DeclarationNode extends StmtNode {
+public final class DeclarationNode extends StmtNode {
     private String type;
+    private Type declaredType;
     private List<VarDeclNode> variables;
 
     public DeclarationNode(int line, int column, String type, List<VarDeclNode> variables) {
-        super(line, column);
+        super(DECLARATION, line, column);
         this.type = type;
+        this.declaredType = Type.of(type);
         this.variables = variables;
     }
 
     public String getType() { return type; }
+    public Type getDeclaredType() { return declaredType; }
     public List<VarDeclNode> getVariables() { return variables; }
 
     @Override
@@ -25,7 +31,17 @@ public class DeclarationNode extends StmtNode {
     }
 
     @Override
-    public Object accept(ASTVisitor visitor) {
+    public <R> R accept(ASTVisitor<R> visitor) {
         return visitor.visitDeclaration(this);
     }
+
+    @Override
+    public int acceptInt(IntASTVisitor visitor) {
+        return visitor.visitDeclaration(this);
+    }
+
+    @Override
+    public void acceptVoid(VoidASTVisitor visitor) {
+        visitor.visitDeclaration(this);
+    }
 }
@@ -2,27 +2,41 @@ package ast.nodes.statement;
 
 import ast.nodes.expression.ExprNode;
 import ast.visitor.ASTVisitor;
+import ast.visitor.IntASTVisitor;
+import ast.visitor.VoidASTVisitor;
 
 /**
  * Nodo que representa una expresión como sentencia.
  */
-public class ExprStmtNode extends StmtNode {
+public final class ExprStmtNode extends StmtNode {
     private ExprNode expression;
 
     public ExprStmtNode(int line, int column, ExprNode expression) {
-        super(line, column);
+        super(EXPR_STMT, line, column);
         this.expression = expression;
     }
 
     public ExprNode getExpression() { return expression; }
 
+    public void setExpression(ExprNode expression) { this.expression = expression; }
+
     @Override
     public String toString() {
         return "ExprStmt(" + expression + ")";
     }
 
     @Override
-    public Object accept(ASTVisitor visitor) {
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitExprStmt(this);
+    }
+
+    @Override
+    public int acceptInt(IntASTVisitor visitor) {
         return visitor.visitExprStmt(this);
     }
+
+    @Override
+    public void acceptVoid(VoidASTVisitor visitor) {
+        visitor.visitExprStmt(this);
+    }
 }
@@ -3,13 +3,13 @@ package ast.nodes.statement;
 import ast.nodes.expression.ExprNode;
 import java.util.List;
 
-public class IfStmtNode extends StmtNode {
+public final class IfStmtNode extends StmtNode {
     private ExprNode condition;
     private List<StmtNode> thenBranch;
     private List<StmtNode> elseBranch;
 
     public IfStmtNode(int line, int column, ExprNode condition, List<StmtNode> thenBranch, List<StmtNode> elseBranch) {
-        super(line, column);
+        super(IF_STMT, line, column);
         this.condition = condition;
         this.thenBranch = thenBranch;
         this.elseBranch = elseBranch;
@@ -20,6 +20,8 @@ public class IfStmtNode extends StmtNode {
     public List<StmtNode> getElseBranch() { return elseBranch; }
     public boolean hasElseBranch() { return elseBranch != null && !elseBranch.isEmpty(); }
 
+    public void setCondition(ExprNode condition) { this.condition = condition; }
+
     @Override
     public String toString() {
         return "IfStmt{condition=" + condition +
@@ -28,7 +30,17 @@ public class IfStmtNode extends StmtNode {
     }
 
     @Override
-    public Object accept(ast.visitor.ASTVisitor visitor) {
+    public <R> R accept(ast.visitor.ASTVisitor<R> visitor) {
+        return visitor.visitIfStmt(this);
+    }
+
+    @Override
+    public int acceptInt(ast.visitor.IntASTVisitor visitor) {
         return visitor.visitIfStmt(this);
     }
+
+    @Override
+    public void acceptVoid(ast.visitor.VoidASTVisitor visitor) {
+        visitor.visitIfStmt(this);
+    }
 }
@@ -2,28 +2,42 @@ package ast.nodes.statement;
 
 import ast.nodes.expression.ExprNode;
 import ast.visitor.ASTVisitor;
+import ast.visitor.IntASTVisitor;
+import ast.visitor.VoidASTVisitor;
 
 /**
  * Nodo que representa una sentencia return.
  */
-public class ReturnStmtNode extends StmtNode {
+public final class ReturnStmtNode extends StmtNode {
     private ExprNode expression;
 
     public ReturnStmtNode(int line, int column, ExprNode expression) {
-        super(line, column);
+        super(RETURN_STMT, line, column);
         this.expression = expression;
     }
 
     public ExprNode getExpression() { return expression; }
     public boolean hasExpression() { return expression != null; }
 
+    public void setExpression(ExprNode expression) { this.expression = expression; }
+
     @Override
     public String toString() {
         return hasExpression() ? "Return(" + expression + ")" : "Return()";
     }
 
     @Override
-    public Object accept(ASTVisitor visitor) {
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitReturnStmt(this);
+    }
+
+    @Override
+    public int acceptInt(IntASTVisitor visitor) {
         return visitor.visitReturnStmt(this);
     }
+
+    @Override
+    public void acceptVoid(VoidASTVisitor visitor) {
+        visitor.visitReturnStmt(this);
+    }
 }
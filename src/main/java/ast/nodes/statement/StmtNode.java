@@ -5,9 +5,10 @@ import ast.ASTNode;
 /**
  * Clase base abstracta para todos los nodos de sentencias.
  */
-public abstract class StmtNode extends ASTNode {
-    public StmtNode(int line, int column) {
-        super(line, column);
+public abstract sealed class StmtNode extends ASTNode
+        permits DeclarationNode, AssignmentNode, ReturnStmtNode, ExprStmtNode, IfStmtNode, WhileStmtNode {
+    protected StmtNode(int kind, int line, int column) {
+        super(kind, line, column);
     }
     // Clase base para todas las sentencias
 }
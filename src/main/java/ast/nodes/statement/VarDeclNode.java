@@ -3,16 +3,22 @@ package ast.nodes.statement;
 import ast.ASTNode;
 import ast.nodes.expression.ExprNode;
 import ast.visitor.ASTVisitor;
+import ast.visitor.IntASTVisitor;
+import ast.visitor.VoidASTVisitor;
 
 /**
  * Nodo que representa la declaración individual de una variable.
  */
-public class VarDeclNode extends ASTNode {
+public final class VarDeclNode extends ASTNode {
     private String name;
     private ExprNode initialValue;
 
+    // Binding resuelto por el análisis semántico: slot de la variable en la función y offset en el frame
+    private int slot = UNRESOLVED;
+    private int frameOffset;
+
     public VarDeclNode(int line, int column, String name, ExprNode initialValue) {
-        super(line, column);
+        super(VAR_DECL, line, column);
         this.name = name;
         this.initialValue = initialValue;
     }
@@ -21,13 +27,42 @@ public class VarDeclNode extends ASTNode {
     public ExprNode getInitialValue() { return initialValue; }
     public boolean hasInitialValue() { return initialValue != null; }
 
+    public void setInitialValue(ExprNode initialValue) { this.initialValue = initialValue; }
+
+    /**
+     * Slot de la variable dentro de su función (0, 1, ... en orden de declaración), o UNRESOLVED
+     */
+    public int getSlot() { return slot; }
+
+    /**
+     * Offset en el frame: la variable está en [rbp - offset]
+     */
+    public int getFrameOffset() { return frameOffset; }
+
+    public boolean isResolved() { return slot != UNRESOLVED; }
+
+    public void setBinding(int slot, int frameOffset) {
+        this.slot = slot;
+        this.frameOffset = frameOffset;
+    }
+
     @Override
     public String toString() {
         return hasInitialValue() ? name + " = " + initialValue : name;
     }
 
     @Override
-    public Object accept(ASTVisitor visitor) {
+    public <R> R accept(ASTVisitor<R> visitor) {
         return visitor.visitVarDecl(this);
     }
+
+    @Override
+    public int acceptInt(IntASTVisitor visitor) {
+        return visitor.visitVarDecl(this);
+    }
+
+    @Override
+    public void acceptVoid(VoidASTVisitor visitor) {
+        visitor.visitVarDecl(this);
+    }
 }
@@ -3,12 +3,12 @@ package ast.nodes.statement;
 import ast.nodes.expression.ExprNode;
 import java.util.List;
 
-public class WhileStmtNode extends StmtNode {
+public final class WhileStmtNode extends StmtNode {
     private ExprNode condition;
     private List<StmtNode> body;
 
     public WhileStmtNode(int line, int column, ExprNode condition, List<StmtNode> body) {
-        super(line, column);
+        super(WHILE_STMT, line, column);
         this.condition = condition;
         this.body = body;
     }
@@ -16,13 +16,25 @@ public class WhileStmtNode extends StmtNode {
     public ExprNode getCondition() { return condition; }
     public List<StmtNode> getBody() { return body; }
 
+    public void setCondition(ExprNode condition) { this.condition = condition; }
+
     @Override
     public String toString() {
         return "WhileStmt{condition=" + condition + ", body=" + body + "}";
     }
 
     @Override
-    public Object accept(ast.visitor.ASTVisitor visitor) {
+    public <R> R accept(ast.visitor.ASTVisitor<R> visitor) {
+        return visitor.visitWhileStmt(this);
+    }
+
+    @Override
+    public int acceptInt(ast.visitor.IntASTVisitor visitor) {
         return visitor.visitWhileStmt(this);
     }
+
+    @Override
+    public void acceptVoid(ast.visitor.VoidASTVisitor visitor) {
+        visitor.visitWhileStmt(this);
+    }
 }
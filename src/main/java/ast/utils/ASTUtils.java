@@ -71,11 +71,11 @@ public class ASTUtils {
             return new BooleanNode(line, column, false);
         }
         // Número entero
-        else if (expr.matches("\\d+")) {
+        else if (isDigits(expr)) {
             return new NumberNode(line, column, Integer.parseInt(expr));
         }
         // Identificador (variable)
-        else if (expr.matches("[a-zA-Z_][a-zA-Z0-9_]*")) {
+        else if (isIdentifier(expr)) {
             return new VariableNode(line, column, expr);
         }
 
@@ -83,6 +83,42 @@ public class ASTUtils {
         return null;
     }
 
+    /**
+     * Equivale a expr.matches("\\d+") sin compilar la expresión regular en cada llamada
+     */
+    private static boolean isDigits(String expr) {
+        if (expr.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < expr.length(); i++) {
+            char c = expr.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Equivale a expr.matches("[a-zA-Z_][a-zA-Z0-9_]*")
+     */
+    private static boolean isIdentifier(String expr) {
+        if (expr.isEmpty() || !isIdentifierStart(expr.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < expr.length(); i++) {
+            char c = expr.charAt(i);
+            if (!isIdentifierStart(c) && (c < '0' || c > '9')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isIdentifierStart(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+    }
+
     /**
      * Convierte un string de operador a un Operator enum.
      *
@@ -0,0 +1,292 @@
+package ast.utils;
+
+import ast.ASTNode;
+import ast.nodes.expression.BinaryOpNode;
+import ast.nodes.expression.BooleanNode;
+import ast.nodes.expression.ExprNode;
+import ast.nodes.expression.NumberNode;
+import ast.nodes.expression.UnaryOpNode;
+import ast.nodes.expression.VariableNode;
+import ast.nodes.program.FunctionDefNode;
+import ast.nodes.program.ParamNode;
+import ast.nodes.program.ProgramNode;
+import ast.nodes.statement.AssignmentNode;
+import ast.nodes.statement.DeclarationNode;
+import ast.nodes.statement.ExprStmtNode;
+import ast.nodes.statement.IfStmtNode;
+import ast.nodes.statement.ReturnStmtNode;
+import ast.nodes.statement.StmtNode;
+import ast.nodes.statement.VarDeclNode;
+import ast.nodes.statement.WhileStmtNode;
+import ast.visitor.ExpressionWalker;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Hash-consing de expresiones: los subárboles estructuralmente iguales pasan a ser
+ * un único nodo compartido, y las expresiones del programa quedan como un DAG.
+ * Como los hijos de un nodo ya son canónicos cuando se lo interna, dos nodos son
+ * iguales si coinciden en clase, operador u hoja y en la identidad de sus hijos,
+ * y la búsqueda usa el hash estructural que cada ExprNode ya tiene calculado.
+ *
+ * Un nodo compartido conserva la posición de su primera aparición, que es la que
+ * usan los diagnósticos de las demás.
+ *
+ * En internProgram las variables cuyo nombre se declara más de una vez (un bloque que
+ * tapa a una de afuera) no se comparten: cada aparición puede referirse a otra
+ * declaración, y el análisis deja ese binding en el nodo (ver VariableNode.getSlot).
+ */
+public class ExpressionInterner {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private ExprNode[] table = new ExprNode[INITIAL_CAPACITY];
+    private int size;
+    private final Set<String> redeclared = new HashSet<>();     // Nombres que no se comparten
+
+    // Estadísticas
+    private long visitedNodes;
+    private int unsharedNodes;
+
+    private final ExpressionWalker<ExprNode> walker = new ExpressionWalker<ExprNode>() {
+        @Override
+        protected ExprNode leaf(ExprNode node) {
+            visitedNodes++;
+            if (node instanceof VariableNode && redeclared.contains(((VariableNode) node).getName())) {
+                unsharedNodes++;
+                return node;
+            }
+            return canonical(node);
+        }
+
+        @Override
+        protected ExprNode unary(UnaryOpNode node, ExprNode operand) {
+            visitedNodes++;
+            if (operand != node.getOperand()) {
+                node = spanned(new UnaryOpNode(node.getLine(), node.getColumn(), node.getOperator(), operand), node);
+            }
+            return canonical(node);
+        }
+
+        @Override
+        protected ExprNode binary(BinaryOpNode node, ExprNode left, ExprNode right) {
+            visitedNodes++;
+            if (left != node.getLeft() || right != node.getRight()) {
+                node = spanned(new BinaryOpNode(node.getLine(), node.getColumn(), left, node.getOperator(), right), node);
+            }
+            return canonical(node);
+        }
+    };
+
+    /**
+     * Devuelve el nodo compartido equivalente a expr
+     */
+    public ExprNode intern(ExprNode expr) {
+        return expr != null ? walker.walk(expr) : null;
+    }
+
+    /**
+     * Reemplaza todas las expresiones del programa por sus nodos compartidos.
+     * Las sentencias que contienen expresiones se recrean en sus listas; el resto del árbol no cambia.
+     */
+    public void internProgram(ProgramNode program) {
+        collectRedeclared(program.getMainFunction());
+
+        Deque<List<StmtNode>> pending = new ArrayDeque<>();
+        pending.push(program.getMainFunction().getStatements());
+
+        while (!pending.isEmpty()) {
+            List<StmtNode> statements = pending.pop();
+            for (int i = 0; i < statements.size(); i++) {
+                StmtNode stmt = statements.get(i);
+                statements.set(i, internStatement(stmt));
+
+                if (stmt instanceof IfStmtNode) {
+                    IfStmtNode ifStmt = (IfStmtNode) stmt;
+                    pending.push(ifStmt.getThenBranch());
+                    if (ifStmt.hasElseBranch()) {
+                        pending.push(ifStmt.getElseBranch());
+                    }
+                } else if (stmt instanceof WhileStmtNode) {
+                    pending.push(((WhileStmtNode) stmt).getBody());
+                }
+            }
+        }
+        redeclared.clear();
+    }
+
+    /**
+     * Anota los nombres que la función declara más de una vez, contando los parámetros
+     */
+    private void collectRedeclared(FunctionDefNode function) {
+        Set<String> declared = new HashSet<>();
+        for (ParamNode param : function.getParameters()) {
+            if (!declared.add(param.getName())) {
+                redeclared.add(param.getName());
+            }
+        }
+
+        Deque<List<StmtNode>> pending = new ArrayDeque<>();
+        pending.push(function.getStatements());
+        while (!pending.isEmpty()) {
+            for (StmtNode stmt : pending.pop()) {
+                if (stmt instanceof DeclarationNode) {
+                    for (VarDeclNode var : ((DeclarationNode) stmt).getVariables()) {
+                        if (!declared.add(var.getName())) {
+                            redeclared.add(var.getName());
+                        }
+                    }
+                } else if (stmt instanceof IfStmtNode) {
+                    IfStmtNode ifStmt = (IfStmtNode) stmt;
+                    pending.push(ifStmt.getThenBranch());
+                    if (ifStmt.hasElseBranch()) {
+                        pending.push(ifStmt.getElseBranch());
+                    }
+                } else if (stmt instanceof WhileStmtNode) {
+                    pending.push(((WhileStmtNode) stmt).getBody());
+                }
+            }
+        }
+    }
+
+    private StmtNode internStatement(StmtNode stmt) {
+        int line = stmt.getLine();
+        int column = stmt.getColumn();
+
+        if (stmt instanceof DeclarationNode) {
+            List<VarDeclNode> variables = ((DeclarationNode) stmt).getVariables();
+            for (int i = 0; i < variables.size(); i++) {
+                VarDeclNode var = variables.get(i);
+                if (var.hasInitialValue()) {
+                    variables.set(i, spanned(new VarDeclNode(var.getLine(), var.getColumn(), var.getName(),
+                            intern(var.getInitialValue())), var));
+                }
+            }
+            return stmt;
+        }
+        if (stmt instanceof AssignmentNode) {
+            AssignmentNode assignment = (AssignmentNode) stmt;
+            return spanned(new AssignmentNode(line, column, assignment.getVariableName(),
+                    intern(assignment.getExpression())), stmt);
+        }
+        if (stmt instanceof ReturnStmtNode) {
+            return spanned(new ReturnStmtNode(line, column, intern(((ReturnStmtNode) stmt).getExpression())), stmt);
+        }
+        if (stmt instanceof ExprStmtNode) {
+            return spanned(new ExprStmtNode(line, column, intern(((ExprStmtNode) stmt).getExpression())), stmt);
+        }
+        if (stmt instanceof IfStmtNode) {
+            IfStmtNode ifStmt = (IfStmtNode) stmt;
+            return spanned(new IfStmtNode(line, column, intern(ifStmt.getCondition()),
+                    ifStmt.getThenBranch(), ifStmt.getElseBranch()), stmt);
+        }
+        if (stmt instanceof WhileStmtNode) {
+            WhileStmtNode whileStmt = (WhileStmtNode) stmt;
+            return spanned(new WhileStmtNode(line, column, intern(whileStmt.getCondition()), whileStmt.getBody()), stmt);
+        }
+        return stmt;
+    }
+
+    /**
+     * El nodo reconstruido ocupa el mismo texto que el original (ver SpanIndex)
+     */
+    private static <T extends ASTNode> T spanned(T copy, ASTNode original) {
+        copy.setSpan(original.getSpanStart(), original.getSpanEnd());
+        return copy;
+    }
+
+    /**
+     * Busca un nodo igual a node en la tabla; si no hay, node pasa a ser el canónico
+     */
+    private ExprNode canonical(ExprNode node) {
+        int hash = node.structuralHash();
+        int mask = table.length - 1;
+        int index = mix(hash) & mask;
+
+        ExprNode existing;
+        while ((existing = table[index]) != null) {
+            if (existing.structuralHash() == hash && sameShape(existing, node)) {
+                return existing;
+            }
+            index = (index + 1) & mask;
+        }
+
+        table[index] = node;
+        if (++size * 2 > table.length) {
+            rehash();
+        }
+        return node;
+    }
+
+    /**
+     * Igualdad de un nivel: los hijos ya son canónicos y se comparan por identidad
+     */
+    private static boolean sameShape(ExprNode a, ExprNode b) {
+        if (a.getClass() != b.getClass()) {
+            return false;
+        }
+        if (a instanceof BinaryOpNode) {
+            BinaryOpNode x = (BinaryOpNode) a;
+            BinaryOpNode y = (BinaryOpNode) b;
+            return x.getOperator() == y.getOperator() && x.getLeft() == y.getLeft() && x.getRight() == y.getRight();
+        }
+        if (a instanceof UnaryOpNode) {
+            UnaryOpNode x = (UnaryOpNode) a;
+            UnaryOpNode y = (UnaryOpNode) b;
+            return x.getOperator() == y.getOperator() && x.getOperand() == y.getOperand();
+        }
+        if (a instanceof NumberNode) {
+            return ((NumberNode) a).getValue() == ((NumberNode) b).getValue();
+        }
+        if (a instanceof BooleanNode) {
+            return ((BooleanNode) a).getValue() == ((BooleanNode) b).getValue();
+        }
+        if (a instanceof VariableNode) {
+            return ((VariableNode) a).getName().equals(((VariableNode) b).getName());
+        }
+        return false;
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private void rehash() {
+        ExprNode[] old = table;
+        table = new ExprNode[old.length * 2];
+        int mask = table.length - 1;
+        for (ExprNode node : old) {
+            if (node != null) {
+                int index = mix(node.structuralHash()) & mask;
+                while (table[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                table[index] = node;
+            }
+        }
+    }
+
+    /**
+     * Nodos de expresión recorridos (los que tendría el árbol sin compartir)
+     */
+    public long getVisitedNodes() {
+        return visitedNodes;
+    }
+
+    /**
+     * Nodos de expresión distintos que quedaron después de compartir
+     */
+    public int getUniqueNodes() {
+        return size + unsharedNodes;
+    }
+
+    public void clear() {
+        table = new ExprNode[INITIAL_CAPACITY];
+        size = 0;
+        visitedNodes = 0;
+        unsharedNodes = 0;
+    }
+}
@@ -0,0 +1,501 @@
+package ast.utils;
+
+import ast.nodes.expression.*;
+import ast.nodes.program.FunctionDefNode;
+import ast.nodes.program.ParamNode;
+import ast.nodes.program.ProgramNode;
+import ast.nodes.statement.*;
+import lexer.NameTable;
+import parser.BindingPower;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Construcción programática de un ProgramNode, para generadores de programas que hoy
+ * escriben el fuente solo para que se vuelva a tokenizar y parsear. El árbol va directo
+ * al SemanticAnalyzer y al CodeGenerator (o a CompilerPipeline.compile(ProgramNode)).
+ *
+ * Las posiciones son las que tendría cada nodo al parsear el fuente equivalente: una
+ * sentencia por línea, indentada de a cuatro espacios, y las expresiones con los
+ * paréntesis justos. Ese fuente se puede pedir con source() si se activa al crear el
+ * builder. Los nombres se internan en una NameTable, así que cada nombre distinto es
+ * una única instancia de String aunque llegue en un StringBuilder reutilizado.
+ *
+ * Las expresiones se arman con num, bool, var, not y las operaciones binarias, y cada
+ * nodo debe usarse en una sola sentencia: al agregarla se le fija la posición.
+ * <pre>
+ * ProgramBuilder b = new ProgramBuilder();
+ * ProgramNode program = b.function("int").param("int", "p")
+ *         .declare("int", "x", b.add(b.num(1), b.mul(b.num(2), b.var("p"))))
+ *         .whileLoop(b.gt(b.var("x"), b.num(0)))
+ *             .assign("x", b.sub(b.var("x"), b.num(1)))
+ *         .end()
+ *         .returns(b.var("x"))
+ *         .build();
+ * </pre>
+ */
+public class ProgramBuilder {
+    private static final int INDENT = 4;
+
+    // Tareas del recorrido de una expresión en el orden del texto
+    private static final int EXPRESSION = 0;
+    private static final int PARENTHESIZED = 1;
+    private static final int OPERATOR = 2;
+    private static final int CLOSE = 3;
+
+    private final NameTable names;
+    private final StringBuilder source;     // null = no se arma el fuente
+
+    private FunctionDefNode function;
+    private int paramCount;
+    private boolean headerClosed;
+    private int line;
+    private int column;
+    private int lastColumn;                 // Columna del último token escrito
+
+    // Bloques abiertos: la lista de sentencias de cada uno y el if o while que lo abrió
+    private final List<List<StmtNode>> blocks = new ArrayList<>();
+    private final List<StmtNode> owners = new ArrayList<>();
+
+    // Pila de tareas de layout, reutilizada entre expresiones
+    private ExprNode[] pendingNodes = new ExprNode[32];
+    private int[] pendingTasks = new int[32];
+
+    public ProgramBuilder() {
+        this(new NameTable(), false);
+    }
+
+    /**
+     * @param names tabla donde se internan los nombres (por ejemplo, la de un TokenBuffer)
+     * @param recordSource armar también el fuente equivalente (ver source())
+     */
+    public ProgramBuilder(NameTable names, boolean recordSource) {
+        this.names = names;
+        this.source = recordSource ? new StringBuilder() : null;
+    }
+
+    /**
+     * Descarta el programa en construcción; la tabla de nombres y la capacidad reservada se conservan
+     */
+    public ProgramBuilder reset() {
+        function = null;
+        paramCount = 0;
+        headerClosed = false;
+        line = 0;
+        column = 0;
+        lastColumn = 0;
+        blocks.clear();
+        owners.clear();
+        if (source != null) {
+            source.setLength(0);
+        }
+        return this;
+    }
+
+    // ========== FUNCIÓN ==========
+
+    /**
+     * Comienza la función main del programa
+     * @param returnType "int", "bool" o "void"
+     */
+    public ProgramBuilder function(String returnType) {
+        if (function != null) {
+            throw new IllegalStateException("El programa ya tiene una función main");
+        }
+        function = new FunctionDefNode(line, column, returnType, "main", new ArrayList<>(), new ArrayList<>());
+        text(returnType);
+        text(" main(");
+        blocks.add(function.getStatements());
+        owners.add(null);
+        return this;
+    }
+
+    public ProgramBuilder param(String type, CharSequence name) {
+        if (function == null || headerClosed) {
+            throw new IllegalStateException("Los parámetros van después de function() y antes de las sentencias");
+        }
+        if (paramCount++ > 0) {
+            text(", ");
+        }
+        function.getParameters().add(new ParamNode(line, column, type, names.intern(name)));
+        text(type);
+        text(" ");
+        text(name);
+        return this;
+    }
+
+    /**
+     * Termina el programa
+     * @throws IllegalStateException si queda un if o while sin cerrar
+     */
+    public ProgramNode build() {
+        if (function == null) {
+            throw new IllegalStateException("Falta function()");
+        }
+        if (blocks.size() > 1) {
+            throw new IllegalStateException("Hay " + (blocks.size() - 1) + " bloques sin cerrar con end()");
+        }
+        beginLine(0);
+        text("}");
+        int closing = lastColumn;
+        endLine();
+        return new ProgramNode(function.getLine(), closing, function);
+    }
+
+    /**
+     * Fuente equivalente al programa construido (si se pidió al crear el builder)
+     */
+    public String source() {
+        return source != null ? source.toString() : null;
+    }
+
+    public NameTable getNameTable() {
+        return names;
+    }
+
+    // ========== SENTENCIAS ==========
+
+    /**
+     * type name1, name2, ...; (sin valor inicial)
+     */
+    public ProgramBuilder declare(String type, CharSequence... variableNames) {
+        beginLine();
+        int declColumn = column;
+        text(type);
+        text(" ");
+        List<VarDeclNode> variables = new ArrayList<>(variableNames.length);
+        for (int i = 0; i < variableNames.length; i++) {
+            if (i > 0) {
+                text(", ");
+            }
+            variables.add(new VarDeclNode(line, column, names.intern(variableNames[i]), null));
+            text(variableNames[i]);
+        }
+        return statement(new DeclarationNode(line, declColumn, type, variables));
+    }
+
+    /**
+     * type name = value;
+     */
+    public ProgramBuilder declare(String type, CharSequence name, ExprNode value) {
+        beginLine();
+        int declColumn = column;
+        text(type);
+        text(" ");
+        int nameColumn = column;
+        text(name);
+        text(" = ");
+        List<VarDeclNode> variables = new ArrayList<>(1);
+        variables.add(new VarDeclNode(line, nameColumn, names.intern(name), layout(value)));
+        return statement(new DeclarationNode(line, declColumn, type, variables));
+    }
+
+    /**
+     * name = value;
+     */
+    public ProgramBuilder assign(CharSequence name, ExprNode value) {
+        beginLine();
+        int start = column;
+        text(name);
+        text(" = ");
+        return statement(new AssignmentNode(line, start, names.intern(name), layout(value)));
+    }
+
+    /**
+     * return value;
+     */
+    public ProgramBuilder returns(ExprNode value) {
+        beginLine();
+        int start = column;
+        text("return ");
+        return statement(new ReturnStmtNode(line, start, layout(value)));
+    }
+
+    /**
+     * return;
+     */
+    public ProgramBuilder returns() {
+        beginLine();
+        int start = column;
+        text("return");
+        return statement(new ReturnStmtNode(line, start, null));
+    }
+
+    /**
+     * value; (una expresión como sentencia)
+     */
+    public ProgramBuilder expression(ExprNode value) {
+        beginLine();
+        ExprNode expression = layout(value);
+        // Como en el parser: la columna es la del último token de la expresión
+        return statement(new ExprStmtNode(line, lastColumn, expression));
+    }
+
+    /**
+     * if (condition) { ... las sentencias siguientes hasta orElse() o end()
+     */
+    public ProgramBuilder ifThen(ExprNode condition) {
+        beginLine();
+        int start = column;
+        text("if (");
+        ExprNode layoutCondition = layout(condition);
+        text(") {");
+        IfStmtNode ifStmt = new IfStmtNode(line, start, layoutCondition, new ArrayList<>(), null);
+        return open(ifStmt, ifStmt.getThenBranch());
+    }
+
+    /**
+     * } else { ... las sentencias siguientes hasta end()
+     */
+    public ProgramBuilder orElse() {
+        StmtNode owner = owners.get(owners.size() - 1);
+        if (!(owner instanceof IfStmtNode) || blocks.get(blocks.size() - 1) != ((IfStmtNode) owner).getThenBranch()) {
+            throw new IllegalStateException("orElse() sin un ifThen() abierto");
+        }
+        IfStmtNode ifStmt = (IfStmtNode) owner;
+        IfStmtNode withElse = new IfStmtNode(ifStmt.getLine(), ifStmt.getColumn(), ifStmt.getCondition(),
+                ifStmt.getThenBranch(), new ArrayList<>());
+        replaceLast(ifStmt, withElse);
+
+        blocks.set(blocks.size() - 1, withElse.getElseBranch());
+        owners.set(owners.size() - 1, withElse);
+        beginLine(blocks.size() - 1);
+        text("} else {");
+        endLine();
+        return this;
+    }
+
+    /**
+     * while (condition) { ... las sentencias siguientes hasta end()
+     */
+    public ProgramBuilder whileLoop(ExprNode condition) {
+        beginLine();
+        int start = column;
+        text("while (");
+        ExprNode layoutCondition = layout(condition);
+        text(") {");
+        WhileStmtNode whileStmt = new WhileStmtNode(line, start, layoutCondition, new ArrayList<>());
+        return open(whileStmt, whileStmt.getBody());
+    }
+
+    /**
+     * Cierra el if o while abierto
+     */
+    public ProgramBuilder end() {
+        if (blocks.size() <= 1) {
+            throw new IllegalStateException("end() sin un bloque abierto");
+        }
+        blocks.remove(blocks.size() - 1);
+        owners.remove(owners.size() - 1);
+        beginLine();
+        text("}");
+        endLine();
+        return this;
+    }
+
+    // ========== EXPRESIONES ==========
+
+    /**
+     * Literal entero; el lenguaje no tiene literales negativos (usar sub(num(0), num(n)))
+     */
+    public NumberNode num(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Literal negativo: " + value);
+        }
+        return new NumberNode(0, 0, value);
+    }
+
+    public BooleanNode bool(boolean value) {
+        return new BooleanNode(0, 0, value);
+    }
+
+    public VariableNode var(CharSequence name) {
+        return new VariableNode(0, 0, names.intern(name));
+    }
+
+    public UnaryOpNode not(ExprNode operand) {
+        return new UnaryOpNode(0, 0, UnaryOpNode.Operator.NOT, operand);
+    }
+
+    public BinaryOpNode binary(ExprNode left, BinaryOpNode.Operator operator, ExprNode right) {
+        return new BinaryOpNode(0, 0, left, operator, right);
+    }
+
+    public BinaryOpNode add(ExprNode left, ExprNode right) { return binary(left, BinaryOpNode.Operator.PLUS, right); }
+    public BinaryOpNode sub(ExprNode left, ExprNode right) { return binary(left, BinaryOpNode.Operator.MINUS, right); }
+    public BinaryOpNode mul(ExprNode left, ExprNode right) { return binary(left, BinaryOpNode.Operator.TIMES, right); }
+    public BinaryOpNode div(ExprNode left, ExprNode right) { return binary(left, BinaryOpNode.Operator.DIVIDE, right); }
+    public BinaryOpNode and(ExprNode left, ExprNode right) { return binary(left, BinaryOpNode.Operator.AND, right); }
+    public BinaryOpNode or(ExprNode left, ExprNode right) { return binary(left, BinaryOpNode.Operator.OR, right); }
+    public BinaryOpNode eq(ExprNode left, ExprNode right) { return binary(left, BinaryOpNode.Operator.EQ, right); }
+    public BinaryOpNode lt(ExprNode left, ExprNode right) { return binary(left, BinaryOpNode.Operator.LT, right); }
+    public BinaryOpNode gt(ExprNode left, ExprNode right) { return binary(left, BinaryOpNode.Operator.GT, right); }
+
+    // ========== LAYOUT ==========
+
+    private ProgramBuilder statement(StmtNode stmt) {
+        text(";");
+        endLine();
+        blocks.get(blocks.size() - 1).add(stmt);
+        return this;
+    }
+
+    private ProgramBuilder open(StmtNode stmt, List<StmtNode> block) {
+        endLine();
+        blocks.get(blocks.size() - 1).add(stmt);
+        blocks.add(block);
+        owners.add(stmt);
+        return this;
+    }
+
+    private void replaceLast(StmtNode old, StmtNode replacement) {
+        List<StmtNode> parent = blocks.get(blocks.size() - 2);
+        parent.set(parent.lastIndexOf(old), replacement);
+    }
+
+    /**
+     * Comienza una línea con la indentación del bloque actual
+     */
+    private void beginLine() {
+        beginLine(blocks.size());
+    }
+
+    private void beginLine(int depth) {
+        if (function == null) {
+            throw new IllegalStateException("Falta function()");
+        }
+        if (!headerClosed) {
+            text(") {");
+            headerClosed = true;
+            endLine();
+        }
+        for (int i = 0; i < depth * INDENT; i++) {
+            text(" ");
+        }
+    }
+
+    private void endLine() {
+        if (source != null) {
+            source.append('\n');
+        }
+        line++;
+        column = 0;
+    }
+
+    private void text(CharSequence text) {
+        if (source != null) {
+            source.append(text);
+        }
+        lastColumn = column;
+        column += text.length();
+    }
+
+    /**
+     * Fija las posiciones de una expresión escrita desde la columna actual, recorriéndola
+     * en el orden del texto con una pila explícita (sin límite de profundidad)
+     * @return la misma expresión
+     */
+    private ExprNode layout(ExprNode root) {
+        int top = 0;
+        pendingNodes[top] = root;
+        pendingTasks[top++] = EXPRESSION;
+
+        while (top > 0) {
+            top--;
+            ExprNode node = pendingNodes[top];
+            int task = pendingTasks[top];
+            pendingNodes[top] = null;
+
+            if (task == CLOSE) {
+                text(")");
+            } else if (task == OPERATOR) {
+                text(" ");
+                node.setPosition(line, column);
+                text(operatorText(((BinaryOpNode) node).getOperator()));
+                text(" ");
+                lastColumn = node.getColumn();
+            } else if (task == PARENTHESIZED) {
+                text("(");
+                top = push(top, null, CLOSE);
+                top = push(top, node, EXPRESSION);
+            } else if (node instanceof BinaryOpNode) {
+                BinaryOpNode binary = (BinaryOpNode) node;
+                int power = BindingPower.of(binary.getOperator());
+                // Asociatividad a izquierda: a la derecha van entre paréntesis los de igual precedencia
+                top = push(top, binary.getRight(), power(binary.getRight()) <= power ? PARENTHESIZED : EXPRESSION);
+                top = push(top, binary, OPERATOR);
+                top = push(top, binary.getLeft(), power(binary.getLeft()) < power ? PARENTHESIZED : EXPRESSION);
+            } else if (node instanceof UnaryOpNode) {
+                UnaryOpNode unary = (UnaryOpNode) node;
+                unary.setPosition(line, column);
+                text("!");
+                top = push(top, unary.getOperand(),
+                        unary.getOperand() instanceof BinaryOpNode ? PARENTHESIZED : EXPRESSION);
+            } else {
+                node.setPosition(line, column);
+                leaf(node);
+            }
+        }
+        return root;
+    }
+
+    /**
+     * Binding power con el que se escribe un operando; las hojas y el NOT no necesitan paréntesis
+     */
+    private static int power(ExprNode node) {
+        return node instanceof BinaryOpNode
+                ? BindingPower.of(((BinaryOpNode) node).getOperator())
+                : BindingPower.PREFIX;
+    }
+
+    private void leaf(ExprNode node) {
+        if (node instanceof NumberNode) {
+            int value = ((NumberNode) node).getValue();
+            if (source != null) {
+                source.append(value);
+            }
+            lastColumn = column;
+            column += digits(value);
+        } else if (node instanceof BooleanNode) {
+            text(((BooleanNode) node).getValue() ? "true" : "false");
+        } else {
+            text(((VariableNode) node).getName());
+        }
+    }
+
+    private static int digits(int value) {
+        int count = 1;
+        while (value >= 10) {
+            value /= 10;
+            count++;
+        }
+        return count;
+    }
+
+    private int push(int top, ExprNode node, int task) {
+        if (top == pendingNodes.length) {
+            pendingNodes = Arrays.copyOf(pendingNodes, top * 2);
+            pendingTasks = Arrays.copyOf(pendingTasks, top * 2);
+        }
+        pendingNodes[top] = node;
+        pendingTasks[top] = task;
+        return top + 1;
+    }
+
+    private static String operatorText(BinaryOpNode.Operator operator) {
+        switch (operator) {
+            case PLUS: return "+";
+            case MINUS: return "-";
+            case TIMES: return "*";
+            case DIVIDE: return "/";
+            case AND: return "&&";
+            case OR: return "||";
+            case EQ: return "==";
+            case LT: return "<";
+            case GT: return ">";
+            default: throw new IllegalArgumentException("Operador desconocido: " + operator);
+        }
+    }
+}
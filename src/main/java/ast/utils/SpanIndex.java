@@ -0,0 +1,241 @@
+package ast.utils;
+
+import ast.ASTNode;
+import ast.nodes.expression.BinaryOpNode;
+import ast.nodes.expression.UnaryOpNode;
+import ast.nodes.program.FunctionDefNode;
+import ast.nodes.program.ProgramNode;
+import ast.nodes.statement.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Índice de los spans de un AST para consultas por posición (herramientas de IDE):
+ * qué nodo está en una línea y columna, y qué nodos caen dentro de una selección.
+ *
+ * Los spans de un AST parseado están anidados: los de los hijos quedan dentro del
+ * padre y los de los hermanos no se solapan. Ordenados por inicio (y el padre antes
+ * que el hijo), el nodo más profundo que contiene una posición es el último, entre los
+ * que comienzan antes, cuyo final queda después de ella. Ese último se busca en un
+ * árbol de segmentos con el máximo de los finales, así que cada consulta es O(log n)
+ * sin importar la profundidad del AST.
+ *
+ * Los nodos sin span (construidos sin fuente) no se indexan. Un nodo compartido por
+ * hash-consing se indexa una sola vez, en el lugar de su span: sus otras apariciones
+ * comienzan antes que el último nodo indexado y se saltean con todo su subárbol.
+ * Por eso una posición dentro de otra aparición de una expresión compartida no devuelve
+ * la expresión sino el nodo no compartido que la contiene, normalmente su sentencia.
+ * Las sentencias no se comparten, así que se indexan todas igual que sin hash-consing.
+ */
+public class SpanIndex {
+    private final ASTNode[] nodes;      // En orden de inicio; el padre antes que el hijo
+    private final long[] starts;
+    private final long[] maxEnds;       // Árbol de segmentos: hojas en [leaves, 2 * leaves)
+    private final int leaves;
+
+    private SpanIndex(ASTNode[] nodes, long[] starts, long[] ends) {
+        this.nodes = nodes;
+        this.starts = starts;
+        int leaves = 1;
+        while (leaves < nodes.length) {
+            leaves <<= 1;
+        }
+        this.leaves = leaves;
+        this.maxEnds = new long[2 * leaves];
+        Arrays.fill(maxEnds, ASTNode.NO_POSITION);
+        System.arraycopy(ends, 0, maxEnds, leaves, nodes.length);
+        for (int i = leaves - 1; i > 0; i--) {
+            maxEnds[i] = Math.max(maxEnds[2 * i], maxEnds[2 * i + 1]);
+        }
+    }
+
+    /**
+     * Recorre el AST en preorden, en el orden del texto, sin recursión
+     */
+    public static SpanIndex build(ProgramNode program) {
+        List<ASTNode> collected = new ArrayList<>();
+        Deque<ASTNode> stack = new ArrayDeque<>();
+        ASTNode last = null;
+        stack.push(program);
+        while (!stack.isEmpty()) {
+            ASTNode node = stack.pop();
+            if (node.hasSpan()) {
+                // Un nodo compartido ya se indexó donde está su span: no se vuelve a recorrer
+                if (last != null && (node == last || node.getSpanStart() < last.getSpanStart())) {
+                    continue;
+                }
+                collected.add(node);
+                last = node;
+            }
+            pushChildren(stack, node);
+        }
+
+        ASTNode[] nodes = collected.toArray(new ASTNode[0]);
+        long[] starts = new long[nodes.length];
+        long[] ends = new long[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            starts[i] = nodes[i].getSpanStart();
+            ends[i] = nodes[i].getSpanEnd();
+        }
+        return new SpanIndex(nodes, starts, ends);
+    }
+
+    /**
+     * Apila los hijos al revés, para desapilarlos en el orden del texto
+     */
+    private static void pushChildren(Deque<ASTNode> stack, ASTNode node) {
+        switch (node.kind()) {
+            case ASTNode.PROGRAM:
+                stack.push(((ProgramNode) node).getMainFunction());
+                break;
+            case ASTNode.FUNCTION_DEF: {
+                FunctionDefNode function = (FunctionDefNode) node;
+                pushAll(stack, function.getStatements());
+                pushAll(stack, function.getParameters());
+                break;
+            }
+            case ASTNode.DECLARATION:
+                pushAll(stack, ((DeclarationNode) node).getVariables());
+                break;
+            case ASTNode.VAR_DECL: {
+                VarDeclNode var = (VarDeclNode) node;
+                if (var.hasInitialValue()) {
+                    stack.push(var.getInitialValue());
+                }
+                break;
+            }
+            case ASTNode.ASSIGNMENT:
+                stack.push(((AssignmentNode) node).getExpression());
+                break;
+            case ASTNode.RETURN_STMT: {
+                ReturnStmtNode returnStmt = (ReturnStmtNode) node;
+                if (returnStmt.hasExpression()) {
+                    stack.push(returnStmt.getExpression());
+                }
+                break;
+            }
+            case ASTNode.EXPR_STMT:
+                stack.push(((ExprStmtNode) node).getExpression());
+                break;
+            case ASTNode.IF_STMT: {
+                IfStmtNode ifStmt = (IfStmtNode) node;
+                if (ifStmt.hasElseBranch()) {
+                    pushAll(stack, ifStmt.getElseBranch());
+                }
+                pushAll(stack, ifStmt.getThenBranch());
+                stack.push(ifStmt.getCondition());
+                break;
+            }
+            case ASTNode.WHILE_STMT: {
+                WhileStmtNode whileStmt = (WhileStmtNode) node;
+                pushAll(stack, whileStmt.getBody());
+                stack.push(whileStmt.getCondition());
+                break;
+            }
+            case ASTNode.BINARY_OP: {
+                BinaryOpNode binary = (BinaryOpNode) node;
+                stack.push(binary.getRight());
+                stack.push(binary.getLeft());
+                break;
+            }
+            case ASTNode.UNARY_OP:
+                stack.push(((UnaryOpNode) node).getOperand());
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static void pushAll(Deque<ASTNode> stack, List<? extends ASTNode> children) {
+        for (int i = children.size() - 1; i >= 0; i--) {
+            stack.push(children.get(i));
+        }
+    }
+
+    /**
+     * Nodo más profundo cuyo span contiene la posición (línea y columna base 0)
+     * @return null si ningún nodo la contiene
+     */
+    public ASTNode nodeAt(int line, int column) {
+        long position = ASTNode.position(line, column);
+        int candidate = upperBound(position) - 1;
+        if (candidate < 0) {
+            return null;
+        }
+
+        // Último nodo hasta candidate que termina después de la posición
+        int node = candidate + leaves;
+        if (maxEnds[node] > position) {
+            return nodes[candidate];
+        }
+        while (node > 1) {
+            if ((node & 1) == 1 && maxEnds[node - 1] > position) {
+                node--;
+                while (node < leaves) {
+                    node = maxEnds[2 * node + 1] > position ? 2 * node + 1 : 2 * node;
+                }
+                return nodes[node - leaves];
+            }
+            node >>= 1;
+        }
+        return null;
+    }
+
+    /**
+     * Nodos cuyo span queda entero dentro de la selección [inicio, fin), en el orden del texto.
+     * Cuesta O(log n) más los nodos que comienzan dentro de la selección.
+     */
+    public List<ASTNode> nodesIn(int startLine, int startColumn, int endLine, int endColumn) {
+        long start = ASTNode.position(startLine, startColumn);
+        long end = ASTNode.position(endLine, endColumn);
+        List<ASTNode> result = new ArrayList<>();
+        for (int i = lowerBound(start), last = lowerBound(end); i < last; i++) {
+            if (maxEnds[i + leaves] <= end) {
+                result.add(nodes[i]);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * Primer índice cuyo inicio es >= position
+     */
+    private int lowerBound(long position) {
+        int low = 0;
+        int high = starts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] < position) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Primer índice cuyo inicio es > position
+     */
+    private int upperBound(long position) {
+        int low = 0;
+        int high = starts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] <= position) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,203 @@
+package ast.visitor;
+
+import ast.ASTNode;
+import ast.nodes.expression.*;
+import ast.nodes.program.*;
+import ast.nodes.statement.*;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Base de las pasadas que reescriben el AST en el lugar (optimizaciones).
+ * Cada visit* recibe un nodo cuyas expresiones hijas ya se transformaron y devuelve
+ * el nodo que lo reemplaza, o el mismo nodo si no cambia; el recorrido fija el
+ * resultado en el padre con sus setters y cuenta los reemplazos. Así una pasada se
+ * puede repetir hasta un punto fijo sin reconstruir el árbol.
+ *
+ * Las expresiones se recorren con ExpressionWalker y los bloques con una pila
+ * explícita, sin límite de profundidad. Una sentencia se visita después de sus
+ * expresiones y antes de sus bloques; si devuelve null se elimina de su lista.
+ * El programa, la función y los parámetros no se reemplazan.
+ */
+public abstract class ASTTransformer implements ASTVisitor<ASTNode> {
+    private int changes;
+
+    private final ExpressionWalker<ExprNode> walker = new ExpressionWalker<ExprNode>() {
+        @Override
+        protected ExprNode leaf(ExprNode node) {
+            return (ExprNode) replace(node);
+        }
+
+        @Override
+        protected ExprNode unary(UnaryOpNode node, ExprNode operand) {
+            // Siempre se vuelve a fijar: si el operando cambió en el lugar, el hash también
+            node.setOperand(operand);
+            return (ExprNode) replace(node);
+        }
+
+        @Override
+        protected ExprNode binary(BinaryOpNode node, ExprNode left, ExprNode right) {
+            node.setLeft(left);
+            node.setRight(right);
+            return (ExprNode) replace(node);
+        }
+    };
+
+    /**
+     * Una pasada sobre el cuerpo de main
+     * @return cantidad de nodos reemplazados
+     */
+    public int transform(ProgramNode program) {
+        int before = changes;
+        transformBlock(program.getMainFunction().getStatements());
+        return changes - before;
+    }
+
+    /**
+     * Repite la pasada hasta que no reemplace nada, o hasta maxPasses pasadas
+     * @return cantidad de pasadas hechas
+     */
+    public int transformToFixedPoint(ProgramNode program, int maxPasses) {
+        int passes = 0;
+        while (passes < maxPasses) {
+            passes++;
+            if (transform(program) == 0) {
+                break;
+            }
+        }
+        return passes;
+    }
+
+    /**
+     * Transforma una sentencia y sus bloques anidados (para la compilación en streaming)
+     * @return la sentencia que la reemplaza, o null si se elimina
+     */
+    public StmtNode transformStatement(StmtNode stmt) {
+        StmtNode result = transformSingle(stmt);
+        if (result != null) {
+            Deque<List<StmtNode>> pending = new ArrayDeque<>();
+            pushBlocks(pending, result);
+            transformBlocks(pending);
+        }
+        return result;
+    }
+
+    /**
+     * Transforma una expresión
+     * @return la expresión que la reemplaza
+     */
+    public ExprNode transformExpression(ExprNode expr) {
+        return expr != null ? walker.walk(expr) : null;
+    }
+
+    /**
+     * Nodos reemplazados desde que se creó el transformador
+     */
+    public int getChanges() {
+        return changes;
+    }
+
+    private void transformBlock(List<StmtNode> statements) {
+        Deque<List<StmtNode>> pending = new ArrayDeque<>();
+        pending.push(statements);
+        transformBlocks(pending);
+    }
+
+    private void transformBlocks(Deque<List<StmtNode>> pending) {
+        while (!pending.isEmpty()) {
+            List<StmtNode> statements = pending.pop();
+            int kept = 0;
+            for (int i = 0; i < statements.size(); i++) {
+                StmtNode stmt = transformSingle(statements.get(i));
+                if (stmt != null) {
+                    statements.set(kept++, stmt);
+                    pushBlocks(pending, stmt);
+                }
+            }
+            if (kept < statements.size()) {
+                statements.subList(kept, statements.size()).clear();
+            }
+        }
+    }
+
+    private static void pushBlocks(Deque<List<StmtNode>> pending, StmtNode stmt) {
+        if (stmt instanceof IfStmtNode) {
+            IfStmtNode ifStmt = (IfStmtNode) stmt;
+            pending.push(ifStmt.getThenBranch());
+            if (ifStmt.hasElseBranch()) {
+                pending.push(ifStmt.getElseBranch());
+            }
+        } else if (stmt instanceof WhileStmtNode) {
+            pending.push(((WhileStmtNode) stmt).getBody());
+        }
+    }
+
+    /**
+     * Transforma las expresiones de una sentencia y después la sentencia misma
+     */
+    private StmtNode transformSingle(StmtNode stmt) {
+        switch (stmt.kind()) {
+            case ASTNode.DECLARATION:
+                List<VarDeclNode> variables = ((DeclarationNode) stmt).getVariables();
+                for (int i = 0; i < variables.size(); i++) {
+                    VarDeclNode var = variables.get(i);
+                    if (var.hasInitialValue()) {
+                        var.setInitialValue(transformExpression(var.getInitialValue()));
+                    }
+                    variables.set(i, (VarDeclNode) replace(var));
+                }
+                break;
+            case ASTNode.ASSIGNMENT:
+                AssignmentNode assignment = (AssignmentNode) stmt;
+                assignment.setExpression(transformExpression(assignment.getExpression()));
+                break;
+            case ASTNode.RETURN_STMT:
+                ReturnStmtNode returnStmt = (ReturnStmtNode) stmt;
+                returnStmt.setExpression(transformExpression(returnStmt.getExpression()));
+                break;
+            case ASTNode.EXPR_STMT:
+                ExprStmtNode exprStmt = (ExprStmtNode) stmt;
+                exprStmt.setExpression(transformExpression(exprStmt.getExpression()));
+                break;
+            case ASTNode.IF_STMT:
+                IfStmtNode ifStmt = (IfStmtNode) stmt;
+                ifStmt.setCondition(transformExpression(ifStmt.getCondition()));
+                break;
+            case ASTNode.WHILE_STMT:
+                WhileStmtNode whileStmt = (WhileStmtNode) stmt;
+                whileStmt.setCondition(transformExpression(whileStmt.getCondition()));
+                break;
+            default:
+                break;
+        }
+        return (StmtNode) replace(stmt);
+    }
+
+    private ASTNode replace(ASTNode node) {
+        ASTNode result = NodeSwitch.visit(node, this);
+        if (result != node) {
+            changes++;
+        }
+        return result;
+    }
+
+    // ========== POR DEFECTO, NINGÚN NODO SE REEMPLAZA ==========
+
+    @Override public ASTNode visitProgram(ProgramNode node) { return node; }
+    @Override public ASTNode visitFunctionDef(FunctionDefNode node) { return node; }
+    @Override public ASTNode visitParam(ParamNode node) { return node; }
+    @Override public ASTNode visitDeclaration(DeclarationNode node) { return node; }
+    @Override public ASTNode visitVarDecl(VarDeclNode node) { return node; }
+    @Override public ASTNode visitAssignment(AssignmentNode node) { return node; }
+    @Override public ASTNode visitReturnStmt(ReturnStmtNode node) { return node; }
+    @Override public ASTNode visitExprStmt(ExprStmtNode node) { return node; }
+    @Override public ASTNode visitIfStmt(IfStmtNode node) { return node; }
+    @Override public ASTNode visitWhileStmt(WhileStmtNode node) { return node; }
+    @Override public ASTNode visitBinaryOp(BinaryOpNode node) { return node; }
+    @Override public ASTNode visitUnaryOp(UnaryOpNode node) { return node; }
+    @Override public ASTNode visitNumber(NumberNode node) { return node; }
+    @Override public ASTNode visitBoolean(BooleanNode node) { return node; }
+    @Override public ASTNode visitVariable(VariableNode node) { return node; }
+}
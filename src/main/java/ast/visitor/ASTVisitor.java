@@ -7,26 +7,30 @@ import ast.nodes.expression.*;
 /**
  * Interface para implementar el patrón Visitor sobre el AST.
  * Permite separar los algoritmos de la estructura de datos del árbol.
+ * R es el tipo del resultado de cada visita (Void si no devuelve nada). Usada sin
+ * parámetro es la interfaz original, que devuelve Object.
+ * Para resultados enteros o sin resultado, sin boxing ni casts, están IntASTVisitor
+ * y VoidASTVisitor; ASTVisitors adapta ambos a esta interfaz.
  */
-public interface ASTVisitor {
+public interface ASTVisitor<R> {
     // Nodos de programa
-    Object visitProgram(ProgramNode node);
-    Object visitFunctionDef(FunctionDefNode node);
-    Object visitParam(ParamNode node);
+    R visitProgram(ProgramNode node);
+    R visitFunctionDef(FunctionDefNode node);
+    R visitParam(ParamNode node);
 
     // Nodos de sentencias
-    Object visitDeclaration(DeclarationNode node);
-    Object visitVarDecl(VarDeclNode node);
-    Object visitAssignment(AssignmentNode node);
-    Object visitReturnStmt(ReturnStmtNode node);
-    Object visitExprStmt(ExprStmtNode node);
+    R visitDeclaration(DeclarationNode node);
+    R visitVarDecl(VarDeclNode node);
+    R visitAssignment(AssignmentNode node);
+    R visitReturnStmt(ReturnStmtNode node);
+    R visitExprStmt(ExprStmtNode node);
 
     // Nodos de expresiones
-    Object visitBinaryOp(BinaryOpNode node);
-    Object visitNumber(NumberNode node);
-    Object visitBoolean(BooleanNode node);
-    Object visitVariable(VariableNode node);
-    Object visitIfStmt(IfStmtNode node);
-    Object visitWhileStmt(WhileStmtNode node);
-    Object visitUnaryOp(UnaryOpNode node);
-}
\ No newline at end of file
+    R visitBinaryOp(BinaryOpNode node);
+    R visitNumber(NumberNode node);
+    R visitBoolean(BooleanNode node);
+    R visitVariable(VariableNode node);
+    R visitIfStmt(IfStmtNode node);
+    R visitWhileStmt(WhileStmtNode node);
+    R visitUnaryOp(UnaryOpNode node);
+}
@@ -0,0 +1,58 @@
+package ast.visitor;
+
+import ast.nodes.program.*;
+import ast.nodes.statement.*;
+import ast.nodes.expression.*;
+
+/**
+ * Adaptadores de IntASTVisitor y VoidASTVisitor a ASTVisitor, para usarlos donde
+ * se espera la interfaz genérica (o la original, que devuelve Object).
+ * El adaptador de IntASTVisitor hace boxing de cada resultado.
+ */
+public final class ASTVisitors {
+    private ASTVisitors() {
+    }
+
+    public static ASTVisitor<Integer> boxed(IntASTVisitor visitor) {
+        return new ASTVisitor<Integer>() {
+            @Override public Integer visitProgram(ProgramNode node) { return visitor.visitProgram(node); }
+            @Override public Integer visitFunctionDef(FunctionDefNode node) { return visitor.visitFunctionDef(node); }
+            @Override public Integer visitParam(ParamNode node) { return visitor.visitParam(node); }
+            @Override public Integer visitDeclaration(DeclarationNode node) { return visitor.visitDeclaration(node); }
+            @Override public Integer visitVarDecl(VarDeclNode node) { return visitor.visitVarDecl(node); }
+            @Override public Integer visitAssignment(AssignmentNode node) { return visitor.visitAssignment(node); }
+            @Override public Integer visitReturnStmt(ReturnStmtNode node) { return visitor.visitReturnStmt(node); }
+            @Override public Integer visitExprStmt(ExprStmtNode node) { return visitor.visitExprStmt(node); }
+            @Override public Integer visitBinaryOp(BinaryOpNode node) { return visitor.visitBinaryOp(node); }
+            @Override public Integer visitNumber(NumberNode node) { return visitor.visitNumber(node); }
+            @Override public Integer visitBoolean(BooleanNode node) { return visitor.visitBoolean(node); }
+            @Override public Integer visitVariable(VariableNode node) { return visitor.visitVariable(node); }
+            @Override public Integer visitIfStmt(IfStmtNode node) { return visitor.visitIfStmt(node); }
+            @Override public Integer visitWhileStmt(WhileStmtNode node) { return visitor.visitWhileStmt(node); }
+            @Override public Integer visitUnaryOp(UnaryOpNode node) { return visitor.visitUnaryOp(node); }
+        };
+    }
+
+    /**
+     * Cada visita ejecuta la de visitor y devuelve null
+     */
+    public static ASTVisitor<Void> of(VoidASTVisitor visitor) {
+        return new ASTVisitor<Void>() {
+            @Override public Void visitProgram(ProgramNode node) { visitor.visitProgram(node); return null; }
+            @Override public Void visitFunctionDef(FunctionDefNode node) { visitor.visitFunctionDef(node); return null; }
+            @Override public Void visitParam(ParamNode node) { visitor.visitParam(node); return null; }
+            @Override public Void visitDeclaration(DeclarationNode node) { visitor.visitDeclaration(node); return null; }
+            @Override public Void visitVarDecl(VarDeclNode node) { visitor.visitVarDecl(node); return null; }
+            @Override public Void visitAssignment(AssignmentNode node) { visitor.visitAssignment(node); return null; }
+            @Override public Void visitReturnStmt(ReturnStmtNode node) { visitor.visitReturnStmt(node); return null; }
+            @Override public Void visitExprStmt(ExprStmtNode node) { visitor.visitExprStmt(node); return null; }
+            @Override public Void visitBinaryOp(BinaryOpNode node) { visitor.visitBinaryOp(node); return null; }
+            @Override public Void visitNumber(NumberNode node) { visitor.visitNumber(node); return null; }
+            @Override public Void visitBoolean(BooleanNode node) { visitor.visitBoolean(node); return null; }
+            @Override public Void visitVariable(VariableNode node) { visitor.visitVariable(node); return null; }
+            @Override public Void visitIfStmt(IfStmtNode node) { visitor.visitIfStmt(node); return null; }
+            @Override public Void visitWhileStmt(WhileStmtNode node) { visitor.visitWhileStmt(node); return null; }
+            @Override public Void visitUnaryOp(UnaryOpNode node) { visitor.visitUnaryOp(node); return null; }
+        };
+    }
+}
@@ -0,0 +1,153 @@
+package ast.visitor;
+
+import ast.nodes.expression.BinaryOpNode;
+import ast.nodes.expression.ExprNode;
+import ast.nodes.expression.UnaryOpNode;
+
+import java.util.Arrays;
+
+/**
+ * Recorrido en post-orden de una expresión con una pila explícita, sin recursión.
+ * La profundidad de la expresión queda limitada solo por el heap: una cadena de un
+ * millón de operadores no agota la pila de Java.
+ * Las subclases calculan un valor por nodo a partir de los valores de sus hijos
+ * (tipo, valor constante o código generado).
+ * Es reentrante: un callback puede volver a llamar a walk sobre otra expresión.
+ */
+public abstract class ExpressionWalker<T> {
+    private static final int INITIAL_DEPTH = 32;
+
+    // Nodos pendientes y cuántos de sus hijos ya se visitaron
+    private ExprNode[] nodes = new ExprNode[INITIAL_DEPTH];
+    private int[] visited = new int[INITIAL_DEPTH];
+    private int top;
+
+    // Valores ya calculados, esperando a su nodo padre
+    private Object[] values = new Object[INITIAL_DEPTH];
+    private int valueTop;
+
+    /**
+     * Valor de un nodo hoja (número, booleano, variable)
+     */
+    protected abstract T leaf(ExprNode node);
+
+    protected abstract T unary(UnaryOpNode node, T operand);
+
+    protected abstract T binary(BinaryOpNode node, T left, T right);
+
+    /**
+     * Se llama al llegar a cada nodo, antes que a sus hijos.
+     * Si devuelve un valor (por ejemplo, uno memoizado), el subárbol no se recorre
+     * y ese es el valor del nodo.
+     */
+    protected T enter(ExprNode node) {
+        return null;
+    }
+
+    /**
+     * Se llama entre el operando izquierdo y el derecho de una operación binaria
+     */
+    protected void afterLeft(BinaryOpNode node, T left) {
+    }
+
+    /**
+     * Recorre la expresión y devuelve el valor de la raíz
+     */
+    @SuppressWarnings("unchecked")
+    public final T walk(ExprNode root) {
+        int base = top;
+        int valueBase = valueTop;
+        push(root);
+
+        try {
+            while (top > base) {
+                step(top - 1);
+            }
+            return (T) popValue();
+        } finally {
+            // Si un callback lanzó una excepción, se descarta lo que quedó de este recorrido
+            while (top > base) {
+                pop();
+            }
+            while (valueTop > valueBase) {
+                popValue();
+            }
+        }
+    }
+
+    /**
+     * Avanza un paso sobre el nodo en el tope de la pila
+     */
+    @SuppressWarnings("unchecked")
+    private void step(int index) {
+        ExprNode node = nodes[index];
+
+        if (visited[index] == 0) {
+            T known = enter(node);
+            if (known != null) {
+                pop();
+                pushValue(known);
+                return;
+            }
+        }
+
+        int kind = node.kind();
+        if (kind == ExprNode.BINARY_OP) {
+            BinaryOpNode binOp = (BinaryOpNode) node;
+            switch (visited[index]++) {
+                case 0:
+                    push(binOp.getLeft());
+                    break;
+                case 1:
+                    afterLeft(binOp, (T) values[valueTop - 1]);
+                    push(binOp.getRight());
+                    break;
+                default:
+                    T right = (T) popValue();
+                    T left = (T) popValue();
+                    pop();
+                    pushValue(binary(binOp, left, right));
+                    break;
+            }
+        } else if (kind == ExprNode.UNARY_OP) {
+            UnaryOpNode unaryOp = (UnaryOpNode) node;
+            if (visited[index]++ == 0) {
+                push(unaryOp.getOperand());
+            } else {
+                T operand = (T) popValue();
+                pop();
+                pushValue(unary(unaryOp, operand));
+            }
+        } else {
+            pop();
+            pushValue(leaf(node));
+        }
+    }
+
+    private void push(ExprNode node) {
+        if (top == nodes.length) {
+            nodes = Arrays.copyOf(nodes, top * 2);
+            visited = Arrays.copyOf(visited, top * 2);
+        }
+        nodes[top] = node;
+        visited[top] = 0;
+        top++;
+    }
+
+    private void pop() {
+        nodes[--top] = null;
+    }
+
+    private void pushValue(Object value) {
+        if (valueTop == values.length) {
+            values = Arrays.copyOf(values, valueTop * 2);
+        }
+        values[valueTop++] = value;
+    }
+
+    private Object popValue() {
+        Object value = values[--valueTop];
+        values[valueTop] = null;
+        return value;
+    }
+}
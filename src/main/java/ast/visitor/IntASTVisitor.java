@@ -0,0 +1,31 @@
+package ast.visitor;
+
+import ast.nodes.program.*;
+import ast.nodes.statement.*;
+import ast.nodes.expression.*;
+
+/**
+ * Visitor cuyo resultado es un int, sin boxing (ver ASTNode.acceptInt)
+ */
+public interface IntASTVisitor {
+    // Nodos de programa
+    int visitProgram(ProgramNode node);
+    int visitFunctionDef(FunctionDefNode node);
+    int visitParam(ParamNode node);
+
+    // Nodos de sentencias
+    int visitDeclaration(DeclarationNode node);
+    int visitVarDecl(VarDeclNode node);
+    int visitAssignment(AssignmentNode node);
+    int visitReturnStmt(ReturnStmtNode node);
+    int visitExprStmt(ExprStmtNode node);
+
+    // Nodos de expresiones
+    int visitBinaryOp(BinaryOpNode node);
+    int visitNumber(NumberNode node);
+    int visitBoolean(BooleanNode node);
+    int visitVariable(VariableNode node);
+    int visitIfStmt(IfStmtNode node);
+    int visitWhileStmt(WhileStmtNode node);
+    int visitUnaryOp(UnaryOpNode node);
+}
@@ -0,0 +1,147 @@
+package ast.visitor;
+
+import ast.nodes.expression.BinaryOpNode;
+import ast.nodes.expression.ExprNode;
+import ast.nodes.expression.UnaryOpNode;
+
+import java.util.Arrays;
+
+/**
+ * ExpressionWalker con valores long: los resultados intermedios quedan en un long[]
+ * en lugar de boxearse (ver semantic.symboltable.ConstantValue). Mismo recorrido en
+ * post-orden sin recursión, y también es reentrante.
+ */
+public abstract class LongExpressionWalker {
+    // Lo que devuelve enter() cuando hay que recorrer el nodo
+    public static final long NO_VALUE = Long.MIN_VALUE;
+
+    private static final int INITIAL_DEPTH = 32;
+
+    // Nodos pendientes y cuántos de sus hijos ya se visitaron
+    private ExprNode[] nodes = new ExprNode[INITIAL_DEPTH];
+    private int[] visited = new int[INITIAL_DEPTH];
+    private int top;
+
+    // Valores ya calculados, esperando a su nodo padre
+    private long[] values = new long[INITIAL_DEPTH];
+    private int valueTop;
+
+    /**
+     * Valor de un nodo hoja (número, booleano, variable)
+     */
+    protected abstract long leaf(ExprNode node);
+
+    protected abstract long unary(UnaryOpNode node, long operand);
+
+    protected abstract long binary(BinaryOpNode node, long left, long right);
+
+    /**
+     * Se llama al llegar a cada nodo, antes que a sus hijos.
+     * Si devuelve un valor distinto de NO_VALUE (por ejemplo, uno memoizado), el
+     * subárbol no se recorre y ese es el valor del nodo.
+     */
+    protected long enter(ExprNode node) {
+        return NO_VALUE;
+    }
+
+    /**
+     * Se llama entre el operando izquierdo y el derecho de una operación binaria
+     */
+    protected void afterLeft(BinaryOpNode node, long left) {
+    }
+
+    /**
+     * Recorre la expresión y devuelve el valor de la raíz
+     */
+    public final long walk(ExprNode root) {
+        int base = top;
+        int valueBase = valueTop;
+        push(root);
+
+        try {
+            while (top > base) {
+                step(top - 1);
+            }
+            return popValue();
+        } finally {
+            // Si un callback lanzó una excepción, se descarta lo que quedó de este recorrido
+            while (top > base) {
+                pop();
+            }
+            valueTop = valueBase;
+        }
+    }
+
+    /**
+     * Avanza un paso sobre el nodo en el tope de la pila
+     */
+    private void step(int index) {
+        ExprNode node = nodes[index];
+
+        if (visited[index] == 0) {
+            long known = enter(node);
+            if (known != NO_VALUE) {
+                pop();
+                pushValue(known);
+                return;
+            }
+        }
+
+        int kind = node.kind();
+        if (kind == ExprNode.BINARY_OP) {
+            BinaryOpNode binOp = (BinaryOpNode) node;
+            switch (visited[index]++) {
+                case 0:
+                    push(binOp.getLeft());
+                    break;
+                case 1:
+                    afterLeft(binOp, values[valueTop - 1]);
+                    push(binOp.getRight());
+                    break;
+                default:
+                    long right = popValue();
+                    long left = popValue();
+                    pop();
+                    pushValue(binary(binOp, left, right));
+                    break;
+            }
+        } else if (kind == ExprNode.UNARY_OP) {
+            UnaryOpNode unaryOp = (UnaryOpNode) node;
+            if (visited[index]++ == 0) {
+                push(unaryOp.getOperand());
+            } else {
+                long operand = popValue();
+                pop();
+                pushValue(unary(unaryOp, operand));
+            }
+        } else {
+            pop();
+            pushValue(leaf(node));
+        }
+    }
+
+    private void push(ExprNode node) {
+        if (top == nodes.length) {
+            nodes = Arrays.copyOf(nodes, top * 2);
+            visited = Arrays.copyOf(visited, top * 2);
+        }
+        nodes[top] = node;
+        visited[top] = 0;
+        top++;
+    }
+
+    private void pop() {
+        nodes[--top] = null;
+    }
+
+    private void pushValue(long value) {
+        if (valueTop == values.length) {
+            values = Arrays.copyOf(values, valueTop * 2);
+        }
+        values[valueTop++] = value;
+    }
+
+    private long popValue() {
+        return values[--valueTop];
+    }
+}
@@ -0,0 +1,84 @@
+package ast.visitor;
+
+import ast.ASTNode;
+import ast.nodes.program.*;
+import ast.nodes.statement.*;
+import ast.nodes.expression.*;
+
+/**
+ * Despacho por etiqueta: llama al visit* del visitante según ASTNode.kind(), con un
+ * switch en lugar del doble despacho de accept. Son métodos estáticos chicos, así que
+ * el JIT los integra en quien los llama y ahí el visitante ya tiene tipo conocido:
+ * la llamada a visit* deja de ser megamórfica aunque el nodo sea de cualquier clase.
+ */
+public final class NodeSwitch {
+    private NodeSwitch() {
+    }
+
+    public static <R> R visit(ASTNode node, ASTVisitor<R> visitor) {
+        switch (node.kind()) {
+            case ASTNode.PROGRAM: return visitor.visitProgram((ProgramNode) node);
+            case ASTNode.FUNCTION_DEF: return visitor.visitFunctionDef((FunctionDefNode) node);
+            case ASTNode.PARAM: return visitor.visitParam((ParamNode) node);
+            case ASTNode.DECLARATION: return visitor.visitDeclaration((DeclarationNode) node);
+            case ASTNode.VAR_DECL: return visitor.visitVarDecl((VarDeclNode) node);
+            case ASTNode.ASSIGNMENT: return visitor.visitAssignment((AssignmentNode) node);
+            case ASTNode.RETURN_STMT: return visitor.visitReturnStmt((ReturnStmtNode) node);
+            case ASTNode.EXPR_STMT: return visitor.visitExprStmt((ExprStmtNode) node);
+            case ASTNode.IF_STMT: return visitor.visitIfStmt((IfStmtNode) node);
+            case ASTNode.WHILE_STMT: return visitor.visitWhileStmt((WhileStmtNode) node);
+            case ASTNode.BINARY_OP: return visitor.visitBinaryOp((BinaryOpNode) node);
+            case ASTNode.UNARY_OP: return visitor.visitUnaryOp((UnaryOpNode) node);
+            case ASTNode.NUMBER: return visitor.visitNumber((NumberNode) node);
+            case ASTNode.BOOLEAN: return visitor.visitBoolean((BooleanNode) node);
+            case ASTNode.VARIABLE: return visitor.visitVariable((VariableNode) node);
+            default: throw unknown(node);
+        }
+    }
+
+    public static int visitInt(ASTNode node, IntASTVisitor visitor) {
+        switch (node.kind()) {
+            case ASTNode.PROGRAM: return visitor.visitProgram((ProgramNode) node);
+            case ASTNode.FUNCTION_DEF: return visitor.visitFunctionDef((FunctionDefNode) node);
+            case ASTNode.PARAM: return visitor.visitParam((ParamNode) node);
+            case ASTNode.DECLARATION: return visitor.visitDeclaration((DeclarationNode) node);
+            case ASTNode.VAR_DECL: return visitor.visitVarDecl((VarDeclNode) node);
+            case ASTNode.ASSIGNMENT: return visitor.visitAssignment((AssignmentNode) node);
+            case ASTNode.RETURN_STMT: return visitor.visitReturnStmt((ReturnStmtNode) node);
+            case ASTNode.EXPR_STMT: return visitor.visitExprStmt((ExprStmtNode) node);
+            case ASTNode.IF_STMT: return visitor.visitIfStmt((IfStmtNode) node);
+            case ASTNode.WHILE_STMT: return visitor.visitWhileStmt((WhileStmtNode) node);
+            case ASTNode.BINARY_OP: return visitor.visitBinaryOp((BinaryOpNode) node);
+            case ASTNode.UNARY_OP: return visitor.visitUnaryOp((UnaryOpNode) node);
+            case ASTNode.NUMBER: return visitor.visitNumber((NumberNode) node);
+            case ASTNode.BOOLEAN: return visitor.visitBoolean((BooleanNode) node);
+            case ASTNode.VARIABLE: return visitor.visitVariable((VariableNode) node);
+            default: throw unknown(node);
+        }
+    }
+
+    public static void visitVoid(ASTNode node, VoidASTVisitor visitor) {
+        switch (node.kind()) {
+            case ASTNode.PROGRAM: visitor.visitProgram((ProgramNode) node); break;
+            case ASTNode.FUNCTION_DEF: visitor.visitFunctionDef((FunctionDefNode) node); break;
+            case ASTNode.PARAM: visitor.visitParam((ParamNode) node); break;
+            case ASTNode.DECLARATION: visitor.visitDeclaration((DeclarationNode) node); break;
+            case ASTNode.VAR_DECL: visitor.visitVarDecl((VarDeclNode) node); break;
+            case ASTNode.ASSIGNMENT: visitor.visitAssignment((AssignmentNode) node); break;
+            case ASTNode.RETURN_STMT: visitor.visitReturnStmt((ReturnStmtNode) node); break;
+            case ASTNode.EXPR_STMT: visitor.visitExprStmt((ExprStmtNode) node); break;
+            case ASTNode.IF_STMT: visitor.visitIfStmt((IfStmtNode) node); break;
+            case ASTNode.WHILE_STMT: visitor.visitWhileStmt((WhileStmtNode) node); break;
+            case ASTNode.BINARY_OP: visitor.visitBinaryOp((BinaryOpNode) node); break;
+            case ASTNode.UNARY_OP: visitor.visitUnaryOp((UnaryOpNode) node); break;
+            case ASTNode.NUMBER: visitor.visitNumber((NumberNode) node); break;
+            case ASTNode.BOOLEAN: visitor.visitBoolean((BooleanNode) node); break;
+            case ASTNode.VARIABLE: visitor.visitVariable((VariableNode) node); break;
+            default: throw unknown(node);
+        }
+    }
+
+    private static IllegalStateException unknown(ASTNode node) {
+        return new IllegalStateException("Etiqueta de nodo desconocida: " + node.kind());
+    }
+}
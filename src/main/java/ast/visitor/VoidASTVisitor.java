@@ -0,0 +1,32 @@
+package ast.visitor;
+
+import ast.nodes.program.*;
+import ast.nodes.statement.*;
+import ast.nodes.expression.*;
+
+/**
+ * Visitor sin resultado, para recorridos que solo producen efectos
+ * (generación de código, ajuste de posiciones). Ver ASTNode.acceptVoid.
+ */
+public interface VoidASTVisitor {
+    // Nodos de programa
+    void visitProgram(ProgramNode node);
+    void visitFunctionDef(FunctionDefNode node);
+    void visitParam(ParamNode node);
+
+    // Nodos de sentencias
+    void visitDeclaration(DeclarationNode node);
+    void visitVarDecl(VarDeclNode node);
+    void visitAssignment(AssignmentNode node);
+    void visitReturnStmt(ReturnStmtNode node);
+    void visitExprStmt(ExprStmtNode node);
+
+    // Nodos de expresiones
+    void visitBinaryOp(BinaryOpNode node);
+    void visitNumber(NumberNode node);
+    void visitBoolean(BooleanNode node);
+    void visitVariable(VariableNode node);
+    void visitIfStmt(IfStmtNode node);
+    void visitWhileStmt(WhileStmtNode node);
+    void visitUnaryOp(UnaryOpNode node);
+}
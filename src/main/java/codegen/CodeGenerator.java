@@ -1,18 +1,26 @@
 package codegen;
 
-import ast.visitor.ASTVisitor;
+import ast.ASTNode;
+import ast.Type;
+import ast.visitor.VoidASTVisitor;
+import ast.visitor.ExpressionWalker;
+import ast.visitor.NodeSwitch;
 import ast.nodes.program.*;
 import ast.nodes.statement.*;
 import ast.nodes.expression.*;
 import semantic.symboltable.*;
-import semantic.analyzer.TypeChecker;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.*;
 
 /**
- * Generador de código assembler x86-64
+ * Generador de código assembler x86-64. Las variables se leen del binding que el
+ * análisis semántico dejó en cada nodo (slot y offset en el frame): el generador no
+ * busca nombres en la tabla de símbolos, y cada uso va a la declaración que ve aunque
+ * un bloque anidado declare otra con el mismo nombre.
  */
-public class CodeGenerator implements ASTVisitor {
+public class CodeGenerator implements VoidASTVisitor {
     private SymbolTable symbolTable;
     private StringBuilder code;
     private int labelCounter;
@@ -20,8 +28,17 @@ public class CodeGenerator implements ASTVisitor {
     private String currentFunction;
     private int stackFrameSize;
     private List<String> dataSection;
-    private List<String> textSection;
+    private StringBuilder textSection;      // Líneas de la sección text, ya terminadas en '\n'
     private Map<String, Integer> functionStackSizes;
+    private final ExpressionWalker<Void> expressionWalker = new CodeWalker();
+    private final Deque<Object> nestedWork = new ArrayDeque<>();   // Pila de generateNested, se reutiliza
+    private final Deque<List<StmtNode>> frameBlocks = new ArrayDeque<>();  // Pila de calculateStackFrameSize
+    private boolean switchDispatch;
+
+    // Estado de la función generada sentencia a sentencia
+    private String streamedFunction;
+    private int streamedFrameSize;      // Mayor offset declarado hasta ahora
+    private boolean streamedHasReturn;
 
     public CodeGenerator(SymbolTable symbolTable) {
         this.symbolTable = symbolTable;
@@ -31,7 +48,7 @@ public class CodeGenerator implements ASTVisitor {
         this.currentFunction = null;
         this.stackFrameSize = 0;
         this.dataSection = new ArrayList<>();
-        this.textSection = new ArrayList<>();
+        this.textSection = new StringBuilder();
         this.functionStackSizes = new HashMap<>();
 
         initializeDataSection();
@@ -54,62 +71,119 @@ public class CodeGenerator implements ASTVisitor {
     }
 
     private void emit(String instruction) {
-        textSection.add("    " + instruction);
+        textSection.append("    ").append(instruction).append('\n');
     }
 
     private void emitLabel(String label) {
-        textSection.add(label + ":");
+        textSection.append(label).append(":\n");
+    }
+
+    private static String instruction(String instruction) {
+        return "    " + instruction;
+    }
+
+    private static String label(String label) {
+        return label + ":";
     }
 
     private void emitComment(String comment) {
         //textSection.add("    ; " + comment);
     }
 
+    /**
+     * Despacha cada nodo con un switch por etiqueta (NodeSwitch) o, si no, con acceptVoid.
+     * Por defecto acceptVoid: acá el costo está en armar las líneas y el switch no mejora
+     * (ver BenchmarkRunner)
+     */
+    public void setSwitchDispatch(boolean enabled) {
+        switchDispatch = enabled;
+    }
+
+    private void dispatch(ASTNode node) {
+        if (switchDispatch) {
+            NodeSwitch.visitVoid(node, this);
+        } else {
+            node.acceptVoid(this);
+        }
+    }
+
+    /**
+     * Deja el generador listo para otro programa: vacía el código, las secciones y
+     * los contadores conservando la capacidad ya reservada
+     */
+    public void reset() {
+        code.setLength(0);
+        labelCounter = 0;
+        tempCounter = 0;
+        currentFunction = null;
+        stackFrameSize = 0;
+        dataSection.clear();
+        textSection.setLength(0);
+        functionStackSizes.clear();
+        streamedFunction = null;
+        streamedFrameSize = 0;
+        streamedHasReturn = false;
+        initializeDataSection();
+    }
+
+    /**
+     * Genera el assembler de un programa completo
+     */
+    public String generate(ProgramNode program) {
+        dispatch(program);
+        return code.toString();
+    }
+
     // ========== VISITANTES PRINCIPALES ==========
 
     @Override
-    public Object visitProgram(ProgramNode node) {
+    public void visitProgram(ProgramNode node) {
         //emitComment("Inicio del programa");
 
         // Generar código para la función main
-        node.getMainFunction().accept(this);
+        dispatch(node.getMainFunction());
 
         // Ensamblar las secciones finales
         buildFinalCode();
-
-        return code.toString();
     }
 
     @Override
-    public Object visitFunctionDef(FunctionDefNode node) {
+    public void visitFunctionDef(FunctionDefNode node) {
         String functionName = node.getFunctionName();
         currentFunction = functionName;
 
         //emitComment("Definición de función: " + functionName);
-        emitLabel(functionName);
-
-        // Prologue
-        emit("push rbp");
-        emit("mov rbp, rsp");
-
         // Calcular tamaño del stack frame
         calculateStackFrameSize(node);
-        if (stackFrameSize > 0) {
-            emit("sub rsp, " + stackFrameSize);
-        }
+        emitPrologue(functionName, stackFrameSize);
 
         // Procesar parámetros (asignar ubicaciones en stack)
         for (ParamNode param : node.getParameters()) {
-            param.accept(this);
+            dispatch(param);
         }
 
         // Procesar cuerpo de la función
         for (StmtNode stmt : node.getStatements()) {
-            stmt.accept(this);
+            dispatch(stmt);
+        }
+
+        emitEpilogue(functionName, hasReturnStatement(node.getStatements()));
+    }
+
+    private void emitPrologue(String functionName, int frameSize) {
+        emitLabel(functionName);
+
+        // Prologue
+        emit("push rbp");
+        emit("mov rbp, rsp");
+        if (frameSize > 0) {
+            emit("sub rsp, " + frameSize);
         }
+    }
 
+    private void emitEpilogue(String functionName, boolean hasReturn) {
         // Si no hay return statement, agregar retorno por defecto
-        if (!hasReturnStatement(node.getStatements())) {
+        if (!hasReturn) {
             //emitComment("Return implícito");
             emit("mov rax, 0"); // Valor de retorno por defecto
         }
@@ -124,46 +198,86 @@ public class CodeGenerator implements ASTVisitor {
 
         currentFunction = null;
         stackFrameSize = 0;
-        symbolTable.resetStackOffset();
+    }
+
+    // ========== GENERACIÓN POR SENTENCIA (compilación en streaming) ==========
+
+    /**
+     * Comienza una función cuyo cuerpo se genera de a una sentencia.
+     * El prólogo depende del tamaño del frame, que se conoce recién al final,
+     * así que lo escribe writeHeader después de endFunction.
+     */
+    public void beginFunction(String functionName, List<ParamNode> parameters) {
+        currentFunction = functionName;
+        streamedFunction = functionName;
+        streamedFrameSize = 0;
+        streamedHasReturn = false;
 
-        return null;
+        for (ParamNode param : parameters) {
+            dispatch(param);
+        }
     }
 
-    @Override
-    public Object visitParam(ParamNode node) {
-        String paramName = node.getName();
-        String paramType = node.getType();
-        int size = TypeChecker.getTypeSize(paramType);
+    /**
+     * Genera una sentencia del cuerpo de la función actual
+     */
+    public void generateStatement(StmtNode stmt) {
+        if (stmt instanceof ReturnStmtNode) {
+            streamedHasReturn = true;
+        }
+        dispatch(stmt);
+    }
+
+    /**
+     * Cierra la función actual emitiendo el epílogo
+     */
+    public void endFunction() {
+        stackFrameSize = alignFrame(streamedFrameSize);
+        functionStackSizes.put(currentFunction, stackFrameSize);
+        emitEpilogue(currentFunction, streamedHasReturn);
+    }
+
+    /**
+     * Escribe las líneas generadas hasta ahora y las descarta
+     */
+    public void flush(Writer out) throws IOException {
+        out.append(textSection);
+        textSection.setLength(0);
+    }
 
+    /**
+     * Escribe lo que precede al cuerpo ya volcado con flush: sección data, punto de
+     * entrada y prólogo de la función. Se llama después de endFunction.
+     */
+    public void writeHeader(Writer out) throws IOException {
+        StringBuilder header = new StringBuilder();
+        appendHeader(header);
+        out.write(header.toString());
+
+        emitPrologue(streamedFunction, functionStackSizes.get(streamedFunction));
+        flush(out);
+    }
+
+    @Override
+    public void visitParam(ParamNode node) {
         // Los parámetros en x86-64 vienen en registros: rdi, rsi, rdx, rcx, r8, r9
-        // Asignamos espacio en stack y movemos desde el registro
-        int offset = symbolTable.allocateStackSpace(size);
-        String address = "[rbp-" + offset + "]";
-
-        // Actualizar symbol table con la dirección
-        SymbolEntry entry = symbolTable.lookup(paramName);
-        if (entry != null) {
-            entry.setAddress(address);
-            entry.setStackOffset(offset);
-            entry.setSize(size);
-        }
+        // El análisis les dio lugar en el stack y movemos desde el registro
+        int offset = node.getFrameOffset();
+        String address = declareSlot(offset);
 
         // Mover parámetro desde registro a stack
-        //emitComment("Guardar parámetro: " + paramName);
-        switch (symbolTable.getCurrentStackOffset()) {
+        //emitComment("Guardar parámetro: " + node.getName());
+        switch (offset) {
             case 4:  emit("mov " + address + ", edi"); break; // primer parámetro
             case 8:  emit("mov " + address + ", esi"); break; // segundo parámetro
             case 12: emit("mov " + address + ", edx"); break; // tercer parámetro
             default: emit("mov " + address + ", edi"); break;
         }
-
-        return null;
     }
 
     @Override
-    public Object visitDeclaration(DeclarationNode node) {
-        String type = node.getType();
-        int typeSize = TypeChecker.getTypeSize(type);
+    public void visitDeclaration(DeclarationNode node) {
+        Type type = node.getDeclaredType();
 
         for (VarDeclNode varDecl : node.getVariables()) {
             String varName = varDecl.getName();
@@ -173,14 +287,13 @@ public class CodeGenerator implements ASTVisitor {
                 declareGlobalVariable(varName, type, varDecl);
             } else {
                 // Variable local
-                declareLocalVariable(varName, type, varDecl, typeSize);
+                declareLocalVariable(varName, varDecl);
             }
         }
-        return null;
     }
 
-    private void declareGlobalVariable(String varName, String type, VarDeclNode varDecl) {
-        String asmType = TypeChecker.getAssemblyType(type);
+    private void declareGlobalVariable(String varName, Type type, VarDeclNode varDecl) {
+        String asmType = type.assemblyType();
         if (varDecl.hasInitialValue()) {
             Object value = evaluateConstantExpression(varDecl.getInitialValue());
             dataSection.add("    " + varName + " " + asmType + " " + value);
@@ -192,29 +305,20 @@ public class CodeGenerator implements ASTVisitor {
         if (varDecl.hasInitialValue()) {
             Object value = evaluateConstantExpression(varDecl.getInitialValue());
             symbolTable.declareWithAddress(varName, type, value, varName,
-                    TypeChecker.getTypeSize(type), true, -1, -1);
+                    type.size(), true, -1, -1);
         } else {
             symbolTable.declareWithAddress(varName, type, varName,
-                    TypeChecker.getTypeSize(type), true);
+                    type.size(), true);
         }
     }
 
-    private void declareLocalVariable(String varName, String type, VarDeclNode varDecl, int typeSize) {
-        int offset = symbolTable.allocateStackSpace(typeSize);
-        String address = "[rbp-" + offset + "]";
-
-        // Actualizar symbol table - CORREGIDO
-        if (varDecl.hasInitialValue()) {
-            Object value = evaluateConstantExpression(varDecl.getInitialValue());
-            symbolTable.declareWithAddress(varName, type, value, address, typeSize, false, -1, -1);
-        } else {
-            symbolTable.declareWithAddress(varName, type, address, typeSize, false);
-        }
+    private void declareLocalVariable(String varName, VarDeclNode varDecl) {
+        String address = declareSlot(varDecl.getFrameOffset());
 
         // Inicializar si tiene valor
         if (varDecl.hasInitialValue()) {
             emitComment("Inicializar variable: " + varName);
-            varDecl.getInitialValue().accept(this); // Resultado en rax
+            dispatch(varDecl.getInitialValue()); // Resultado en rax
             emit("mov " + address + ", eax");
         } else {
             // Inicializar a cero
@@ -224,129 +328,167 @@ public class CodeGenerator implements ASTVisitor {
 
 
     @Override
-    public Object visitAssignment(AssignmentNode node) {
+    public void visitAssignment(AssignmentNode node) {
         //emitComment("Asignación: " + node.getVariableName());
 
         // Evaluar la expresión derecha
-        node.getExpression().accept(this); // Resultado en eax
+        dispatch(node.getExpression()); // Resultado en eax
 
-        // Buscar la variable izquierda
-        SymbolEntry entry = symbolTable.lookup(node.getVariableName());
-        if (entry != null) {
-            emit("mov " + entry.getAddress() + ", eax");
+        // Guardar en el slot de la variable izquierda
+        if (node.isResolved()) {
+            emit("mov [rbp-" + node.getFrameOffset() + "], eax");
         }
-
-        return null;
     }
 
     @Override
-    public Object visitReturnStmt(ReturnStmtNode node) {
+    public void visitReturnStmt(ReturnStmtNode node) {
         //emitComment("Return statement");
 
         if (node.hasExpression()) {
-            node.getExpression().accept(this); // Resultado en eax
+            dispatch(node.getExpression()); // Resultado en eax
         } else {
             emit("mov eax, 0"); // Return 0 por defecto
         }
 
         emit("jmp " + currentFunction + "_exit");
-        return null;
     }
 
     @Override
-    public Object visitExprStmt(ExprStmtNode node) {
+    public void visitExprStmt(ExprStmtNode node) {
         // Solo evaluar la expresión y descartar el resultado
-        node.getExpression().accept(this);
-        return null;
+        dispatch(node.getExpression());
     }
 
-    // ========== VISITANTES DE EXPRESIONES ==========
     @Override
-    public Object visitIfStmt(IfStmtNode node) {
-        String elseLabel = generateLabel("else");
-        String endLabel = generateLabel("endif");
-
-        // Evaluar condición
-        node.getCondition().accept(this);
-        emit("cmp eax, 0");
-
-        if (node.hasElseBranch()) {
-            emit("je " + elseLabel);
-
-            // Rama then
-            for (StmtNode stmt : node.getThenBranch()) {
-                stmt.accept(this);
-            }
-            emit("jmp " + endLabel);
+    public void visitIfStmt(IfStmtNode node) {
+        generateNested(node);
+    }
 
-            // Rama else
-            emitLabel(elseLabel);
-            for (StmtNode stmt : node.getElseBranch()) {
-                stmt.accept(this);
-            }
-        } else {
-            emit("je " + endLabel);
+    @Override
+    public void visitWhileStmt(WhileStmtNode node) {
+        generateNested(node);
+    }
 
-            // Rama then
-            for (StmtNode stmt : node.getThenBranch()) {
-                stmt.accept(this);
+    /**
+     * Genera un if o while con una pila explícita de trabajo, para que los bloques
+     * anidados no consuman pila de Java. En la pila hay sentencias pendientes y
+     * líneas ya armadas (saltos y etiquetas) que se emiten al desapilarlas.
+     */
+    private void generateNested(StmtNode root) {
+        Deque<Object> work = nestedWork;
+        work.clear();
+        work.push(root);
+
+        while (!work.isEmpty()) {
+            Object item = work.pop();
+
+            if (item instanceof String) {
+                textSection.append((String) item).append('\n');
+            } else if (item instanceof IfStmtNode) {
+                IfStmtNode node = (IfStmtNode) item;
+                String elseLabel = generateLabel("else");
+                String endLabel = generateLabel("endif");
+
+                // Evaluar condición
+                dispatch(node.getCondition());
+                emit("cmp eax, 0");
+
+                // Se apila en orden inverso al de emisión
+                work.push(label(endLabel));
+                if (node.hasElseBranch()) {
+                    emit("je " + elseLabel);
+
+                    // Rama else
+                    pushStatements(work, node.getElseBranch());
+                    work.push(label(elseLabel));
+                    // Rama then
+                    work.push(instruction("jmp " + endLabel));
+                    pushStatements(work, node.getThenBranch());
+                } else {
+                    emit("je " + endLabel);
+
+                    // Rama then
+                    pushStatements(work, node.getThenBranch());
+                }
+            } else if (item instanceof WhileStmtNode) {
+                WhileStmtNode node = (WhileStmtNode) item;
+                String startLabel = generateLabel("while_start");
+                String endLabel = generateLabel("while_end");
+
+                emitLabel(startLabel);
+
+                // Evaluar condición
+                dispatch(node.getCondition());
+                emit("cmp eax, 0");
+                emit("je " + endLabel);
+
+                // Cuerpo del while
+                work.push(label(endLabel));
+                work.push(instruction("jmp " + startLabel));
+                pushStatements(work, node.getBody());
+            } else {
+                dispatch((StmtNode) item);
             }
         }
-
-        emitLabel(endLabel);
-        return null;
     }
 
-    @Override
-    public Object visitUnaryOp(UnaryOpNode node) {
-        node.getOperand().accept(this);
-
-        switch (node.getOperator()) {
-            case NOT:
-                emit("xor eax, 1"); // Invertir el valor booleano
-                break;
+    private static void pushStatements(Deque<Object> work, List<StmtNode> statements) {
+        for (int i = statements.size() - 1; i >= 0; i--) {
+            work.push(statements.get(i));
         }
-
-        return null;
     }
 
+    // ========== VISITANTES DE EXPRESIONES ==========
+
     @Override
-    public Object visitWhileStmt(WhileStmtNode node) {
-        String startLabel = generateLabel("while_start");
-        String endLabel = generateLabel("while_end");
+    public void visitUnaryOp(UnaryOpNode node) {
+        expressionWalker.walk(node);
+    }
 
-        emitLabel(startLabel);
+    @Override
+    public void visitBinaryOp(BinaryOpNode node) {
+        expressionWalker.walk(node);
+    }
 
-        // Evaluar condición
-        node.getCondition().accept(this);
-        emit("cmp eax, 0");
-        emit("je " + endLabel);
+    /**
+     * Genera una expresión sin recursión: cada operando deja su resultado en eax y
+     * el izquierdo de una operación binaria se guarda en la pila hasta tener el derecho
+     */
+    private class CodeWalker extends ExpressionWalker<Void> {
+        @Override
+        protected Void leaf(ExprNode node) {
+            dispatch(node);
+            return null;
+        }
 
-        // Cuerpo del while
-        for (StmtNode stmt : node.getBody()) {
-            stmt.accept(this);
+        @Override
+        protected void afterLeft(BinaryOpNode node, Void left) {
+            emit("push rax"); // Guardar resultado izquierdo
         }
 
-        emit("jmp " + startLabel);
-        emitLabel(endLabel);
+        @Override
+        protected Void binary(BinaryOpNode node, Void left, Void right) {
+            emit("pop rbx"); // Recuperar izquierdo en rbx
+            emitBinaryOp(node.getOperator());
+            return null;
+        }
 
-        return null;
+        @Override
+        protected Void unary(UnaryOpNode node, Void operand) {
+            switch (node.getOperator()) {
+                case NOT:
+                    emit("xor eax, 1"); // Invertir el valor booleano
+                    break;
+            }
+            return null;
+        }
     }
 
-    @Override
-    public Object visitBinaryOp(BinaryOpNode node) {
-        //emitComment("Operación binaria: " + node.getOperator());
-
-        // Evaluar operando izquierdo
-        node.getLeft().accept(this);
-        emit("push rax"); // Guardar resultado izquierdo
-
-        // Evaluar operando derecho
-        node.getRight().accept(this);
-        emit("pop rbx"); // Recuperar izquierdo en rbx
-
-        // Aplicar operación
-        switch (node.getOperator()) {
+    /**
+     * Aplica la operación con el izquierdo en ebx y el derecho en eax; el resultado queda en eax
+     */
+    private void emitBinaryOp(BinaryOpNode.Operator operator) {
+        switch (operator) {
             case PLUS:
                 emit("add ebx, eax");
                 emit("mov eax, ebx");
@@ -390,68 +532,82 @@ public class CodeGenerator implements ASTVisitor {
                 emit("or eax, ebx");
                 break;
         }
-        return null;
     }
 
     @Override
-    public Object visitNumber(NumberNode node) {
+    public void visitNumber(NumberNode node) {
         //emitComment("Cargar número: " + node.getValue());
         emit("mov eax, " + node.getValue());
-        return null;
     }
 
     @Override
-    public Object visitBoolean(BooleanNode node) {
+    public void visitBoolean(BooleanNode node) {
         //emitComment("Cargar booleano: " + node.getValue());
         emit("mov eax, " + (node.getValue() ? "1" : "0"));
-        return null;
     }
 
     @Override
-    public Object visitVariable(VariableNode node) {
-        SymbolEntry entry = symbolTable.lookup(node.getName());
-        if (entry != null) {
+    public void visitVariable(VariableNode node) {
+        if (node.isResolved()) {
             //emitComment("Cargar variable: " + node.getName());
-            if (entry.isGlobal()) {
-                emit("mov eax, [" + entry.getAddress() + "]");
-            } else {
-                emit("mov eax, " + entry.getAddress());
-            }
+            emit("mov eax, [rbp-" + node.getFrameOffset() + "]");
         }
-        return null;
     }
 
     @Override
-    public Object visitVarDecl(VarDeclNode node) {
+    public void visitVarDecl(VarDeclNode node) {
         // Ya manejado en visitDeclaration
-        return null;
     }
 
     // ========== MÉTODOS AUXILIARES ==========
 
+    /**
+     * Dirección del slot que ocupa una declaración. Los usos la arman desde el offset
+     * de su binding, así que no se guarda nada por slot: en streaming la memoria no
+     * crece con la cantidad de declaraciones.
+     */
+    private String declareSlot(int offset) {
+        streamedFrameSize = Math.max(streamedFrameSize, offset);
+        return "[rbp-" + offset + "]";
+    }
+
     private void calculateStackFrameSize(FunctionDefNode node) {
         int totalSize = 0;
 
         // Espacio para parámetros
         for (ParamNode param : node.getParameters()) {
-            totalSize += TypeChecker.getTypeSize(param.getType());
+            totalSize += param.getDeclaredType().size();
         }
 
-        // Espacio para variables locales
-        for (StmtNode stmt : node.getStatements()) {
-            if (stmt instanceof DeclarationNode) {
-                DeclarationNode decl = (DeclarationNode) stmt;
-                for (VarDeclNode var : decl.getVariables()) {
-                    totalSize += TypeChecker.getTypeSize(decl.getType());
+        // Espacio para variables locales, también las de los bloques anidados: cada una tiene su slot
+        Deque<List<StmtNode>> blocks = frameBlocks;
+        blocks.push(node.getStatements());
+        while (!blocks.isEmpty()) {
+            for (StmtNode stmt : blocks.pop()) {
+                if (stmt instanceof DeclarationNode) {
+                    DeclarationNode decl = (DeclarationNode) stmt;
+                    totalSize += decl.getDeclaredType().size() * decl.getVariables().size();
+                } else if (stmt instanceof IfStmtNode) {
+                    IfStmtNode ifStmt = (IfStmtNode) stmt;
+                    blocks.push(ifStmt.getThenBranch());
+                    if (ifStmt.hasElseBranch()) {
+                        blocks.push(ifStmt.getElseBranch());
+                    }
+                } else if (stmt instanceof WhileStmtNode) {
+                    blocks.push(((WhileStmtNode) stmt).getBody());
                 }
             }
         }
 
-        // Alinear a 16 bytes (convención x86-64)
-        stackFrameSize = (totalSize + 15) & ~15;
+        stackFrameSize = alignFrame(totalSize);
         functionStackSizes.put(currentFunction, stackFrameSize);
     }
 
+    private static int alignFrame(int size) {
+        // Alinear a 16 bytes (convención x86-64)
+        return (size + 15) & ~15;
+    }
+
     private boolean hasReturnStatement(List<StmtNode> statements) {
         for (StmtNode stmt : statements) {
             if (stmt instanceof ReturnStmtNode) {
@@ -461,7 +617,7 @@ public class CodeGenerator implements ASTVisitor {
         return false;
     }
 
-    private Object evaluateConstantExpression(ExprNode expr) {
+    private int evaluateConstantExpression(ExprNode expr) {
         // Evaluación simple de constantes en tiempo de compilación
         if (expr instanceof NumberNode) {
             return ((NumberNode) expr).getValue();
@@ -472,6 +628,13 @@ public class CodeGenerator implements ASTVisitor {
     }
 
     private void buildFinalCode() {
+        appendHeader(code);
+
+        // Ensamblar sección text
+        code.append(textSection);
+    }
+
+    private void appendHeader(StringBuilder code) {
         // Ensamblar sección data
         for (String line : dataSection) {
             code.append(line).append("\n");
@@ -484,11 +647,6 @@ public class CodeGenerator implements ASTVisitor {
         code.append("    mov ebx, eax    ; exit code\n");
         code.append("    mov eax, 1      ; sys_exit\n");
         code.append("    int 0x80\n\n");
-
-        // Ensamblar sección text
-        for (String line : textSection) {
-            code.append(line).append("\n");
-        }
     }
 
 
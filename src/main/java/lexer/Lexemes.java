@@ -0,0 +1,51 @@
+package lexer;
+
+import com.ejemplo.parser.sym;
+
+/**
+ * Largo del texto de cada token, para calcular dónde termina sin guardarlo en el
+ * TokenBuffer: las palabras clave y los operadores tienen largo fijo, un ID mide lo que
+ * su nombre y un NUMBER lo que sus dígitos (la gramática no admite ceros a la izquierda).
+ */
+public final class Lexemes {
+
+    private Lexemes() {
+    }
+
+    /**
+     * Largo de un token de texto fijo; 0 para ID, NUMBER y EOF
+     */
+    public static int length(int kind) {
+        switch (kind) {
+            case sym.SEMI: case sym.COMMA: case sym.ASSIGN:
+            case sym.PLUS: case sym.MINUS: case sym.TIMES: case sym.DIVIDE:
+            case sym.LPAREN: case sym.RPAREN: case sym.LBRACE: case sym.RBRACE:
+            case sym.NOT: case sym.LT: case sym.GT:
+                return 1;
+            case sym.AND: case sym.OR: case sym.EQ: case sym.IF:
+                return 2;
+            case sym.INT:
+                return 3;
+            case sym.BOOL: case sym.VOID: case sym.MAIN: case sym.TRUE: case sym.ELSE:
+                return 4;
+            case sym.FALSE: case sym.WHILE:
+                return 5;
+            case sym.RETURN:
+                return 6;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Dígitos de un literal entero no negativo
+     */
+    public static int digits(int value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}
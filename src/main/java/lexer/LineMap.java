@@ -0,0 +1,80 @@
+package lexer;
+
+import java.util.Arrays;
+
+/**
+ * Tabla de inicios de línea del archivo fuente.
+ * El lexer solo registra el offset de cada salto de línea; la conversión
+ * de un offset a línea y columna se calcula bajo demanda por búsqueda binaria.
+ */
+public class LineMap {
+    private long[] lineStarts;
+    private int lineCount;
+
+    public LineMap() {
+        this.lineStarts = new long[1024];
+        this.lineStarts[0] = 0;
+        this.lineCount = 1;
+    }
+
+    /**
+     * Registra que una nueva línea comienza en el offset indicado
+     */
+    public void addLineStart(long offset) {
+        if (lineCount == lineStarts.length) {
+            lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+        }
+        lineStarts[lineCount++] = offset;
+    }
+
+    /**
+     * Agrega los inicios de línea de otro mapa (salvo su línea 0), desplazados en base
+     */
+    public void append(LineMap other, long base) {
+        for (int line = 1; line < other.lineCount; line++) {
+            addLineStart(base + other.lineStarts[line]);
+        }
+    }
+
+    /**
+     * Obtiene la línea (base 0) que contiene el offset
+     */
+    public int lineOf(long offset) {
+        int low = 0;
+        int high = lineCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (lineStarts[mid] <= offset) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Obtiene la columna (base 0) del offset dentro de su línea
+     */
+    public int columnOf(long offset) {
+        return (int) (offset - lineStarts[lineOf(offset)]);
+    }
+
+    /**
+     * Obtiene el offset donde comienza una línea (base 0)
+     */
+    public long lineStart(int line) {
+        return lineStarts[line];
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Vacía la tabla conservando la capacidad reservada
+     */
+    public void clear() {
+        lineCount = 1;
+    }
+}
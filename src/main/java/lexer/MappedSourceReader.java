@@ -0,0 +1,166 @@
+package lexer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reader de archivos fuente mapeados en memoria con FileChannel.map.
+ * Los bytes ASCII se copian directamente al buffer del Lexer; solo las
+ * secuencias no ASCII pasan por un decodificador UTF-8.
+ */
+public class MappedSourceReader extends Reader {
+    // Tamaño máximo de cada región mapeada (un MappedByteBuffer no supera 2 GB)
+    private static final long REGION_SIZE = 1L << 30;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final CharsetDecoder decoder;
+    private MappedByteBuffer region;
+    private long regionStart;
+    private char pendingChar;       // Surrogate bajo pendiente de entregar
+    private boolean hasPendingChar;
+
+    public MappedSourceReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.regionStart = 0;
+        mapRegion(0);
+    }
+
+    /**
+     * Abre un archivo fuente por nombre
+     */
+    public static MappedSourceReader open(String filename) throws IOException {
+        return new MappedSourceReader(Paths.get(filename));
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (region == null) {
+            throw new IOException("Stream cerrado");
+        }
+        if (len == 0) {
+            return 0;
+        }
+
+        int count = 0;
+        if (hasPendingChar) {
+            cbuf[off] = pendingChar;
+            hasPendingChar = false;
+            count = 1;
+        }
+
+        while (count < len) {
+            if (!region.hasRemaining() && !advanceRegion()) {
+                break;
+            }
+
+            // Camino rápido: copiar bytes ASCII sin decodificar
+            int pos = region.position();
+            int limit = pos + Math.min(len - count, region.remaining());
+            int i = pos;
+            while (i < limit) {
+                byte b = region.get(i);
+                if (b < 0) {
+                    break;
+                }
+                cbuf[off + count++] = (char) b;
+                i++;
+            }
+            region.position(i);
+
+            if (i < limit) {
+                int decoded = decodeNonAscii(cbuf, off + count, len - count);
+                if (decoded == 0) {
+                    break;
+                }
+                count += decoded;
+            }
+        }
+
+        return count == 0 ? -1 : count;
+    }
+
+    /**
+     * Decodifica como UTF-8 la racha de bytes no ASCII que empieza en la posición actual
+     * @return cantidad de caracteres escritos en cbuf
+     */
+    private int decodeNonAscii(char[] cbuf, int off, int room) throws IOException {
+        int start = region.position();
+        int end = start;
+        while (end < region.limit() && region.get(end) < 0) {
+            end++;
+        }
+
+        // Una secuencia cortada por el final de la región se vuelve a mapear completa
+        boolean lastRegion = regionStart + region.limit() >= fileSize;
+        if (end == region.limit() && !lastRegion && end - start < 4) {
+            mapRegion(regionStart + start);
+            return decodeNonAscii(cbuf, off, room);
+        }
+
+        ByteBuffer run = region.duplicate();
+        run.position(start).limit(end);
+
+        // Con poco espacio se decodifica a un buffer temporal para no partir pares surrogate
+        char[] target = room >= 2 ? cbuf : new char[2];
+        CharBuffer out = room >= 2 ? CharBuffer.wrap(cbuf, off, room) : CharBuffer.wrap(target);
+        if (room < 2) {
+            run.limit(Math.min(end, start + 4));
+        }
+
+        boolean endOfRun = run.limit() == end && (end < region.limit() || lastRegion);
+        decoder.reset();
+        decoder.decode(run, out, endOfRun);
+        region.position(run.position());
+
+        int written = out.position() - (room >= 2 ? off : 0);
+        if (room < 2 && written > 0) {
+            cbuf[off] = target[0];
+            if (written > 1) {
+                pendingChar = target[1];
+                hasPendingChar = true;
+            }
+            return 1;
+        }
+        return written;
+    }
+
+    /**
+     * Mapea la región siguiente cuando se consumió la actual
+     * @return false si se llegó al final del archivo
+     */
+    private boolean advanceRegion() throws IOException {
+        long next = regionStart + region.limit();
+        if (next >= fileSize) {
+            return false;
+        }
+        mapRegion(next);
+        return true;
+    }
+
+    private void mapRegion(long start) throws IOException {
+        long length = Math.min(REGION_SIZE, fileSize - start);
+        region = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        regionStart = start;
+    }
+
+    @Override
+    public void close() throws IOException {
+        region = null;
+        channel.close();
+    }
+}
@@ -0,0 +1,222 @@
+package lexer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Tabla de nombres con direccionamiento abierto.
+ * Interna identificadores directamente desde un rango de un buffer de caracteres,
+ * de modo que cada nombre distinto se representa con una única instancia de String
+ * y un id entero estable.
+ */
+public class NameTable {
+    private static final int INITIAL_CAPACITY = 256;
+
+    private int[] slots;        // id + 1 de cada nombre, 0 = vacío
+    private int[] hashes;       // hash de cada nombre, indexado por id
+    private String[] names;     // nombres indexados por id
+    private int size;
+
+    public NameTable() {
+        this.slots = new int[INITIAL_CAPACITY];
+        this.hashes = new int[INITIAL_CAPACITY / 2];
+        this.names = new String[INITIAL_CAPACITY / 2];
+        this.size = 0;
+    }
+
+    /**
+     * Interna el nombre contenido en buffer[start, start + length)
+     * @return la instancia compartida del nombre
+     */
+    public String intern(char[] buffer, int start, int length) {
+        return names[internId(buffer, start, length)];
+    }
+
+    /**
+     * Interna un nombre ya construido (o armado en un StringBuilder reutilizado)
+     */
+    public String intern(CharSequence name) {
+        return names[internId(name)];
+    }
+
+    /**
+     * Interna un nombre ya construido; solo se crea un String si el nombre es nuevo
+     * @return el id del nombre (el mismo que para la versión en caracteres)
+     */
+    public int internId(CharSequence name) {
+        int length = name.length();
+        int hash = hash(name, length);
+        int mask = slots.length - 1;
+        int index = hash & mask;
+
+        while (true) {
+            int slot = slots[index];
+            if (slot == 0) {
+                return insert(index, hash, name.toString());
+            }
+            int id = slot - 1;
+            if (hashes[id] == hash && matches(names[id], name, length)) {
+                return id;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * Interna el nombre contenido en buffer[start, start + length)
+     * @return el id del nombre
+     */
+    public int internId(char[] buffer, int start, int length) {
+        int hash = hash(buffer, start, length);
+        int mask = slots.length - 1;
+        int index = hash & mask;
+
+        while (true) {
+            int slot = slots[index];
+            if (slot == 0) {
+                return insert(index, hash, new String(buffer, start, length));
+            }
+            int id = slot - 1;
+            if (hashes[id] == hash && matches(names[id], buffer, start, length)) {
+                return id;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * Interna el nombre ASCII contenido en buffer[start, start + length)
+     * @return el id del nombre (el mismo que para la versión en caracteres)
+     */
+    public int internId(ByteBuffer buffer, int start, int length) {
+        int hash = hash(buffer, start, length);
+        int mask = slots.length - 1;
+        int index = hash & mask;
+
+        while (true) {
+            int slot = slots[index];
+            if (slot == 0) {
+                byte[] bytes = new byte[length];
+                buffer.get(start, bytes);
+                return insert(index, hash, new String(bytes, StandardCharsets.ISO_8859_1));
+            }
+            int id = slot - 1;
+            if (hashes[id] == hash && matches(names[id], buffer, start, length)) {
+                return id;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * Obtiene el nombre asociado a un id
+     */
+    public String name(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Vacía la tabla conservando la capacidad reservada
+     */
+    public void clear() {
+        Arrays.fill(slots, 0);
+        Arrays.fill(names, 0, size, null);
+        size = 0;
+    }
+
+    private int insert(int index, int hash, String name) {
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        int id = size++;
+        names[id] = name;
+        hashes[id] = hash;
+        slots[index] = id + 1;
+
+        // Factor de carga máximo 0.5
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    private void rehash() {
+        int[] newSlots = new int[slots.length * 2];
+        int mask = newSlots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int index = hashes[id] & mask;
+            while (newSlots[index] != 0) {
+                index = (index + 1) & mask;
+            }
+            newSlots[index] = id + 1;
+        }
+        slots = newSlots;
+    }
+
+    private static int hash(char[] buffer, int start, int length) {
+        int h = 0;
+        for (int i = start; i < start + length; i++) {
+            h = 31 * h + buffer[i];
+        }
+        // Mezcla de bits para que el módulo por potencia de 2 no dependa solo de los bits bajos
+        return h ^ (h >>> 16);
+    }
+
+    private static int hash(CharSequence name, int length) {
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + name.charAt(i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static int hash(ByteBuffer buffer, int start, int length) {
+        int h = 0;
+        for (int i = start; i < start + length; i++) {
+            h = 31 * h + buffer.get(i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(String name, ByteBuffer buffer, int start, int length) {
+        if (name.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != buffer.get(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(String name, CharSequence other, int length) {
+        if (name.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != other.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(String name, char[] buffer, int start, int length) {
+        if (name.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != buffer[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
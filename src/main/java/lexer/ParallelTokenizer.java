@@ -0,0 +1,158 @@
+package lexer;
+
+import semantic.errors.CompilerError;
+import semantic.errors.ErrorHandler;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Tokenización en paralelo de fuentes grandes.
+ * Ningún token del lenguaje abarca más de una línea, así que el fuente se corta
+ * después de un '\n' en fragmentos que se tokenizan de forma independiente en un
+ * ForkJoinPool. Luego se concatenan en orden corrigiendo offsets, líneas e ids de
+ * nombre, y los errores léxicos se reportan en el mismo orden que el scanner secuencial.
+ */
+public class ParallelTokenizer {
+    // Tamaño mínimo por defecto de un fragmento; por debajo no compensa repartir el trabajo
+    private static final int DEFAULT_MIN_CHUNK_SIZE = 1 << 20;
+    // Fragmentos por hilo, para repartir mejor la carga
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final int parallelism;
+    private final int minChunkSize;
+    private final ForkJoinPool pool;
+
+    public ParallelTokenizer(int parallelism) {
+        this(parallelism, DEFAULT_MIN_CHUNK_SIZE);
+    }
+
+    public ParallelTokenizer(int parallelism, int minChunkSize) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Paralelismo inválido: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        this.minChunkSize = Math.max(1, minChunkSize);
+        this.pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Tokeniza el fuente completo en out; el resultado es idéntico al de TableScanner.tokenize
+     */
+    public void tokenize(ByteBuffer source, TokenBuffer out) {
+        tokenize(source, out, ErrorHandler.getInstance());
+    }
+
+    /**
+     * Tokeniza el fuente completo en out reportando los errores léxicos a errorHandler
+     */
+    public void tokenize(ByteBuffer source, TokenBuffer out, ErrorHandler errorHandler) {
+        List<Chunk> chunks = split(source);
+        if (chunks.size() == 1) {
+            TableScanner.tokenize(source, out, false, errorHandler);
+            return;
+        }
+
+        for (Chunk chunk : chunks) {
+            pool.execute(chunk);
+        }
+
+        out.clear();
+        NameTable names = out.getNameTable();
+        LineMap lineMap = out.getLineMap();
+        int offsetBase = 0;
+        int lineBase = 0;
+
+        for (Chunk chunk : chunks) {
+            chunk.join();
+
+            NameTable chunkNames = chunk.tokens.getNameTable();
+            int[] nameMap = new int[chunkNames.size()];
+            for (int id = 0; id < nameMap.length; id++) {
+                nameMap[id] = names.internId(chunkNames.name(id));
+            }
+
+            out.append(chunk.tokens, offsetBase, nameMap);
+            lineMap.append(chunk.tokens.getLineMap(), offsetBase);
+
+            // Los errores diferidos de cada fragmento se reportan desde este hilo, en orden
+            for (CompilerError error : chunk.errors) {
+                errorHandler.addLexicalError(error.getLine() + lineBase, error.getColumn(), error.getMessage());
+            }
+
+            offsetBase += chunk.charLength;
+            lineBase += chunk.tokens.getLineMap().getLineCount() - 1;
+        }
+    }
+
+    /**
+     * Corta el fuente en fragmentos que terminan justo después de un '\n'
+     */
+    private List<Chunk> split(ByteBuffer source) {
+        List<Chunk> chunks = new ArrayList<>();
+        int start = source.position();
+        int limit = source.limit();
+
+        if (parallelism == 1) {
+            chunks.add(new Chunk(source));
+            return chunks;
+        }
+
+        int chunkSize = Math.max(minChunkSize, (limit - start) / (parallelism * CHUNKS_PER_THREAD));
+        while (start < limit) {
+            int end = start + chunkSize;
+            if (end >= limit) {
+                end = limit;
+            } else {
+                while (end < limit && source.get(end - 1) != '\n') {
+                    end++;
+                }
+            }
+
+            ByteBuffer slice = source.duplicate();
+            slice.position(start).limit(end);
+            chunks.add(new Chunk(slice));
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * Libera los hilos del pool
+     */
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Fragmento del fuente con sus tokens y errores locales
+     */
+    private static class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ByteBuffer source;
+        private final TokenBuffer tokens;
+        private final List<CompilerError> errors;
+        private int charLength;
+
+        Chunk(ByteBuffer source) {
+            this.source = source;
+            this.tokens = new TokenBuffer();
+            this.errors = new ArrayList<>();
+        }
+
+        @Override
+        protected void compute() {
+            charLength = TableScanner.tokenizeChunk(source, tokens, errors);
+        }
+    }
+}
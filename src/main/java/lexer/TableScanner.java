@@ -0,0 +1,537 @@
+package lexer;
+
+import com.ejemplo.parser.sym;
+import java_cup.runtime.Scanner;
+import java_cup.runtime.Symbol;
+import semantic.errors.CompilerError;
+import semantic.errors.ErrorHandler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Scanner escrito a mano, alternativo al Lexer generado por JFlex.
+ * Reconoce el mismo lenguaje de tokens y emite los mismos códigos de sym,
+ * trabajando directamente sobre los bytes del fuente con tablas de clases
+ * de byte, saltos de 8 bytes (SWAR) sobre espacios e identificadores y un
+ * hash perfecto para las palabras clave.
+ */
+public class TableScanner implements Scanner {
+
+    // Clases de byte
+    private static final byte ILLEGAL = 0;
+    private static final byte BLANK = 1;       // ' ' y '\t'
+    private static final byte NEWLINE = 2;     // '\n' y '\f'
+    private static final byte RETURN = 3;      // '\r'
+    private static final byte LETTER = 4;      // [A-Za-z_]
+    private static final byte DIGIT = 5;
+    private static final byte OPERATOR = 6;
+    private static final byte NON_ASCII = 7;
+
+    private static final byte[] BYTE_CLASS = new byte[256];
+    private static final int[] OPERATOR_SYM = new int[128];
+
+    // Hash perfecto de palabras clave: (primero * 5 + último + longitud * 4) & 15
+    private static final String[] KEYWORDS = {
+            "int", "bool", "void", "main", "return", "true", "false", "if", "else", "while"
+    };
+    private static final int[] KEYWORD_SYMS = {
+            sym.INT, sym.BOOL, sym.VOID, sym.MAIN, sym.RETURN,
+            sym.TRUE, sym.FALSE, sym.IF, sym.ELSE, sym.WHILE
+    };
+    private static final byte[][] KEYWORD_TABLE = new byte[16][];
+    private static final int[] KEYWORD_TABLE_SYMS = new int[16];
+
+    // Constantes SWAR
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH = 0x8080808080808080L;
+    private static final long LOW7 = 0x7F7F7F7F7F7F7F7FL;
+    private static final long SPACES = 0x2020202020202020L;
+
+    // Límites para detectar desbordamiento de literales sin dividir
+    private static final int MAX_TENTH = Integer.MAX_VALUE / 10;
+    private static final int MAX_LAST_DIGIT = Integer.MAX_VALUE % 10;
+
+    static {
+        BYTE_CLASS[' '] = BLANK;
+        BYTE_CLASS['\t'] = BLANK;
+        BYTE_CLASS['\n'] = NEWLINE;
+        BYTE_CLASS['\f'] = NEWLINE;
+        BYTE_CLASS['\r'] = RETURN;
+        for (int c = 'a'; c <= 'z'; c++) BYTE_CLASS[c] = LETTER;
+        for (int c = 'A'; c <= 'Z'; c++) BYTE_CLASS[c] = LETTER;
+        BYTE_CLASS['_'] = LETTER;
+        for (int c = '0'; c <= '9'; c++) BYTE_CLASS[c] = DIGIT;
+        for (int c = 0x80; c < 0x100; c++) BYTE_CLASS[c] = NON_ASCII;
+
+        String operators = ";,=+-*/(){}&|!><";
+        int[] operatorSyms = {
+                sym.SEMI, sym.COMMA, sym.ASSIGN, sym.PLUS, sym.MINUS, sym.TIMES, sym.DIVIDE,
+                sym.LPAREN, sym.RPAREN, sym.LBRACE, sym.RBRACE, sym.AND, sym.OR,
+                sym.NOT, sym.GT, sym.LT
+        };
+        for (int i = 0; i < operators.length(); i++) {
+            BYTE_CLASS[operators.charAt(i)] = OPERATOR;
+            OPERATOR_SYM[operators.charAt(i)] = operatorSyms[i];
+        }
+
+        for (int i = 0; i < KEYWORDS.length; i++) {
+            byte[] word = KEYWORDS[i].getBytes(StandardCharsets.US_ASCII);
+            int h = keywordHash(word[0], word[word.length - 1], word.length);
+            if (KEYWORD_TABLE[h] != null) {
+                throw new IllegalStateException("Colisión en el hash de palabras clave: " + KEYWORDS[i]);
+            }
+            KEYWORD_TABLE[h] = word;
+            KEYWORD_TABLE_SYMS[h] = KEYWORD_SYMS[i];
+        }
+    }
+
+    private final ByteBuffer buffer;
+    private final int limit;
+    private final NameTable names;
+    private final LineMap lineMap;
+    private final ErrorHandler errorHandler;
+    private List<CompilerError> deferredErrors;     // Si no es null, los errores se acumulan aquí
+    private int pos;
+    private int line;
+    private int lineStart;      // Offset en caracteres del inicio de la línea actual
+    private int charBias;       // Bytes de más por caracteres no ASCII ya leídos
+    private int tokenStart;     // Offset en bytes del último token reconocido
+    private int tokenValue;     // Valor del último token (literal o id de nombre)
+
+    public TableScanner(ByteBuffer source) {
+        this(source, new NameTable(), new LineMap());
+    }
+
+    public TableScanner(ByteBuffer source, NameTable names, LineMap lineMap) {
+        this(source, names, lineMap, ErrorHandler.getInstance());
+    }
+
+    /**
+     * Scanner que reporta los errores léxicos a los diagnósticos de una compilación en particular
+     */
+    public TableScanner(ByteBuffer source, NameTable names, LineMap lineMap, ErrorHandler errorHandler) {
+        this.buffer = source.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        this.pos = source.position();
+        this.limit = source.limit();
+        this.names = names;
+        this.lineMap = lineMap;
+        this.errorHandler = errorHandler;
+        this.line = 0;
+        this.lineStart = 0;
+        this.charBias = pos;
+    }
+
+    /**
+     * Crea un scanner sobre el contenido de una cadena
+     */
+    public TableScanner(String source) {
+        this(ByteBuffer.wrap(source.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Crea un scanner sobre un archivo mapeado en memoria
+     */
+    public static TableScanner open(String filename) throws IOException {
+        return new TableScanner(map(Paths.get(filename)));
+    }
+
+    /**
+     * Mapea un archivo completo en memoria (hasta 2 GB)
+     */
+    public static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Archivo demasiado grande para TableScanner: " + path);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    /**
+     * Tokeniza un fuente completo en un buffer empaquetado, sin crear objetos por token
+     */
+    public static void tokenize(ByteBuffer source, TokenBuffer out) {
+        tokenize(source, out, false);
+    }
+
+    /**
+     * Tokeniza un fuente completo en un buffer empaquetado
+     * @param keepNames conservar los nombres ya internados en el buffer (ver TokenBuffer.clearTokens)
+     */
+    public static void tokenize(ByteBuffer source, TokenBuffer out, boolean keepNames) {
+        tokenize(source, out, keepNames, ErrorHandler.getInstance());
+    }
+
+    /**
+     * Tokeniza un fuente completo reportando los errores léxicos a errorHandler
+     */
+    public static void tokenize(ByteBuffer source, TokenBuffer out, boolean keepNames, ErrorHandler errorHandler) {
+        if (keepNames) {
+            out.clearTokens();
+        } else {
+            out.clear();
+        }
+        new TableScanner(source, out.getNameTable(), out.getLineMap(), errorHandler).tokenizeInto(out);
+    }
+
+    /**
+     * Tokeniza un fragmento del fuente acumulando los errores léxicos en lugar de reportarlos.
+     * Las líneas y offsets resultantes son relativos al inicio del fragmento.
+     * @return cantidad de caracteres del fragmento
+     */
+    public static int tokenizeChunk(ByteBuffer chunk, TokenBuffer out, List<CompilerError> errors) {
+        out.clear();
+        TableScanner scanner = new TableScanner(chunk, out.getNameTable(), out.getLineMap());
+        scanner.deferredErrors = errors;
+        scanner.tokenizeInto(out);
+        return scanner.limit - scanner.charBias;
+    }
+
+    private void tokenizeInto(TokenBuffer out) {
+        int kind;
+        while ((kind = scan()) != sym.EOF) {
+            out.add(kind, tokenStart - charBias, tokenValue);
+        }
+    }
+
+    @Override
+    public Symbol next_token() {
+        int kind = scan();
+        if (kind == sym.EOF) {
+            return new Symbol(sym.EOF);
+        }
+
+        Object value = null;
+        if (kind == sym.NUMBER) {
+            value = Integer.valueOf(tokenValue);
+        } else if (kind == sym.ID) {
+            value = names.name(tokenValue);
+        }
+        return new Symbol(kind, line, column(tokenStart), value);
+    }
+
+    /**
+     * Reconoce el próximo token sin crear un Symbol; su posición y valor se
+     * consultan con tokenLine, tokenColumn y tokenValue
+     * @return el código sym del token
+     */
+    public int nextKind() {
+        return scan();
+    }
+
+    /**
+     * Línea (base 0) del último token reconocido por nextKind
+     */
+    public int tokenLine() {
+        return line;
+    }
+
+    /**
+     * Columna (base 0) del último token reconocido por nextKind
+     */
+    public int tokenColumn() {
+        return column(tokenStart);
+    }
+
+    /**
+     * Valor del último token: el literal de un NUMBER o el id en la NameTable de un ID
+     */
+    public int tokenValue() {
+        return tokenValue;
+    }
+
+    /**
+     * Reconoce el próximo token
+     * @return el código sym del token; su posición y valor quedan en tokenStart y tokenValue
+     */
+    private int scan() {
+        while (pos < limit) {
+            int b = buffer.get(pos) & 0xFF;
+
+            switch (BYTE_CLASS[b]) {
+                case BLANK:
+                    pos = skipBlanks(pos + 1);
+                    break;
+
+                case NEWLINE:
+                    pos++;
+                    newLine(pos);
+                    break;
+
+                case RETURN:
+                    pos++;
+                    if (pos < limit && buffer.get(pos) == '\n') {
+                        pos++;
+                    }
+                    newLine(pos);
+                    break;
+
+                case LETTER:
+                    return scanWord();
+
+                case DIGIT:
+                    return scanNumber();
+
+                case OPERATOR:
+                    int op = scanOperator(b);
+                    if (op >= 0) {
+                        return op;
+                    }
+                    break;
+
+                case NON_ASCII:
+                    scanNonAscii();
+                    break;
+
+                default:
+                    illegalCharacter(pos, String.valueOf((char) b));
+                    pos++;
+                    if (b == 0x0B) {
+                        newLine(pos);
+                    }
+                    break;
+            }
+        }
+        return sym.EOF;
+    }
+
+    /**
+     * Identificador o palabra clave
+     */
+    private int scanWord() {
+        int start = pos;
+        int end = skipIdentifier(pos + 1);
+        pos = end;
+        tokenStart = start;
+
+        int length = end - start;
+        int keyword = keywordSym(start, length);
+        if (keyword >= 0) {
+            tokenValue = 0;
+            return keyword;
+        }
+        tokenValue = names.internId(buffer, start, length);
+        return sym.ID;
+    }
+
+    /**
+     * Literal entero: 0 | [1-9][0-9]*
+     */
+    private int scanNumber() {
+        int start = pos;
+        int value = buffer.get(pos++) - '0';
+        if (value != 0) {
+            while (pos < limit && BYTE_CLASS[buffer.get(pos) & 0xFF] == DIGIT) {
+                int digit = buffer.get(pos) - '0';
+                if (value >= MAX_TENTH && (value > MAX_TENTH || digit > MAX_LAST_DIGIT)) {
+                    throw new NumberFormatException("For input string: \"" + numberText(start) + "\"");
+                }
+                value = value * 10 + digit;
+                pos++;
+            }
+        }
+        tokenStart = start;
+        tokenValue = value;
+        return sym.NUMBER;
+    }
+
+    /**
+     * Operadores y puntuación, incluidos "==", "&&" y "||"
+     * @return -1 si el carácter no forma un token válido
+     */
+    private int scanOperator(int b) {
+        int start = pos++;
+        int next = pos < limit ? buffer.get(pos) : -1;
+        tokenStart = start;
+        tokenValue = 0;
+
+        switch (b) {
+            case '=':
+                if (next == '=') {
+                    pos++;
+                    return sym.EQ;
+                }
+                return sym.ASSIGN;
+
+            case '&':
+            case '|':
+                if (next == b) {
+                    pos++;
+                    return OPERATOR_SYM[b];
+                }
+                illegalCharacter(start, String.valueOf((char) b));
+                return -1;
+
+            default:
+                return OPERATOR_SYM[b];
+        }
+    }
+
+    /**
+     * Carácter no ASCII: siempre es ilegal, pero se decodifica para el mensaje
+     */
+    private void scanNonAscii() {
+        int start = pos;
+        int lead = buffer.get(pos) & 0xFF;
+        int length = lead >= 0xF0 ? 4 : lead >= 0xE0 ? 3 : lead >= 0xC0 ? 2 : 1;
+
+        int end = start + 1;
+        while (end < start + length && end < limit && (buffer.get(end) & 0xC0) == 0x80) {
+            end++;
+        }
+        if (end - start != length) {
+            end = start + 1;
+        }
+
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        String text = end - start == length
+                ? new String(bytes, StandardCharsets.UTF_8)
+                : "\uFFFD";
+
+        illegalCharacter(start, text);
+        pos = end;
+        charBias += (end - start) - text.length();
+
+        char c = text.charAt(0);
+        if (c == '\u0085' || c == '\u2028' || c == '\u2029') {
+            newLine(pos);
+        }
+    }
+
+    /**
+     * Avanza sobre espacios y tabuladores; las rachas largas se saltan de a 8 bytes
+     */
+    private int skipBlanks(int from) {
+        int p = from;
+        int bytewiseLimit = Math.min(limit, from + 8);
+        while (p < bytewiseLimit && BYTE_CLASS[buffer.get(p) & 0xFF] == BLANK) {
+            p++;
+        }
+        if (p < bytewiseLimit) {
+            return p;
+        }
+        while (p + 8 <= limit && buffer.getLong(p) == SPACES) {
+            p += 8;
+        }
+        while (p < limit && BYTE_CLASS[buffer.get(p) & 0xFF] == BLANK) {
+            p++;
+        }
+        return p;
+    }
+
+    /**
+     * Avanza sobre caracteres de identificador; los nombres largos se saltan de a 8 bytes
+     */
+    private int skipIdentifier(int from) {
+        int p = from;
+        int bytewiseLimit = Math.min(limit, from + 8);
+        while (p < bytewiseLimit && isIdentifierByte(buffer.get(p))) {
+            p++;
+        }
+        if (p < bytewiseLimit) {
+            return p;
+        }
+        while (p + 8 <= limit && isIdentifierWord(buffer.getLong(p))) {
+            p += 8;
+        }
+        while (p < limit && isIdentifierByte(buffer.get(p))) {
+            p++;
+        }
+        return p;
+    }
+
+    private void newLine(int offset) {
+        line++;
+        lineStart = offset - charBias;
+        lineMap.addLineStart(lineStart);
+    }
+
+    /**
+     * Columna en caracteres de un offset en bytes de la línea actual
+     */
+    private int column(int offset) {
+        return offset - charBias - lineStart;
+    }
+
+    private void illegalCharacter(int offset, String text) {
+        String message = "Carácter ilegal: '" + text + "'";
+        if (deferredErrors != null) {
+            deferredErrors.add(new CompilerError(line + 1, column(offset) + 1, message, "LEXICAL ERROR"));
+        } else {
+            errorHandler.addLexicalError(line + 1, column(offset) + 1, message);
+        }
+    }
+
+    private int keywordSym(int start, int length) {
+        if (length < 2 || length > 6) {
+            return -1;
+        }
+        int h = keywordHash(buffer.get(start), buffer.get(start + length - 1), length);
+        byte[] word = KEYWORD_TABLE[h];
+        if (word == null || word.length != length) {
+            return -1;
+        }
+        for (int i = 0; i < length; i++) {
+            if (word[i] != buffer.get(start + i)) {
+                return -1;
+            }
+        }
+        return KEYWORD_TABLE_SYMS[h];
+    }
+
+    private static int keywordHash(int first, int last, int length) {
+        return (first * 5 + last + (length << 2)) & 15;
+    }
+
+    private String numberText(int start) {
+        int end = start;
+        while (end < limit && BYTE_CLASS[buffer.get(end) & 0xFF] == DIGIT) {
+            end++;
+        }
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private static boolean isIdentifierByte(byte b) {
+        byte c = BYTE_CLASS[b & 0xFF];
+        return c == LETTER || c == DIGIT;
+    }
+
+    /**
+     * Verifica con aritmética SWAR si los 8 bytes son [A-Za-z0-9_]
+     */
+    private static boolean isIdentifierWord(long x) {
+        long low = x & LOW7;
+        long digits = between(low, '0' - 1, '9' + 1);
+        long upper = between(low, 'A' - 1, 'Z' + 1);
+        long lower = between(low, 'a' - 1, 'z' + 1);
+        long underscore = between(low, '_' - 1, '_' + 1);
+        return ((digits | upper | lower | underscore) & ~x & HIGH) == HIGH;
+    }
+
+    /**
+     * Marca con el bit alto cada byte b (menor a 128) tal que m &lt; b &lt; n
+     */
+    private static long between(long low, int m, int n) {
+        return (ONES * (127 + n) - low) & (low + ONES * (127 - m)) & HIGH;
+    }
+
+    public LineMap getLineMap() {
+        return lineMap;
+    }
+
+    public NameTable getNameTable() {
+        return names;
+    }
+}
@@ -0,0 +1,110 @@
+package lexer;
+
+import com.ejemplo.parser.sym;
+import java.util.Arrays;
+
+/**
+ * Secuencia de tokens empaquetada en arreglos paralelos de enteros.
+ * Cada token ocupa una posición con su código de sym, su offset en caracteres
+ * y su valor (el literal de un NUMBER, el id en la NameTable de un ID, 0 en
+ * el resto). La línea y columna se obtienen del LineMap asociado.
+ */
+public class TokenBuffer {
+    private static final int INITIAL_CAPACITY = 4096;
+
+    private int[] kinds;
+    private int[] offsets;
+    private int[] values;
+    private int size;
+    private final NameTable names;
+    private final LineMap lineMap;
+
+    public TokenBuffer() {
+        this.kinds = new int[INITIAL_CAPACITY];
+        this.offsets = new int[INITIAL_CAPACITY];
+        this.values = new int[INITIAL_CAPACITY];
+        this.size = 0;
+        this.names = new NameTable();
+        this.lineMap = new LineMap();
+    }
+
+    /**
+     * Agrega un token al final del buffer
+     */
+    public void add(int kind, int offset, int value) {
+        if (size == kinds.length) {
+            grow();
+        }
+        kinds[size] = kind;
+        offsets[size] = offset;
+        values[size] = value;
+        size++;
+    }
+
+    /**
+     * Agrega al final los tokens de otro buffer
+     * @param offsetBase offset en caracteres donde comienza el otro buffer
+     * @param nameMap traducción de los ids de nombre del otro buffer a los de este
+     */
+    public void append(TokenBuffer other, int offsetBase, int[] nameMap) {
+        while (size + other.size > kinds.length) {
+            grow();
+        }
+        System.arraycopy(other.kinds, 0, kinds, size, other.size);
+        for (int i = 0; i < other.size; i++) {
+            offsets[size + i] = offsetBase + other.offsets[i];
+            int value = other.values[i];
+            values[size + i] = other.kinds[i] == sym.ID ? nameMap[value] : value;
+        }
+        size += other.size;
+    }
+
+    public int kind(int index) {
+        return kinds[index];
+    }
+
+    public int offset(int index) {
+        return offsets[index];
+    }
+
+    public int value(int index) {
+        return values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public NameTable getNameTable() {
+        return names;
+    }
+
+    public LineMap getLineMap() {
+        return lineMap;
+    }
+
+    /**
+     * Vacía el buffer, la tabla de nombres y el mapa de líneas conservando la capacidad reservada
+     */
+    public void clear() {
+        size = 0;
+        names.clear();
+        lineMap.clear();
+    }
+
+    /**
+     * Vacía los tokens y el mapa de líneas pero conserva la tabla de nombres, para
+     * que los nombres que se repiten en el próximo fuente no vuelvan a crearse
+     */
+    public void clearTokens() {
+        size = 0;
+        lineMap.clear();
+    }
+
+    private void grow() {
+        int capacity = kinds.length * 2;
+        kinds = Arrays.copyOf(kinds, capacity);
+        offsets = Arrays.copyOf(offsets, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+}
@@ -0,0 +1,50 @@
+package lexer;
+
+import com.ejemplo.parser.sym;
+import java_cup.runtime.Scanner;
+import java_cup.runtime.Symbol;
+
+/**
+ * Adaptador que entrega al parser de CUP los tokens de un TokenBuffer.
+ * Los objetos Symbol se crean recién al consumir cada token; la línea se
+ * obtiene avanzando un cursor sobre el LineMap, ya que los offsets son crecientes.
+ */
+public class TokenBufferScanner implements Scanner {
+    private final TokenBuffer tokens;
+    private final LineMap lineMap;
+    private final NameTable names;
+    private int index;
+    private int line;
+
+    public TokenBufferScanner(TokenBuffer tokens) {
+        this.tokens = tokens;
+        this.lineMap = tokens.getLineMap();
+        this.names = tokens.getNameTable();
+        this.index = 0;
+        this.line = 0;
+    }
+
+    @Override
+    public Symbol next_token() {
+        if (index == tokens.size()) {
+            return new Symbol(sym.EOF);
+        }
+
+        int kind = tokens.kind(index);
+        int offset = tokens.offset(index);
+        int lastLine = lineMap.getLineCount() - 1;
+        while (line < lastLine && lineMap.lineStart(line + 1) <= offset) {
+            line++;
+        }
+
+        Object value = null;
+        if (kind == sym.NUMBER) {
+            value = Integer.valueOf(tokens.value(index));
+        } else if (kind == sym.ID) {
+            value = names.name(tokens.value(index));
+        }
+
+        index++;
+        return new Symbol(kind, line, (int) (offset - lineMap.lineStart(line)), value);
+    }
+}
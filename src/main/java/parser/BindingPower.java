@@ -0,0 +1,62 @@
+package parser;
+
+import ast.nodes.expression.BinaryOpNode;
+import com.ejemplo.parser.sym;
+
+/**
+ * Binding powers de los operadores, equivalentes al bloque de precedencia de parser.cup.
+ * Un número mayor liga más fuerte; todos los operadores binarios son asociativos a izquierda.
+ */
+public final class BindingPower {
+    public static final int NONE = 0;
+    public static final int ADDITIVE = 10;         // PLUS, MINUS
+    public static final int MULTIPLICATIVE = 20;   // TIMES, DIVIDE
+    public static final int OR = 30;
+    public static final int AND = 40;
+    public static final int EQUALITY = 50;         // EQ
+    public static final int RELATIONAL = 60;       // LT, GT
+    public static final int PREFIX = 70;           // NOT (asociativo a derecha)
+
+    private static final int[] INFIX = new int[sym.terminalNames.length];
+    private static final BinaryOpNode.Operator[] OPERATORS = new BinaryOpNode.Operator[sym.terminalNames.length];
+    private static final int[] BY_OPERATOR = new int[BinaryOpNode.Operator.values().length];
+
+    static {
+        define(sym.PLUS, ADDITIVE, BinaryOpNode.Operator.PLUS);
+        define(sym.MINUS, ADDITIVE, BinaryOpNode.Operator.MINUS);
+        define(sym.TIMES, MULTIPLICATIVE, BinaryOpNode.Operator.TIMES);
+        define(sym.DIVIDE, MULTIPLICATIVE, BinaryOpNode.Operator.DIVIDE);
+        define(sym.OR, OR, BinaryOpNode.Operator.OR);
+        define(sym.AND, AND, BinaryOpNode.Operator.AND);
+        define(sym.EQ, EQUALITY, BinaryOpNode.Operator.EQ);
+        define(sym.LT, RELATIONAL, BinaryOpNode.Operator.LT);
+        define(sym.GT, RELATIONAL, BinaryOpNode.Operator.GT);
+    }
+
+    private BindingPower() {
+    }
+
+    private static void define(int kind, int power, BinaryOpNode.Operator operator) {
+        INFIX[kind] = power;
+        OPERATORS[kind] = operator;
+        BY_OPERATOR[operator.ordinal()] = power;
+    }
+
+    /**
+     * Binding power de un operador binario (para escribir una expresión con los paréntesis justos)
+     */
+    public static int of(BinaryOpNode.Operator operator) {
+        return BY_OPERATOR[operator.ordinal()];
+    }
+
+    /**
+     * Binding power del token como operador binario, NONE si no lo es
+     */
+    static int infix(int kind) {
+        return INFIX[kind];
+    }
+
+    static BinaryOpNode.Operator operator(int kind) {
+        return OPERATORS[kind];
+    }
+}
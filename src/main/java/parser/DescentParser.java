@@ -0,0 +1,507 @@
+package parser;
+
+import ast.ASTNode;
+import ast.nodes.expression.BinaryOpNode;
+import ast.nodes.expression.BooleanNode;
+import ast.nodes.expression.ExprNode;
+import ast.nodes.expression.NumberNode;
+import ast.nodes.expression.UnaryOpNode;
+import ast.nodes.expression.VariableNode;
+import ast.nodes.program.FunctionDefNode;
+import ast.nodes.program.ParamNode;
+import ast.nodes.program.ProgramNode;
+import ast.nodes.statement.AssignmentNode;
+import ast.nodes.statement.DeclarationNode;
+import ast.nodes.statement.ExprStmtNode;
+import ast.nodes.statement.IfStmtNode;
+import ast.nodes.statement.ReturnStmtNode;
+import ast.nodes.statement.StmtNode;
+import ast.nodes.statement.VarDeclNode;
+import ast.nodes.statement.WhileStmtNode;
+import com.ejemplo.parser.sym;
+import lexer.Lexemes;
+import semantic.errors.ErrorHandler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parser descendente recursivo, alternativo al MiParser generado por CUP.
+ * Reconoce la gramática de parser.cup y construye el mismo AST, con las mismas
+ * posiciones y spans; las expresiones se resuelven con un parser de Pratt usando BindingPower.
+ * Ante un error sintáctico reporta lo mismo que MiParser y aborta el parseo.
+ */
+public class DescentParser {
+    private final TokenCursor tokens;
+    private final ErrorHandler errorHandler;
+    private int lastColumn;     // Columna del último token consumido
+    private long lastEnd;       // Posición donde termina el último token consumido
+    private boolean reportErrors;
+    private StatementListener listener;
+    private boolean retainStatements;
+
+    public DescentParser(TokenCursor tokens) {
+        this(tokens, ErrorHandler.getInstance());
+    }
+
+    /**
+     * Parser que reporta los errores sintácticos a los diagnósticos de una compilación en particular
+     */
+    public DescentParser(TokenCursor tokens, ErrorHandler errorHandler) {
+        this.tokens = tokens;
+        this.errorHandler = errorHandler;
+        this.reportErrors = true;
+        this.retainStatements = true;
+    }
+
+    /**
+     * Registra quién recibe el encabezado y las sentencias de main a medida que se parsean
+     */
+    public void setStatementListener(StatementListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Si es false, las sentencias de main solo se entregan al listener y no quedan
+     * en el AST: el FunctionDefNode devuelto tiene el cuerpo vacío
+     */
+    public void setRetainStatements(boolean retain) {
+        this.retainStatements = retain;
+    }
+
+    /**
+     * program ::= function_def EOF
+     */
+    public ProgramNode parse() throws Exception {
+        int line = tokens.line();
+        FunctionDefNode function = functionDef();
+        int column = lastColumn;
+
+        if (tokens.kind() != sym.EOF) {
+            throw syntaxError();
+        }
+        ProgramNode program = new ProgramNode(line, column, function);
+        program.setSpan(function.getSpanStart(), function.getSpanEnd());
+        return program;
+    }
+
+    /**
+     * stmt+ EOF: una secuencia de sentencias sueltas, para el reparseo incremental.
+     * Los errores no se reportan; solo se lanza la excepción.
+     */
+    List<StmtNode> parseStatements() throws Exception {
+        reportErrors = false;
+        List<StmtNode> list = new ArrayList<StmtNode>();
+        do {
+            list.add(stmt());
+        } while (tokens.kind() != sym.EOF);
+        return list;
+    }
+
+    private FunctionDefNode functionDef() throws Exception {
+        int line = tokens.line();
+        int column = tokens.column();
+        long start = start();
+        String type = type();
+
+        expect(sym.MAIN);
+        expect(sym.LPAREN);
+        List<ParamNode> params = new ArrayList<ParamNode>();
+        if (isType(tokens.kind())) {
+            params.add(param());
+            while (tokens.kind() == sym.COMMA) {
+                advance();
+                params.add(param());
+            }
+        }
+        expect(sym.RPAREN);
+        expect(sym.LBRACE);
+        if (listener != null) {
+            listener.functionHeader(line, column, type, "main", params);
+        }
+
+        List<StmtNode> statements = new ArrayList<StmtNode>();
+        do {
+            StmtNode stmt = stmt();
+            if (retainStatements) {
+                statements.add(stmt);
+            }
+            if (listener != null) {
+                listener.statement(stmt);
+            }
+        } while (tokens.kind() != sym.RBRACE);
+        expect(sym.RBRACE);
+
+        return span(new FunctionDefNode(line, column, type, "main", params, statements), start);
+    }
+
+    private ParamNode param() throws Exception {
+        int line = tokens.line();
+        int column = tokens.column();
+        long start = start();
+        String type = type();
+        String name = expectId();
+        return span(new ParamNode(line, column, type, name), start);
+    }
+
+    private String type() throws Exception {
+        switch (tokens.kind()) {
+            case sym.INT:
+                advance();
+                return "int";
+            case sym.BOOL:
+                advance();
+                return "bool";
+            case sym.VOID:
+                advance();
+                return "void";
+            default:
+                throw syntaxError();
+        }
+    }
+
+    /**
+     * Una sentencia completa. Los if y while anidados no se parsean con recursión
+     * sino con una pila de bloques abiertos, así que el anidamiento no tiene límite
+     * de profundidad; cada bloque es stmt+ entre llaves, como stmt_list en parser.cup.
+     */
+    private StmtNode stmt() throws Exception {
+        ArrayDeque<OpenBlock> open = new ArrayDeque<OpenBlock>();
+        while (true) {
+            int kind = tokens.kind();
+            if (kind == sym.IF || kind == sym.WHILE) {
+                int line = tokens.line();
+                int column = tokens.column();
+                long start = start();
+                advance();
+                ExprNode condition = condition();
+                expect(sym.LBRACE);
+                open.push(new OpenBlock(kind, line, column, start, condition));
+                continue;
+            }
+
+            StmtNode done = simpleStmt();
+            while (true) {
+                OpenBlock block = open.peek();
+                if (block == null) {
+                    return done;
+                }
+                block.statements.add(done);
+                if (tokens.kind() != sym.RBRACE) {
+                    break;
+                }
+                expect(sym.RBRACE);
+                if (block.kind == sym.IF && block.thenBranch == null && tokens.kind() == sym.ELSE) {
+                    advance();
+                    expect(sym.LBRACE);
+                    block.startElse();
+                    break;
+                }
+                open.pop();
+                done = span(block.build(), block.start);
+            }
+        }
+    }
+
+    /**
+     * Sentencia terminada en punto y coma
+     */
+    private StmtNode simpleStmt() throws Exception {
+        StmtNode stmt;
+        switch (tokens.kind()) {
+            case sym.INT:
+            case sym.BOOL:
+            case sym.VOID:
+                stmt = declaration();
+                break;
+
+            case sym.RETURN:
+                stmt = returnStmt();
+                break;
+
+            case sym.ID:
+                if (tokens.peekKind() == sym.ASSIGN) {
+                    stmt = assignment();
+                    break;
+                }
+                stmt = exprStmt();
+                break;
+
+            case sym.NUMBER:
+            case sym.TRUE:
+            case sym.FALSE:
+            case sym.LPAREN:
+            case sym.NOT:
+                stmt = exprStmt();
+                break;
+
+            default:
+                throw syntaxError();
+        }
+
+        expect(sym.SEMI);
+        // El span de la sentencia incluye el punto y coma
+        stmt.setSpan(stmt.getSpanStart(), lastEnd);
+        return stmt;
+    }
+
+    private DeclarationNode declaration() throws Exception {
+        int line = tokens.line();
+        int column = tokens.column();
+        long start = start();
+        String type = type();
+
+        List<VarDeclNode> variables = new ArrayList<VarDeclNode>();
+        variables.add(varDecl());
+        while (tokens.kind() == sym.COMMA) {
+            advance();
+            variables.add(varDecl());
+        }
+        return span(new DeclarationNode(line, column, type, variables), start);
+    }
+
+    private VarDeclNode varDecl() throws Exception {
+        int line = tokens.line();
+        int column = tokens.column();
+        long start = start();
+        String name = expectId();
+
+        ExprNode initialValue = null;
+        if (tokens.kind() == sym.ASSIGN) {
+            advance();
+            initialValue = expression(BindingPower.NONE);
+        }
+        return span(new VarDeclNode(line, column, name, initialValue), start,
+                initialValue != null ? initialValue.getSpanEnd() : lastEnd);
+    }
+
+    private AssignmentNode assignment() throws Exception {
+        int line = tokens.line();
+        int column = tokens.column();
+        long start = start();
+        String name = expectId();
+        expect(sym.ASSIGN);
+        ExprNode expression = expression(BindingPower.NONE);
+        return span(new AssignmentNode(line, column, name, expression), start, expression.getSpanEnd());
+    }
+
+    private ReturnStmtNode returnStmt() throws Exception {
+        int line = tokens.line();
+        int column = tokens.column();
+        long start = start();
+        advance();
+
+        ExprNode expression = startsExpression(tokens.kind()) ? expression(BindingPower.NONE) : null;
+        return span(new ReturnStmtNode(line, column, expression), start,
+                expression != null ? expression.getSpanEnd() : lastEnd);
+    }
+
+    /**
+     * Como en MiParser, la posición de la sentencia va de la línea del primer
+     * token de la expresión a la columna del último
+     */
+    private ExprStmtNode exprStmt() throws Exception {
+        int line = tokens.line();
+        ExprNode expression = expression(BindingPower.NONE);
+        return span(new ExprStmtNode(line, lastColumn, expression), expression.getSpanStart(), expression.getSpanEnd());
+    }
+
+    private ExprNode condition() throws Exception {
+        expect(sym.LPAREN);
+        ExprNode condition = expression(BindingPower.NONE);
+        expect(sym.RPAREN);
+        return condition;
+    }
+
+    /**
+     * Parser de Pratt: consume operadores binarios mientras liguen más fuerte que minPower
+     */
+    private ExprNode expression(int minPower) throws Exception {
+        ExprNode left = prefix();
+
+        while (true) {
+            int kind = tokens.kind();
+            int power = BindingPower.infix(kind);
+            if (power <= minPower) {
+                return left;
+            }
+
+            int line = tokens.line();
+            int column = tokens.column();
+            advance();
+            // Asociatividad a izquierda: el operando derecho solo toma operadores más fuertes
+            ExprNode right = expression(power);
+            // Los spans de las expresiones van de hoja a hoja: sin los paréntesis de agrupación
+            left = span(new BinaryOpNode(line, column, left, BindingPower.operator(kind), right),
+                    left.getSpanStart(), right.getSpanEnd());
+        }
+    }
+
+    private ExprNode prefix() throws Exception {
+        int line = tokens.line();
+        int column = tokens.column();
+        long start = start();
+
+        switch (tokens.kind()) {
+            case sym.NUMBER: {
+                int value = tokens.intValue();
+                advance();
+                return span(new NumberNode(line, column, value), start);
+            }
+            case sym.TRUE:
+                advance();
+                return span(new BooleanNode(line, column, true), start);
+            case sym.FALSE:
+                advance();
+                return span(new BooleanNode(line, column, false), start);
+            case sym.ID: {
+                String name = tokens.name();
+                advance();
+                return span(new VariableNode(line, column, name), start);
+            }
+            case sym.LPAREN: {
+                advance();
+                ExprNode expression = expression(BindingPower.NONE);
+                expect(sym.RPAREN);
+                return expression;
+            }
+            case sym.NOT: {
+                advance();
+                ExprNode operand = expression(BindingPower.PREFIX);
+                return span(new UnaryOpNode(line, column, UnaryOpNode.Operator.NOT, operand),
+                        start, operand.getSpanEnd());
+            }
+            default:
+                throw syntaxError();
+        }
+    }
+
+    private static boolean isType(int kind) {
+        return kind == sym.INT || kind == sym.BOOL || kind == sym.VOID;
+    }
+
+    private static boolean startsExpression(int kind) {
+        switch (kind) {
+            case sym.NUMBER:
+            case sym.TRUE:
+            case sym.FALSE:
+            case sym.ID:
+            case sym.LPAREN:
+            case sym.NOT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private void advance() throws Exception {
+        lastColumn = tokens.column();
+        lastEnd = ASTNode.position(tokens.line(), lastColumn + tokenLength());
+        tokens.advance();
+    }
+
+    private int tokenLength() {
+        switch (tokens.kind()) {
+            case sym.ID:
+                return tokens.name().length();
+            case sym.NUMBER:
+                return Lexemes.digits(tokens.intValue());
+            default:
+                return Lexemes.length(tokens.kind());
+        }
+    }
+
+    /**
+     * Posición donde comienza el token actual
+     */
+    private long start() {
+        return ASTNode.position(tokens.line(), tokens.column());
+    }
+
+    /**
+     * Fija el span de un nodo que termina en el último token consumido
+     */
+    private <T extends ASTNode> T span(T node, long start) {
+        return span(node, start, lastEnd);
+    }
+
+    private static <T extends ASTNode> T span(T node, long start, long end) {
+        node.setSpan(start, end);
+        return node;
+    }
+
+    private void expect(int kind) throws Exception {
+        if (tokens.kind() != kind) {
+            throw syntaxError();
+        }
+        advance();
+    }
+
+    private String expectId() throws Exception {
+        if (tokens.kind() != sym.ID) {
+            throw syntaxError();
+        }
+        String name = tokens.name();
+        advance();
+        return name;
+    }
+
+    /**
+     * Reporta el error en el token actual con los mismos mensajes que MiParser,
+     * que no tiene producciones de recuperación
+     */
+    private Exception syntaxError() {
+        if (reportErrors) {
+            reportError("Syntax error");
+            reportError("Couldn't repair and continue parse");
+        }
+        return new Exception("Couldn't repair and continue parse");
+    }
+
+    private void reportError(String message) {
+        if (tokens.line() >= 0) {
+            int line = tokens.line() + 1;
+            int column = (tokens.column() >= 0) ? tokens.column() + 1 : 0;
+            errorHandler.addSyntaxError(line, column, message);
+            return;
+        }
+        // Si no hay información de posición
+        errorHandler.addSyntaxError(-1, -1, message);
+    }
+
+    /**
+     * if o while cuyo bloque todavía se está parseando
+     */
+    private static final class OpenBlock {
+        final int kind;
+        final int line;
+        final int column;
+        final long start;
+        final ExprNode condition;
+        List<StmtNode> statements = new ArrayList<StmtNode>();
+        List<StmtNode> thenBranch;      // Solo en un if, al pasar a la rama else
+
+        OpenBlock(int kind, int line, int column, long start, ExprNode condition) {
+            this.kind = kind;
+            this.line = line;
+            this.column = column;
+            this.start = start;
+            this.condition = condition;
+        }
+
+        void startElse() {
+            thenBranch = statements;
+            statements = new ArrayList<StmtNode>();
+        }
+
+        StmtNode build() {
+            if (kind == sym.WHILE) {
+                return new WhileStmtNode(line, column, condition, statements);
+            }
+            return thenBranch == null
+                    ? new IfStmtNode(line, column, condition, statements, null)
+                    : new IfStmtNode(line, column, condition, thenBranch, statements);
+        }
+    }
+}
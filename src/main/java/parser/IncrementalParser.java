@@ -0,0 +1,396 @@
+package parser;
+
+import ast.nodes.program.FunctionDefNode;
+import ast.nodes.program.ProgramNode;
+import ast.nodes.statement.StmtNode;
+import ast.utils.SpanIndex;
+import com.ejemplo.parser.sym;
+import lexer.LineMap;
+import lexer.TableScanner;
+import lexer.TokenBuffer;
+import semantic.errors.CompilerError;
+import semantic.errors.ErrorHandler;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reparseo incremental para ediciones sobre un fuente ya parseado.
+ * Guarda el texto, los inicios de línea y las líneas que ocupa cada sentencia del
+ * cuerpo de main. Ante una edición vuelve a tokenizar y parsear solo las líneas de
+ * las sentencias afectadas y reutiliza el resto de los subárboles; si cambia la
+ * cantidad de líneas, las sentencias siguientes se copian con la línea desplazada
+ * (ver LineShifter). El AST devuelto antes nunca se modifica.
+ * Cuando la edición toca el encabezado o la llave de cierre, o el fragmento no es una
+ * secuencia válida de sentencias, se vuelve a parsear el archivo completo.
+ */
+public class IncrementalParser {
+    private final StringBuilder text;
+    private final TokenBuffer tokens;
+    private final ErrorHandler errorHandler;
+    private ProgramNode program;
+    private List<StmtNode> statements;
+    private StatementLines statementLines;
+    private int[] lineStarts;
+    private int lineCount;
+    private int headerLine;     // Línea de la llave que abre el cuerpo de main
+    private int closingLine;    // Línea de la llave que lo cierra
+    private boolean incremental;
+    private ProgramNode latest;     // Último AST devuelto
+    private SpanIndex spanIndex;    // Índice de latest, armado al pedirlo
+
+    public IncrementalParser() {
+        this(ErrorHandler.getInstance());
+    }
+
+    /**
+     * Parser que reporta los errores del parseo completo a errorHandler
+     */
+    public IncrementalParser(ErrorHandler errorHandler) {
+        this.text = new StringBuilder();
+        this.tokens = new TokenBuffer();
+        this.errorHandler = errorHandler;
+        this.lineStarts = new int[0];
+    }
+
+    /**
+     * Parsea un fuente completo y guarda el estado para las ediciones siguientes
+     */
+    public ProgramNode parse(String source) throws Exception {
+        text.setLength(0);
+        text.append(source);
+        return fullParse();
+    }
+
+    /**
+     * Aplica una edición al texto y devuelve el AST actualizado
+     * @param previous AST devuelto por la llamada anterior
+     * @param offset posición (en caracteres) donde comienza la edición
+     * @param removed cantidad de caracteres eliminados
+     * @param inserted texto insertado
+     */
+    public ProgramNode reparse(ProgramNode previous, int offset, int removed, String inserted) throws Exception {
+        if (offset < 0 || removed < 0 || offset + removed > text.length()) {
+            throw new IllegalArgumentException("Edición fuera del texto: " + offset + ", " + removed);
+        }
+
+        if (previous == null || previous != program) {
+            text.replace(offset, offset + removed, inserted);
+            return fullParse();
+        }
+
+        // Líneas afectadas, en coordenadas del texto anterior
+        int low = lineOf(offset);
+        int high = lineOf(offset + removed);
+
+        // Sentencias que comparten alguna línea con la edición
+        int first = firstEndingAtOrAfter(low);
+        int last = lastStartingAtOrBefore(high);
+        if (first <= last) {
+            low = Math.min(low, statementLines.starts[first]);
+            high = Math.max(high, statementLines.ends[last]);
+        }
+        while (first > 0 && statementLines.ends[first - 1] >= low) {
+            first--;
+            low = Math.min(low, statementLines.starts[first]);
+        }
+        while (last + 1 < statements.size() && statementLines.starts[last + 1] <= high) {
+            last++;
+            high = Math.max(high, statementLines.ends[last]);
+        }
+
+        text.replace(offset, offset + removed, inserted);
+        if (low <= headerLine || high >= closingLine) {
+            return fullParse();
+        }
+
+        int charDelta = inserted.length() - removed;
+        int regionStart = lineStarts[low];
+        int regionEnd = lineStarts[high + 1] + charDelta;
+        ProgramNode result = reparseRegion(first, last, low, high, regionStart, regionEnd, charDelta);
+        return result != null ? result : fullParse();
+    }
+
+    /**
+     * Vuelve a parsear las líneas [low, high] y las sentencias [first, last]
+     * @return null si el fragmento no pudo reutilizarse
+     */
+    private ProgramNode reparseRegion(int first, int last, int low, int high,
+                                      int regionStart, int regionEnd, int charDelta) throws Exception {
+        String region = text.substring(regionStart, regionEnd);
+        List<CompilerError> errors = new ArrayList<>();
+        TableScanner.tokenizeChunk(ByteBuffer.wrap(region.getBytes(StandardCharsets.UTF_8)), tokens, errors);
+        if (!errors.isEmpty()) {
+            return null;
+        }
+
+        List<StmtNode> replacement = new ArrayList<>();
+        StatementLines replacementLines = new StatementLines();
+        if (tokens.size() > 0) {
+            try {
+                replacement = new DescentParser(new TokenBufferCursor(tokens, low), errorHandler).parseStatements();
+            } catch (Exception e) {
+                return null;
+            }
+            segment(new TokenBufferCursor(tokens, low), replacementLines);
+        }
+
+        int removedCount = last - first + 1;
+        if (statements.size() - removedCount + replacement.size() == 0) {
+            return null;
+        }
+
+        LineMap regionLines = tokens.getLineMap();
+        int lineDelta = (regionLines.getLineCount() - 1) - (high - low + 1);
+
+        // Lista nueva: se reutilizan las sentencias de antes del fragmento, y las de después
+        // también si no cambió la cantidad de líneas; si cambió se usan copias desplazadas
+        List<StmtNode> updated = new ArrayList<>(statements.size() - removedCount + replacement.size());
+        updated.addAll(statements.subList(0, first));
+        updated.addAll(replacement);
+        List<StmtNode> after = statements.subList(last + 1, statements.size());
+        if (lineDelta != 0) {
+            LineShifter shifter = new LineShifter(lineDelta);
+            for (StmtNode stmt : after) {
+                updated.add(shifter.shift(stmt));
+            }
+        } else {
+            updated.addAll(after);
+        }
+
+        statementLines.splice(first, removedCount, replacementLines, lineDelta);
+        spliceLineStarts(low, high, regionStart, regionLines, charDelta, lineDelta);
+        closingLine += lineDelta;
+
+        FunctionDefNode function = program.getMainFunction();
+        FunctionDefNode updatedFunction = new FunctionDefNode(function.getLine(), function.getColumn(),
+                function.getReturnType(), function.getFunctionName(), function.getParameters(), updated);
+        // La llave de cierre no cambia de columna: solo se desplaza su línea
+        long end = function.getSpanEnd() + ((long) lineDelta << 32);
+        updatedFunction.setSpan(function.getSpanStart(), end);
+        program = new ProgramNode(program.getLine(), program.getColumn(), updatedFunction);
+        program.setSpan(function.getSpanStart(), end);
+        statements = updated;
+        incremental = true;
+        return published(program);
+    }
+
+    /**
+     * Parsea el texto completo, reportando los errores como el parseo normal
+     */
+    private ProgramNode fullParse() throws Exception {
+        program = null;
+        statements = null;
+        incremental = false;
+
+        List<CompilerError> errors = new ArrayList<>();
+        TableScanner.tokenizeChunk(ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8)), tokens, errors);
+        for (CompilerError error : errors) {
+            errorHandler.addLexicalError(error.getLine(), error.getColumn(), error.getMessage());
+        }
+
+        ProgramNode result = new DescentParser(new TokenBufferCursor(tokens), errorHandler).parse();
+
+        // Con errores léxicos el AST es válido, pero la próxima edición se parsea completa
+        if (errors.isEmpty()) {
+            LineMap lineMap = tokens.getLineMap();
+            lineCount = lineMap.getLineCount();
+            lineStarts = new int[lineCount + 1];
+            for (int line = 0; line < lineCount; line++) {
+                lineStarts[line] = (int) lineMap.lineStart(line);
+            }
+            lineStarts[lineCount] = text.length();
+
+            statementLines = new StatementLines();
+            TokenBufferCursor cursor = new TokenBufferCursor(tokens);
+            while (cursor.kind() != sym.LBRACE) {
+                cursor.advance();
+            }
+            headerLine = cursor.line();
+            cursor.advance();
+            closingLine = segment(cursor, statementLines);
+
+            program = result;
+            statements = result.getMainFunction().getStatements();
+        }
+        return published(result);
+    }
+
+    /**
+     * Registra las líneas de inicio y fin de cada sentencia de nivel superior,
+     * reconociendo sus límites por los SEMI y las llaves
+     * @return línea del RBRACE que cierra el nivel, o -1 si se llegó al EOF
+     */
+    private static int segment(TokenCursor cursor, StatementLines lines) throws Exception {
+        while (cursor.kind() != sym.EOF && cursor.kind() != sym.RBRACE) {
+            int start = cursor.line();
+            int end = start;
+            int depth = 0;
+            boolean done = false;
+
+            while (!done && cursor.kind() != sym.EOF) {
+                int kind = cursor.kind();
+                end = cursor.line();
+                cursor.advance();
+
+                if (kind == sym.LBRACE) {
+                    depth++;
+                } else if (kind == sym.RBRACE) {
+                    depth--;
+                    done = depth == 0 && cursor.kind() != sym.ELSE;
+                } else if (kind == sym.SEMI) {
+                    done = depth == 0;
+                }
+            }
+            lines.add(start, end);
+        }
+        return cursor.kind() == sym.RBRACE ? cursor.line() : -1;
+    }
+
+    /**
+     * Reemplaza los inicios de las líneas [low, high] por los del fragmento y desplaza los siguientes
+     */
+    private void spliceLineStarts(int low, int high, int regionStart, LineMap regionLines,
+                                  int charDelta, int lineDelta) {
+        int regionLineCount = regionLines.getLineCount() - 1;
+        int newCount = lineCount + lineDelta;
+        int[] updated = lineDelta == 0 ? lineStarts : new int[newCount + 1];
+
+        if (lineDelta != 0) {
+            System.arraycopy(lineStarts, 0, updated, 0, low + 1);
+        }
+        for (int i = 1; i <= regionLineCount; i++) {
+            updated[low + i] = regionStart + (int) regionLines.lineStart(i);
+        }
+        for (int line = high + 2; line <= lineCount; line++) {
+            updated[line + lineDelta] = lineStarts[line] + charDelta;
+        }
+
+        lineStarts = updated;
+        lineCount = newCount;
+    }
+
+    /**
+     * Línea (en el texto actual) que contiene el offset
+     */
+    private int lineOf(int offset) {
+        int index = Arrays.binarySearch(lineStarts, 0, lineCount, offset);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /**
+     * Primera sentencia que termina en la línea indicada o después
+     */
+    private int firstEndingAtOrAfter(int line) {
+        int low = 0;
+        int high = statements.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (statementLines.ends[mid] < line) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Última sentencia que comienza en la línea indicada o antes
+     */
+    private int lastStartingAtOrBefore(int line) {
+        int low = -1;
+        int high = statements.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (statementLines.starts[mid] <= line) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Índice de spans del último AST devuelto, para consultas por posición; se arma
+     * la primera vez que se pide después de cada parseo
+     */
+    public SpanIndex getSpanIndex() {
+        if (spanIndex == null && latest != null) {
+            spanIndex = SpanIndex.build(latest);
+        }
+        return spanIndex;
+    }
+
+    private ProgramNode published(ProgramNode result) {
+        latest = result;
+        spanIndex = null;
+        return result;
+    }
+
+    public String getText() {
+        return text.toString();
+    }
+
+    /**
+     * Indica si el último reparseo reutilizó subárboles del AST anterior
+     */
+    public boolean wasIncremental() {
+        return incremental;
+    }
+
+    /**
+     * Líneas de inicio y fin de las sentencias del cuerpo de main
+     */
+    private static class StatementLines {
+        private int[] starts = new int[64];
+        private int[] ends = new int[64];
+        private int size;
+
+        void add(int start, int end) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            size++;
+        }
+
+        /**
+         * Reemplaza count entradas desde index por las de replacement y desplaza las siguientes
+         */
+        void splice(int index, int count, StatementLines replacement, int lineDelta) {
+            if (count == replacement.size) {
+                System.arraycopy(replacement.starts, 0, starts, index, count);
+                System.arraycopy(replacement.ends, 0, ends, index, count);
+                for (int i = index + count; lineDelta != 0 && i < size; i++) {
+                    starts[i] += lineDelta;
+                    ends[i] += lineDelta;
+                }
+                return;
+            }
+
+            int newSize = size - count + replacement.size;
+            int[] newStarts = new int[Math.max(64, newSize)];
+            int[] newEnds = new int[newStarts.length];
+
+            System.arraycopy(starts, 0, newStarts, 0, index);
+            System.arraycopy(ends, 0, newEnds, 0, index);
+            System.arraycopy(replacement.starts, 0, newStarts, index, replacement.size);
+            System.arraycopy(replacement.ends, 0, newEnds, index, replacement.size);
+            for (int i = index + count; i < size; i++) {
+                newStarts[i - count + replacement.size] = starts[i] + lineDelta;
+                newEnds[i - count + replacement.size] = ends[i] + lineDelta;
+            }
+
+            starts = newStarts;
+            ends = newEnds;
+            size = newSize;
+        }
+    }
+}
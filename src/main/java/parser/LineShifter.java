@@ -0,0 +1,158 @@
+package parser;
+
+import ast.ASTNode;
+import ast.nodes.expression.BinaryOpNode;
+import ast.nodes.expression.BooleanNode;
+import ast.nodes.expression.ExprNode;
+import ast.nodes.expression.NumberNode;
+import ast.nodes.expression.UnaryOpNode;
+import ast.nodes.expression.VariableNode;
+import ast.nodes.statement.AssignmentNode;
+import ast.nodes.statement.DeclarationNode;
+import ast.nodes.statement.ExprStmtNode;
+import ast.nodes.statement.IfStmtNode;
+import ast.nodes.statement.ReturnStmtNode;
+import ast.nodes.statement.StmtNode;
+import ast.nodes.statement.VarDeclNode;
+import ast.nodes.statement.WhileStmtNode;
+import ast.visitor.ExpressionWalker;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Copia de una sentencia con la línea de todos sus nodos desplazada.
+ * Lo usa el reparseo incremental para reutilizar sentencias que quedaron más arriba
+ * o más abajo después de una edición que agrega o quita líneas: el AST anterior no
+ * se modifica, así que quien lo conserve sigue viendo sus posiciones originales.
+ * Las expresiones se copian con ExpressionWalker y los bloques con una pila explícita.
+ */
+class LineShifter {
+    private final int delta;
+
+    private final ExpressionWalker<ExprNode> expressions = new ExpressionWalker<ExprNode>() {
+        @Override
+        protected ExprNode leaf(ExprNode node) {
+            switch (node.kind()) {
+                case ASTNode.NUMBER:
+                    return moved(new NumberNode(line(node), node.getColumn(), ((NumberNode) node).getValue()), node);
+                case ASTNode.BOOLEAN:
+                    return moved(new BooleanNode(line(node), node.getColumn(), ((BooleanNode) node).getValue()), node);
+                default:
+                    return moved(new VariableNode(line(node), node.getColumn(), ((VariableNode) node).getName()), node);
+            }
+        }
+
+        @Override
+        protected ExprNode unary(UnaryOpNode node, ExprNode operand) {
+            return moved(new UnaryOpNode(line(node), node.getColumn(), node.getOperator(), operand), node);
+        }
+
+        @Override
+        protected ExprNode binary(BinaryOpNode node, ExprNode left, ExprNode right) {
+            return moved(new BinaryOpNode(line(node), node.getColumn(), left, node.getOperator(), right), node);
+        }
+    };
+
+    LineShifter(int delta) {
+        this.delta = delta;
+    }
+
+    /**
+     * Copia la sentencia y sus bloques anidados desplazando sus líneas
+     */
+    StmtNode shift(StmtNode stmt) {
+        // Bloques pendientes: la lista original y la de la copia, que se llena al sacarlos
+        Deque<List<StmtNode>> originals = new ArrayDeque<>();
+        Deque<List<StmtNode>> copies = new ArrayDeque<>();
+        StmtNode result = copy(stmt, originals, copies);
+
+        while (!originals.isEmpty()) {
+            List<StmtNode> block = originals.pop();
+            List<StmtNode> target = copies.pop();
+            for (StmtNode nested : block) {
+                target.add(copy(nested, originals, copies));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Copia una sentencia sin sus bloques, que quedan vacíos y se agregan a las pilas
+     */
+    private StmtNode copy(StmtNode stmt, Deque<List<StmtNode>> originals, Deque<List<StmtNode>> copies) {
+        int line = line(stmt);
+        int column = stmt.getColumn();
+
+        switch (stmt.kind()) {
+            case ASTNode.DECLARATION:
+                DeclarationNode declaration = (DeclarationNode) stmt;
+                List<VarDeclNode> variables = new ArrayList<>(declaration.getVariables().size());
+                for (VarDeclNode var : declaration.getVariables()) {
+                    variables.add(moved(new VarDeclNode(line(var), var.getColumn(), var.getName(),
+                            expression(var.getInitialValue())), var));
+                }
+                return moved(new DeclarationNode(line, column, declaration.getType(), variables), stmt);
+
+            case ASTNode.ASSIGNMENT:
+                AssignmentNode assignment = (AssignmentNode) stmt;
+                return moved(new AssignmentNode(line, column, assignment.getVariableName(),
+                        expression(assignment.getExpression())), stmt);
+
+            case ASTNode.RETURN_STMT:
+                return moved(new ReturnStmtNode(line, column, expression(((ReturnStmtNode) stmt).getExpression())), stmt);
+
+            case ASTNode.EXPR_STMT:
+                return moved(new ExprStmtNode(line, column, expression(((ExprStmtNode) stmt).getExpression())), stmt);
+
+            case ASTNode.IF_STMT:
+                IfStmtNode ifStmt = (IfStmtNode) stmt;
+                List<StmtNode> thenBranch = block(ifStmt.getThenBranch(), originals, copies);
+                List<StmtNode> elseBranch = block(ifStmt.getElseBranch(), originals, copies);
+                return moved(new IfStmtNode(line, column, expression(ifStmt.getCondition()), thenBranch, elseBranch), stmt);
+
+            case ASTNode.WHILE_STMT:
+                WhileStmtNode whileStmt = (WhileStmtNode) stmt;
+                List<StmtNode> body = block(whileStmt.getBody(), originals, copies);
+                return moved(new WhileStmtNode(line, column, expression(whileStmt.getCondition()), body), stmt);
+
+            default:
+                throw new IllegalArgumentException("Sentencia desconocida: " + stmt.kind());
+        }
+    }
+
+    /**
+     * Lista vacía para la copia de un bloque, que se llena cuando se saca de las pilas
+     */
+    private static List<StmtNode> block(List<StmtNode> original, Deque<List<StmtNode>> originals,
+                                        Deque<List<StmtNode>> copies) {
+        if (original == null) {
+            return null;
+        }
+        List<StmtNode> copy = new ArrayList<>(original.size());
+        originals.push(original);
+        copies.push(copy);
+        return copy;
+    }
+
+    private ExprNode expression(ExprNode expr) {
+        return expr != null ? expressions.walk(expr) : null;
+    }
+
+    private int line(ASTNode node) {
+        return node.getLine() + delta;
+    }
+
+    /**
+     * Le da a la copia el span del original desplazado
+     */
+    private <T extends ASTNode> T moved(T copy, ASTNode original) {
+        if (original.hasSpan()) {
+            long shift = (long) delta << 32;
+            copy.setSpan(original.getSpanStart() + shift, original.getSpanEnd() + shift);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,62 @@
+package parser;
+
+import java_cup.runtime.Scanner;
+import java_cup.runtime.Symbol;
+
+/**
+ * Cursor sobre cualquier Scanner de CUP (Lexer, TableScanner, TokenBufferScanner).
+ * Lee los tokens de a uno, igual que MiParser, salvo cuando se pide el siguiente.
+ */
+public class ScannerCursor implements TokenCursor {
+    private final Scanner scanner;
+    private Symbol current;
+    private Symbol next;
+
+    public ScannerCursor(Scanner scanner) throws Exception {
+        this.scanner = scanner;
+        this.current = scanner.next_token();
+    }
+
+    @Override
+    public int kind() {
+        return current.sym;
+    }
+
+    @Override
+    public int line() {
+        return current.left;
+    }
+
+    @Override
+    public int column() {
+        return current.right;
+    }
+
+    @Override
+    public int intValue() {
+        return (Integer) current.value;
+    }
+
+    @Override
+    public String name() {
+        return (String) current.value;
+    }
+
+    @Override
+    public int peekKind() throws Exception {
+        if (next == null) {
+            next = scanner.next_token();
+        }
+        return next.sym;
+    }
+
+    @Override
+    public void advance() throws Exception {
+        if (next != null) {
+            current = next;
+            next = null;
+        } else {
+            current = scanner.next_token();
+        }
+    }
+}
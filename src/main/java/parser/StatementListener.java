@@ -0,0 +1,23 @@
+package parser;
+
+import ast.nodes.program.ParamNode;
+import ast.nodes.statement.StmtNode;
+
+import java.util.List;
+
+/**
+ * Recibe las partes de main a medida que DescentParser las termina de parsear,
+ * antes de que exista el ProgramNode completo
+ */
+public interface StatementListener {
+
+    /**
+     * Encabezado de la función, antes de parsear su cuerpo
+     */
+    void functionHeader(int line, int column, String returnType, String name, List<ParamNode> parameters);
+
+    /**
+     * Una sentencia del cuerpo de la función (sin las anidadas en if/while)
+     */
+    void statement(StmtNode stmt);
+}
@@ -0,0 +1,94 @@
+package parser;
+
+import com.ejemplo.parser.sym;
+import lexer.LineMap;
+import lexer.NameTable;
+import lexer.TokenBuffer;
+
+/**
+ * Cursor sobre un TokenBuffer: lee directamente los arreglos empaquetados,
+ * sin crear un Symbol por token.
+ */
+public class TokenBufferCursor implements TokenCursor {
+    private final TokenBuffer tokens;
+    private final LineMap lineMap;
+    private final NameTable names;
+    private final int size;
+    private final int lastLine;
+    private final int lineBase;
+    private int index;
+    private int kind;
+    private int mapLine;        // Línea del token actual dentro del LineMap
+    private int line;
+    private int column;
+
+    public TokenBufferCursor(TokenBuffer tokens) {
+        this(tokens, 0);
+    }
+
+    /**
+     * Cursor sobre tokens de un fragmento que comienza en la línea lineBase del fuente
+     */
+    public TokenBufferCursor(TokenBuffer tokens, int lineBase) {
+        this.tokens = tokens;
+        this.lineMap = tokens.getLineMap();
+        this.names = tokens.getNameTable();
+        this.size = tokens.size();
+        this.lastLine = lineMap.getLineCount() - 1;
+        this.lineBase = lineBase;
+        this.index = -1;
+        this.mapLine = 0;
+        advance();
+    }
+
+    @Override
+    public int kind() {
+        return kind;
+    }
+
+    @Override
+    public int line() {
+        return line;
+    }
+
+    @Override
+    public int column() {
+        return column;
+    }
+
+    @Override
+    public int intValue() {
+        return tokens.value(index);
+    }
+
+    @Override
+    public String name() {
+        return names.name(tokens.value(index));
+    }
+
+    @Override
+    public int peekKind() {
+        return index + 1 < size ? tokens.kind(index + 1) : sym.EOF;
+    }
+
+    @Override
+    public void advance() {
+        index++;
+        if (index >= size) {
+            // Igual que el Symbol de EOF: sin posición
+            index = size;
+            kind = sym.EOF;
+            line = -1;
+            column = -1;
+            return;
+        }
+
+        kind = tokens.kind(index);
+        int offset = tokens.offset(index);
+        while (mapLine < lastLine && lineMap.lineStart(mapLine + 1) <= offset) {
+            mapLine++;
+        }
+        line = lineBase + mapLine;
+        column = (int) (offset - lineMap.lineStart(mapLine));
+    }
+}
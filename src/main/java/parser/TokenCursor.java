@@ -0,0 +1,44 @@
+package parser;
+
+/**
+ * Vista de la secuencia de tokens para el parser descendente.
+ * Expone el token actual y el código del siguiente, sin crear objetos por token
+ * cuando la fuente lo permite.
+ */
+public interface TokenCursor {
+
+    /**
+     * Código sym del token actual
+     */
+    int kind();
+
+    /**
+     * Línea (base 0) del token actual
+     */
+    int line();
+
+    /**
+     * Columna (base 0) del token actual
+     */
+    int column();
+
+    /**
+     * Valor del token actual si es un NUMBER
+     */
+    int intValue();
+
+    /**
+     * Nombre del token actual si es un ID
+     */
+    String name();
+
+    /**
+     * Código sym del token siguiente al actual
+     */
+    int peekKind() throws Exception;
+
+    /**
+     * Avanza al siguiente token
+     */
+    void advance() throws Exception;
+}
@@ -0,0 +1,141 @@
+package pipeline;
+
+import ast.nodes.program.ProgramNode;
+import codegen.CodeGenerator;
+import lexer.TableScanner;
+import lexer.TokenBuffer;
+import parser.DescentParser;
+import parser.TokenBufferCursor;
+import semantic.SemanticAnalyzer;
+import semantic.analyzer.ConstantFolder;
+import semantic.errors.CompilationAbortedException;
+import semantic.errors.ErrorHandler;
+import semantic.symboltable.FlatSymbolTable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compilador reutilizable para compilar muchos programas chicos seguidos (un servicio,
+ * un IDE, los tests). Los componentes se crean una sola vez y entre compilaciones solo
+ * se vacían: el buffer de tokens, la tabla de nombres, la tabla de símbolos, las
+ * secciones y el StringBuilder del generador conservan su capacidad, así que una
+ * compilación reserva poco más que los nodos del AST y el texto assembler resultante.
+ * La tabla de símbolos es una FlatSymbolTable: entrar a un bloque no crea objetos.
+ *
+ * Cada instancia tiene su propio ErrorHandler, que no imprime nada: varias instancias
+ * pueden compilar en paralelo, cada una desde su hilo, pero una instancia no se puede
+ * usar desde dos hilos a la vez. Con un límite de errores (ErrorHandler.setErrorLimit)
+ * la compilación que lo alcanza no sigue con las fases restantes.
+ */
+public class CompilerPipeline {
+    // Pasado este tamaño la tabla de nombres se vacía en lugar de conservarse
+    private static final int MAX_RETAINED_NAMES = 4096;
+    private static final int INITIAL_SOURCE_CAPACITY = 4096;
+
+    private final TokenBuffer tokens;
+    private final SemanticAnalyzer semanticAnalyzer;
+    private final CodeGenerator codeGenerator;
+    private final ConstantFolder constantFolder;
+    private final ErrorHandler errorHandler;
+
+    private byte[] sourceBytes;
+    private ByteBuffer sourceBuffer;
+
+    public CompilerPipeline() {
+        this.tokens = new TokenBuffer();
+        this.errorHandler = new ErrorHandler();
+        this.semanticAnalyzer = new SemanticAnalyzer(new FlatSymbolTable(), errorHandler);
+        this.semanticAnalyzer.setTrace(false);
+        this.codeGenerator = new CodeGenerator(semanticAnalyzer.getSymbolTable());
+        this.constantFolder = new ConstantFolder(errorHandler);
+        this.sourceBytes = new byte[INITIAL_SOURCE_CAPACITY];
+        this.sourceBuffer = ByteBuffer.wrap(sourceBytes);
+    }
+
+    /**
+     * Compila un fuente; los diagnósticos quedan en getErrorHandler() hasta la próxima compilación
+     * @return el assembler generado, o null si hubo errores
+     * @throws Exception el error del parser si el fuente tiene un error sintáctico
+     */
+    public String compile(CharSequence source) throws Exception {
+        return compile(encode(source));
+    }
+
+    /**
+     * Compila un fuente ya codificado en UTF-8, entre position y limit del buffer
+     * @return el assembler generado, o null si hubo errores
+     * @throws Exception el error del parser si el fuente tiene un error sintáctico
+     */
+    public String compile(ByteBuffer source) throws Exception {
+        reset();
+
+        try {
+            TableScanner.tokenize(source, tokens, tokens.getNameTable().size() <= MAX_RETAINED_NAMES, errorHandler);
+            ProgramNode program = new DescentParser(new TokenBufferCursor(tokens), errorHandler).parse();
+            return compileProgram(program);
+        } catch (CompilationAbortedException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Compila un AST construido sin fuente (ver ast.utils.ProgramBuilder): no hay lexer ni parser
+     * @return el assembler generado, o null si hubo errores
+     */
+    public String compile(ProgramNode program) {
+        reset();
+
+        try {
+            return compileProgram(program);
+        } catch (CompilationAbortedException e) {
+            return null;
+        }
+    }
+
+    private String compileProgram(ProgramNode program) {
+        program.accept(semanticAnalyzer);
+        if (errorHandler.hasErrors()) {
+            return null;
+        }
+        constantFolder.transform(program);
+        return codeGenerator.generate(program);
+    }
+
+    public SemanticAnalyzer getSemanticAnalyzer() {
+        return semanticAnalyzer;
+    }
+
+    public ErrorHandler getErrorHandler() {
+        return errorHandler;
+    }
+
+    private void reset() {
+        // Antes de tokenizar: el scanner ya reporta los errores léxicos
+        semanticAnalyzer.reset();
+        codeGenerator.reset();
+    }
+
+    /**
+     * Copia un fuente ASCII al buffer reutilizado; con otros caracteres lo codifica aparte
+     */
+    private ByteBuffer encode(CharSequence source) {
+        int length = source.length();
+        if (length > sourceBytes.length) {
+            sourceBytes = new byte[Math.max(length, sourceBytes.length * 2)];
+            sourceBuffer = ByteBuffer.wrap(sourceBytes);
+        }
+
+        for (int i = 0; i < length; i++) {
+            char c = source.charAt(i);
+            if (c >= 0x80) {
+                return ByteBuffer.wrap(source.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            sourceBytes[i] = (byte) c;
+        }
+
+        sourceBuffer.clear();
+        sourceBuffer.limit(length);
+        return sourceBuffer;
+    }
+}
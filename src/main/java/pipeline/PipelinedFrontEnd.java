@@ -0,0 +1,211 @@
+package pipeline;
+
+import ast.Type;
+import ast.nodes.program.ParamNode;
+import ast.nodes.program.ProgramNode;
+import ast.nodes.statement.StmtNode;
+import com.ejemplo.parser.sym;
+import lexer.LineMap;
+import lexer.NameTable;
+import lexer.TableScanner;
+import parser.DescentParser;
+import parser.StatementListener;
+import semantic.SemanticAnalyzer;
+import semantic.errors.CompilationAbortedException;
+import semantic.errors.ErrorHandler;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Front end en pipeline: lexer, parser y análisis semántico en tres hilos.
+ * El lexer (TableScanner) llena una cola de tokens sin locks que consume el
+ * parser (DescentParser); cada sentencia del cuerpo de main que termina de
+ * parsearse pasa por una segunda cola al análisis semántico, que la analiza
+ * mientras el parser sigue con las siguientes.
+ * Los errores se reportan al ErrorHandler del análisis desde el hilo que los detecta,
+ * así que su orden puede diferir del de la compilación secuencial. Si una etapa llega
+ * al límite de errores las tres se detienen y run lanza CompilationAbortedException.
+ */
+public class PipelinedFrontEnd {
+    private static final int TOKEN_RING_CAPACITY = 1 << 14;
+    private static final int STATEMENT_QUEUE_CAPACITY = 1 << 10;
+
+    // Marca de fin del cuerpo de main en la cola de sentencias
+    private static final Object END = new Object();
+
+    private final TokenRing tokens;
+    private final StatementQueue statements;
+
+    public PipelinedFrontEnd() {
+        this.tokens = new TokenRing(TOKEN_RING_CAPACITY);
+        this.statements = new StatementQueue(STATEMENT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Encabezado de main, tal como lo necesita el análisis semántico
+     */
+    private static final class FunctionHeader {
+        final int line;
+        final int column;
+        final Type returnType;
+        final String name;
+        final List<ParamNode> parameters;
+
+        FunctionHeader(int line, int column, String returnType, String name, List<ParamNode> parameters) {
+            this.line = line;
+            this.column = column;
+            this.returnType = Type.of(returnType);
+            this.name = name;
+            this.parameters = parameters;
+        }
+    }
+
+    /**
+     * Tokeniza, parsea y analiza el fuente; vuelve cuando terminaron las tres etapas
+     * @return el AST completo, ya analizado
+     * @throws Exception el error del parser si el fuente tiene un error sintáctico
+     */
+    public ProgramNode run(ByteBuffer source, SemanticAnalyzer analyzer) throws Exception {
+        ErrorHandler errorHandler = analyzer.getErrorHandler();
+        // Lo que detuvo al lexer o al análisis, para lanzarlo desde este hilo
+        Throwable[] stageFailure = new Throwable[1];
+
+        Thread lexerThread = new Thread(() -> {
+            try {
+                lex(source, errorHandler);
+            } catch (Throwable e) {
+                stageFailure[0] = e;
+                tokens.cancel();
+                statements.cancel();
+            }
+        }, "pipeline-lexer");
+        Thread semanticThread = new Thread(() -> {
+            try {
+                analyze(analyzer);
+            } catch (CancellationException e) {
+                // El parser falló: no hay más sentencias
+            } catch (CompilationAbortedException e) {
+                tokens.cancel();
+                statements.cancel();
+            } catch (Throwable e) {
+                stageFailure[0] = new IllegalStateException("Falló el análisis semántico", e);
+                tokens.cancel();
+                statements.cancel();
+            }
+        }, "pipeline-semantic");
+
+        lexerThread.start();
+        semanticThread.start();
+
+        ProgramNode program;
+        try {
+            DescentParser parser = new DescentParser(new RingCursor(tokens), errorHandler);
+            parser.setStatementListener(new StatementListener() {
+                @Override
+                public void functionHeader(int line, int column, String returnType, String name,
+                                           List<ParamNode> parameters) {
+                    statements.put(new FunctionHeader(line, column, returnType, name, parameters));
+                }
+
+                @Override
+                public void statement(StmtNode stmt) {
+                    statements.put(stmt);
+                }
+            });
+            program = parser.parse();
+            statements.put(END);
+        } catch (Throwable e) {
+            tokens.cancel();
+            statements.cancel();
+            lexerThread.join();
+            semanticThread.join();
+            if (errorHandler.isAborted() && !(e instanceof CompilationAbortedException)) {
+                throw new CompilationAbortedException(errorHandler.getErrorLimit());
+            }
+            if (stageFailure[0] != null && e instanceof CancellationException) {
+                throw rethrow(stageFailure[0]);
+            }
+            throw e;
+        }
+
+        lexerThread.join();
+        semanticThread.join();
+        if (errorHandler.isAborted()) {
+            throw new CompilationAbortedException(errorHandler.getErrorLimit());
+        }
+        if (stageFailure[0] != null) {
+            throw rethrow(stageFailure[0]);
+        }
+        return program;
+    }
+
+    /**
+     * La falla de otra etapa, para lanzarla tal cual desde run
+     */
+    private static Exception rethrow(Throwable failure) {
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        return failure instanceof Exception ? (Exception) failure : new IllegalStateException(failure);
+    }
+
+    /**
+     * Etapa 1: tokeniza el fuente completo hacia la cola de tokens. Cualquier otra
+     * excepción (por ejemplo, un literal fuera de rango) la relanza run
+     */
+    private void lex(ByteBuffer source, ErrorHandler errorHandler) {
+        TableScanner scanner = new TableScanner(source, new NameTable(), new LineMap(), errorHandler);
+        NameTable names = scanner.getNameTable();
+        try {
+            int kind;
+            while ((kind = scanner.nextKind()) != sym.EOF) {
+                int value = scanner.tokenValue();
+                String name = kind == sym.ID ? names.name(value) : null;
+                tokens.put(kind, scanner.tokenLine(), scanner.tokenColumn(), value, name);
+            }
+            // Igual que el Symbol de EOF: sin posición
+            tokens.put(sym.EOF, -1, -1, 0, null);
+        } catch (CancellationException e) {
+            // El parser dejó de consumir
+        } catch (CompilationAbortedException e) {
+            // Sin más tokens el parser también se detiene
+            tokens.cancel();
+        }
+    }
+
+    /**
+     * Etapa 3: analiza cada sentencia apenas el parser la publica
+     */
+    private void analyze(SemanticAnalyzer analyzer) {
+        analyzer.beginAnalysis();
+
+        FunctionHeader header = null;
+        Object item;
+        while ((item = statements.take()) != END) {
+            if (item instanceof FunctionHeader) {
+                header = (FunctionHeader) item;
+                analyzer.beginFunction(header.name, header.returnType, header.parameters);
+            } else {
+                analyzer.analyzeStatement((StmtNode) item);
+            }
+        }
+        analyzer.endFunction(header.line, header.column);
+    }
+
+    /**
+     * Imprime la ocupación y las esperas de las dos colas
+     */
+    public void printStatistics() {
+        System.out.println("\n→ Pipeline");
+        printQueue("Tokens (lexer → parser)", tokens);
+        printQueue("Sentencias (parser → semántico)", statements);
+    }
+
+    private static void printQueue(String name, SpscRing ring) {
+        System.out.printf("  %-32s ocupación media %.1f / %d (máx %d), productor esperó %d, consumidor esperó %d%n",
+                name, ring.getAverageOccupancy(), ring.getCapacity(), ring.getMaxOccupancy(),
+                ring.getProducerStalls(), ring.getConsumerStalls());
+    }
+}
@@ -0,0 +1,88 @@
+package pipeline;
+
+import parser.TokenCursor;
+
+/**
+ * Cursor del parser sobre la cola de tokens que llena el hilo del lexer.
+ * Cada token se copia al cursor y su posición se libera enseguida.
+ */
+final class RingCursor implements TokenCursor {
+    private final TokenRing ring;
+    private int kind;
+    private int line;
+    private int column;
+    private int value;
+    private String name;
+    private boolean hasNext;
+    private int nextKind;
+    private int nextLine;
+    private int nextColumn;
+    private int nextValue;
+    private String nextName;
+
+    RingCursor(TokenRing ring) {
+        this.ring = ring;
+        advance();
+    }
+
+    @Override
+    public int kind() {
+        return kind;
+    }
+
+    @Override
+    public int line() {
+        return line;
+    }
+
+    @Override
+    public int column() {
+        return column;
+    }
+
+    @Override
+    public int intValue() {
+        return value;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public int peekKind() {
+        if (!hasNext) {
+            int slot = ring.peekSlot();
+            nextKind = ring.kind(slot);
+            nextLine = ring.line(slot);
+            nextColumn = ring.column(slot);
+            nextValue = ring.value(slot);
+            nextName = ring.name(slot);
+            ring.next();
+            hasNext = true;
+        }
+        return nextKind;
+    }
+
+    @Override
+    public void advance() {
+        if (hasNext) {
+            kind = nextKind;
+            line = nextLine;
+            column = nextColumn;
+            value = nextValue;
+            name = nextName;
+            hasNext = false;
+            return;
+        }
+
+        int slot = ring.peekSlot();
+        kind = ring.kind(slot);
+        line = ring.line(slot);
+        column = ring.column(slot);
+        value = ring.value(slot);
+        name = ring.name(slot);
+        ring.next();
+    }
+}
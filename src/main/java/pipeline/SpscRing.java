@@ -0,0 +1,149 @@
+package pipeline;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base de las colas circulares de un solo productor y un solo consumidor, sin locks.
+ * Cada lado escribe únicamente su propio índice (con lazySet) y guarda una copia
+ * del índice del otro lado, que solo vuelve a leer cuando la cola parece llena o vacía.
+ * También lleva contadores de esperas y de ocupación para diagnosticar el pipeline.
+ */
+abstract class SpscRing {
+    private static final int SPINS_BEFORE_YIELD = 64;
+
+    protected final int capacity;
+    private final int mask;
+    private final AtomicLong head;      // Próxima posición a consumir (la escribe el consumidor)
+    private final AtomicLong tail;      // Próxima posición a producir (la escribe el productor)
+    private volatile boolean cancelled;
+
+    // Estado del productor
+    private long producerIndex;
+    private long cachedHead;
+    private long producerStalls;
+
+    // Estado del consumidor
+    private long consumerIndex;
+    private long cachedTail;
+    private long consumerStalls;
+    private long occupancySum;
+    private long occupancySamples;
+    private long maxOccupancy;
+
+    protected SpscRing(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("La capacidad debe ser potencia de 2: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.head = new AtomicLong();
+        this.tail = new AtomicLong();
+    }
+
+    /**
+     * Productor: espera a que haya lugar y devuelve la posición a escribir
+     */
+    protected final int claim() {
+        long index = producerIndex;
+        if (index - cachedHead >= capacity) {
+            cachedHead = head.get();
+            if (index - cachedHead >= capacity) {
+                producerStalls++;
+                int spins = 0;
+                do {
+                    waitStep(spins++);
+                    cachedHead = head.get();
+                } while (index - cachedHead >= capacity);
+            }
+        }
+        return (int) (index & mask);
+    }
+
+    /**
+     * Productor: hace visible al consumidor la posición escrita
+     */
+    protected final void publish() {
+        producerIndex++;
+        tail.lazySet(producerIndex);
+    }
+
+    /**
+     * Consumidor: espera a que haya un elemento y devuelve su posición
+     */
+    protected final int await() {
+        long index = consumerIndex;
+        if (index >= cachedTail) {
+            cachedTail = tail.get();
+            if (index >= cachedTail) {
+                consumerStalls++;
+                int spins = 0;
+                do {
+                    waitStep(spins++);
+                    cachedTail = tail.get();
+                } while (index >= cachedTail);
+            }
+
+            long occupancy = cachedTail - index;
+            occupancySum += occupancy;
+            occupancySamples++;
+            maxOccupancy = Math.max(maxOccupancy, occupancy);
+        }
+        return (int) (index & mask);
+    }
+
+    /**
+     * Consumidor: libera la posición leída para el productor
+     */
+    protected final void release() {
+        consumerIndex++;
+        head.lazySet(consumerIndex);
+    }
+
+    private void waitStep(int spins) {
+        if (cancelled) {
+            throw new CancellationException("Pipeline cancelado");
+        }
+        if (spins < SPINS_BEFORE_YIELD) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Despierta con CancellationException a un lado que esté esperando al otro
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Veces que el productor encontró la cola llena
+     */
+    public long getProducerStalls() {
+        return producerStalls;
+    }
+
+    /**
+     * Veces que el consumidor encontró la cola vacía
+     */
+    public long getConsumerStalls() {
+        return consumerStalls;
+    }
+
+    /**
+     * Ocupación media vista por el consumidor cada vez que relee el índice del productor
+     */
+    public double getAverageOccupancy() {
+        return occupancySamples == 0 ? 0 : (double) occupancySum / occupancySamples;
+    }
+
+    public long getMaxOccupancy() {
+        return maxOccupancy;
+    }
+}
@@ -0,0 +1,27 @@
+package pipeline;
+
+/**
+ * Cola de mensajes entre el hilo del parser y el del análisis semántico
+ */
+final class StatementQueue extends SpscRing {
+    private final Object[] items;
+
+    StatementQueue(int capacity) {
+        super(capacity);
+        this.items = new Object[capacity];
+    }
+
+    void put(Object item) {
+        int slot = claim();
+        items[slot] = item;
+        publish();
+    }
+
+    Object take() {
+        int slot = await();
+        Object item = items[slot];
+        items[slot] = null;
+        release();
+        return item;
+    }
+}
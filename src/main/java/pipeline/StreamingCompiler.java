@@ -0,0 +1,147 @@
+package pipeline;
+
+import ast.Type;
+import ast.nodes.program.ParamNode;
+import ast.nodes.statement.StmtNode;
+import codegen.CodeGenerator;
+import parser.DescentParser;
+import parser.StatementListener;
+import parser.TokenCursor;
+import semantic.SemanticAnalyzer;
+import semantic.analyzer.ConstantFolder;
+import semantic.errors.ErrorHandler;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Compilación en streaming, de a una sentencia.
+ * Cada sentencia del cuerpo de main se analiza, se genera y se vuelca a disco apenas
+ * el parser la termina, y después ya no queda referenciada: ni el AST completo, ni el
+ * árbol de scopes, ni el texto assembler se mantienen en memoria. El pico de heap queda
+ * acotado por el anidamiento y los símbolos vivos, no por el largo del fuente; lo único
+ * que crece es la NameTable del lexer, con cada identificador distinto.
+ * El cuerpo de la función se escribe a un archivo temporal porque el prólogo depende
+ * del tamaño del frame, que se conoce recién al final.
+ */
+public class StreamingCompiler {
+    private final SemanticAnalyzer semanticAnalyzer;
+    private final CodeGenerator codeGenerator;
+    private final ErrorHandler errorHandler;
+    private ConstantFolder constantFolder;      // null = sin constant folding
+
+    // Posición de la definición de main, para el chequeo del return
+    private int functionLine;
+    private int functionColumn;
+
+    public StreamingCompiler(SemanticAnalyzer semanticAnalyzer) {
+        this.semanticAnalyzer = semanticAnalyzer;
+        this.errorHandler = semanticAnalyzer.getErrorHandler();
+        semanticAnalyzer.getSymbolTable().setDiscardExitedScopes(true);
+
+        // El generador lee las direcciones de los bindings que el análisis de cada
+        // sentencia deja en los nodos: no declara nada en la tabla
+        this.codeGenerator = new CodeGenerator(semanticAnalyzer.getSymbolTable());
+    }
+
+    /**
+     * Pliega las expresiones constantes de cada sentencia antes de generarla
+     */
+    public void setConstantFolding(boolean enabled) {
+        constantFolder = enabled ? new ConstantFolder(errorHandler) : null;
+    }
+
+    /**
+     * Parsea, analiza y genera el fuente; el assembler se escribe solo si no hubo errores
+     * @param tokens tokens del fuente (sin límite de tamaño con el Lexer de JFlex)
+     * @param asmFile archivo assembler de salida
+     * @return true si se generó asmFile
+     * @throws Exception el error del parser si el fuente tiene un error sintáctico
+     */
+    public boolean compile(TokenCursor tokens, Path asmFile) throws Exception {
+        Path directory = asmFile.toAbsolutePath().getParent();
+        Path body = Files.createTempFile(directory, "cuerpo", ".asm.tmp");
+
+        try {
+            try (Writer bodyOut = Files.newBufferedWriter(body)) {
+                compileBody(tokens, bodyOut);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            if (errorHandler.hasErrors()) {
+                return false;
+            }
+
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(asmFile))) {
+                Writer header = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                codeGenerator.writeHeader(header);
+                header.flush();
+                Files.copy(body, out);
+                // Igual que el println de la compilación normal
+                out.write(System.lineSeparator().getBytes(StandardCharsets.UTF_8));
+            }
+            return true;
+        } finally {
+            Files.deleteIfExists(body);
+        }
+    }
+
+    /**
+     * Parsea main entregando cada sentencia al análisis y al generador; el código
+     * del cuerpo y el epílogo quedan en bodyOut
+     */
+    private void compileBody(TokenCursor tokens, Writer bodyOut) throws Exception {
+        semanticAnalyzer.beginAnalysis();
+
+        DescentParser parser = new DescentParser(tokens, errorHandler);
+        parser.setRetainStatements(false);
+        parser.setStatementListener(new StatementListener() {
+            @Override
+            public void functionHeader(int line, int column, String returnType, String name,
+                                       List<ParamNode> parameters) {
+                functionLine = line;
+                functionColumn = column;
+                semanticAnalyzer.beginFunction(name, Type.of(returnType), parameters);
+                codeGenerator.beginFunction(name, parameters);
+            }
+
+            @Override
+            public void statement(StmtNode stmt) {
+                semanticAnalyzer.analyzeStatement(stmt);
+
+                // Con errores no se escribe el assembler: no hace falta seguir generando
+                if (!errorHandler.hasErrors()) {
+                    StmtNode generated = constantFolder != null ? constantFolder.transformStatement(stmt) : stmt;
+                    if (generated != null) {
+                        codeGenerator.generateStatement(generated);
+                    }
+                    flush(bodyOut);
+                }
+            }
+        });
+        parser.parse();
+
+        semanticAnalyzer.endFunction(functionLine, functionColumn);
+        if (!errorHandler.hasErrors()) {
+            codeGenerator.endFunction();
+            flush(bodyOut);
+        }
+    }
+
+    private void flush(Writer out) {
+        try {
+            codeGenerator.flush(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
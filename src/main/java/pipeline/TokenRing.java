@@ -0,0 +1,64 @@
+package pipeline;
+
+/**
+ * Cola de tokens entre el hilo del lexer y el del parser.
+ * Los tokens se guardan empaquetados en arreglos paralelos; los nombres de los ID
+ * viajan como String ya internado para que el parser no lea la NameTable del lexer.
+ */
+final class TokenRing extends SpscRing {
+    private final int[] kinds;
+    private final int[] lines;
+    private final int[] columns;
+    private final int[] values;
+    private final String[] names;
+
+    TokenRing(int capacity) {
+        super(capacity);
+        this.kinds = new int[capacity];
+        this.lines = new int[capacity];
+        this.columns = new int[capacity];
+        this.values = new int[capacity];
+        this.names = new String[capacity];
+    }
+
+    void put(int kind, int line, int column, int value, String name) {
+        int slot = claim();
+        kinds[slot] = kind;
+        lines[slot] = line;
+        columns[slot] = column;
+        values[slot] = value;
+        names[slot] = name;
+        publish();
+    }
+
+    /**
+     * Espera el próximo token y devuelve su posición; se lee con los accesores y se libera con next()
+     */
+    int peekSlot() {
+        return await();
+    }
+
+    void next() {
+        release();
+    }
+
+    int kind(int slot) {
+        return kinds[slot];
+    }
+
+    int line(int slot) {
+        return lines[slot];
+    }
+
+    int column(int slot) {
+        return columns[slot];
+    }
+
+    int value(int slot) {
+        return values[slot];
+    }
+
+    String name(int slot) {
+        return names[slot];
+    }
+}
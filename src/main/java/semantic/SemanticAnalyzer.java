@@ -1,24 +1,73 @@
 package semantic;
 
+import ast.ASTNode;
+import ast.Type;
 import ast.nodes.program.*;
 import ast.nodes.statement.*;
 import ast.nodes.expression.*;
 import ast.visitor.ASTVisitor;
+import ast.visitor.LongExpressionWalker;
+import ast.visitor.NodeSwitch;
 import semantic.symboltable.*;
 import semantic.analyzer.*;
 import semantic.errors.*;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
 
-public class SemanticAnalyzer implements ASTVisitor {
+/**
+ * Análisis semántico sobre el AST. Cada visita de expresión devuelve el tipo de la
+ * expresión, que además queda guardado en el nodo; las sentencias devuelven null
+ * (el return, el tipo retornado).
+ *
+ * También resuelve los nombres: cada parámetro y variable local recibe un slot y un
+ * offset en el frame de su función, y cada VariableNode y AssignmentNode queda con el
+ * binding de la declaración que ve, así el generador no busca nombres.
+ *
+ * Cada expresión se recorre una sola vez: el mismo recorrido en post-orden calcula
+ * el tipo, el valor constante (si lo tiene) y los diagnósticos de cada nodo.
+ */
+public class SemanticAnalyzer implements ASTVisitor<Type> {
+    // Marca de salida de scope en la pila de trabajo de los bloques anidados
+    private static final Object EXIT_SCOPE = new Object();
+
+    // Resultado del recorrido de una expresión: el id del tipo en los bits altos y el
+    // valor constante empaquetado (ver ConstantValue) en los bajos
+    private static final int TYPE_SHIFT = 40;
+    private static final long VALUE_MASK = (1L << TYPE_SHIFT) - 1;
+
     private SymbolTable symbolTable;
     private ErrorHandler errorHandler;
     private ExpressionEvaluator expressionEvaluator;
-    private String currentFunctionReturnType;
+    private Type currentFunctionReturnType;
+    private String currentFunctionName;
+    private boolean currentFunctionHasReturn;
+    private int nextSlot;                   // Próximo slot de la función actual
+    private int frameOffset;                // Bytes del frame ocupados hasta ahora
+    private final ExpressionChecker expressionChecker = new ExpressionChecker();
+    private final Deque<Object> nestedWork = new ArrayDeque<>();   // Pila de analyzeNested, se reutiliza
+    private ExpressionMemo expressionMemo;    // Tipo y valor por nodo; null = sin memoización
+    private boolean switchDispatch = true;
+    private boolean trace = true;           // Imprimir cada declaración, asignación y return
 
     public SemanticAnalyzer() {
-        this.symbolTable = new SymbolTable();
-        this.errorHandler = ErrorHandler.getInstance(); // Usar singleton
+        this(new ScopedSymbolTable());
+    }
+
+    /**
+     * Analizador sobre otra implementación de la tabla de símbolos (ver FlatSymbolTable)
+     */
+    public SemanticAnalyzer(SymbolTable symbolTable) {
+        this(symbolTable, ErrorHandler.getInstance());
+    }
+
+    /**
+     * Analizador que reporta a los diagnósticos de una compilación en particular
+     */
+    public SemanticAnalyzer(SymbolTable symbolTable, ErrorHandler errorHandler) {
+        this.symbolTable = symbolTable;
+        this.errorHandler = errorHandler;
         this.expressionEvaluator = new ExpressionEvaluator(symbolTable, errorHandler);
         this.currentFunctionReturnType = null;
     }
@@ -36,71 +85,143 @@ public class SemanticAnalyzer implements ASTVisitor {
         return errorHandler.hasErrors();
     }
 
+    /**
+     * Memoiza el tipo y el valor de cada operación ya analizada, para no repetir el
+     * trabajo en expresiones compartidas (ver ast.utils.ExpressionInterner)
+     */
+    public void setMemoization(boolean enabled) {
+        expressionMemo = enabled ? new ExpressionMemo(errorHandler) : null;
+    }
+
+    /**
+     * Despacha cada nodo con un switch por etiqueta (NodeSwitch), que es lo que se usa
+     * por defecto, o con accept
+     */
+    public void setSwitchDispatch(boolean enabled) {
+        switchDispatch = enabled;
+    }
+
+    /**
+     * Sin traza el análisis no imprime nada ni arma los mensajes; los diagnósticos
+     * siguen yendo al ErrorHandler
+     */
+    public void setTrace(boolean enabled) {
+        trace = enabled;
+    }
+
+    private Type dispatch(ASTNode node) {
+        return switchDispatch ? NodeSwitch.visit(node, this) : node.accept(this);
+    }
+
     // ========== VISITANTES PARA NODOS DEL PROGRAMA ==========
 
     @Override
-    public Object visitProgram(ProgramNode node) {
-        System.out.println("\n" + "=".repeat(50));
-        System.out.println("ANALISIS SEMÁNTICO");
-        System.out.println("=".repeat(50));
+    public Type visitProgram(ProgramNode node) {
+        beginAnalysis();
 
-        node.getMainFunction().accept(this);
+        dispatch(node.getMainFunction());
 
         return null;
     }
 
     @Override
-    public Object visitFunctionDef(FunctionDefNode node) {
-        String functionName = node.getFunctionName();
-        String returnType = node.getReturnType();
+    public Type visitFunctionDef(FunctionDefNode node) {
+        beginFunction(node.getFunctionName(), node.getDeclaredReturnType(), node.getParameters());
 
+        // Procesar cuerpo de la función
+        for (StmtNode stmt : node.getStatements()) {
+            analyzeStatement(stmt);
+        }
+
+        endFunction(node.getLine(), node.getColumn());
+
+        return null;
+    }
+
+    // ========== ANÁLISIS POR SENTENCIA (usado también por el front end en pipeline) ==========
+
+    public void beginAnalysis() {
+        if (trace) {
+            System.out.println("\n" + "=".repeat(50));
+            System.out.println("ANALISIS SEMÁNTICO");
+            System.out.println("=".repeat(50));
+        }
+    }
+
+    /**
+     * Abre el scope de una función y declara sus parámetros
+     */
+    public void beginFunction(String functionName, Type returnType, List<ParamNode> parameters) {
+        currentFunctionName = functionName;
         currentFunctionReturnType = returnType;
+        currentFunctionHasReturn = false;
+        nextSlot = 0;
+        frameOffset = 0;
 
-        System.out.println("\n→ Analizando función: " + functionName + " (" + returnType + ")");
+        if (trace) {
+            System.out.println("\n→ Analizando función: " + functionName + " (" + returnType + ")");
+        }
 
         symbolTable.enterScope("function_" + functionName);
 
         // Procesar parámetros
-        for (ParamNode param : node.getParameters()) {
-            param.accept(this);
+        for (ParamNode param : parameters) {
+            dispatch(param);
         }
+    }
 
-        // Procesar cuerpo de la función
-        for (StmtNode stmt : node.getStatements()) {
-            stmt.accept(this);
+    /**
+     * Analiza una sentencia del cuerpo de la función actual
+     */
+    public void analyzeStatement(StmtNode stmt) {
+        if (stmt instanceof ReturnStmtNode) {
+            currentFunctionHasReturn = true;
         }
+        dispatch(stmt);
+    }
 
+    /**
+     * Verifica el return de la función actual y cierra su scope
+     * @param line línea de la definición de la función
+     * @param column columna de la definición de la función
+     */
+    public void endFunction(int line, int column) {
         // Verificar return statement
-        if (!returnType.equals("void") && !hasReturnStatement(node.getStatements())) {
+        if (currentFunctionReturnType != Type.VOID && !currentFunctionHasReturn) {
             errorHandler.addSemanticError(
-                    node.getLine(),
-                    node.getColumn(),
-                    "La función '" + functionName + "' con retorno de tipo '" +
-                            returnType + "' debe tener un valor de retorno"
+                    line,
+                    column,
+                    "La función '%s' con retorno de tipo '%s' debe tener un valor de retorno",
+                    currentFunctionName,
+                    currentFunctionReturnType
             );
         }
 
         symbolTable.exitScope();
         currentFunctionReturnType = null;
-
-        return null;
+        currentFunctionName = null;
     }
 
     @Override
-    public Object visitParam(ParamNode node) {
+    public Type visitParam(ParamNode node) {
         String paramName = node.getName();
-        String paramType = node.getType();
+        Type paramType = node.getDeclaredType();
 
         if (symbolTable.existsLocal(paramName)) {
             errorHandler.addSemanticError(
                     node.getLine(),
                     node.getColumn(),
-                    "El parámetro '" + paramName + "' ya fue declarado en este entorno"
+                    "El parámetro '%s' ya fue declarado en este entorno",
+                    paramName
             );
         } else {
             Object defaultValue = TypeChecker.getDefaultValue(paramType);
             symbolTable.declare(paramName, paramType, defaultValue, node.getLine(), node.getColumn());
-            System.out.println("  ✓ Parámetro declarado: " + paramName + " : " + paramType);
+            SymbolEntry entry = allocateSlot(paramName, paramType);
+            node.setBinding(entry.getSlot(), entry.getStackOffset());
+            if (trace) {
+                System.out.println("  ✓ Parámetro declarado: " + paramName + " : " + paramType);
+            }
         }
 
         return null;
@@ -109,8 +230,8 @@ public class SemanticAnalyzer implements ASTVisitor {
     // ========== VISITANTES PARA SENTENCIAS ==========
 
     @Override
-    public Object visitDeclaration(DeclarationNode node) {
-        String type = node.getType();
+    public Type visitDeclaration(DeclarationNode node) {
+        Type type = node.getDeclaredType();
 
         for (VarDeclNode varDecl : node.getVariables()) {
             String varName = varDecl.getName();
@@ -119,49 +240,79 @@ public class SemanticAnalyzer implements ASTVisitor {
                 errorHandler.addSemanticError(
                         varDecl.getLine(),
                         varDecl.getColumn(),
-                        "La variable '" + varName + "' ya fue declarada en este entorno"
+                        "La variable '%s' ya fue declarada en este entorno",
+                        varName
                 );
                 continue;
             }
 
+            long initValue = ConstantValue.UNKNOWN;
             if (varDecl.hasInitialValue()) {
                 ExprNode initExpr = varDecl.getInitialValue();
-                String initType = (String) initExpr.accept(this);
+                long result = analyzeExpression(initExpr);
+                Type initType = typeOf(result);
 
                 if (!TypeChecker.areTypesCompatible(type, initType)) {
                     errorHandler.addTypeError(
                             initExpr.getLine(),
                             initExpr.getColumn(),
-                            "No se puede asignar " + initType + " a la variable '" +
-                                    varName + "' de tipo " + type
+                            "No se puede asignar %s a la variable '%s' de tipo %s",
+                            initType,
+                            varName,
+                            type
                     );
                 }
 
-                Object initValue = expressionEvaluator.evaluate(initExpr);
-                symbolTable.declare(varName, type, initValue, varDecl.getLine(), varDecl.getColumn());
-                System.out.println("  ✓ Declarada e inicializada: " + varName + " = " + initValue);
+                initValue = valueOf(result);
+                symbolTable.declare(varName, type, varDecl.getLine(), varDecl.getColumn());
+                if (trace) {
+                    System.out.println("  ✓ Declarada e inicializada: " + varName + " = "
+                            + ConstantValue.toString(initValue));
+                }
             } else {
                 symbolTable.declare(varName, type, varDecl.getLine(), varDecl.getColumn());
-                System.out.println("  ✓ Declarada: " + varName + " : " + type);
+                if (trace) {
+                    System.out.println("  ✓ Declarada: " + varName + " : " + type);
+                }
                 errorHandler.addWarning(
                         varDecl.getLine(),
                         varDecl.getColumn(),
-                        "Variable '" + varName + "' declarada pero no inicializada"
+                        "Variable '%s' declarada pero no inicializada",
+                        varName
                 );
             }
+
+            SymbolEntry entry = allocateSlot(varName, type);
+            varDecl.setBinding(entry.getSlot(), entry.getStackOffset());
+            // Sin valor conocido la variable queda sin inicializar, como al declararla con null
+            if (ConstantValue.isKnown(initValue)) {
+                entry.setConstant(initValue);
+            }
         }
 
         return null;
     }
 
+    /**
+     * Da al símbolo recién declarado en el scope actual el próximo slot de la función,
+     * con su lugar en el frame a continuación de los anteriores
+     */
+    private SymbolEntry allocateSlot(String name, Type type) {
+        SymbolEntry entry = symbolTable.lookupLocal(name);
+        frameOffset += type.size();
+        entry.setSlot(nextSlot++);
+        entry.setStackOffset(frameOffset);
+        return entry;
+    }
+
     @Override
-    public Object visitVarDecl(VarDeclNode node) {
+    public Type visitVarDecl(VarDeclNode node) {
         // Este método se llama desde visitDeclaration
         return null;
     }
 
     @Override
-    public Object visitAssignment(AssignmentNode node) {
+    public Type visitAssignment(AssignmentNode node) {
         String varName = node.getVariableName();
         ExprNode expr = node.getExpression();
 
@@ -170,151 +321,217 @@ public class SemanticAnalyzer implements ASTVisitor {
             errorHandler.addSemanticError(
                     node.getLine(),
                     node.getColumn(),
-                    "Variable '" + varName + "' no declarada"
+                    "Variable '%s' no declarada",
+                    varName
             );
             return null;
         }
+        node.setBinding(entry.getSlot(), entry.getStackOffset());
 
-        String exprType = (String) expr.accept(this);
+        long result = analyzeExpression(expr);
+        Type exprType = typeOf(result);
         if (!TypeChecker.areTypesCompatible(entry.getType(), exprType)) {
             errorHandler.addTypeError(
                     expr.getLine(),
                     expr.getColumn(),
-                    "No se puede asignar " + exprType + " a la variable '" +
-                            varName + "' de tipo " + entry.getType()
+                    "No se puede asignar %s a la variable '%s' de tipo %s",
+                    exprType,
+                    varName,
+                    entry.getType()
             );
         }
 
-        Object value = expressionEvaluator.evaluate(expr);
-        symbolTable.assign(varName, value);
-        System.out.println("  → Asignación: " + varName + " = " + value);
+        long value = valueOf(result);
+        symbolTable.assign(entry, value);
+        if (trace) {
+            System.out.println("  → Asignación: " + varName + " = " + ConstantValue.toString(value));
+        }
 
         return null;
     }
 
     @Override
-    public Object visitReturnStmt(ReturnStmtNode node) {
+    public Type visitReturnStmt(ReturnStmtNode node) {
         if (node.hasExpression()) {
-            String exprType = (String) node.getExpression().accept(this);
+            long result = analyzeExpression(node.getExpression());
+            Type exprType = typeOf(result);
 
             if (currentFunctionReturnType != null &&
                     !TypeChecker.areTypesCompatible(currentFunctionReturnType, exprType)) {
                 errorHandler.addTypeError(
                         node.getExpression().getLine(),
                         node.getExpression().getColumn(),
-                        "Tipo de retorno incorrecto: Esperado " + currentFunctionReturnType +
-                                ", se obtuvo " + exprType
+                        "Tipo de retorno incorrecto: Esperado %s, se obtuvo %s",
+                        currentFunctionReturnType,
+                        exprType
                 );
             }
 
-            Object value = expressionEvaluator.evaluate(node.getExpression());
-            System.out.println("  ← Retorna: " + value + " (" + exprType + ")");
+            long value = valueOf(result);
+            if (trace) {
+                System.out.println("  ← Retorna: " + ConstantValue.toString(value) + " (" + exprType + ")");
+            }
             return exprType;
         } else {
             if (currentFunctionReturnType != null &&
-                    !currentFunctionReturnType.equals("void")) {
+                    currentFunctionReturnType != Type.VOID) {
                 errorHandler.addSemanticError(
                         node.getLine(),
                         node.getColumn(),
-                        "La función debe retornar una variable de tipo " + currentFunctionReturnType
+                        "La función debe retornar una variable de tipo %s",
+                        currentFunctionReturnType
                 );
             }
-            System.out.println("  ← Retorna (vacío)");
-            return "void";
+            if (trace) {
+                System.out.println("  ← Retorna (vacío)");
+            }
+            return Type.VOID;
         }
     }
 
     @Override
-    public Object visitExprStmt(ExprStmtNode node) {
-        return node.getExpression().accept(this);
+    public Type visitExprStmt(ExprStmtNode node) {
+        return checkExpression(node.getExpression());
     }
 
     @Override
-    public Object visitIfStmt(IfStmtNode node) {
-        // Verificar que la condición es booleana
-        String condType = (String) node.getCondition().accept(this);
-        if (!"bool".equals(condType)) {
-            errorHandler.addTypeError(
-                    node.getCondition().getLine(),
-                    node.getCondition().getColumn(),
-                    "La condición en el IF debe ser booleana, pero se obtuvo: " + condType
-            );
-        }
+    public Type visitIfStmt(IfStmtNode node) {
+        analyzeNested(node);
+        return null;
+    }
 
-        // Analizar rama then
-        symbolTable.enterScope("if_then");
-        for (StmtNode stmt : node.getThenBranch()) {
-            stmt.accept(this);
-        }
-        symbolTable.exitScope();
+    @Override
+    public Type visitWhileStmt(WhileStmtNode node) {
+        analyzeNested(node);
+        return null;
+    }
 
-        // Analizar rama else si existe
-        if (node.hasElseBranch()) {
-            symbolTable.enterScope("if_else");
-            for (StmtNode stmt : node.getElseBranch()) {
-                stmt.accept(this);
+    /**
+     * Analiza un if o while con una pila explícita de trabajo: los bloques anidados
+     * no consumen pila de Java. Cada bloque abre su propio scope.
+     */
+    private void analyzeNested(StmtNode root) {
+        Deque<Object> work = nestedWork;
+        work.clear();
+        work.push(root);
+
+        while (!work.isEmpty()) {
+            Object item = work.pop();
+
+            if (item == EXIT_SCOPE) {
+                symbolTable.exitScope();
+            } else if (item instanceof String) {
+                symbolTable.enterScope((String) item);
+            } else if (item instanceof IfStmtNode) {
+                IfStmtNode ifStmt = (IfStmtNode) item;
+                checkCondition(ifStmt.getCondition(), "IF");
+
+                // Se apilan en orden inverso: rama then y después rama else
+                if (ifStmt.hasElseBranch()) {
+                    pushBlock(work, "if_else", ifStmt.getElseBranch());
+                }
+                pushBlock(work, "if_then", ifStmt.getThenBranch());
+            } else if (item instanceof WhileStmtNode) {
+                WhileStmtNode whileStmt = (WhileStmtNode) item;
+                checkCondition(whileStmt.getCondition(), "WHILE");
+                pushBlock(work, "while_body", whileStmt.getBody());
+            } else {
+                dispatch((StmtNode) item);
             }
-            symbolTable.exitScope();
         }
+    }
 
-        return null;
+    private static void pushBlock(Deque<Object> work, String scopeName, List<StmtNode> statements) {
+        work.push(EXIT_SCOPE);
+        for (int i = statements.size() - 1; i >= 0; i--) {
+            work.push(statements.get(i));
+        }
+        work.push(scopeName);
     }
 
-    @Override
-    public Object visitWhileStmt(WhileStmtNode node) {
-        // Verificar que la condición es booleana
-        String condType = (String) node.getCondition().accept(this);
-        if (!"bool".equals(condType)) {
+    /**
+     * Tipo de una expresión, sin evaluarla; queda guardado en cada nodo (ExprNode.getType)
+     */
+    private Type checkExpression(ExprNode expr) {
+        expressionChecker.evaluating = false;
+        return typeOf(expressionChecker.walk(expr));
+    }
+
+    /**
+     * Tipo y valor constante de una expresión en un solo recorrido (ver typeOf y valueOf)
+     */
+    private long analyzeExpression(ExprNode expr) {
+        expressionChecker.evaluating = true;
+        return expressionChecker.walk(expr);
+    }
+
+    private static long checked(Type type, long value) {
+        return ((long) type.id() << TYPE_SHIFT) | value;
+    }
+
+    private static Type typeOf(long result) {
+        return Type.byId((int) (result >>> TYPE_SHIFT));
+    }
+
+    private static long valueOf(long result) {
+        return result & VALUE_MASK;
+    }
+
+    /**
+     * Verifica que la condición de un IF o WHILE sea booleana
+     */
+    private void checkCondition(ExprNode condition, String statement) {
+        Type condType = checkExpression(condition);
+        if (condType != Type.BOOL) {
             errorHandler.addTypeError(
-                    node.getCondition().getLine(),
-                    node.getCondition().getColumn(),
-                    "La condición en el WHILE debe ser booleana, pero se obtuvo: " + condType
+                    condition.getLine(),
+                    condition.getColumn(),
+                    "La condición en el %s debe ser booleana, pero se obtuvo: %s",
+                    statement,
+                    condType
             );
         }
-
-        // Analizar cuerpo del while
-        symbolTable.enterScope("while_body");
-        for (StmtNode stmt : node.getBody()) {
-            stmt.accept(this);
-        }
-        symbolTable.exitScope();
-
-        return null;
     }
 
     @Override
-    public Object visitUnaryOp(UnaryOpNode node) {
-        String operandType = (String) node.getOperand().accept(this);
+    public Type visitUnaryOp(UnaryOpNode node) {
+        return checkExpression(node);
+    }
 
+    private Type unaryOpType(UnaryOpNode node, Type operandType) {
         if (node.getOperator() == UnaryOpNode.Operator.NOT) {
-            if (!"bool".equals(operandType)) {
+            if (operandType != Type.BOOL) {
                 errorHandler.addTypeError(
                         node.getOperand().getLine(),
                         node.getOperand().getColumn(),
-                        "El operador NOT requiere un operando booleano, pero se obtuvo: " + operandType
+                        "El operador NOT requiere un operando booleano, pero se obtuvo: %s",
+                        operandType
                 );
-                return "error";
+                return Type.ERROR;
             }
-            return "bool";
+            return Type.BOOL;
         }
 
-        return "error";
+        return Type.ERROR;
     }
 
     // ========== VISITANTES PARA EXPRESIONES ==========
 
     @Override
-    public Object visitBinaryOp(BinaryOpNode node) {
-        String leftType = (String) node.getLeft().accept(this);
-        String rightType = (String) node.getRight().accept(this);
+    public Type visitBinaryOp(BinaryOpNode node) {
+        return checkExpression(node);
+    }
 
+    private Type binaryOpType(BinaryOpNode node, Type leftType, Type rightType) {
         if (!TypeChecker.areTypesCompatible(leftType, rightType)) {
             errorHandler.addTypeError(
                     node.getLine(),
                     node.getColumn(),
-                    "Error de tipo en operación binaria: " + leftType + " y " + rightType
+                    "Error de tipo en operación binaria: %s y %s",
+                    leftType,
+                    rightType
             );
-            return "error";
+            return Type.ERROR;
         }
 
         switch (node.getOperator()) {
@@ -323,89 +540,158 @@ public class SemanticAnalyzer implements ASTVisitor {
                     errorHandler.addTypeError(
                             node.getLine(),
                             node.getColumn(),
-                            "Las operaciones aritméticas requieren tipos numéricos, pero se obtuvo: " + leftType
+                            "Las operaciones aritméticas requieren tipos numéricos, pero se obtuvo: %s",
+                            leftType
                     );
-                    return "error";
+                    return Type.ERROR;
                 }
-                return "int";
+                return Type.INT;
 
             case LT: case GT:
                 if (!TypeChecker.isArithmeticType(leftType)) {
                     errorHandler.addTypeError(
                             node.getLine(),
                             node.getColumn(),
-                            "Las operaciones de comparación requieren tipos numéricos, pero se obtuvo: " + leftType
+                            "Las operaciones de comparación requieren tipos numéricos, pero se obtuvo: %s",
+                            leftType
                     );
-                    return "error";
+                    return Type.ERROR;
                 }
-                return "bool";
+                return Type.BOOL;
 
             case EQ:
-                return "bool";
+                return Type.BOOL;
 
             case AND: case OR:
-                if (!"bool".equals(leftType)) {
+                if (leftType != Type.BOOL) {
                     errorHandler.addTypeError(
                             node.getLine(),
                             node.getColumn(),
-                            "Las operaciones lógicas requieren tipos booleanos, pero se obtuvo: " + leftType
+                            "Las operaciones lógicas requieren tipos booleanos, pero se obtuvo: %s",
+                            leftType
                     );
-                    return "error";
+                    return Type.ERROR;
                 }
-                return "bool";
+                return Type.BOOL;
 
             default:
-                return "error";
+                return Type.ERROR;
         }
     }
 
     @Override
-    public Object visitNumber(NumberNode node) {
-        return "int";
+    public Type visitNumber(NumberNode node) {
+        return Type.INT;
     }
 
     @Override
-    public Object visitBoolean(BooleanNode node) {
-        return "bool";
+    public Type visitBoolean(BooleanNode node) {
+        return Type.BOOL;
     }
 
     @Override
-    public Object visitVariable(VariableNode node) {
-        String varName = node.getName();
-        SymbolEntry entry = symbolTable.lookup(varName);
+    public Type visitVariable(VariableNode node) {
+        return checkExpression(node);
+    }
 
-        if (entry == null) {
-            errorHandler.addSemanticError(
-                    node.getLine(),
-                    node.getColumn(),
-                    "La variable '" + varName + "' no fue declarada"
-            );
-            return "error";
+    /**
+     * Recorrido sin recursión que tipa y evalúa a la vez. El valor de un nodo mal
+     * tipado es desconocido y no se evalúa, así una misma causa no se reporta dos
+     * veces: tampoco se advierte que una variable sin inicializar no tiene valor.
+     */
+    private class ExpressionChecker extends LongExpressionWalker {
+        boolean evaluating;     // false = solo el tipo, sin valor ni sus diagnósticos
+
+        @Override
+        protected long enter(ExprNode node) {
+            return expressionMemo != null ? expressionMemo.enter(node, memoStamp()) : NO_VALUE;
         }
 
-        if (!entry.isInitialized()) {
-            errorHandler.addWarning(
-                    node.getLine(),
-                    node.getColumn(),
-                    "La variable '" + varName + "' se utiliza antes de ser inicializada"
-            );
+        @Override
+        protected long leaf(ExprNode node) {
+            switch (node.kind()) {
+                case ExprNode.NUMBER:
+                    return memoized(node, Type.INT, ConstantValue.ofInt(((NumberNode) node).getValue()));
+                case ExprNode.BOOLEAN:
+                    return memoized(node, Type.BOOL, ConstantValue.ofBool(((BooleanNode) node).getValue()));
+                case ExprNode.VARIABLE:
+                    return variable((VariableNode) node);
+                default:
+                    return memoized(node, Type.ERROR, ConstantValue.UNKNOWN);
+            }
         }
 
-        return entry.getType();
-    }
+        private long variable(VariableNode node) {
+            String varName = node.getName();
+            SymbolEntry entry = symbolTable.lookup(varName);
 
-    // ========== MÉTODOS AUXILIARES ==========
+            if (entry == null) {
+                errorHandler.addSemanticError(
+                        node.getLine(),
+                        node.getColumn(),
+                        "La variable '%s' no fue declarada",
+                        varName
+                );
+                return memoized(node, Type.ERROR, ConstantValue.UNKNOWN);
+            }
+            node.setBinding(entry.getSlot(), entry.getStackOffset());
+
+            if (!entry.isInitialized()) {
+                errorHandler.addWarning(
+                        node.getLine(),
+                        node.getColumn(),
+                        "La variable '%s' se utiliza antes de ser inicializada",
+                        varName
+                );
+                return memoized(node, entry.getType(), ConstantValue.UNKNOWN);
+            }
+
+            long value = evaluating ? expressionEvaluator.evaluateVariable(node, entry) : ConstantValue.UNKNOWN;
+            return memoized(node, entry.getType(), value);
+        }
+
+        @Override
+        protected long unary(UnaryOpNode node, long operand) {
+            Type type = unaryOpType(node, typeOf(operand));
+            long value = evaluating && type != Type.ERROR
+                    ? expressionEvaluator.evaluateUnaryOp(node, valueOf(operand))
+                    : ConstantValue.UNKNOWN;
+            return memoized(node, type, value);
+        }
+
+        @Override
+        protected long binary(BinaryOpNode node, long left, long right) {
+            Type type = binaryOpType(node, typeOf(left), typeOf(right));
+            long value = evaluating && type != Type.ERROR
+                    ? expressionEvaluator.evaluateBinaryOp(node, valueOf(left), valueOf(right))
+                    : ConstantValue.UNKNOWN;
+            return memoized(node, type, value);
+        }
 
-    private boolean hasReturnStatement(List<StmtNode> statements) {
-        for (StmtNode stmt : statements) {
-            if (stmt instanceof ReturnStmtNode) {
-                return true;
+        private long memoized(ExprNode node, Type type, long value) {
+            long result = checked(type, evaluating ? value : ConstantValue.UNKNOWN);
+            node.setType(type);
+            if (expressionMemo != null) {
+                expressionMemo.exit(node, result, memoStamp());
             }
+            return result;
+        }
+
+        /**
+         * Un resultado con valor depende también de las asignaciones; uno con solo el
+         * tipo, de los bindings. El bit bajo separa los dos casos.
+         */
+        private long memoStamp() {
+            return evaluating ? symbolTable.getValueVersion() * 2 + 1 : symbolTable.getBindingVersion() * 2;
         }
-        return false;
     }
 
+    // ========== MÉTODOS AUXILIARES ==========
+
     public void printSummary() {
+        if (expressionMemo != null) {
+            System.out.println("\n→ Memoización: " + expressionMemo.getHits() + " expresiones reutilizadas");
+        }
         symbolTable.printStatistics();
         errorHandler.printSummary();
     }
@@ -413,6 +699,13 @@ public class SemanticAnalyzer implements ASTVisitor {
     public void reset() {
         symbolTable.clear();
         errorHandler.reset();
+        if (expressionMemo != null) {
+            expressionMemo.clear();
+        }
         currentFunctionReturnType = null;
+        currentFunctionName = null;
+        currentFunctionHasReturn = false;
+        nextSlot = 0;
+        frameOffset = 0;
     }
 }
@@ -0,0 +1,69 @@
+package semantic.analyzer;
+
+import ast.ASTNode;
+import ast.nodes.expression.*;
+import ast.visitor.ASTTransformer;
+import semantic.errors.ErrorHandler;
+import semantic.symboltable.FlatSymbolTable;
+
+/**
+ * Constant folding sobre el AST ya analizado: cada operación cuyos operandos son
+ * literales se reemplaza por el literal de su valor (ExpressionEvaluator.constantFold),
+ * y el generador emite un único mov en lugar de evaluarla.
+ * Como el recorrido es en post-orden, una sola pasada pliega los subárboles constantes
+ * completos: la segunda ya no encuentra nada que reemplazar.
+ * Una división por un cero literal no se pliega: el análisis ya la reportó.
+ */
+public class ConstantFolder extends ASTTransformer {
+    private final ExpressionEvaluator evaluator;
+
+    public ConstantFolder() {
+        this(ErrorHandler.getInstance());
+    }
+
+    public ConstantFolder(ErrorHandler errorHandler) {
+        // Solo evalúa operaciones entre literales: la tabla de símbolos queda vacía
+        this.evaluator = new ExpressionEvaluator(new FlatSymbolTable(), errorHandler);
+    }
+
+    @Override
+    public ASTNode visitBinaryOp(BinaryOpNode node) {
+        return foldable(node) ? fold(node) : node;
+    }
+
+    @Override
+    public ASTNode visitUnaryOp(UnaryOpNode node) {
+        return node.getOperand() instanceof BooleanNode ? fold(node) : node;
+    }
+
+    /**
+     * Solo se pliegan operaciones entre literales de los tipos que espera el operador,
+     * para que la evaluación no reporte diagnósticos que el análisis no reportó
+     */
+    private static boolean foldable(BinaryOpNode node) {
+        ExprNode left = node.getLeft();
+        ExprNode right = node.getRight();
+        switch (node.getOperator()) {
+            case DIVIDE:
+                return left instanceof NumberNode && right instanceof NumberNode
+                        && ((NumberNode) right).getValue() != 0;
+            case PLUS: case MINUS: case TIMES: case LT: case GT:
+                return left instanceof NumberNode && right instanceof NumberNode;
+            case AND: case OR:
+                return left instanceof BooleanNode && right instanceof BooleanNode;
+            case EQ:
+                return (left instanceof NumberNode && right instanceof NumberNode)
+                        || (left instanceof BooleanNode && right instanceof BooleanNode);
+            default:
+                return false;
+        }
+    }
+
+    private ExprNode fold(ExprNode node) {
+        ExprNode folded = evaluator.constantFold(node);
+        folded.setType(node.getType());
+        // El literal ocupa el texto de la operación que reemplaza
+        folded.setSpan(node.getSpanStart(), node.getSpanEnd());
+        return folded;
+    }
+}
@@ -1,73 +1,134 @@
 package semantic.analyzer;
 
+import ast.Type;
 import ast.nodes.expression.*;
+import ast.visitor.LongExpressionWalker;
 import semantic.errors.ErrorHandler;
+import semantic.symboltable.SymbolEntry;
 import semantic.symboltable.SymbolTable;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import static semantic.symboltable.ConstantValue.*;
+
 /**
  * Evaluador de expresiones en tiempo de compilación.
  * Calcula valores constantes cuando es posible (constant folding).
+ *
+ * Los valores se calculan empaquetados en un long (ver ConstantValue): ni los
+ * resultados intermedios ni los valores de la tabla de símbolos se boxean, y evaluar
+ * un nodo no reserva memoria. evaluate() boxea solo el resultado final.
  */
 public class ExpressionEvaluator {
     private SymbolTable symbolTable;
     private ErrorHandler errorHandler;
+    private final LongExpressionWalker walker;
+    private ExpressionMemo valueMemo;   // null = sin memoización
 
     public ExpressionEvaluator(SymbolTable symbolTable, ErrorHandler errorHandler) {
         this.symbolTable = symbolTable;
         this.errorHandler = errorHandler;
+        this.walker = new LongExpressionWalker() {
+            @Override
+            protected long enter(ExprNode node) {
+                return valueMemo != null ? valueMemo.enter(node, symbolTable.getValueVersion()) : NO_VALUE;
+            }
+
+            @Override
+            protected long leaf(ExprNode node) {
+                return memoized(node, evaluateLeaf(node));
+            }
+
+            @Override
+            protected long unary(UnaryOpNode node, long operandVal) {
+                return memoized(node, evaluateUnaryOp(node, operandVal));
+            }
+
+            @Override
+            protected long binary(BinaryOpNode node, long leftVal, long rightVal) {
+                return memoized(node, evaluateBinaryOp(node, leftVal, rightVal));
+            }
+        };
     }
 
     /**
-     * Evalúa una expresión y retorna su valor
-     * @return El valor evaluado, o null si no se puede evaluar
+     * Memoiza el valor de cada operación mientras no cambie ningún valor de la tabla de símbolos
      */
-    public Object evaluate(ExprNode expr) {
-        if (expr == null) {
-            return null;
-        }
+    public void setMemoization(boolean enabled) {
+        valueMemo = enabled ? new ExpressionMemo(errorHandler) : null;
+    }
 
-        if (expr instanceof NumberNode) {
-            return evaluateNumber((NumberNode) expr);
-        } else if (expr instanceof BooleanNode) {
-            return evaluateBoolean((BooleanNode) expr);
-        } else if (expr instanceof VariableNode) {
-            return evaluateVariable((VariableNode) expr);
-        } else if (expr instanceof BinaryOpNode) {
-            return evaluateBinaryOp((BinaryOpNode) expr);
-        } else if (expr instanceof UnaryOpNode) {
-            return evaluateUnaryOp((UnaryOpNode) expr);
+    public long getMemoHits() {
+        return valueMemo != null ? valueMemo.getHits() : 0;
+    }
+
+    private long memoized(ExprNode node, long value) {
+        if (valueMemo != null) {
+            // Un valor desconocido no se memoiza
+            valueMemo.exit(node, isKnown(value) ? value : ExpressionMemo.MISSING, symbolTable.getValueVersion());
         }
+        return value;
+    }
 
-        return null;
+    /**
+     * Evalúa una expresión y retorna su valor.
+     * El recorrido usa una pila explícita, así que la profundidad no está limitada por la pila de Java.
+     * @return El valor evaluado (Integer o Boolean), o null si no se puede evaluar
+     */
+    public Object evaluate(ExprNode expr) {
+        return box(evaluateConstant(expr));
     }
 
     /**
-     * Evalúa un nodo numérico
+     * Evalúa una expresión sin reservar memoria
+     * @return el valor empaquetado (ver ConstantValue), o UNKNOWN si no se puede evaluar
      */
-    private Object evaluateNumber(NumberNode node) {
-        return node.getValue();
+    public long evaluateConstant(ExprNode expr) {
+        if (expr == null) {
+            return UNKNOWN;
+        }
+        return walker.walk(expr);
     }
 
     /**
-     * Evalúa un nodo booleano
+     * Evalúa una hoja de la expresión (número, booleano o variable); las operaciones
+     * las combina el walker
      */
-    private Object evaluateBoolean(BooleanNode node) {
-        return node.getValue();
+    private long evaluateLeaf(ExprNode expr) {
+        switch (expr.kind()) {
+            case ExprNode.NUMBER:
+                return ofInt(((NumberNode) expr).getValue());
+            case ExprNode.BOOLEAN:
+                return ofBool(((BooleanNode) expr).getValue());
+            case ExprNode.VARIABLE:
+                return evaluateVariable((VariableNode) expr);
+            default:
+                return UNKNOWN;
+        }
     }
 
     /**
      * Evalúa una variable obteniendo su valor de la tabla de símbolos
      */
-    private Object evaluateVariable(VariableNode node) {
-        String varName = node.getName();
-        Object value = symbolTable.getValue(varName);
+    private long evaluateVariable(VariableNode node) {
+        return evaluateVariable(node, symbolTable.lookup(node.getName()));
+    }
+
+    /**
+     * Valor de una variable cuyo símbolo ya se buscó (null si no está declarada);
+     * advierte si no tiene valor
+     */
+    public long evaluateVariable(VariableNode node, SymbolEntry entry) {
+        long value = entry != null ? entry.getConstant() : UNKNOWN;
 
         // Si la variable no tiene valor o no está inicializada
-        if (value == null) {
+        if (!isKnown(value)) {
             errorHandler.addWarning(
                     node.getLine(),
                     node.getColumn(),
-                    "Variable '" + varName + "' usada en expresión constante pero no tiene valor asignado"
+                    "Variable '%s' usada en expresión constante pero no tiene valor asignado",
+                    node.getName()
             );
         }
 
@@ -75,95 +136,83 @@ public class ExpressionEvaluator {
     }
 
     /**
-     * Evalúa una operación unaria
+     * Evalúa una operación unaria con el valor ya calculado de su operando.
+     * Junto con evaluateBinaryOp y evaluateVariable sirve para evaluar desde otro
+     * recorrido de la expresión (el análisis semántico evalúa mientras tipa).
      */
-    private Object evaluateUnaryOp(UnaryOpNode node) {
-        Object operandVal = evaluate(node.getOperand());
-
-        if (operandVal == null) {
-            return null;
+    public long evaluateUnaryOp(UnaryOpNode node, long operandVal) {
+        if (!isKnown(operandVal)) {
+            return UNKNOWN;
         }
 
         switch (node.getOperator()) {
             case NOT:
-                if (operandVal instanceof Boolean) {
-                    return !(Boolean) operandVal;
+                if (isBool(operandVal)) {
+                    return ofBool(!boolValue(operandVal));
                 }
                 errorHandler.addTypeError(
                         node.getLine(),
                         node.getColumn(),
                         "El operador NOT requiere un operando booleano"
                 );
-                return null;
+                return UNKNOWN;
 
             default:
-                return null;
+                return UNKNOWN;
         }
     }
 
     /**
-     * Evalúa una operación binaria
+     * Evalúa una operación binaria con los valores ya calculados de sus operandos
      */
-    private Object evaluateBinaryOp(BinaryOpNode node) {
-        Object leftVal = evaluate(node.getLeft());
-        Object rightVal = evaluate(node.getRight());
-
-        if (leftVal == null || rightVal == null) {
-            return null;
+    public long evaluateBinaryOp(BinaryOpNode node, long leftVal, long rightVal) {
+        if (!isKnown(leftVal) || !isKnown(rightVal)) {
+            return UNKNOWN;
         }
 
-        // Operaciones aritméticas
-        if (node.getOperator() == BinaryOpNode.Operator.PLUS ||
-                node.getOperator() == BinaryOpNode.Operator.MINUS ||
-                node.getOperator() == BinaryOpNode.Operator.TIMES ||
-                node.getOperator() == BinaryOpNode.Operator.DIVIDE) {
-
-            return evaluateArithmeticOp(node, leftVal, rightVal);
-        }
+        switch (node.getOperator()) {
+            // Operaciones aritméticas
+            case PLUS: case MINUS: case TIMES: case DIVIDE:
+                return evaluateArithmeticOp(node, leftVal, rightVal);
 
-        // Operaciones de comparación
-        if (node.getOperator() == BinaryOpNode.Operator.LT ||
-                node.getOperator() == BinaryOpNode.Operator.GT ||
-                node.getOperator() == BinaryOpNode.Operator.EQ) {
+            // Operaciones de comparación
+            case LT: case GT: case EQ:
+                return evaluateComparisonOp(node, leftVal, rightVal);
 
-            return evaluateComparisonOp(node, leftVal, rightVal);
-        }
+            // Operaciones lógicas
+            case AND: case OR:
+                return evaluateLogicalOp(node, leftVal, rightVal);
 
-        // Operaciones lógicas
-        if (node.getOperator() == BinaryOpNode.Operator.AND ||
-                node.getOperator() == BinaryOpNode.Operator.OR) {
-
-            return evaluateLogicalOp(node, leftVal, rightVal);
+            default:
+                return UNKNOWN;
         }
-
-        return null;
     }
 
     /**
      * Evalúa operaciones aritméticas
      */
-    private Object evaluateArithmeticOp(BinaryOpNode node, Object leftVal, Object rightVal) {
-        if (!(leftVal instanceof Integer) || !(rightVal instanceof Integer)) {
+    private long evaluateArithmeticOp(BinaryOpNode node, long leftVal, long rightVal) {
+        if (!isInt(leftVal) || !isInt(rightVal)) {
             errorHandler.addTypeError(
                     node.getLine(),
                     node.getColumn(),
                     "Las operaciones aritméticas requieren operandos enteros"
             );
-            return null;
+            return UNKNOWN;
         }
 
-        int left = (Integer) leftVal;
-        int right = (Integer) rightVal;
+        int left = intValue(leftVal);
+        int right = intValue(rightVal);
 
         switch (node.getOperator()) {
             case PLUS:
-                return left + right;
+                return ofInt(left + right);
 
             case MINUS:
-                return left - right;
+                return ofInt(left - right);
 
             case TIMES:
-                return left * right;
+                return ofInt(left * right);
 
             case DIVIDE:
                 if (right == 0) {
@@ -172,38 +221,38 @@ public class ExpressionEvaluator {
                             node.getRight().getColumn(),
                             "División por cero en expresión constante"
                     );
-                    return 0;
+                    return ofInt(0);
                 }
-                return left / right;
+                return ofInt(left / right);
 
             default:
-                return null;
+                return UNKNOWN;
         }
     }
 
     /**
      * Evalúa operaciones de comparación
      */
-    private Object evaluateComparisonOp(BinaryOpNode node, Object leftVal, Object rightVal) {
+    private long evaluateComparisonOp(BinaryOpNode node, long leftVal, long rightVal) {
         switch (node.getOperator()) {
             case LT:
-                if (leftVal instanceof Integer && rightVal instanceof Integer) {
-                    return (Integer) leftVal < (Integer) rightVal;
+                if (isInt(leftVal) && isInt(rightVal)) {
+                    return ofBool(intValue(leftVal) < intValue(rightVal));
                 }
                 break;
 
             case GT:
-                if (leftVal instanceof Integer && rightVal instanceof Integer) {
-                    return (Integer) leftVal > (Integer) rightVal;
+                if (isInt(leftVal) && isInt(rightVal)) {
+                    return ofBool(intValue(leftVal) > intValue(rightVal));
                 }
                 break;
 
             case EQ:
-                // EQ funciona para cualquier tipo
-                return leftVal.equals(rightVal);
+                // EQ funciona para cualquier tipo: valores de distinto tipo son distintos
+                return ofBool(leftVal == rightVal);
 
             default:
-                return null;
+                return UNKNOWN;
         }
 
         errorHandler.addTypeError(
@@ -211,34 +260,34 @@ public class ExpressionEvaluator {
                 node.getColumn(),
                 "Tipos incompatibles en operación de comparación"
         );
-        return null;
+        return UNKNOWN;
     }
 
     /**
      * Evalúa operaciones lógicas
      */
-    private Object evaluateLogicalOp(BinaryOpNode node, Object leftVal, Object rightVal) {
-        if (!(leftVal instanceof Boolean) || !(rightVal instanceof Boolean)) {
+    private long evaluateLogicalOp(BinaryOpNode node, long leftVal, long rightVal) {
+        if (!isBool(leftVal) || !isBool(rightVal)) {
             errorHandler.addTypeError(
                     node.getLine(),
                     node.getColumn(),
                     "Las operaciones lógicas requieren operandos booleanos"
             );
-            return null;
+            return UNKNOWN;
         }
 
-        boolean left = (Boolean) leftVal;
-        boolean right = (Boolean) rightVal;
+        boolean left = boolValue(leftVal);
+        boolean right = boolValue(rightVal);
 
         switch (node.getOperator()) {
             case AND:
-                return left && right;
+                return ofBool(left && right);
 
             case OR:
-                return left || right;
+                return ofBool(left || right);
 
             default:
-                return null;
+                return UNKNOWN;
         }
     }
 
@@ -246,22 +295,27 @@ public class ExpressionEvaluator {
      * Verifica si una expresión es constante (puede evaluarse en tiempo de compilación)
      */
     public boolean isConstantExpression(ExprNode expr) {
-        if (expr instanceof NumberNode || expr instanceof BooleanNode) {
-            return true;
-        }
-
-        if (expr instanceof BinaryOpNode) {
-            BinaryOpNode binOp = (BinaryOpNode) expr;
-            return isConstantExpression(binOp.getLeft()) &&
-                    isConstantExpression(binOp.getRight());
+        if (expr == null) {
+            return false;
         }
 
-        if (expr instanceof UnaryOpNode) {
-            UnaryOpNode unaryOp = (UnaryOpNode) expr;
-            return isConstantExpression(unaryOp.getOperand());
+        // Es constante si todas sus hojas son literales; se recorre con una pila explícita
+        Deque<ExprNode> pending = new ArrayDeque<>();
+        pending.push(expr);
+
+        while (!pending.isEmpty()) {
+            ExprNode node = pending.pop();
+            if (node instanceof BinaryOpNode) {
+                BinaryOpNode binOp = (BinaryOpNode) node;
+                pending.push(binOp.getRight());
+                pending.push(binOp.getLeft());
+            } else if (node instanceof UnaryOpNode) {
+                pending.push(((UnaryOpNode) node).getOperand());
+            } else if (!(node instanceof NumberNode || node instanceof BooleanNode)) {
+                return false;
+            }
         }
-
-        return false;
+        return true;
     }
 
     /**
@@ -270,13 +324,13 @@ public class ExpressionEvaluator {
      */
     public ExprNode constantFold(ExprNode expr) {
         if (isConstantExpression(expr)) {
-            Object value = evaluate(expr);
-            if (value instanceof Integer) {
+            long value = evaluateConstant(expr);
+            if (isInt(value)) {
                 // Preservar la información de posición del nodo original
-                return new NumberNode(expr.getLine(), expr.getColumn(), (Integer) value);
-            } else if (value instanceof Boolean) {
+                return new NumberNode(expr.getLine(), expr.getColumn(), intValue(value));
+            } else if (isBool(value)) {
                 // Preservar la información de posición del nodo original
-                return new BooleanNode(expr.getLine(), expr.getColumn(), (Boolean) value);
+                return new BooleanNode(expr.getLine(), expr.getColumn(), boolValue(value));
             }
         }
         return expr;
@@ -287,10 +341,10 @@ public class ExpressionEvaluator {
      * @return true si la condición es verdadera, false en caso contrario
      */
     public boolean evaluateCondition(ExprNode expr) {
-        Object value = evaluate(expr);
+        long value = evaluateConstant(expr);
 
-        if (value instanceof Boolean) {
-            return (Boolean) value;
+        if (isBool(value)) {
+            return boolValue(value);
         }
 
         errorHandler.addTypeError(
@@ -303,42 +357,36 @@ public class ExpressionEvaluator {
     }
 
     /**
-     * Calcula el tipo resultante de una expresión
-     * @return "int", "bool", o "error" si hay un problema
+     * Tipo de una expresión ya analizada: el que guardó el análisis semántico en el nodo.
+     * Sin análisis previo se deduce del nodo raíz, sin verificar los operandos.
+     * @return INT, BOOL, o ERROR si hay un problema
      */
-    public String getExpressionType(ExprNode expr) {
+    public Type getExpressionType(ExprNode expr) {
+        if (expr.getType() != null) {
+            return expr.getType();
+        }
+
         if (expr instanceof NumberNode) {
-            return "int";
+            return Type.INT;
         } else if (expr instanceof BooleanNode) {
-            return "bool";
+            return Type.BOOL;
         } else if (expr instanceof VariableNode) {
-            String varName = ((VariableNode) expr).getName();
-            var entry = symbolTable.lookup(varName);
-            return entry != null ? entry.getType() : "error";
+            Type type = symbolTable.getType(((VariableNode) expr).getName());
+            return type != null ? type : Type.ERROR;
         } else if (expr instanceof BinaryOpNode) {
-            BinaryOpNode binOp = (BinaryOpNode) expr;
-            switch (binOp.getOperator()) {
+            switch (((BinaryOpNode) expr).getOperator()) {
                 case PLUS:
                 case MINUS:
                 case TIMES:
                 case DIVIDE:
-                    return "int";
-                case LT:
-                case GT:
-                case EQ:
-                case AND:
-                case OR:
-                    return "bool";
+                    return Type.INT;
                 default:
-                    return "error";
+                    return Type.BOOL;
             }
         } else if (expr instanceof UnaryOpNode) {
-            UnaryOpNode unaryOp = (UnaryOpNode) expr;
-            if (unaryOp.getOperator() == UnaryOpNode.Operator.NOT) {
-                return "bool";
-            }
+            return Type.BOOL;
         }
 
-        return "error";
+        return Type.ERROR;
     }
 }
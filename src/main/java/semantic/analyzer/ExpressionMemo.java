@@ -0,0 +1,137 @@
+package semantic.analyzer;
+
+import ast.nodes.expression.BinaryOpNode;
+import ast.nodes.expression.ExprNode;
+import ast.nodes.expression.UnaryOpNode;
+import ast.visitor.LongExpressionWalker;
+import semantic.errors.ErrorHandler;
+
+import java.util.Arrays;
+
+/**
+ * Resultados memoizados por nodo de expresión, pensado para expresiones compartidas
+ * por hash-consing (ver ast.utils.ExpressionInterner). El resultado es un long: el id
+ * del tipo, o el valor constante empaquetado (ver semantic.symboltable.ConstantValue),
+ * así que memoizar no boxea nada.
+ * Cada resultado se guarda con la versión de la tabla de símbolos de la que depende
+ * y solo vale mientras esa versión no cambie.
+ * Un subárbol que reportó algún diagnóstico no se memoiza: en la próxima aparición
+ * se vuelve a analizar y el diagnóstico se vuelve a reportar.
+ *
+ * Se usa desde un recorrido de la expresión: enter() al llegar a cada nodo y exit() con su resultado.
+ */
+public class ExpressionMemo {
+    // Sin resultado memoizado; como resultado de exit(), no se guarda
+    public static final long MISSING = LongExpressionWalker.NO_VALUE;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final ErrorHandler errorHandler;
+
+    // Tabla con direccionamiento abierto por identidad del nodo
+    private ExprNode[] keys = new ExprNode[INITIAL_CAPACITY];
+    private long[] values = new long[INITIAL_CAPACITY];
+    private long[] stamps = new long[INITIAL_CAPACITY];
+    private int size;
+
+    // Diagnósticos reportados al entrar a cada nodo pendiente
+    private int[] diagnostics = new int[32];
+    private int depth;
+
+    private long hits;
+    private long misses;
+
+    public ExpressionMemo(ErrorHandler errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * Al llegar a un nodo: su resultado memoizado, o MISSING si hay que calcularlo
+     */
+    public long enter(ExprNode node, long stamp) {
+        if (node instanceof BinaryOpNode || node instanceof UnaryOpNode) {
+            int index = find(node);
+            if (keys[index] == node && stamps[index] == stamp) {
+                hits++;
+                return values[index];
+            }
+            misses++;
+        }
+
+        if (depth == diagnostics.length) {
+            diagnostics = Arrays.copyOf(diagnostics, depth * 2);
+        }
+        diagnostics[depth++] = errorHandler.getDiagnosticCount();
+        return MISSING;
+    }
+
+    /**
+     * Al terminar un nodo: guarda su resultado si el subárbol no reportó diagnósticos
+     * @return result
+     */
+    public long exit(ExprNode node, long result, long stamp) {
+        int before = diagnostics[--depth];
+        if (result != MISSING && errorHandler.getDiagnosticCount() == before
+                && (node instanceof BinaryOpNode || node instanceof UnaryOpNode)) {
+            put(node, result, stamp);
+        }
+        return result;
+    }
+
+    private int find(ExprNode node) {
+        int mask = keys.length - 1;
+        int hash = node.structuralHash();
+        int index = (hash ^ (hash >>> 16)) & mask;
+        ExprNode key;
+        while ((key = keys[index]) != null && key != node) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void put(ExprNode node, long result, long stamp) {
+        int index = find(node);
+        if (keys[index] == null) {
+            keys[index] = node;
+            size++;
+        }
+        values[index] = result;
+        stamps[index] = stamp;
+        if (size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    private void grow() {
+        ExprNode[] oldKeys = keys;
+        long[] oldValues = values;
+        long[] oldStamps = stamps;
+        keys = new ExprNode[oldKeys.length * 2];
+        values = new long[oldKeys.length * 2];
+        stamps = new long[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int index = find(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+                stamps[index] = oldStamps[i];
+            }
+        }
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, null);
+        size = 0;
+        depth = 0;
+        hits = 0;
+        misses = 0;
+    }
+}
@@ -1,5 +1,7 @@
 package semantic.analyzer;
 
+import ast.Type;
+
 /**
  * Clase responsable de la verificación de tipos en el compilador.
  * Proporciona métodos para verificar compatibilidad de tipos,
@@ -10,11 +12,11 @@ public class TypeChecker {
     /**
      * Verifica si dos tipos son compatibles para asignación
      */
-    public static boolean areTypesCompatible(String type1, String type2) {
+    public static boolean areTypesCompatible(Type type1, Type type2) {
         if (type1 == null || type2 == null) return false;
 
         // Tipos iguales son siempre compatibles
-        if (type1.equals(type2)) return true;
+        if (type1 == type2) return true;
 
         // Para operaciones de comparación, permitimos cualquier combinación
         // pero esto puede ser ajustado según tus necesidades
@@ -22,84 +24,71 @@ public class TypeChecker {
     }
 
 
-    public static int getTypeSize(String type) {
-        switch (type) {
-            case "int": return 4;     // 32-bit integer
-            case "bool": return 1;    // 8-bit boolean
-            case "void": return 0;
-            default: return 4;        // Default to 4 bytes
-        }
+    public static int getTypeSize(Type type) {
+        return type.size();
     }
 
-    public static String getAssemblyType(String type) {
-        switch (type) {
-            case "int": return "dd";
-            case "bool": return "db";
-            default: return "dd";
-        }
+    public static String getAssemblyType(Type type) {
+        return type.assemblyType();
     }
 
     /**
      * Verifica si un tipo es válido para operaciones aritméticas
      */
-    public static boolean isArithmeticType(String type) {
-        return "int".equals(type);
+    public static boolean isArithmeticType(Type type) {
+        return type == Type.INT;
     }
 
     /**
      * Verifica si un tipo es válido para operaciones booleanas
      */
-    public static boolean isBooleanType(String type) {
-        return "bool".equals(type);
+    public static boolean isBooleanType(Type type) {
+        return type == Type.BOOL;
     }
 
     /**
      * Verifica si un tipo es un tipo primitivo válido
      */
-    public static boolean isPrimitiveType(String type) {
-        return "int".equals(type) || "bool".equals(type) || "void".equals(type);
+    public static boolean isPrimitiveType(Type type) {
+        return type == Type.INT || type == Type.BOOL || type == Type.VOID;
     }
 
     /**
      * Obtiene el tipo de resultado de una operación binaria aritmética
      */
-    public static String getArithmeticResultType(String leftType, String rightType) {
+    public static Type getArithmeticResultType(Type leftType, Type rightType) {
         if (isArithmeticType(leftType) && isArithmeticType(rightType)) {
-            return "int";
+            return Type.INT;
         }
-        return "error";
+        return Type.ERROR;
     }
 
     /**
      * Obtiene el tipo de resultado de una operación de comparación
      */
-    public static String getComparisonResultType(String leftType, String rightType) {
+    public static Type getComparisonResultType(Type leftType, Type rightType) {
         if (areTypesCompatible(leftType, rightType)) {
-            return "bool";
+            return Type.BOOL;
         }
-        return "error";
+        return Type.ERROR;
     }
 
     /**
      * Obtiene el valor por defecto para un tipo dado
      */
-    public static Object getDefaultValue(String type) {
-        switch (type) {
-            case "int":
-                return 0;
-            case "bool":
-                return false;
-            case "void":
-                return null;
-            default:
-                return null;
+    public static Object getDefaultValue(Type type) {
+        if (type == Type.INT) {
+            return 0;
+        } else if (type == Type.BOOL) {
+            return false;
         }
+        return null;
     }
 
     /**
      * Verifica si un tipo requiere inicialización
      */
-    public static boolean requiresInitialization(String type) {
+    public static boolean requiresInitialization(Type type) {
         // En este caso simple, ningún tipo REQUIERE inicialización,
         // pero es buena práctica inicializar
         return false;
@@ -108,18 +97,7 @@ public class TypeChecker {
     /**
      * Obtiene una descripción legible del tipo
      */
-    public static String getTypeDescription(String type) {
-        switch (type) {
-            case "int":
-                return "integer";
-            case "bool":
-                return "boolean";
-            case "void":
-                return "void";
-            case "error":
-                return "error type";
-            default:
-                return "unknown type: " + type;
-        }
+    public static String getTypeDescription(Type type) {
+        return type.description();
     }
-}
\ No newline at end of file
+}
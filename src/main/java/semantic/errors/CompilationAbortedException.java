@@ -0,0 +1,21 @@
+package semantic.errors;
+
+/**
+ * La compilación llegó al límite de errores de su ErrorHandler (ver setErrorLimit):
+ * se lanza desde el reporte del error que lo alcanza, así la fase que lo detectó
+ * deja de trabajar y las siguientes no empiezan
+ */
+public class CompilationAbortedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final int errorLimit;
+
+    public CompilationAbortedException(int errorLimit) {
+        super("Compilación abortada: se alcanzó el límite de " + errorLimit + " errores");
+        this.errorLimit = errorLimit;
+    }
+
+    public int getErrorLimit() {
+        return errorLimit;
+    }
+}
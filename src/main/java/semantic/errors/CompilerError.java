@@ -3,14 +3,30 @@ package semantic.errors;
 public class CompilerError {
     protected int line;
     protected int column;
-    protected String message;
+    protected String message;       // null hasta que alguien lo lee, si hay que formatearlo
     protected String errorType;
+    private final String pattern;
+    private final Object[] arguments;
 
     public CompilerError(int line, int column, String message, String errorType) {
         this.line = line;
         this.column = column;
         this.message = message;
         this.errorType = errorType;
+        this.pattern = null;
+        this.arguments = null;
+    }
+
+    /**
+     * Diagnóstico con el mensaje sin formatear: String.format(pattern, arguments) se
+     * calcula recién la primera vez que se lee el mensaje
+     */
+    protected CompilerError(int line, int column, String errorType, String pattern, Object[] arguments) {
+        this.line = line;
+        this.column = column;
+        this.errorType = errorType;
+        this.pattern = pattern;
+        this.arguments = arguments;
     }
 
     public int getLine() {
@@ -22,6 +38,10 @@ public class CompilerError {
     }
 
     public String getMessage() {
+        // Si dos hilos lo formatean a la vez, los dos calculan el mismo texto
+        if (message == null && pattern != null) {
+            message = String.format(pattern, arguments);
+        }
         return message;
     }
 
@@ -32,6 +52,6 @@ public class CompilerError {
     @Override
     public String toString() {
         return String.format("[%s] Línea %d, Columna %d: %s",
-                errorType, line, column, message);
+                errorType, line, column, getMessage());
     }
 }
@@ -0,0 +1,94 @@
+package semantic.errors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lista de diagnósticos de solo agregado, sin locks, para varios productores a la vez.
+ * Cada productor reserva su lugar con un incremento atómico y lo escribe en un bloque
+ * que crea con CAS el primero que lo necesita. Pasada la capacidad los diagnósticos
+ * se cuentan pero no se guardan.
+ *
+ * Leer mientras otros agregan es seguro: un lugar reservado y todavía no escrito se
+ * saltea. clear() no puede correr junto con los productores.
+ */
+final class DiagnosticLog {
+    private static final int BLOCK_BITS = 8;
+    private static final int BLOCK_SIZE = 1 << BLOCK_BITS;
+
+    private final int capacity;
+    private final AtomicReferenceArray<AtomicReferenceArray<CompilerError>> blocks;
+    private final AtomicInteger reserved = new AtomicInteger();    // Incluye los que no se guardaron
+
+    DiagnosticLog(int capacity) {
+        this.capacity = capacity;
+        this.blocks = new AtomicReferenceArray<>((capacity + BLOCK_SIZE - 1) >>> BLOCK_BITS);
+    }
+
+    /**
+     * Agrega un diagnóstico, o solo lo cuenta si ya no hay lugar
+     * @return cuántos se agregaron hasta ahora, contando este
+     */
+    int append(CompilerError error) {
+        int index = reserved.getAndIncrement();
+        if (index < capacity) {
+            block(index >>> BLOCK_BITS).set(index & (BLOCK_SIZE - 1), error);
+        }
+        return index + 1;
+    }
+
+    private AtomicReferenceArray<CompilerError> block(int number) {
+        AtomicReferenceArray<CompilerError> block = blocks.get(number);
+        if (block == null) {
+            AtomicReferenceArray<CompilerError> created = new AtomicReferenceArray<>(BLOCK_SIZE);
+            block = blocks.compareAndSet(number, null, created) ? created : blocks.get(number);
+        }
+        return block;
+    }
+
+    /**
+     * Cantidad de diagnósticos agregados, guardados o no
+     */
+    int count() {
+        return reserved.get();
+    }
+
+    /**
+     * Cantidad que se contó sin guardar por falta de lugar
+     */
+    int dropped() {
+        return Math.max(0, reserved.get() - capacity);
+    }
+
+    /**
+     * Los diagnósticos guardados, en el orden en que se reservó su lugar
+     */
+    List<CompilerError> snapshot() {
+        int stored = Math.min(reserved.get(), capacity);
+        List<CompilerError> result = new ArrayList<>(stored);
+        for (int index = 0; index < stored; index++) {
+            AtomicReferenceArray<CompilerError> block = blocks.get(index >>> BLOCK_BITS);
+            CompilerError error = block != null ? block.get(index & (BLOCK_SIZE - 1)) : null;
+            if (error != null) {
+                result.add(error);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Vacía la lista conservando los bloques ya creados
+     */
+    void clear() {
+        int stored = Math.min(reserved.get(), capacity);
+        for (int index = 0; index < stored; index++) {
+            AtomicReferenceArray<CompilerError> block = blocks.get(index >>> BLOCK_BITS);
+            if (block != null) {
+                block.set(index & (BLOCK_SIZE - 1), null);
+            }
+        }
+        reserved.set(0);
+    }
+}
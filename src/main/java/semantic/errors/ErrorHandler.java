@@ -1,38 +1,86 @@
 package semantic.errors;
 
-import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Diagnósticos de una compilación. Cada compilación crea el suyo y lo pasa a sus fases
+ * (ver pipeline.CompilerPipeline y CompilerMain); getInstance() es el que usan las fases
+ * que se crean sin uno, incluidos el Lexer de JFlex y MiParser de CUP si no se les
+ * asigna otro con setErrorHandler.
+ *
+ * Reportar no toma locks, así que el lexer, el parser y el análisis pueden reportar
+ * desde hilos distintos, y tampoco imprime ni formatea nada: el mensaje se arma
+ * recién cuando alguien lo lee. Solo el compartido imprime cada diagnóstico al
+ * llegar (ver setEcho).
+ */
 public class ErrorHandler {
+    public static final int DEFAULT_MAX_ERRORS = 1 << 16;
+    public static final int DEFAULT_MAX_WARNINGS = 1 << 16;
+
     private static ErrorHandler instance;
-    private List<CompilerError> errors;
-    private List<CompilerError> warnings;
-    private boolean hasErrors;
 
-    // Constructor privado para patrón Singleton
-    private ErrorHandler() {
-        this.errors = new ArrayList<>();
-        this.warnings = new ArrayList<>();
-        this.hasErrors = false;
+    private DiagnosticLog errors;
+    private DiagnosticLog warnings;
+    private volatile int errorLimit;        // 0 = sin límite
+    private volatile boolean echo;
+
+    public ErrorHandler() {
+        setLimits(DEFAULT_MAX_ERRORS, DEFAULT_MAX_WARNINGS);
     }
 
-    // Método para obtener la instancia única
-    public static ErrorHandler getInstance() {
+    // El compartido, que imprime cada diagnóstico al recibirlo
+    public static synchronized ErrorHandler getInstance() {
         if (instance == null) {
             instance = new ErrorHandler();
+            instance.setEcho(true);
         }
         return instance;
     }
 
+    /**
+     * Cuántos errores y advertencias se guardan; los que siguen solo se cuentan.
+     * Descarta lo reportado hasta ahora, así que se configura antes de compilar.
+     */
+    public void setLimits(int maxErrors, int maxWarnings) {
+        errors = new DiagnosticLog(maxErrors);
+        warnings = new DiagnosticLog(maxWarnings);
+    }
+
+    /**
+     * Al llegar a limit errores la compilación se aborta: el reporte que lo alcanza,
+     * y cualquier otro posterior, lanza CompilationAbortedException. 0 = sin límite.
+     */
+    public void setErrorLimit(int limit) {
+        errorLimit = limit;
+    }
+
+    public int getErrorLimit() {
+        return errorLimit;
+    }
+
+    /**
+     * Imprimir cada diagnóstico apenas se reporta, desde el hilo que lo reporta
+     */
+    public void setEcho(boolean enabled) {
+        echo = enabled;
+    }
+
     public void addError(CompilerError error) {
-        errors.add(error);
-        hasErrors = true;
-        System.err.println(error.toString());
+        int count = errors.append(error);
+        if (echo) {
+            System.err.println(error.toString());
+        }
+        int limit = errorLimit;
+        if (limit > 0 && count >= limit) {
+            throw new CompilationAbortedException(limit);
+        }
     }
 
     public void addWarning(CompilerError warning) {
-        warnings.add(warning);
-        System.out.println(warning.toString());
+        warnings.append(warning);
+        if (echo) {
+            System.out.println(warning.toString());
+        }
     }
 
     public void addLexicalError(int line, int column, String message) {
@@ -48,11 +96,25 @@ public class ErrorHandler {
         addError(new SemanticError(line, column, message));
     }
 
+    /**
+     * Error semántico con el mensaje sin formatear (ver String.format)
+     */
+    public void addSemanticError(int line, int column, String pattern, Object... arguments) {
+        addError(new SemanticError(line, column, pattern, arguments));
+    }
+
     // Agregar método para errores de tipos
     public void addTypeError(int line, int column, String message) {
         addError(new TypeError(line, column, message));
     }
 
+    /**
+     * Error de tipos con el mensaje sin formatear (ver String.format)
+     */
+    public void addTypeError(int line, int column, String pattern, Object... arguments) {
+        addError(new TypeError(line, column, pattern, arguments));
+    }
+
     // Método genérico para agregar cualquier tipo de error
     public void addError(int line, int column, String message, String errorType) {
         addError(new CompilerError(line, column, message, errorType));
@@ -63,33 +125,95 @@ public class ErrorHandler {
         addWarning(new CompilerError(line, column, message, "ADVERTENCIA"));
     }
 
+    /**
+     * Advertencia con el mensaje sin formatear (ver String.format)
+     */
+    public void addWarning(int line, int column, String pattern, Object... arguments) {
+        addWarning(new CompilerError(line, column, "ADVERTENCIA", pattern, arguments));
+    }
+
     public boolean hasErrors() {
-        return hasErrors;
+        return errors.count() > 0;
     }
 
+    /**
+     * Si se llegó al límite de errores (ver setErrorLimit)
+     */
+    public boolean isAborted() {
+        int limit = errorLimit;
+        return limit > 0 && errors.count() >= limit;
+    }
+
+    /**
+     * Los errores guardados, en el orden en que se reportaron
+     */
     public List<CompilerError> getErrors() {
-        return new ArrayList<>(errors);
+        return errors.snapshot();
     }
 
     public List<CompilerError> getWarnings() {
-        return new ArrayList<>(warnings);
+        return warnings.snapshot();
+    }
+
+    /**
+     * Errores reportados, incluso los que no se guardaron
+     */
+    public int getErrorCount() {
+        return errors.count();
+    }
+
+    public int getWarningCount() {
+        return warnings.count();
+    }
+
+    /**
+     * Diagnósticos que se contaron sin guardar por superar los límites (ver setLimits)
+     */
+    public int getDroppedCount() {
+        return errors.dropped() + warnings.dropped();
+    }
+
+    /**
+     * Cantidad de errores y advertencias reportados hasta ahora
+     */
+    public int getDiagnosticCount() {
+        return errors.count() + warnings.count();
+    }
+
+    /**
+     * Imprime los diagnósticos guardados: los errores a System.err y las advertencias a System.out
+     */
+    public void printDiagnostics() {
+        for (CompilerError error : getErrors()) {
+            System.err.println(error);
+        }
+        for (CompilerError warning : getWarnings()) {
+            System.out.println(warning);
+        }
     }
 
     public void printSummary() {
         System.out.println("\n========== Resumen de Compilación ==========");
-        System.out.println("Errores: " + errors.size());
-        System.out.println("Advertencias: " + warnings.size());
+        System.out.println("Errores: " + getErrorCount());
+        System.out.println("Advertencias: " + getWarningCount());
+        if (getDroppedCount() > 0) {
+            System.out.println("Sin guardar (límite alcanzado): " + getDroppedCount());
+        }
 
-        if (hasErrors) {
+        if (isAborted()) {
+            System.out.println("\n¡Compilación abortada al llegar a " + getErrorLimit() + " errores!");
+        } else if (hasErrors()) {
             System.out.println("\n¡Compilación fallida!");
         } else {
             System.out.println("\n¡Compilación exitosa!");
         }
     }
 
+    /**
+     * Vacía los diagnósticos para la próxima compilación; no puede correr mientras se reporta
+     */
     public void reset() {
         errors.clear();
         warnings.clear();
-        hasErrors = false;
     }
 }
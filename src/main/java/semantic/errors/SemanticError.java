@@ -4,4 +4,8 @@ public class SemanticError extends CompilerError {
     public SemanticError(int line, int column, String message) {
         super(line, column, message, "SEMANTIC ERROR");
     }
+
+    public SemanticError(int line, int column, String pattern, Object... arguments) {
+        super(line, column, "SEMANTIC ERROR", pattern, arguments);
+    }
 }
\ No newline at end of file
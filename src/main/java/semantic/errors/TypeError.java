@@ -4,4 +4,8 @@ public class TypeError extends CompilerError {
     public TypeError(int line, int column, String message) {
         super(line, column, message, "TYPE_ERROR");
     }
+
+    public TypeError(int line, int column, String pattern, Object... arguments) {
+        super(line, column, "TYPE_ERROR", pattern, arguments);
+    }
 }
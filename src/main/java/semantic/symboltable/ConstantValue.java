@@ -0,0 +1,86 @@
+package semantic.symboltable;
+
+/**
+ * Valor constante empaquetado en un long, para evaluar y guardar valores sin boxing:
+ * la etiqueta (entero o booleano) va en los 32 bits altos y el valor en los 32 bajos.
+ * UNKNOWN (0) es un valor que no se pudo calcular, lo que antes era null.
+ * Dos valores empaquetados son iguales si y solo si tienen la misma etiqueta y valor.
+ */
+public final class ConstantValue {
+    public static final long UNKNOWN = 0;
+
+    private static final long INT_TAG = 1L << 32;
+    private static final long BOOL_TAG = 2L << 32;
+    private static final long TAG_MASK = 0xFFFFFFFFL << 32;
+    private static final long VALUE_MASK = 0xFFFFFFFFL;
+
+    private ConstantValue() {
+    }
+
+    public static long ofInt(int value) {
+        return INT_TAG | (value & VALUE_MASK);
+    }
+
+    public static long ofBool(boolean value) {
+        return value ? BOOL_TAG | 1 : BOOL_TAG;
+    }
+
+    public static boolean isKnown(long value) {
+        return value != UNKNOWN;
+    }
+
+    public static boolean isInt(long value) {
+        return (value & TAG_MASK) == INT_TAG;
+    }
+
+    public static boolean isBool(long value) {
+        return (value & TAG_MASK) == BOOL_TAG;
+    }
+
+    public static int intValue(long value) {
+        return (int) value;
+    }
+
+    public static boolean boolValue(long value) {
+        return (int) value != 0;
+    }
+
+    /**
+     * Integer, Boolean, o null si es UNKNOWN
+     */
+    public static Object box(long value) {
+        if (isInt(value)) {
+            return intValue(value);
+        }
+        if (isBool(value)) {
+            return boolValue(value);
+        }
+        return null;
+    }
+
+    /**
+     * Empaqueta un Integer o un Boolean; cualquier otra cosa es UNKNOWN
+     */
+    public static long unbox(Object value) {
+        if (value instanceof Integer) {
+            return ofInt((Integer) value);
+        }
+        if (value instanceof Boolean) {
+            return ofBool((Boolean) value);
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Como String.valueOf del valor boxeado: "5", "true" o "null"
+     */
+    public static String toString(long value) {
+        if (isInt(value)) {
+            return Integer.toString(intValue(value));
+        }
+        if (isBool(value)) {
+            return Boolean.toString(boolValue(value));
+        }
+        return "null";
+    }
+}
@@ -0,0 +1,339 @@
+package semantic.symboltable;
+
+import ast.Type;
+
+import java.util.Arrays;
+
+/**
+ * Tabla de símbolos sin un objeto por scope. Cada nombre distinto tiene un id en una
+ * tabla de direccionamiento abierto, y por id se guarda el símbolo visible (el del
+ * scope más interno que lo declaró) y la profundidad de ese scope. Declarar anota en
+ * un registro de deshacer el símbolo que quedó tapado; salir de un scope desapila las
+ * anotaciones hechas desde que se entró, y cada nombre vuelve a ver el símbolo de afuera.
+ *
+ * Así lookup es una sola búsqueda en la tabla sin importar la profundidad, y entrar a
+ * un scope solo guarda una marca: no se crea un Scope, ni un mapa, ni el nombre con
+ * contador de ScopedSymbolTable (SymbolEntry.getScope() es el nombre pasado a enterScope).
+ * Los scopes se descartan siempre al salir.
+ */
+public class FlatSymbolTable implements SymbolTable {
+    // Pasada esta cantidad de nombres, clear() vacía también la tabla de nombres
+    private static final int MAX_RETAINED_NAMES = 4096;
+
+    // Tabla de direccionamiento abierto: id + 1 de cada nombre, 0 = libre
+    private int[] table;
+    private int mask;
+
+    // Por id de nombre
+    private String[] names;
+    private SymbolEntry[] visible;
+    private int[] visibleDepth;
+    private int nameCount;
+
+    // Registro de deshacer: el símbolo que tapó cada declaración
+    private int[] undoIds;
+    private SymbolEntry[] undoEntries;
+    private int[] undoDepths;
+    private int undoSize;
+
+    // Scopes abiertos: largo del registro al entrar y nombre; el 0 es el global
+    private int[] scopeMarks;
+    private String[] scopeNames;
+    private int depth;
+
+    private int currentStackOffset;
+    private int declaredSymbols;
+    private long bindingVersion;
+    private long valueVersion;
+
+    public FlatSymbolTable() {
+        this.table = new int[128];
+        this.mask = table.length - 1;
+        this.names = new String[64];
+        this.visible = new SymbolEntry[64];
+        this.visibleDepth = new int[64];
+        this.undoIds = new int[64];
+        this.undoEntries = new SymbolEntry[64];
+        this.undoDepths = new int[64];
+        this.scopeMarks = new int[16];
+        this.scopeNames = new String[16];
+        this.scopeNames[0] = "global";
+    }
+
+    // ========== STACK FRAME (CODEGEN) ==========
+
+    @Override
+    public int allocateStackSpace(int size) {
+        currentStackOffset += size;
+        return currentStackOffset;
+    }
+
+    @Override
+    public void resetStackOffset() {
+        currentStackOffset = 0;
+    }
+
+    @Override
+    public int getCurrentStackOffset() {
+        return currentStackOffset;
+    }
+
+    @Override
+    public boolean declareWithAddress(String name, Type type, String address, int size, boolean isGlobal) {
+        SymbolEntry entry = declareEntry(name, type, null, -1, -1);
+        if (entry == null) {
+            return false;
+        }
+        entry.setAddress(address);
+        entry.setSize(size);
+        entry.setGlobal(isGlobal);
+        return true;
+    }
+
+    @Override
+    public boolean declareWithAddress(String name, Type type, Object value, String address, int size, boolean isGlobal, int line, int column) {
+        SymbolEntry entry = declareEntry(name, type, value, line, column);
+        if (entry == null) {
+            return false;
+        }
+        entry.setAddress(address);
+        entry.setSize(size);
+        entry.setGlobal(isGlobal);
+        return true;
+    }
+
+    // ========== SCOPES ==========
+
+    @Override
+    public void enterScope(String scopeName) {
+        depth++;
+        if (depth == scopeMarks.length) {
+            scopeMarks = Arrays.copyOf(scopeMarks, depth * 2);
+            scopeNames = Arrays.copyOf(scopeNames, depth * 2);
+        }
+        scopeMarks[depth] = undoSize;
+        scopeNames[depth] = scopeName;
+    }
+
+    @Override
+    public boolean exitScope() {
+        if (depth == 0) {
+            return false;
+        }
+        int mark = scopeMarks[depth];
+        boolean declaredAny = undoSize > mark;
+        while (undoSize > mark) {
+            undoSize--;
+            int id = undoIds[undoSize];
+            visible[id] = undoEntries[undoSize];
+            visibleDepth[id] = undoDepths[undoSize];
+            undoEntries[undoSize] = null;
+        }
+        scopeNames[depth] = null;
+        depth--;
+        if (declaredAny) {
+            bindingChanged();
+        }
+        return true;
+    }
+
+    /**
+     * Los scopes se descartan siempre: no hay nada que configurar
+     */
+    @Override
+    public void setDiscardExitedScopes(boolean discard) {
+    }
+
+    @Override
+    public int getCurrentScopeLevel() {
+        return depth;
+    }
+
+    // ========== DECLARACIÓN Y BÚSQUEDA ==========
+
+    @Override
+    public boolean declare(String name, Type type) {
+        return declareEntry(name, type, null, -1, -1) != null;
+    }
+
+    @Override
+    public boolean declare(String name, Type type, int line, int column) {
+        return declareEntry(name, type, null, line, column) != null;
+    }
+
+    @Override
+    public boolean declare(String name, Type type, Object value, int line, int column) {
+        return declareEntry(name, type, value, line, column) != null;
+    }
+
+    /**
+     * @return la entrada declarada, o null si el nombre ya estaba en el scope actual
+     */
+    private SymbolEntry declareEntry(String name, Type type, Object value, int line, int column) {
+        int id = intern(name);
+        SymbolEntry previous = visible[id];
+        if (previous != null && visibleDepth[id] == depth) {
+            return null;
+        }
+
+        if (undoSize == undoIds.length) {
+            undoIds = Arrays.copyOf(undoIds, undoSize * 2);
+            undoEntries = Arrays.copyOf(undoEntries, undoSize * 2);
+            undoDepths = Arrays.copyOf(undoDepths, undoSize * 2);
+        }
+        undoIds[undoSize] = id;
+        undoEntries[undoSize] = previous;
+        undoDepths[undoSize] = visibleDepth[id];
+        undoSize++;
+
+        SymbolEntry entry = new SymbolEntry(name, type, value, line, column);
+        entry.setScope(scopeNames[depth]);
+        visible[id] = entry;
+        visibleDepth[id] = depth;
+        declaredSymbols++;
+        bindingChanged();
+        return entry;
+    }
+
+    @Override
+    public SymbolEntry lookup(String name) {
+        int id = find(name);
+        return id >= 0 ? visible[id] : null;
+    }
+
+    @Override
+    public SymbolEntry lookupLocal(String name) {
+        int id = find(name);
+        return id >= 0 && visibleDepth[id] == depth ? visible[id] : null;
+    }
+
+    @Override
+    public boolean assign(String name, Object value) {
+        SymbolEntry entry = lookup(name);
+        if (entry != null) {
+            entry.setValue(value);
+            valueVersion++;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void assign(SymbolEntry entry, long constant) {
+        entry.setConstant(constant);
+        valueVersion++;
+    }
+
+    // ========== TABLA DE NOMBRES ==========
+
+    /**
+     * Id del nombre, o -1 si nunca se declaró
+     */
+    private int find(String name) {
+        int index = hash(name) & mask;
+        while (true) {
+            int id = table[index] - 1;
+            if (id < 0) {
+                return -1;
+            }
+            String candidate = names[id];
+            if (candidate == name || candidate.equals(name)) {
+                return id;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * Id del nombre, agregándolo si es nuevo
+     */
+    private int intern(String name) {
+        int index = hash(name) & mask;
+        while (true) {
+            int id = table[index] - 1;
+            if (id < 0) {
+                break;
+            }
+            String candidate = names[id];
+            if (candidate == name || candidate.equals(name)) {
+                return id;
+            }
+            index = (index + 1) & mask;
+        }
+
+        int id = nameCount++;
+        if (id == names.length) {
+            names = Arrays.copyOf(names, id * 2);
+            visible = Arrays.copyOf(visible, id * 2);
+            visibleDepth = Arrays.copyOf(visibleDepth, id * 2);
+        }
+        names[id] = name;
+        table[index] = id + 1;
+        if (nameCount * 2 > table.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    private void rehash() {
+        table = new int[table.length * 2];
+        mask = table.length - 1;
+        for (int id = 0; id < nameCount; id++) {
+            int index = hash(names[id]) & mask;
+            while (table[index] != 0) {
+                index = (index + 1) & mask;
+            }
+            table[index] = id + 1;
+        }
+    }
+
+    private static int hash(String name) {
+        int h = name.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    // ========== VERSIONES ==========
+
+    private void bindingChanged() {
+        bindingVersion++;
+        valueVersion++;
+    }
+
+    @Override
+    public long getBindingVersion() {
+        return bindingVersion;
+    }
+
+    @Override
+    public long getValueVersion() {
+        return valueVersion;
+    }
+
+    @Override
+    public void printStatistics() {
+        System.out.println("\n" + "=".repeat(50));
+        System.out.println("ESTADISTICAS TABLA DE SIMBOLOS");
+        System.out.println("=".repeat(50));
+        System.out.println("Simbolos totales:       " + declaredSymbols);
+        System.out.println("=".repeat(50));
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(undoEntries, 0, undoSize, null);
+        Arrays.fill(scopeNames, 1, depth + 1, null);
+        undoSize = 0;
+        depth = 0;
+
+        Arrays.fill(visible, 0, nameCount, null);
+        if (nameCount > MAX_RETAINED_NAMES) {
+            Arrays.fill(table, 0);
+            Arrays.fill(names, 0, nameCount, null);
+            nameCount = 0;
+        }
+
+        currentStackOffset = 0;
+        declaredSymbols = 0;
+        bindingChanged();
+    }
+}
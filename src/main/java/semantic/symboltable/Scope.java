@@ -1,5 +1,7 @@
 package semantic.symboltable;
 
+import ast.Type;
+
 import java.util.*;
 
 /**
@@ -29,11 +31,23 @@ public class Scope {
         children.add(child);
     }
 
+    public void removeChild(Scope child) {
+        children.remove(child);
+    }
+
+    /**
+     * Quita los símbolos y los scopes hijos, conservando la capacidad reservada
+     */
+    public void clear() {
+        symbols.clear();
+        children.clear();
+    }
+
     /**
      * Declara un símbolo en este scope
      * @return true si se declaró exitosamente, false si ya existía
      */
-    public boolean declare(String name, String type, int line, int column) {
+    public boolean declare(String name, Type type, int line, int column) {
         if (symbols.containsKey(name)) {
             return false;
         }
@@ -46,7 +60,7 @@ public class Scope {
     /**
      * Declara un símbolo con valor inicial
      */
-    public boolean declare(String name, String type, Object value, int line, int column) {
+    public boolean declare(String name, Type type, Object value, int line, int column) {
         if (symbols.containsKey(name)) {
             return false;
         }
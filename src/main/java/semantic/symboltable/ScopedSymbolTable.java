@@ -0,0 +1,323 @@
+package semantic.symboltable;
+
+import ast.Type;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Tabla de símbolos principal que maneja múltiples scopes anidados.
+ * Proporciona operaciones para declarar, buscar y gestionar símbolos
+ * a través de diferentes niveles de scope.
+ * Cada scope es un Scope con su propio mapa, enganchado a su padre: una búsqueda
+ * recorre la cadena de padres (ver FlatSymbolTable para la alternativa de costo fijo).
+ */
+public class ScopedSymbolTable implements SymbolTable {
+    private Scope globalScope;
+    private Scope currentScope;
+    private int scopeCounter;
+    private int currentStackOffset; // Para tracking de offsets en stack frame
+    private boolean discardExitedScopes;    // No conservar los scopes de los que ya se salió
+    private int discardedSymbols;           // Símbolos de los scopes descartados (para estadísticas)
+    private long bindingVersion;            // Cambia cuando un nombre puede resolver a otro símbolo
+    private long valueVersion;              // Cambia además con cada asignación
+
+    public ScopedSymbolTable() {
+        this.globalScope = new Scope("global", null);
+        this.currentScope = globalScope;
+        this.scopeCounter = 0;
+        this.currentStackOffset = 0;
+    }
+
+    // Nuevos métodos para codegen
+    @Override
+    public int allocateStackSpace(int size) {
+        currentStackOffset += size;
+        return currentStackOffset;
+    }
+
+    @Override
+    public void resetStackOffset() {
+        currentStackOffset = 0;
+    }
+
+    @Override
+    public int getCurrentStackOffset() {
+        return currentStackOffset;
+    }
+
+    @Override
+    public boolean declareWithAddress(String name, Type type, String address, int size, boolean isGlobal) {
+        // Usamos el método existente declare para mantener la consistencia
+        if (!currentScope.declare(name, type, -1, -1)) {
+            return false;
+        }
+        bindingChanged();
+
+        // Luego actualizamos la entrada con la información de codegen
+        SymbolEntry entry = currentScope.lookup(name);
+        if (entry != null) {
+            entry.setAddress(address);
+            entry.setSize(size);
+            entry.setGlobal(isGlobal);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Declara un símbolo con información de dirección y valor inicial
+     */
+    @Override
+    public boolean declareWithAddress(String name, Type type, Object value, String address, int size, boolean isGlobal, int line, int column) {
+        if (!currentScope.declare(name, type, value, line, column)) {
+            return false;
+        }
+        bindingChanged();
+
+        SymbolEntry entry = currentScope.lookup(name);
+        if (entry != null) {
+            entry.setAddress(address);
+            entry.setSize(size);
+            entry.setGlobal(isGlobal);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Entra a un nuevo scope con el nombre especificado
+     */
+    @Override
+    public void enterScope(String scopeName) {
+        String fullName = scopeName + "_" + (++scopeCounter);
+        currentScope = new Scope(fullName, currentScope);
+    }
+
+    /**
+     * Sale del scope actual y retorna al scope padre
+     * @return true si se salió exitosamente, false si ya está en el scope global
+     */
+    @Override
+    public boolean exitScope() {
+        if (currentScope.getParent() == null) {
+            return false;
+        }
+        Scope exited = currentScope;
+        currentScope = currentScope.getParent();
+        if (exited.getSymbolCount() > 0) {
+            bindingChanged();
+        }
+        if (discardExitedScopes) {
+            discardedSymbols += countSymbols(exited);
+            currentScope.removeChild(exited);
+        }
+        return true;
+    }
+
+    /**
+     * Descarta cada scope al salir de él, en lugar de conservar el árbol completo.
+     * La memoria queda acotada por los scopes abiertos y no por el largo del programa.
+     */
+    @Override
+    public void setDiscardExitedScopes(boolean discard) {
+        this.discardExitedScopes = discard;
+    }
+
+    /**
+     * Declara una variable en el scope actual sin valor inicial
+     */
+    @Override
+    public boolean declare(String name, Type type) {
+        return declared(currentScope.declare(name, type, -1, -1));
+    }
+
+    /**
+     * Declara una variable en el scope actual con información de línea y columna
+     */
+    @Override
+    public boolean declare(String name, Type type, int line, int column) {
+        return declared(currentScope.declare(name, type, line, column));
+    }
+
+    /**
+     * Declara una variable en el scope actual con valor inicial
+     */
+    @Override
+    public boolean declare(String name, Type type, Object value, int line, int column) {
+        return declared(currentScope.declare(name, type, value, line, column));
+    }
+
+    private boolean declared(boolean success) {
+        if (success) {
+            bindingChanged();
+        }
+        return success;
+    }
+
+    private void bindingChanged() {
+        bindingVersion++;
+        valueVersion++;
+    }
+
+    /**
+     * Versión de la resolución de nombres: mientras no cambie, cada nombre resuelve
+     * al mismo símbolo (con el mismo tipo). Sirve para memoizar tipos de expresiones.
+     */
+    @Override
+    public long getBindingVersion() {
+        return bindingVersion;
+    }
+
+    /**
+     * Versión de los valores: mientras no cambie, tampoco cambió el valor de ningún símbolo
+     */
+    @Override
+    public long getValueVersion() {
+        return valueVersion;
+    }
+
+    /**
+     * Busca un símbolo en el scope actual y en los scopes padre (búsqueda jerárquica)
+     */
+    @Override
+    public SymbolEntry lookup(String name) {
+        Scope scope = currentScope;
+        while (scope != null) {
+            SymbolEntry entry = scope.lookup(name);
+            if (entry != null) {
+                return entry;
+            }
+            scope = scope.getParent();
+        }
+        return null;
+    }
+
+    /**
+     * Busca un símbolo solo en el scope actual (búsqueda local)
+     */
+    @Override
+    public SymbolEntry lookupLocal(String name) {
+        return currentScope.lookup(name);
+    }
+
+    /**
+     * Asigna un valor a una variable existente
+     * @return true si se asignó exitosamente, false si la variable no existe
+     */
+    @Override
+    public boolean assign(String name, Object value) {
+        SymbolEntry entry = lookup(name);
+        if (entry != null) {
+            entry.setValue(value);
+            valueVersion++;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void assign(SymbolEntry entry, long constant) {
+        entry.setConstant(constant);
+        valueVersion++;
+    }
+
+    // Getters para información del scope
+    public Scope getCurrentScope() {
+        return currentScope;
+    }
+
+    public Scope getGlobalScope() {
+        return globalScope;
+    }
+
+    @Override
+    public int getCurrentScopeLevel() {
+        return currentScope.getLevel();
+    }
+
+    /**
+     * Imprime la tabla de símbolos completa de forma jerárquica
+     */
+    /*public void printSymbolTable() {
+        System.out.println("\n" + "=".repeat(50));
+        System.out.println("SYMBOL TABLE");
+        System.out.println("=".repeat(50));
+        printScope(globalScope, 0);
+        System.out.println("=".repeat(50));
+    }
+
+    private void printScope(Scope scope, int indent) {
+        String indentation = "  ".repeat(indent);
+        System.out.println(indentation + "├─ " + scope);
+
+        for (SymbolEntry entry : scope.getSymbols()) {
+            System.out.println(indentation + "│  └─ " + entry);
+        }
+
+        for (Scope child : scope.getChildren()) {
+            printScope(child, indent + 1);
+        }
+    }*/
+
+    /**
+     * Imprime estadísticas de la tabla de símbolos
+     */
+    @Override
+    public void printStatistics() {
+        int totalSymbols = countSymbols(globalScope) + discardedSymbols;
+        int totalScopes = countScopes(globalScope);
+
+        System.out.println("\n" + "=".repeat(50));
+        System.out.println("ESTADISTICAS TABLA DE SIMBOLOS");
+        System.out.println("=".repeat(50));
+        //System.out.println("Total scopes:        " + totalScopes);
+        System.out.println("Simbolos totales:       " + totalSymbols);
+        //System.out.println("Current scope:       " + currentScope.getScopeName());
+        //System.out.println("Current scope level: " + currentScope.getLevel());
+        System.out.println("=".repeat(50));
+    }
+
+    // Los scopes se recorren con una pila explícita: el anidamiento no tiene límite de profundidad
+    private int countSymbols(Scope scope) {
+        int count = 0;
+        Deque<Scope> pending = new ArrayDeque<>();
+        pending.push(scope);
+        while (!pending.isEmpty()) {
+            Scope current = pending.pop();
+            count += current.getSymbolCount();
+            for (Scope child : current.getChildren()) {
+                pending.push(child);
+            }
+        }
+        return count;
+    }
+
+    private int countScopes(Scope scope) {
+        int count = 0;
+        Deque<Scope> pending = new ArrayDeque<>();
+        pending.push(scope);
+        while (!pending.isEmpty()) {
+            Scope current = pending.pop();
+            count++;
+            for (Scope child : current.getChildren()) {
+                pending.push(child);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Limpia completamente la tabla de símbolos.
+     * El scope global se vacía y se reutiliza en lugar de crear uno nuevo.
+     */
+    @Override
+    public void clear() {
+        globalScope.clear();
+        this.currentScope = globalScope;
+        this.scopeCounter = 0;
+        this.currentStackOffset = 0;
+        this.discardedSymbols = 0;
+        bindingChanged();
+    }
+}
\ No newline at end of file
@@ -1,5 +1,7 @@
 package semantic.symboltable;
 
+import ast.Type;
+
 /**
  * Entrada en la tabla de símbolos que representa un símbolo individual.
  * Contiene información sobre nombre, tipo, valor, estado de inicialización
@@ -7,30 +9,31 @@ package semantic.symboltable;
  */
 public class SymbolEntry {
     private String name;
-    private String type;
-    private Object value;
+    private Type type;
+    private long value;            // Valor empaquetado (ver ConstantValue), sin boxing
     private boolean isInitialized;
     private int declarationLine;
     private int declarationColumn;
     private String scope;
     private String address;        // Dirección en memoria (ej: "[rbp-8]")
     private int stackOffset;       // Offset en stack frame
+    private int slot = -1;         // Slot en la función (ver ast.nodes.expression.VariableNode.getSlot)
     private boolean isGlobal;      // Si es variable global
     private int size;              // Tamaño en bytes
 
-    public SymbolEntry(String name, String type, int line, int column) {
+    public SymbolEntry(String name, Type type, int line, int column) {
         this.name = name;
         this.type = type;
-        this.value = null;
+        this.value = ConstantValue.UNKNOWN;
         this.isInitialized = false;
         this.declarationLine = line;
         this.declarationColumn = column;
     }
 
-    public SymbolEntry(String name, String type, Object value, int line, int column) {
+    public SymbolEntry(String name, Type type, Object value, int line, int column) {
         this.name = name;
         this.type = type;
-        this.value = value;
+        this.value = ConstantValue.unbox(value);
         this.isInitialized = (value != null);
         this.declarationLine = line;
         this.declarationColumn = column;
@@ -41,11 +44,21 @@ public class SymbolEntry {
         return name;
     }
 
-    public String getType() {
+    public Type getType() {
         return type;
     }
 
+    /**
+     * Valor boxeado (Integer, Boolean o null); getConstant lo da sin reservar memoria
+     */
     public Object getValue() {
+        return ConstantValue.box(value);
+    }
+
+    /**
+     * Valor empaquetado (ver ConstantValue), UNKNOWN si no se conoce
+     */
+    public long getConstant() {
         return value;
     }
 
@@ -67,6 +80,11 @@ public class SymbolEntry {
 
     // Setters
     public void setValue(Object value) {
+        this.value = ConstantValue.unbox(value);
+        this.isInitialized = true;
+    }
+
+    public void setConstant(long value) {
         this.value = value;
         this.isInitialized = true;
     }
@@ -85,6 +103,9 @@ public class SymbolEntry {
     public int getStackOffset() { return stackOffset; }
     public void setStackOffset(int stackOffset) { this.stackOffset = stackOffset; }
 
+    public int getSlot() { return slot; }
+    public void setSlot(int slot) { this.slot = slot; }
+
     public boolean isGlobal() { return isGlobal; }
     public void setGlobal(boolean global) { isGlobal = global; }
 
@@ -93,13 +114,13 @@ public class SymbolEntry {
     @Override
     public String toString() {
         return String.format("Symbol{name='%s', type='%s', value=%s, initialized=%b, line=%d, col=%d}",
-                name, type, value, isInitialized, declarationLine, declarationColumn);
+                name, type, ConstantValue.toString(value), isInitialized, declarationLine, declarationColumn);
     }
 
     /**
      * Formato resumido para debugging
      */
     public String toShortString() {
-        return String.format("%s:%s=%s", name, type, isInitialized ? value : "uninitialized");
+        return String.format("%s:%s=%s", name, type, isInitialized ? ConstantValue.toString(value) : "uninitialized");
     }
 }
\ No newline at end of file
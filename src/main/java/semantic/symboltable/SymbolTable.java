@@ -1,264 +1,145 @@
 package semantic.symboltable;
 
+import ast.Type;
+
 /**
- * Tabla de símbolos principal que maneja múltiples scopes anidados.
- * Proporciona operaciones para declarar, buscar y gestionar símbolos
- * a través de diferentes niveles de scope.
+ * Tabla de símbolos con scopes anidados, tal como la usan el SemanticAnalyzer,
+ * el ExpressionEvaluator y el CodeGenerator. Hay dos implementaciones:
+ * ScopedSymbolTable, con un Scope por nivel enganchado a su padre, y
+ * FlatSymbolTable, con una única tabla de nombres y un registro para deshacer
+ * las declaraciones de cada scope al salir.
  */
-public class SymbolTable {
-    private Scope globalScope;
-    private Scope currentScope;
-    private int scopeCounter;
-    private int currentStackOffset; // Para tracking de offsets en stack frame
+public interface SymbolTable {
 
-    public SymbolTable() {
-        this.globalScope = new Scope("global", null);
-        this.currentScope = globalScope;
-        this.scopeCounter = 0;
-        this.currentStackOffset = 0;
-    }
+    // ========== STACK FRAME (CODEGEN) ==========
 
-    // Nuevos métodos para codegen
-    public int allocateStackSpace(int size) {
-        currentStackOffset += size;
-        return currentStackOffset;
-    }
+    int allocateStackSpace(int size);
 
-    public void resetStackOffset() {
-        currentStackOffset = 0;
-    }
+    void resetStackOffset();
 
-    public int getCurrentStackOffset() {
-        return currentStackOffset;
-    }
-
-    public boolean declareWithAddress(String name, String type, String address, int size, boolean isGlobal) {
-        // Usamos el método existente declare para mantener la consistencia
-        if (!currentScope.declare(name, type, -1, -1)) {
-            return false;
-        }
+    int getCurrentStackOffset();
 
-        // Luego actualizamos la entrada con la información de codegen
-        SymbolEntry entry = currentScope.lookup(name);
-        if (entry != null) {
-            entry.setAddress(address);
-            entry.setSize(size);
-            entry.setGlobal(isGlobal);
-            return true;
-        }
-        return false;
-    }
+    /**
+     * Declara en el scope actual un símbolo con su dirección de codegen
+     * @return false si ya existía en el scope actual
+     */
+    boolean declareWithAddress(String name, Type type, String address, int size, boolean isGlobal);
 
     /**
      * Declara un símbolo con información de dirección y valor inicial
      */
-    public boolean declareWithAddress(String name, String type, Object value, String address, int size, boolean isGlobal, int line, int column) {
-        if (!currentScope.declare(name, type, value, line, column)) {
-            return false;
-        }
+    boolean declareWithAddress(String name, Type type, Object value, String address, int size, boolean isGlobal, int line, int column);
 
-        SymbolEntry entry = currentScope.lookup(name);
-        if (entry != null) {
-            entry.setAddress(address);
-            entry.setSize(size);
-            entry.setGlobal(isGlobal);
-            return true;
-        }
-        return false;
-    }
+    // ========== SCOPES ==========
 
     /**
      * Entra a un nuevo scope con el nombre especificado
      */
-    public void enterScope(String scopeName) {
-        String fullName = scopeName + "_" + (++scopeCounter);
-        currentScope = new Scope(fullName, currentScope);
-    }
+    void enterScope(String scopeName);
 
     /**
      * Sale del scope actual y retorna al scope padre
      * @return true si se salió exitosamente, false si ya está en el scope global
      */
-    public boolean exitScope() {
-        if (currentScope.getParent() == null) {
-            return false;
-        }
-        currentScope = currentScope.getParent();
-        return true;
-    }
+    boolean exitScope();
+
+    /**
+     * No conservar los scopes de los que ya se salió (solo afecta a las estadísticas
+     * cuando la implementación nunca los conserva)
+     */
+    void setDiscardExitedScopes(boolean discard);
+
+    int getCurrentScopeLevel();
+
+    // ========== DECLARACIÓN Y BÚSQUEDA ==========
 
     /**
      * Declara una variable en el scope actual sin valor inicial
+     * @return false si ya existía en el scope actual
      */
-    public boolean declare(String name, String type) {
-        return currentScope.declare(name, type, -1, -1);
-    }
+    boolean declare(String name, Type type);
 
     /**
      * Declara una variable en el scope actual con información de línea y columna
      */
-    public boolean declare(String name, String type, int line, int column) {
-        return currentScope.declare(name, type, line, column);
-    }
+    boolean declare(String name, Type type, int line, int column);
 
     /**
      * Declara una variable en el scope actual con valor inicial
      */
-    public boolean declare(String name, String type, Object value, int line, int column) {
-        return currentScope.declare(name, type, value, line, column);
-    }
+    boolean declare(String name, Type type, Object value, int line, int column);
 
     /**
-     * Busca un símbolo en el scope actual y en los scopes padre (búsqueda jerárquica)
+     * Busca un símbolo en el scope actual y en los que lo contienen
+     * @return null si no está declarado
      */
-    public SymbolEntry lookup(String name) {
-        Scope scope = currentScope;
-        while (scope != null) {
-            SymbolEntry entry = scope.lookup(name);
-            if (entry != null) {
-                return entry;
-            }
-            scope = scope.getParent();
-        }
-        return null;
-    }
+    SymbolEntry lookup(String name);
 
     /**
-     * Busca un símbolo solo en el scope actual (búsqueda local)
+     * Busca un símbolo solo en el scope actual
      */
-    public SymbolEntry lookupLocal(String name) {
-        return currentScope.lookup(name);
-    }
+    SymbolEntry lookupLocal(String name);
 
     /**
-     * Verifica si un símbolo existe (búsqueda jerárquica)
+     * Asigna un valor a una variable existente
+     * @return true si se asignó exitosamente, false si la variable no existe
      */
-    public boolean exists(String name) {
-        return lookup(name) != null;
-    }
+    boolean assign(String name, Object value);
 
     /**
-     * Verifica si un símbolo existe en el scope actual (búsqueda local)
+     * Asigna un valor empaquetado (ver ConstantValue) a un símbolo ya buscado, sin boxing
      */
-    public boolean existsLocal(String name) {
-        return lookupLocal(name) != null;
+    void assign(SymbolEntry entry, long constant);
+
+    default boolean exists(String name) {
+        return lookup(name) != null;
     }
 
-    /**
-     * Asigna un valor a una variable existente
-     * @return true si se asignó exitosamente, false si la variable no existe
-     */
-    public boolean assign(String name, Object value) {
-        SymbolEntry entry = lookup(name);
-        if (entry != null) {
-            entry.setValue(value);
-            return true;
-        }
-        return false;
+    default boolean existsLocal(String name) {
+        return lookupLocal(name) != null;
     }
 
     /**
-     * Obtiene el valor de una variable
      * @return el valor de la variable, o null si no existe
      */
-    public Object getValue(String name) {
+    default Object getValue(String name) {
         SymbolEntry entry = lookup(name);
         return entry != null ? entry.getValue() : null;
     }
 
     /**
-     * Obtiene el tipo de una variable
      * @return el tipo de la variable, o null si no existe
      */
-    public String getType(String name) {
+    default Type getType(String name) {
         SymbolEntry entry = lookup(name);
         return entry != null ? entry.getType() : null;
     }
 
-    /**
-     * Verifica si una variable está inicializada
-     */
-    public boolean isInitialized(String name) {
+    default boolean isInitialized(String name) {
         SymbolEntry entry = lookup(name);
         return entry != null && entry.isInitialized();
     }
 
-    // Getters para información del scope
-    public Scope getCurrentScope() {
-        return currentScope;
-    }
-
-    public Scope getGlobalScope() {
-        return globalScope;
-    }
-
-    public int getCurrentScopeLevel() {
-        return currentScope.getLevel();
-    }
+    // ========== VERSIONES ==========
 
     /**
-     * Imprime la tabla de símbolos completa de forma jerárquica
+     * Versión de la resolución de nombres: mientras no cambie, cada nombre resuelve
+     * al mismo símbolo (con el mismo tipo). Sirve para memoizar tipos de expresiones.
      */
-    /*public void printSymbolTable() {
-        System.out.println("\n" + "=".repeat(50));
-        System.out.println("SYMBOL TABLE");
-        System.out.println("=".repeat(50));
-        printScope(globalScope, 0);
-        System.out.println("=".repeat(50));
-    }
-
-    private void printScope(Scope scope, int indent) {
-        String indentation = "  ".repeat(indent);
-        System.out.println(indentation + "├─ " + scope);
-
-        for (SymbolEntry entry : scope.getSymbols()) {
-            System.out.println(indentation + "│  └─ " + entry);
-        }
+    long getBindingVersion();
 
-        for (Scope child : scope.getChildren()) {
-            printScope(child, indent + 1);
-        }
-    }*/
+    /**
+     * Versión de los valores: mientras no cambie, tampoco cambió el valor de ningún símbolo
+     */
+    long getValueVersion();
 
     /**
      * Imprime estadísticas de la tabla de símbolos
      */
-    public void printStatistics() {
-        int totalSymbols = countSymbols(globalScope);
-        int totalScopes = countScopes(globalScope);
-
-        System.out.println("\n" + "=".repeat(50));
-        System.out.println("ESTADISTICAS TABLA DE SIMBOLOS");
-        System.out.println("=".repeat(50));
-        //System.out.println("Total scopes:        " + totalScopes);
-        System.out.println("Simbolos totales:       " + totalSymbols);
-        //System.out.println("Current scope:       " + currentScope.getScopeName());
-        //System.out.println("Current scope level: " + currentScope.getLevel());
-        System.out.println("=".repeat(50));
-    }
-
-    private int countSymbols(Scope scope) {
-        int count = scope.getSymbolCount();
-        for (Scope child : scope.getChildren()) {
-            count += countSymbols(child);
-        }
-        return count;
-    }
-
-    private int countScopes(Scope scope) {
-        int count = 1;
-        for (Scope child : scope.getChildren()) {
-            count += countScopes(child);
-        }
-        return count;
-    }
+    void printStatistics();
 
     /**
-     * Limpia completamente la tabla de símbolos
+     * Vacía la tabla para reutilizarla, conservando la capacidad reservada
      */
-    public void clear() {
-        this.globalScope = new Scope("global", null);
-        this.currentScope = globalScope;
-        this.scopeCounter = 0;
-    }
-}
\ No newline at end of file
+    void clear();
+}